@@ -26,6 +26,7 @@ public class DigestingAutoDetectParserFactory extends ParserFactory {
 
     private DigestingParser.Digester digester = null;
 
+    private boolean digestInline = false;
 
     @Override
     public Parser getParser(TikaConfig config) {
@@ -33,11 +34,19 @@ public class DigestingAutoDetectParserFactory extends ParserFactory {
         if (digester == null) {
             return p;
         }
-        DigestingParser d = new DigestingParser(p, digester);
+        DigestingParser d = new DigestingParser(p, digester, digestInline);
         return d;
     }
 
     public void setDigester(DigestingParser.Digester digester) {
         this.digester = digester;
     }
+
+    /**
+     * @param digestInline whether to digest streams that aren't backed by a file
+     *                     while they're parsed, rather than up front
+     */
+    public void setDigestInline(boolean digestInline) {
+        this.digestInline = digestInline;
+    }
 }
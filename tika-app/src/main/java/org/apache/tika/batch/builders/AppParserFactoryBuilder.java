@@ -51,6 +51,10 @@ public class AppParserFactoryBuilder implements IParserFactoryBuilder {
         if (pf instanceof DigestingAutoDetectParserFactory) {
             DigestingParser.Digester d = buildDigester(localAttrs);
             ((DigestingAutoDetectParserFactory)pf).setDigester(d);
+            if (localAttrs.containsKey("digestInline")) {
+                ((DigestingAutoDetectParserFactory)pf).setDigestInline(
+                        Boolean.parseBoolean(localAttrs.get("digestInline")));
+            }
         }
         return pf;
     }
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.batch;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.tika.metadata.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of the files that a batch run has started, finished,
+ * failed on or aborted, so that a restarted or rerun batch process can skip
+ * the files that have already been dealt with, without looking at the output.
+ * <p>
+ * Each entry is one line: the type of the entry, the size and the last
+ * modified time of the file, and its resource id.  A file that has changed
+ * since it was journaled therefore counts as a new file.  Each entry is
+ * handed to the operating system as soon as it is written, so the journal
+ * survives the process being killed; a line that was cut short is dropped
+ * when the journal is opened again.
+ * <p>
+ * When the journal is opened, it is read back into a set of 64 bit hashes
+ * of the files that are done, which takes a few bytes per file.  A file is
+ * done once it has been finished, or once it has failed, which means that it
+ * was identified as having timed out or run out of memory.  A file that was
+ * aborted by a shutdown, or that was started but has no later entry because
+ * the process went away, is not done, and it is processed again.
+ * <p>
+ * This class is thread safe.
+ */
+public class BatchJournal implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchJournal.class);
+
+    private static final char STARTED = 'S';
+
+    private static final char FINISHED = 'F';
+
+    private static final char FAILED = 'X';
+
+    private static final char ABORTED = 'A';
+
+    private final FileChannel channel;
+
+    //files that were finished or failed on, in this or an earlier run
+    private final LongSet done;
+
+    //number of files that were done before this run
+    private final int resumed;
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * Opens the journal, and reads it back if it exists.
+     *
+     * @param path journal file; it is created if it does not exist
+     * @return the journal
+     * @throws IOException if the journal can't be read or written
+     */
+    public static BatchJournal open(Path path) throws IOException {
+        Map<Long, String> open = new HashMap<>();
+        LongSet done = new LongSet();
+        long validLength = 0;
+        if (Files.exists(path)) {
+            validLength = replay(path, done, open);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BatchJournal journal;
+        try {
+            //drop a line that was cut short by a crash
+            channel.truncate(validLength);
+            channel.position(validLength);
+            journal = new BatchJournal(channel, done, open);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (journal.resumed > 0) {
+            LOG.info("Journal {} has {} files that were already processed",
+                    path.toAbsolutePath(), journal.resumed);
+        }
+        return journal;
+    }
+
+    private BatchJournal(FileChannel channel, LongSet done, Map<Long, String> open) {
+        this.channel = channel;
+        this.done = done;
+        for (String key : open.values()) {
+            LOG.info("{} was started by an earlier run, but it was not finished. " +
+                    "It will be processed again.", parseResourceId(key));
+        }
+        this.resumed = done.size();
+    }
+
+    /**
+     * @param resource file resource
+     * @return whether the file was finished or failed on, in this or an earlier run
+     */
+    public synchronized boolean isDone(FileResource resource) {
+        return done.contains(hash(key(resource)));
+    }
+
+    /**
+     * Records that processing of the file has started.
+     */
+    public void started(FileResource resource) throws IOException {
+        append(STARTED, key(resource));
+    }
+
+    /**
+     * Records that the file has been processed.
+     */
+    public void finished(FileResource resource) throws IOException {
+        String key = key(resource);
+        synchronized (this) {
+            done.add(hash(key));
+        }
+        append(FINISHED, key);
+    }
+
+    /**
+     * Records that processing of the file has failed, because it timed out
+     * or ran out of memory.  The file is not processed again.
+     */
+    public void failed(FileResource resource) throws IOException {
+        String key = key(resource);
+        synchronized (this) {
+            done.add(hash(key));
+        }
+        append(FAILED, key);
+    }
+
+    /**
+     * Records that processing of the file was stopped before it was done,
+     * e.g. by a shutdown.  The file is processed again by a later run.
+     */
+    public void aborted(FileResource resource) throws IOException {
+        append(ABORTED, key(resource));
+    }
+
+    /**
+     * @return number of files that were finished or failed on
+     * before this run
+     */
+    public int getResumed() {
+        return resumed;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private synchronized void append(char type, String key) throws IOException {
+        line.setLength(0);
+        line.append(type).append('\t').append(key).append('\n');
+        ByteBuffer buffer = UTF_8.encode(line.toString());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads the journal back.
+     *
+     * @return length of the journal up to the end of its last complete line
+     */
+    private static long replay(Path path, LongSet done, Map<Long, String> open)
+            throws IOException {
+        long length = 0;
+        try (InputStream is = Files.newInputStream(path)) {
+            byte[] buffer = new byte[64 * 1024];
+            ByteArrayOutputStream entry = new ByteArrayOutputStream(256);
+            int n = is.read(buffer);
+            while (n > -1) {
+                int start = 0;
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] == '\n') {
+                        entry.write(buffer, start, i - start);
+                        length += entry.size() + 1;
+                        replay(new String(entry.toByteArray(), UTF_8), done, open);
+                        entry.reset();
+                        start = i + 1;
+                    }
+                }
+                entry.write(buffer, start, n - start);
+                n = is.read(buffer);
+            }
+        }
+        return length;
+    }
+
+    private static void replay(String entry, LongSet done, Map<Long, String> open) {
+        if (entry.length() < 2 || entry.charAt(1) != '\t') {
+            LOG.warn("Skipping malformed journal entry: {}", entry);
+            return;
+        }
+        String key = entry.substring(2);
+        long hash = hash(key);
+        switch (entry.charAt(0)) {
+            case STARTED:
+                open.put(hash, key);
+                break;
+            case FINISHED:
+            case FAILED:
+                open.remove(hash);
+                done.add(hash);
+                break;
+            case ABORTED:
+                open.remove(hash);
+                break;
+            default:
+                LOG.warn("Skipping malformed journal entry: {}", entry);
+        }
+    }
+
+    private static long hash(String key) {
+        //FNV-1a, then a final mix so that the low bits are usable as a table index
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static String key(FileResource resource) {
+        Metadata metadata = resource.getMetadata();
+        String size = metadata.get(Metadata.CONTENT_LENGTH);
+        String lastModified = metadata.get(FileResource.LAST_MODIFIED);
+        return (size == null ? "-1" : size) + '\t' +
+                (lastModified == null ? "-1" : lastModified) + '\t' +
+                escape(resource.getResourceId());
+    }
+
+    private static String parseResourceId(String key) {
+        //size and last modified come before the resource id
+        return key.substring(key.indexOf('\t', key.indexOf('\t') + 1) + 1);
+    }
+
+    //keep each entry on one line
+    private static String escape(String resourceId) {
+        if (resourceId.indexOf('\n') < 0 && resourceId.indexOf('\r') < 0) {
+            return resourceId;
+        }
+        return resourceId.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    /**
+     * Open addressing hash set of longs.
+     */
+    private static class LongSet {
+
+        private long[] table = new long[1024];
+
+        private boolean hasZero = false;
+
+        private int size = 0;
+
+        void add(long value) {
+            if (value == 0) {
+                if (!hasZero) {
+                    hasZero = true;
+                    size++;
+                }
+                return;
+            }
+            if (insert(table, value)) {
+                size++;
+                if (size > table.length * 3 / 4) {
+                    long[] bigger = new long[table.length * 2];
+                    for (long v : table) {
+                        if (v != 0) {
+                            insert(bigger, v);
+                        }
+                    }
+                    table = bigger;
+                }
+            }
+        }
+
+        boolean contains(long value) {
+            if (value == 0) {
+                return hasZero;
+            }
+            int mask = table.length - 1;
+            int slot = (int) value & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == value) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private static boolean insert(long[] table, long value) {
+            int mask = table.length - 1;
+            int slot = (int) value & mask;
+            while (table[slot] != 0) {
+                if (table[slot] == value) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = value;
+            return true;
+        }
+    }
+}
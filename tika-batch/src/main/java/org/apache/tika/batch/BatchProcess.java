@@ -96,6 +96,8 @@ public class BatchProcess implements Callable<ParallelFileProcessingResult> {
 
     private final Interrupter interrupter;
 
+    private BatchJournal journal = null;
+
     private final ArrayBlockingQueue<FileStarted> timedOuts;
 
     private boolean alreadyExecuted = false;
@@ -166,7 +168,11 @@ public class BatchProcess implements Callable<ParallelFileProcessingResult> {
             State state = mainLoop(completionService, timeoutChecker);
             result = shutdown(ex, completionService, timeoutChecker, state);
         } finally {
-            shutdownConsumersManager();
+            try {
+                shutdownConsumersManager();
+            } finally {
+                closeJournal();
+            }
         }
         LOG.trace("finishing up");
         return result;
@@ -451,6 +457,17 @@ public class BatchProcess implements Callable<ParallelFileProcessingResult> {
         }
     }
 
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOG.warn("couldn't close journal", e);
+        }
+    }
+
     private boolean isNonRestart(Throwable e) {
         if (e instanceof BatchNoRestartError) {
             return true;
@@ -553,6 +570,23 @@ public class BatchProcess implements Callable<ParallelFileProcessingResult> {
         this.maxAliveTimeSeconds = maxAliveTimeSeconds;
     }
 
+    /**
+     * Sets the journal that the crawler and the consumers use to skip
+     * files that have already been processed.  This process closes
+     * the journal when it is done.
+     * <p/>
+     * The journal is set on the crawler and on the consumers.
+     *
+     * @param journal journal to use
+     */
+    public void setJournal(BatchJournal journal) {
+        this.journal = journal;
+        fileResourceCrawler.setJournal(journal);
+        for (FileResourceConsumer consumer : consumersManager.getConsumers()) {
+            consumer.setJournal(journal);
+        }
+    }
+
     private class TimeoutChecker implements Callable<IFileProcessorFutureResult> {
         @Override
         public TimeoutFutureResult call() throws Exception {
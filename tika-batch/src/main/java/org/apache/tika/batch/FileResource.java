@@ -36,6 +36,10 @@ public interface FileResource {
   //have any relationship to the actual type of the file.
   public static final Property FILE_EXTENSION = Property.internalText("tika:file_ext");
 
+  //Last modified time of a file in milliseconds since the epoch, if known.
+  //Together with the size, this tells whether a file has changed.
+  public static final Property LAST_MODIFIED = Property.internalText("tika:file_last_modified");
+
   /**
    * This is only used in logging to identify which file
    * may have caused problems.  While it is probably best
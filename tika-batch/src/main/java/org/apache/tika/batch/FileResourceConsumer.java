@@ -24,7 +24,7 @@ import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Date;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -63,6 +63,13 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
         COMPLETED
     }
 
+    private enum JOURNAL_ENTRY {
+        STARTED,
+        FINISHED,
+        FAILED, //timed out or ran out of memory; not retried
+        ABORTED //stopped by a shutdown or a crash; retried
+    }
+
     public static String TIMED_OUT = "timed_out";
     public static String OOM = "oom";
     public static String IO_IS = "io_on_inputstream";
@@ -76,10 +83,12 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
 
     private long maxConsecWaitInMillis = 10*60*1000;// 10 minutes
 
-    private final ArrayBlockingQueue<FileResource> fileQueue;
+    private final BlockingQueue<FileResource> fileQueue;
 
     private final int consumerId;
 
+    private BatchJournal journal = null;
+
     //used to lock checks on state to prevent
     private final Object lock = new Object();
 
@@ -88,6 +97,9 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
     //no need for volatile because of lock for checkForStales
     private FileStarted currentFile = null;
 
+    //the resource behind currentFile, so that a time out can be journaled
+    private volatile FileResource currentFileResource = null;
+
     //total number of files consumed; volatile so that reporter
     //sees the latest
     private volatile int numResourcesConsumed = 0;
@@ -100,7 +112,7 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
     //this should only be set by setEndedState.
     private volatile STATE currentState = STATE.NOT_YET_STARTED;
 
-    public FileResourceConsumer(ArrayBlockingQueue<FileResource> fileQueue) {
+    public FileResourceConsumer(BlockingQueue<FileResource> fileQueue) {
         this.fileQueue = fileQueue;
         consumerId = numConsumers.incrementAndGet();
     }
@@ -112,7 +124,14 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
             FileResource fileResource = getNextFileResource();
             while (fileResource != null) {
                 LOG.trace("file consumer is about to process: {}", fileResource.getResourceId());
-                boolean consumed = _processFileResource(fileResource);
+                boolean consumed;
+                try {
+                    consumed = _processFileResource(fileResource);
+                } finally {
+                    if (fileQueue instanceof LanedFileResourceQueue) {
+                        ((LanedFileResourceQueue) fileQueue).finished(fileResource);
+                    }
+                }
                 LOG.trace("file consumer has finished processing: {}", fileResource.getResourceId());
 
                 if (consumed) {
@@ -175,23 +194,72 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
     }
 
     private boolean _processFileResource(FileResource fileResource) {
+        if (journal != null && journal.isDone(fileResource)) {
+            LOG.debug("already processed according to the journal: {}", fileResource.getResourceId());
+            return false;
+        }
+        currentFileResource = fileResource;
         currentFile = new FileStarted(fileResource.getResourceId());
+        journal(fileResource, JOURNAL_ENTRY.STARTED);
+        int exceptionsBefore = numHandledExceptions;
         boolean consumed = false;
         try {
             consumed = processFileResource(fileResource);
         } catch (RuntimeException e) {
             setEndedState(STATE.CONSUMER_EXCEPTION);
+            journalEnd(fileResource, JOURNAL_ENTRY.ABORTED);
+            throw e;
+        } catch (OutOfMemoryError e) {
+            setEndedState(STATE.CONSUMER_ERROR);
+            journalEnd(fileResource, JOURNAL_ENTRY.FAILED);
             throw e;
         } catch (Error e) {
             setEndedState(STATE.CONSUMER_ERROR);
+            journalEnd(fileResource, JOURNAL_ENTRY.ABORTED);
             throw e;
         }
         //if anything is thrown from processFileResource, then the fileStarted
         //will remain what it was right before the exception was thrown.
         currentFile = null;
+        currentFileResource = null;
+        //an exception that was handled while the consumer was being shut down
+        //was most likely caused by the shutdown (e.g. an interrupt)
+        boolean shuttingDown = currentState == STATE.ASKED_TO_SHUTDOWN ||
+                Thread.currentThread().isInterrupted();
+        journalEnd(fileResource,
+                (numHandledExceptions > exceptionsBefore && shuttingDown) ?
+                        JOURNAL_ENTRY.ABORTED : JOURNAL_ENTRY.FINISHED);
         return consumed;
     }
 
+    //a file that timed out has already been journaled as failed
+    private void journalEnd(FileResource fileResource, JOURNAL_ENTRY entry) {
+        if (currentState != STATE.TIMED_OUT) {
+            journal(fileResource, entry);
+        }
+    }
+
+    //a journal that can't be written to only means that files may be
+    //processed again after a restart, so this doesn't stop the consumer
+    private void journal(FileResource fileResource, JOURNAL_ENTRY entry) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            if (entry == JOURNAL_ENTRY.STARTED) {
+                journal.started(fileResource);
+            } else if (entry == JOURNAL_ENTRY.FINISHED) {
+                journal.finished(fileResource);
+            } else if (entry == JOURNAL_ENTRY.FAILED) {
+                journal.failed(fileResource);
+            } else {
+                journal.aborted(fileResource);
+            }
+        } catch (IOException e) {
+            LOG.error("couldn't write to journal for: {}", fileResource.getResourceId(), e);
+        }
+    }
+
     /**
      * This politely asks the consumer to shutdown.
      * Before processing another file, the consumer will check to see
@@ -216,6 +284,18 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
         return currentFile;
     }
 
+    /**
+     * If a journal is set, this records in it when each file is started,
+     * finished, failed on (timed out or ran out of memory) or aborted by a
+     * shutdown, and skips files that it has already recorded as finished
+     * or failed.
+     *
+     * @param journal journal of an earlier or the current run
+     */
+    public void setJournal(BatchJournal journal) {
+        this.journal = journal;
+    }
+
     public int getNumResourcesConsumed() {
         return numResourcesConsumed;
     }
@@ -263,6 +343,10 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
                         TIMED_OUT,
                         tmp.getResourceId(),
                         ELAPSED_MILLIS, Long.toString(tmp.getElapsedMillis())));
+                FileResource timedOut = currentFileResource;
+                if (timedOut != null && timedOut.getResourceId().equals(tmp.getResourceId())) {
+                    journal(timedOut, JOURNAL_ENTRY.FAILED);
+                }
                 return tmp;
             }
         }
@@ -336,7 +420,14 @@ public abstract class FileResourceConsumer implements Callable<IFileProcessorFut
                 }
                 break;
             }
-            LOG.debug("{} is waiting for file and the queue size is: {}", consumerId, fileQueue.size());
+            int queueSize = fileQueue.size();
+            LOG.debug("{} is waiting for file and the queue size is: {}", consumerId, queueSize);
+            if (queueSize > 0) {
+                //files are being held back, e.g. by a lane that is at its maximum
+                //number of consumers; that's not waiting for work
+                start = System.currentTimeMillis();
+                continue;
+            }
 
             long elapsed = System.currentTimeMillis() - start;
             if (maxConsecWaitInMillis > 0 && elapsed > maxConsecWaitInMillis) {
@@ -18,7 +18,7 @@ package org.apache.tika.batch;
  */
 
 import java.util.Date;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
@@ -39,18 +39,19 @@ public abstract class FileResourceCrawler implements Callable<IFileProcessorFutu
     private volatile boolean isActive = true;
     private volatile boolean timedOut = false;
 
-    //how long to pause if can't add to queue
+    //how long to wait for room in the queue before checking for a timeout
     private static final long PAUSE_INCREMENT_MILLIS = 1000;
 
     private int maxFilesToAdd = -1;
     private int maxFilesToConsider = -1;
 
-    private final ArrayBlockingQueue<FileResource> queue;
+    private final BlockingQueue<FileResource> queue;
     private final int numConsumers;
 
 
     private long maxConsecWaitInMillis = 300000;//300,000ms = 5 minutes
     private DocumentSelector documentSelector = null;
+    private BatchJournal journal = null;
 
     //number of files added to queue
     private int added = 0;
@@ -61,7 +62,7 @@ public abstract class FileResourceCrawler implements Callable<IFileProcessorFutu
      * @param queue        shared queue
      * @param numConsumers number of consumers (needs to know how many poisons to add when done)
      */
-    public FileResourceCrawler(ArrayBlockingQueue<FileResource> queue, int numConsumers) {
+    public FileResourceCrawler(BlockingQueue<FileResource> queue, int numConsumers) {
         this.queue = queue;
         this.numConsumers = numConsumers;
     }
@@ -112,12 +113,14 @@ public abstract class FileResourceCrawler implements Callable<IFileProcessorFutu
         }
 
         boolean isAdded = false;
-        if (select(fileResource.getMetadata())) {
+        if (journal != null && journal.isDone(fileResource)) {
+            LOG.debug("already processed according to the journal: {}", fileResource.getResourceId());
+        } else if (select(fileResource.getMetadata())) {
             long totalConsecutiveWait = 0;
-            while (queue.offer(fileResource, 1L, TimeUnit.SECONDS) == false) {
+            //offer blocks until a consumer makes room, so there's no need to sleep in between
+            while (queue.offer(fileResource, PAUSE_INCREMENT_MILLIS, TimeUnit.MILLISECONDS) == false) {
 
                 LOG.info("FileResourceCrawler is pausing. Queue is full: {}", queue.size());
-                Thread.sleep(PAUSE_INCREMENT_MILLIS);
                 totalConsecutiveWait += PAUSE_INCREMENT_MILLIS;
                 if (maxConsecWaitInMillis > -1 && totalConsecutiveWait > maxConsecWaitInMillis) {
                     timedOut = true;
@@ -186,6 +189,16 @@ public abstract class FileResourceCrawler implements Callable<IFileProcessorFutu
         this.documentSelector = documentSelector;
     }
 
+    /**
+     * If a journal is set, files that it has recorded as finished or failed
+     * are skipped.
+     *
+     * @param journal journal of an earlier or the current run
+     */
+    public void setJournal(BatchJournal journal) {
+        this.journal = journal;
+    }
+
     public int getConsidered() {
         return considered;
     }
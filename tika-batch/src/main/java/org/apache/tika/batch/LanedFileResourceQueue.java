@@ -0,0 +1,674 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.batch;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.util.PropsUtil;
+
+/**
+ * Queue between the crawler and the consumers that sorts the files into
+ * lanes, for example by size or by file name, so that a lane of very large
+ * files can't starve the small ones.
+ * <p>
+ * Each lane can cap the number of consumers that work on its files at the
+ * same time.  A consumer takes its next file from the lane that has the
+ * fewest consumers working on it, among the lanes that have files and are
+ * below their cap.  Within a lane, files are handed out largest first, if
+ * so configured, so that the files that take longest are started early
+ * rather than at the tail of the run.  This only orders the files that
+ * are in the queue at the time, so it works best with a large maxQueueSize.
+ * <p>
+ * Consumers have to call {@link #finished(FileResource)} when they're done
+ * with a file, which {@link FileResourceConsumer} does.  {@link PoisonFileResource}s
+ * are handed out only once all of the lanes are empty.
+ * <p>
+ * A file that is held back because its lane is at its cap still counts
+ * towards {@link #size()}, so consumers keep waiting for it.  Iteration is
+ * over a snapshot, and the iterator doesn't support removal.
+ */
+public class LanedFileResourceQueue extends AbstractQueue<FileResource>
+        implements BlockingQueue<FileResource> {
+
+    private final int capacity;
+
+    private final Lane[] lanes;
+
+    private final ArrayDeque<FileResource> poison = new ArrayDeque<>();
+
+    //lane of each file that a consumer is working on
+    private final Map<FileResource, Lane> inFlight = new IdentityHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    //signalled when a file is added or a lane drops below its cap
+    private final Condition available = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final long start = System.currentTimeMillis();
+
+    private int count = 0;
+
+    private long sequence = 0;
+
+    /**
+     * @param capacity     maximum number of files across all lanes
+     * @param lanes        lanes in the order in which files are matched against them;
+     *                     a file that matches none of them goes into the last lane
+     * @param largestFirst whether to hand out the largest files in a lane first,
+     *                     rather than in the order in which they were added
+     */
+    public LanedFileResourceQueue(int capacity, List<Lane> lanes, boolean largestFirst) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        if (lanes.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one lane");
+        }
+        this.capacity = capacity;
+        this.lanes = lanes.toArray(new Lane[lanes.size()]);
+        for (Lane lane : this.lanes) {
+            lane.init(largestFirst);
+        }
+    }
+
+    /**
+     * Marks that a consumer is done with a file that it took from this queue,
+     * which frees up its spot in the lane.
+     *
+     * @param fileResource file that was taken from this queue
+     */
+    public void finished(FileResource fileResource) {
+        lock.lock();
+        try {
+            Lane lane = inFlight.remove(fileResource);
+            if (lane != null) {
+                lane.active--;
+                lane.completed++;
+                lane.completedBytes += Math.max(0, size(fileResource));
+                available.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return lanes, in the order in which files are matched against them
+     */
+    public List<Lane> getLanes() {
+        List<Lane> list = new ArrayList<>(lanes.length);
+        Collections.addAll(list, lanes);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return milliseconds since this queue was created
+     */
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public boolean offer(FileResource fileResource) {
+        checkNotNull(fileResource);
+        lock.lock();
+        try {
+            if (count == capacity) {
+                return false;
+            }
+            enqueue(fileResource);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(FileResource fileResource, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        checkNotNull(fileResource);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(fileResource);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(FileResource fileResource) throws InterruptedException {
+        checkNotNull(fileResource);
+        lock.lockInterruptibly();
+        try {
+            while (count == capacity) {
+                notFull.await();
+            }
+            enqueue(fileResource);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public FileResource poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public FileResource poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            FileResource fileResource = dequeue();
+            while (fileResource == null) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = available.awaitNanos(nanos);
+                fileResource = dequeue();
+            }
+            return fileResource;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public FileResource take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            FileResource fileResource = dequeue();
+            while (fileResource == null) {
+                available.await();
+                fileResource = dequeue();
+            }
+            return fileResource;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public FileResource peek() {
+        lock.lock();
+        try {
+            Lane lane = nextLane();
+            if (lane != null) {
+                return lane.queue.peek().fileResource;
+            }
+            return (allLanesEmpty()) ? poison.peek() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o != null && snapshot().contains(o);
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        if (o == null) {
+            return false;
+        }
+        return removeMatching(new Predicate<FileResource>() {
+            @Override
+            public boolean test(FileResource fileResource) {
+                return o.equals(fileResource);
+            }
+        }, true);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super FileResource> filter) {
+        checkNotNull(filter);
+        return removeMatching(filter, false);
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> c) {
+        checkNotNull(c);
+        return removeMatching(new Predicate<FileResource>() {
+            @Override
+            public boolean test(FileResource fileResource) {
+                return c.contains(fileResource);
+            }
+        }, false);
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> c) {
+        checkNotNull(c);
+        return removeMatching(new Predicate<FileResource>() {
+            @Override
+            public boolean test(FileResource fileResource) {
+                return !c.contains(fileResource);
+            }
+        }, false);
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            for (Lane lane : lanes) {
+                lane.queue.clear();
+                lane.backlog = 0;
+            }
+            poison.clear();
+            count = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super FileResource> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super FileResource> c, int maxElements) {
+        checkNotNull(c);
+        if (c == this) {
+            throw new IllegalArgumentException();
+        }
+        int n = 0;
+        lock.lock();
+        try {
+            FileResource fileResource;
+            while (n < maxElements && (fileResource = dequeue()) != null) {
+                c.add(fileResource);
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<FileResource> iterator() {
+        return Collections.unmodifiableList(snapshot()).iterator();
+    }
+
+    @Override
+    public Spliterator<FileResource> spliterator() {
+        return Spliterators.spliterator(snapshot(), Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public void forEach(Consumer<? super FileResource> action) {
+        checkNotNull(action);
+        for (FileResource fileResource : snapshot()) {
+            action.accept(fileResource);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return snapshot().toArray(a);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    private void enqueue(FileResource fileResource) {
+        if (fileResource instanceof PoisonFileResource) {
+            poison.add(fileResource);
+        } else {
+            Lane lane = selectLane(fileResource);
+            lane.queue.add(new Entry(fileResource, size(fileResource), sequence++));
+            lane.added++;
+            lane.backlog++;
+        }
+        count++;
+        available.signalAll();
+    }
+
+    //returns null if there's nothing that may be handed out right now
+    private FileResource dequeue() {
+        Lane lane = nextLane();
+        FileResource fileResource;
+        if (lane != null) {
+            fileResource = lane.queue.poll().fileResource;
+            lane.backlog--;
+            lane.active++;
+            inFlight.put(fileResource, lane);
+        } else if (allLanesEmpty() && !poison.isEmpty()) {
+            fileResource = poison.poll();
+        } else {
+            return null;
+        }
+        count--;
+        notFull.signal();
+        return fileResource;
+    }
+
+    //non-empty lane below its cap with the fewest active consumers
+    private Lane nextLane() {
+        Lane next = null;
+        for (Lane lane : lanes) {
+            if (lane.queue.isEmpty() ||
+                    (lane.maxConsumers > -1 && lane.active >= lane.maxConsumers)) {
+                continue;
+            }
+            if (next == null || lane.active < next.active) {
+                next = lane;
+            }
+        }
+        return next;
+    }
+
+    private boolean allLanesEmpty() {
+        for (Lane lane : lanes) {
+            if (!lane.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Lane selectLane(FileResource fileResource) {
+        Metadata metadata = fileResource.getMetadata();
+        String fName = metadata.get(TikaCoreProperties.RESOURCE_NAME_KEY);
+        long sz = size(fileResource);
+        for (Lane lane : lanes) {
+            if (lane.accepts(fName, sz)) {
+                return lane;
+            }
+        }
+        return lanes[lanes.length - 1];
+    }
+
+    private List<FileResource> snapshot() {
+        lock.lock();
+        try {
+            List<FileResource> list = new ArrayList<>(count);
+            for (Lane lane : lanes) {
+                for (Entry entry : lane.queue) {
+                    list.add(entry.fileResource);
+                }
+            }
+            list.addAll(poison);
+            return list;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean removeMatching(Predicate<? super FileResource> filter, boolean firstOnly) {
+        lock.lock();
+        try {
+            boolean removed = false;
+            for (Lane lane : lanes) {
+                Iterator<Entry> it = lane.queue.iterator();
+                while (it.hasNext()) {
+                    if (filter.test(it.next().fileResource)) {
+                        it.remove();
+                        lane.backlog--;
+                        count--;
+                        removed = true;
+                        if (firstOnly) {
+                            notFull.signalAll();
+                            return true;
+                        }
+                    }
+                }
+            }
+            Iterator<FileResource> it = poison.iterator();
+            while (it.hasNext()) {
+                if (filter.test(it.next())) {
+                    it.remove();
+                    count--;
+                    removed = true;
+                    if (firstOnly) {
+                        break;
+                    }
+                }
+            }
+            if (removed) {
+                notFull.signalAll();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long size(FileResource fileResource) {
+        return PropsUtil.getLong(fileResource.getMetadata().get(Metadata.CONTENT_LENGTH), -1L);
+    }
+
+    private static void checkNotNull(Object o) {
+        if (o == null) {
+            throw new NullPointerException();
+        }
+    }
+
+    /**
+     * A lane takes the files that are at least {@link #minFileSizeBytes} long
+     * and whose names match {@link #includeFilePattern}, either of which may be
+     * left out.  The counts are updated by the queue and are read without
+     * locking, for reporting.
+     */
+    public static class Lane {
+
+        private final String name;
+
+        private final long minFileSizeBytes;
+
+        //can be null!
+        private final Pattern includeFilePattern;
+
+        private final int maxConsumers;
+
+        private PriorityQueue<Entry> queue;
+
+        private volatile int backlog = 0;
+
+        private volatile int active = 0;
+
+        private volatile int added = 0;
+
+        private volatile int completed = 0;
+
+        private volatile long completedBytes = 0;
+
+        /**
+         * @param name               name to report the lane under
+         * @param minFileSizeBytes   minimum size of the files in this lane, or -1
+         * @param includeFilePattern pattern that the names of the files in this
+         *                           lane must match, or null
+         * @param maxConsumers       maximum number of consumers to work on the files
+         *                           in this lane at the same time, or -1 for no maximum
+         */
+        public Lane(String name, long minFileSizeBytes, Pattern includeFilePattern,
+                    int maxConsumers) {
+            if (maxConsumers == 0 || maxConsumers < -1) {
+                throw new IllegalArgumentException("maxConsumers must be > 0 or -1");
+            }
+            this.name = name;
+            this.minFileSizeBytes = minFileSizeBytes;
+            this.includeFilePattern = includeFilePattern;
+            this.maxConsumers = maxConsumers;
+        }
+
+        private void init(boolean largestFirst) {
+            if (queue != null) {
+                throw new IllegalStateException("Lane " + name + " is already in use");
+            }
+            queue = new PriorityQueue<>(16, largestFirst ? LARGEST_FIRST : FIFO);
+        }
+
+        private boolean accepts(String fName, long sz) {
+            if (minFileSizeBytes > -1 && sz < minFileSizeBytes) {
+                return false;
+            }
+            if (includeFilePattern != null) {
+                return fName != null && includeFilePattern.matcher(fName).find();
+            }
+            return true;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return maximum number of consumers working on this lane, or -1 for no maximum
+         */
+        public int getMaxConsumers() {
+            return maxConsumers;
+        }
+
+        /**
+         * @return number of files that were added to this lane
+         */
+        public int getAdded() {
+            return added;
+        }
+
+        /**
+         * @return number of consumers that are working on files from this lane
+         */
+        public int getActive() {
+            return active;
+        }
+
+        /**
+         * @return number of files from this lane that consumers have finished
+         */
+        public int getCompleted() {
+            return completed;
+        }
+
+        /**
+         * @return total size of the files from this lane that consumers have finished
+         */
+        public long getCompletedBytes() {
+            return completedBytes;
+        }
+
+        /**
+         * @return number of files that are waiting in this lane
+         */
+        public int getBacklog() {
+            return backlog;
+        }
+    }
+
+    private static class Entry {
+
+        private final FileResource fileResource;
+
+        private final long size;
+
+        private final long sequence;
+
+        private Entry(FileResource fileResource, long size, long sequence) {
+            this.fileResource = fileResource;
+            this.size = size;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final Comparator<Entry> FIFO = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            return Long.compare(a.sequence, b.sequence);
+        }
+    };
+
+    private static final Comparator<Entry> LARGEST_FIRST = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            int c = Long.compare(b.size, a.size);
+            return (c != 0) ? c : Long.compare(a.sequence, b.sequence);
+        }
+    };
+}
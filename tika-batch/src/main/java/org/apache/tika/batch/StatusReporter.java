@@ -49,6 +49,9 @@ public class StatusReporter implements Callable<IFileProcessorFutureResult> {
 
     private volatile boolean isShuttingDown = false;
 
+    //can be null!
+    private LanedFileResourceQueue lanedQueue = null;
+
     /**
      * Initialize with the crawler and consumers
      *
@@ -118,11 +121,16 @@ public class StatusReporter implements Callable<IFileProcessorFutureResult> {
 
                 int crawled = crawler.getConsidered();
                 int added = crawler.getAdded();
+                String crawlRate = "";
+                if (crawler.isActive() && elapsedSecs > 5) {
+                    crawlRate = String.format(Locale.ROOT, " (%s files per sec)",
+                            numberFormat.format((int) ((double) crawled / elapsedSecs)));
+                }
                 if (crawled == 1) {
-                    msg = "The directory crawler has considered 1 file,";
+                    msg = "The directory crawler has considered 1 file" + crawlRate + ", ";
                 } else {
                     msg = "The directory crawler has considered " +
-                            numberFormat.format(crawled) + " files, ";
+                            numberFormat.format(crawled) + " files" + crawlRate + ", ";
                 }
                 if (added == 1) {
                     msg += "and it has added 1 file.";
@@ -133,6 +141,8 @@ public class StatusReporter implements Callable<IFileProcessorFutureResult> {
                 msg += "\n";
                 report(msg);
 
+                reportLanes(numberFormat, elapsedSecs);
+
                 if (! crawler.isActive()) {
                     msg = "The directory crawler has completed its crawl.\n";
                     report(msg);
@@ -168,6 +178,38 @@ public class StatusReporter implements Callable<IFileProcessorFutureResult> {
     }
 
 
+    /**
+     * If the files are sorted into lanes, report the throughput and the
+     * backlog of each lane.
+     *
+     * @param lanedQueue queue shared by the crawler and the consumers
+     */
+    public void setLanedQueue(LanedFileResourceQueue lanedQueue) {
+        this.lanedQueue = lanedQueue;
+    }
+
+    private void reportLanes(NumberFormat numberFormat, double elapsedSecs) {
+        if (lanedQueue == null) {
+            return;
+        }
+        for (LanedFileResourceQueue.Lane lane : lanedQueue.getLanes()) {
+            int completed = lane.getCompleted();
+            String rate = "";
+            if (elapsedSecs > 5) {
+                rate = String.format(Locale.ROOT, " (%.1f docs per sec, %.1f MB per sec)",
+                        completed / elapsedSecs,
+                        lane.getCompletedBytes() / elapsedSecs / (1024 * 1024));
+            }
+            String maxConsumers = lane.getMaxConsumers() < 0 ? "" :
+                    " of at most " + numberFormat.format(lane.getMaxConsumers());
+            report(String.format(Locale.ROOT,
+                    "Lane %s: %s files waiting, %s%s file processors active, %s files processed%s.",
+                    lane.getName(), numberFormat.format(lane.getBacklog()),
+                    numberFormat.format(lane.getActive()), maxConsumers,
+                    numberFormat.format(completed), rate));
+        }
+    }
+
     private void reportStale() {
         for (FileResourceConsumer consumer : consumersManager.getConsumers()) {
             FileStarted fs = consumer.getCurrentFile();
@@ -22,7 +22,7 @@ import org.apache.tika.batch.FileResource;
 import org.w3c.dom.Node;
 
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public abstract class AbstractConsumersBuilder {
 
@@ -32,7 +32,7 @@ public abstract class AbstractConsumersBuilder {
   }
 
   public abstract ConsumersManager build(Node node, Map<String, String> runtimeAttributes,
-    ArrayBlockingQueue<FileResource> queue);
+    BlockingQueue<FileResource> queue);
 
 
 }
@@ -20,21 +20,29 @@ package org.apache.tika.batch.builders;
 import javax.xml.parsers.DocumentBuilder;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
 
+import org.apache.tika.batch.BatchJournal;
 import org.apache.tika.batch.BatchProcess;
 import org.apache.tika.batch.ConsumersManager;
 import org.apache.tika.batch.FileResource;
 import org.apache.tika.batch.FileResourceCrawler;
 import org.apache.tika.batch.Interrupter;
+import org.apache.tika.batch.LanedFileResourceQueue;
 import org.apache.tika.batch.StatusReporter;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.io.IOExceptionWithCause;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.util.ClassLoaderUtil;
+import org.apache.tika.util.PropsUtil;
 import org.apache.tika.util.XMLDOMUtil;
 import org.apache.tika.utils.XMLReaderUtils;
 import org.w3c.dom.Document;
@@ -52,6 +60,8 @@ public class BatchProcessBuilder {
     public final static int DEFAULT_MAX_QUEUE_SIZE = 1000;
     public final static String MAX_QUEUE_SIZE_KEY = "maxQueueSize";
     public final static String NUM_CONSUMERS_KEY = "numConsumers";
+    public final static String JOURNAL_KEY = "journal";
+    public final static String LARGEST_FIRST_KEY = "largestFirst";
 
     /**
      * Builds a BatchProcess from runtime arguments and a
@@ -112,9 +122,6 @@ public class BatchProcessBuilder {
          */
         Map<String, String> runtimeAttributes = setNumConsumersInRuntimeAttributes(docElement, incomingRuntimeAttributes);
 
-        //build queue
-        ArrayBlockingQueue<FileResource> queue = buildQueue(docElement, runtimeAttributes);
-
         NodeList children = docElement.getChildNodes();
         Map<String, Node> keyNodes = new HashMap<String, Node>();
         for (int i = 0; i < children.getLength(); i++) {
@@ -125,14 +132,20 @@ public class BatchProcessBuilder {
             String nodeName = child.getNodeName();
             keyNodes.put(nodeName, child);
         }
+
+        //build queue
+        BlockingQueue<FileResource> queue = buildQueue(docElement, keyNodes.get("lanes"), runtimeAttributes);
         //build consumers
         consumersManager = buildConsumersManager(keyNodes.get("consumers"), runtimeAttributes, queue);
 
         //build crawler
         crawler = buildCrawler(queue, keyNodes.get("crawler"), runtimeAttributes);
 
-        if (keyNodes.containsKey(reporter)) {
+        if (keyNodes.containsKey("reporter")) {
             reporter = buildReporter(crawler, consumersManager, keyNodes.get("reporter"), runtimeAttributes);
+            if (queue instanceof LanedFileResourceQueue) {
+                reporter.setLanedQueue((LanedFileResourceQueue) queue);
+            }
         }
 
         if (keyNodes.containsKey("interrupter")) {
@@ -153,6 +166,16 @@ public class BatchProcessBuilder {
             proc.setTimeoutCheckPulseMillis(timeoutCheckPulseMillis);
         }
         proc.setMaxAliveTimeSeconds(maxAliveTimeSeconds);
+
+        Path journalPath = PropsUtil.getPath(
+                XMLDOMUtil.mapifyAttrs(docElement, runtimeAttributes).get(JOURNAL_KEY), null);
+        if (journalPath != null) {
+            try {
+                proc.setJournal(BatchJournal.open(journalPath));
+            } catch (IOException e) {
+                throw new RuntimeException("Couldn't open journal: " + journalPath.toAbsolutePath(), e);
+            }
+        }
         return proc;
     }
 
@@ -236,7 +259,7 @@ public class BatchProcessBuilder {
     }
 
     //tries to get maxQueueSize from main element
-    private ArrayBlockingQueue<FileResource> buildQueue(Node docElement,
+    private BlockingQueue<FileResource> buildQueue(Node docElement, Node lanesNode,
                                                         Map<String, String> runtimeAttributes) {
         int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
         String szString = runtimeAttributes.get(MAX_QUEUE_SIZE_KEY);
@@ -260,11 +283,46 @@ public class BatchProcessBuilder {
             maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
         }
 
+        if (lanesNode != null) {
+            return buildLanedQueue(lanesNode, maxQueueSize, runtimeAttributes);
+        }
         return new ArrayBlockingQueue<FileResource>(maxQueueSize);
     }
 
+    private LanedFileResourceQueue buildLanedQueue(Node lanesNode, int maxQueueSize,
+                                                   Map<String, String> runtimeAttributes) {
+        Map<String, String> attrs = XMLDOMUtil.mapifyAttrs(lanesNode, runtimeAttributes);
+        boolean largestFirst = PropsUtil.getBoolean(attrs.get(LARGEST_FIRST_KEY), false);
+
+        List<LanedFileResourceQueue.Lane> lanes = new ArrayList<>();
+        NodeList laneNodes = lanesNode.getChildNodes();
+        for (int i = 0; i < laneNodes.getLength(); i++) {
+            Node laneNode = laneNodes.item(i);
+            if (laneNode.getNodeType() != Node.ELEMENT_NODE || !laneNode.getNodeName().equals("lane")) {
+                continue;
+            }
+            //don't let the crawler's runtime attributes (e.g. minFileSizeBytes) leak in
+            Map<String, String> laneAttrs = XMLDOMUtil.mapifyAttrs(laneNode, null);
+            String name = laneAttrs.get("name");
+            if (name == null) {
+                name = Integer.toString(lanes.size());
+            }
+            String includeString = laneAttrs.get("includeFilePat");
+            Pattern includePat = (includeString != null && includeString.length() > 0) ?
+                    Pattern.compile(includeString) : null;
+            lanes.add(new LanedFileResourceQueue.Lane(name,
+                    PropsUtil.getLong(laneAttrs.get("minFileSizeBytes"), -1L),
+                    includePat,
+                    PropsUtil.getInt(laneAttrs.get("maxConsumers"), -1)));
+        }
+        if (lanes.isEmpty()) {
+            throw new RuntimeException("Need to specify at least one lane in the lanes element");
+        }
+        return new LanedFileResourceQueue(maxQueueSize, lanes, largestFirst);
+    }
+
     private ConsumersManager buildConsumersManager(Node node,
-                Map<String, String> runtimeAttributes, ArrayBlockingQueue<FileResource> queue) {
+                Map<String, String> runtimeAttributes, BlockingQueue<FileResource> queue) {
 
         Map<String, String> attrs = XMLDOMUtil.mapifyAttrs(node, runtimeAttributes);
         String className = attrs.get("builderClass");
@@ -277,7 +335,7 @@ public class BatchProcessBuilder {
     }
 
 
-    private FileResourceCrawler buildCrawler(ArrayBlockingQueue<FileResource> queue,
+    private FileResourceCrawler buildCrawler(BlockingQueue<FileResource> queue,
                                              Node node, Map<String, String> runtimeAttributes) {
         Map<String, String> attrs = XMLDOMUtil.mapifyAttrs(node, runtimeAttributes);
         String className = attrs.get("builderClass");
@@ -21,11 +21,11 @@ import org.apache.tika.batch.FileResourceCrawler;
 import org.w3c.dom.Node;
 
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public interface ICrawlerBuilder extends ObjectFromDOMAndQueueBuilder<FileResourceCrawler>{
   
   public FileResourceCrawler build(Node node, Map<String, String> attributes,
-                                   ArrayBlockingQueue<FileResource> queue);
+                                   BlockingQueue<FileResource> queue);
   
 }
@@ -18,7 +18,7 @@ package org.apache.tika.batch.builders;
  */
 
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.tika.batch.FileResource;
 import org.w3c.dom.Node;
@@ -31,6 +31,6 @@ import org.w3c.dom.Node;
 public interface ObjectFromDOMAndQueueBuilder<T> {
 
     public T build(Node node, Map<String, String> runtimeAttributes,
-                   ArrayBlockingQueue<FileResource> resourceQueue);
+                   BlockingQueue<FileResource> resourceQueue);
 
 }
@@ -20,7 +20,7 @@ package org.apache.tika.batch.fs;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.tika.batch.BatchNoRestartError;
 import org.apache.tika.batch.FileResource;
@@ -29,7 +29,7 @@ import org.apache.tika.batch.OutputStreamFactory;
 
 public abstract class AbstractFSConsumer extends FileResourceConsumer {
 
-    public AbstractFSConsumer(ArrayBlockingQueue<FileResource> fileQueue) {
+    public AbstractFSConsumer(BlockingQueue<FileResource> fileQueue) {
         super(fileQueue);
     }
 
@@ -24,7 +24,7 @@ import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.tika.batch.FileResource;
@@ -60,10 +60,10 @@ public class BasicTikaFSConsumer extends AbstractFSConsumer {
      * @param fsOSFactory
      * @param tikaConfig
      *
-     * @deprecated use {@link BasicTikaFSConsumer#BasicTikaFSConsumer(ArrayBlockingQueue, Parser, ContentHandlerFactory, OutputStreamFactory)}
+     * @deprecated use {@link BasicTikaFSConsumer#BasicTikaFSConsumer(BlockingQueue, Parser, ContentHandlerFactory, OutputStreamFactory)}
      */
     @Deprecated
-    public BasicTikaFSConsumer(ArrayBlockingQueue<FileResource> queue,
+    public BasicTikaFSConsumer(BlockingQueue<FileResource> queue,
                                ParserFactory parserFactory,
                                ContentHandlerFactory contentHandlerFactory,
                                OutputStreamFactory fsOSFactory, TikaConfig tikaConfig) {
@@ -73,7 +73,7 @@ public class BasicTikaFSConsumer extends AbstractFSConsumer {
         this.fsOSFactory = fsOSFactory;
     }
 
-    public BasicTikaFSConsumer(ArrayBlockingQueue<FileResource> queue,
+    public BasicTikaFSConsumer(BlockingQueue<FileResource> queue,
                                Parser parser,
                                ContentHandlerFactory contentHandlerFactory,
                                OutputStreamFactory fsOSFactory) {
@@ -25,7 +25,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.tika.batch.FileResource;
 import org.apache.tika.batch.FileResourceCrawler;
@@ -44,7 +44,7 @@ public class FSDirectoryCrawler extends FileResourceCrawler {
     private final Comparator<Path> pathComparator = new FileNameComparator();
     private CRAWL_ORDER crawlOrder;
 
-    public FSDirectoryCrawler(ArrayBlockingQueue<FileResource> fileQueue,
+    public FSDirectoryCrawler(BlockingQueue<FileResource> fileQueue,
                               int numConsumers, Path root, CRAWL_ORDER crawlOrder) {
         super(fileQueue, numConsumers);
         this.root = root;
@@ -57,7 +57,7 @@ public class FSDirectoryCrawler extends FileResourceCrawler {
 
     }
 
-    public FSDirectoryCrawler(ArrayBlockingQueue<FileResource> fileQueue,
+    public FSDirectoryCrawler(BlockingQueue<FileResource> fileQueue,
                               int numConsumers, Path root, Path startDirectory,
                               CRAWL_ORDER crawlOrder) {
         super(fileQueue, numConsumers);
@@ -149,7 +149,7 @@ public class FSDirectoryCrawler extends FileResourceCrawler {
     //simple lexical order for the file name, we don't really care about localization.
     //we do want this, though, because file.compareTo behaves differently
     //on different OS's.
-    private class FileNameComparator implements Comparator<Path> {
+    static class FileNameComparator implements Comparator<Path> {
 
         @Override
         public int compare(Path f1, Path f2) {
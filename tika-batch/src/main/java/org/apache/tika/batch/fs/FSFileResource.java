@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Locale;
 
 import org.apache.tika.batch.FileResource;
@@ -37,6 +38,7 @@ import org.apache.tika.metadata.TikaCoreProperties;
  * <ul>
  *     <li>TikaCoreProperties.RESOURCE_NAME_KEY (file name)</li>
  *     <li>Metadata.CONTENT_LENGTH</li>
+ *     <li>FileResource.LAST_MODIFIED</li>
  *     <li>FSProperties.FS_REL_PATH</li>
  *     <li>FileResource.FILE_EXTENSION</li>
  * </ul>,
@@ -79,13 +81,17 @@ public class FSFileResource implements FileResource {
         //whether or not to crawl this file
         metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, fullPath.getFileName().toString());
         long sz = -1;
+        long lastModified = -1;
         try {
-            sz = Files.size(fullPath);
+            BasicFileAttributes attrs = Files.readAttributes(fullPath, BasicFileAttributes.class);
+            sz = attrs.size();
+            lastModified = attrs.lastModifiedTime().toMillis();
         } catch (IOException e) {
             //swallow
             //not existent file will be handled downstream
         }
         metadata.set(Metadata.CONTENT_LENGTH, Long.toString(sz));
+        metadata.set(FileResource.LAST_MODIFIED, Long.toString(lastModified));
         metadata.set(FSProperties.FS_REL_PATH, relativePath);
         metadata.set(FileResource.FILE_EXTENSION, getExtension(fullPath));
     }
@@ -27,7 +27,7 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.tika.batch.FileResource;
 import org.apache.tika.batch.FileResourceCrawler;
@@ -50,10 +50,10 @@ public class FSListCrawler extends FileResourceCrawler {
      * @throws FileNotFoundException
      * @throws UnsupportedEncodingException
      * @deprecated
-     * @see #FSListCrawler(ArrayBlockingQueue, int, Path, Path, Charset)
+     * @see #FSListCrawler(BlockingQueue, int, Path, Path, Charset)
      */
     @Deprecated
-    public FSListCrawler(ArrayBlockingQueue<FileResource> fileQueue,
+    public FSListCrawler(BlockingQueue<FileResource> fileQueue,
                          int numConsumers, File root, File list, String encoding)
             throws FileNotFoundException, UnsupportedEncodingException {
         super(fileQueue, numConsumers);
@@ -75,7 +75,7 @@ public class FSListCrawler extends FileResourceCrawler {
      * @param charset charset of the file
      * @throws IOException
      */
-    public FSListCrawler(ArrayBlockingQueue<FileResource> fileQueue,
+    public FSListCrawler(BlockingQueue<FileResource> fileQueue,
                          int numConsumers, Path root, Path list, Charset charset)
             throws IOException {
         super(fileQueue, numConsumers);
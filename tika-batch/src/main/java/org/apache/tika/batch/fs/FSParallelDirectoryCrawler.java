@@ -0,0 +1,239 @@
+package org.apache.tika.batch.fs;
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tika.batch.FileResource;
+import org.apache.tika.batch.FileResourceCrawler;
+
+/**
+ * Directory crawler that lists several directories at the same time, for
+ * trees where listing directories and reading file attributes is slow, e.g.
+ * on network file systems.
+ * <p>
+ * Each directory is listed by a task on a work-stealing {@link ForkJoinPool};
+ * the task forks a new task for each of its subdirectories.  The listing
+ * threads hand the files over to the crawler's thread through a small
+ * blocking queue, and the crawler's thread adds them to the shared queue,
+ * so the selector, the journal and the limits on the number of files work
+ * as they do for {@link FSDirectoryCrawler}.
+ * <p>
+ * The files in a directory are sorted or shuffled if the crawl order asks
+ * for it, but the order across directories depends on which thread gets
+ * to them first.
+ */
+public class FSParallelDirectoryCrawler extends FileResourceCrawler {
+
+    //how long the crawler's thread waits for a file before checking whether the listing is done
+    private static final long POLL_MILLIS = 100;
+
+    private final Path root;
+    private final Path startDirectory;
+    private final FSDirectoryCrawler.CRAWL_ORDER crawlOrder;
+    private final int numThreads;
+    private final FSDirectoryCrawler.FileNameComparator pathComparator =
+            new FSDirectoryCrawler.FileNameComparator();
+
+    //files that have been listed, but not yet added
+    private final BlockingQueue<FileResource> listed;
+
+    //directories that have been found, but not yet listed
+    private final AtomicInteger pendingDirectories = new AtomicInteger(0);
+
+    private volatile boolean stopped = false;
+
+    /**
+     * @param fileQueue      shared queue
+     * @param numConsumers   number of consumers
+     * @param root           root directory; paths are reported relative to this
+     * @param startDirectory directory under root at which to start crawling
+     * @param crawlOrder     order of the files within each directory
+     * @param numThreads     number of threads that list directories
+     */
+    public FSParallelDirectoryCrawler(BlockingQueue<FileResource> fileQueue,
+                                      int numConsumers, Path root, Path startDirectory,
+                                      FSDirectoryCrawler.CRAWL_ORDER crawlOrder, int numThreads) {
+        super(fileQueue, numConsumers);
+        this.root = root;
+        this.startDirectory = startDirectory;
+        this.crawlOrder = crawlOrder;
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("numThreads must be > 0");
+        }
+        this.numThreads = numThreads;
+        this.listed = new ArrayBlockingQueue<>(Math.max(1000, numThreads * 100));
+        assert(startDirectory.toAbsolutePath().startsWith(root.toAbsolutePath()));
+
+        if (!Files.isDirectory(startDirectory)) {
+            throw new RuntimeException("Crawler couldn't find this directory:" +
+                    startDirectory.toAbsolutePath());
+        }
+    }
+
+    public void start() throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            pendingDirectories.incrementAndGet();
+            pool.execute(new ListDirectory(startDirectory));
+            while (true) {
+                FileResource fileResource = listed.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (fileResource == null) {
+                    //check pending first: a directory's files are handed over
+                    //before it stops being pending
+                    if (pendingDirectories.get() == 0 && listed.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("file adder interrupted");
+                }
+                int added = tryToAdd(fileResource);
+                if (added == FileResourceCrawler.STOP_NOW) {
+                    LOG.debug("crawler has hit a limit: {} : {}", fileResource.getResourceId(), added);
+                    return;
+                }
+                LOG.debug("trying to add: {} : {}", fileResource.getResourceId(), added);
+            }
+        } finally {
+            stopped = true;
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Override this if you have any special handling
+     * for the first actual file that the crawler comes across
+     * in a directory.
+     * <p>
+     * This is called by the threads that list the directories,
+     * so it has to be thread safe.
+     *
+     * @param f file to handle
+     */
+    public void handleFirstFileInDirectory(Path f) {
+        //no-op
+    }
+
+    private void listDirectory(Path directory) throws InterruptedException {
+        List<Path> directories = new ArrayList<>();
+        List<Path> files = null;
+        int numFiles = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(directory)) {
+            if (crawlOrder == FSDirectoryCrawler.CRAWL_ORDER.OS_ORDER) {
+                //no need to hold on to the listing
+                for (Path p : ds) {
+                    if (stopped) {
+                        return;
+                    }
+                    if (handle(p, directories, numFiles + 1)) {
+                        numFiles++;
+                    }
+                }
+            } else {
+                files = new ArrayList<>();
+                for (Path p : ds) {
+                    files.add(p);
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("FSFileAdder couldn't read {}: {}", directory.toAbsolutePath(), e.getMessage(), e);
+        }
+
+        if (files != null) {
+            if (crawlOrder == FSDirectoryCrawler.CRAWL_ORDER.RANDOM) {
+                Collections.shuffle(files);
+            } else {
+                Collections.sort(files, pathComparator);
+            }
+            for (Path p : files) {
+                if (stopped) {
+                    return;
+                }
+                if (handle(p, directories, numFiles + 1)) {
+                    numFiles++;
+                }
+            }
+        }
+        if (numFiles == 0 && directories.isEmpty()) {
+            LOG.info("Empty directory: {}", directory.toAbsolutePath());
+        }
+
+        for (Path d : directories) {
+            pendingDirectories.incrementAndGet();
+            new ListDirectory(d).fork();
+        }
+    }
+
+    //returns whether p was a file that was handed over
+    private boolean handle(Path p, List<Path> directories, int fileNumber)
+            throws InterruptedException {
+        if (!Files.isReadable(p)) {
+            LOG.warn("Skipping -- {} -- file/directory is not readable", p.toAbsolutePath());
+            return false;
+        }
+        if (Files.isDirectory(p)) {
+            directories.add(p);
+            return false;
+        }
+        if (fileNumber == 1) {
+            handleFirstFileInDirectory(p);
+        }
+        listed.put(new FSFileResource(root, p));
+        return true;
+    }
+
+    private class ListDirectory extends RecursiveAction {
+
+        private static final long serialVersionUID = 5319357613460128415L;
+
+        private final Path directory;
+
+        private ListDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (!stopped) {
+                    listDirectory(directory);
+                }
+            } catch (InterruptedException e) {
+                //the crawler has stopped
+                stopped = true;
+            } catch (RuntimeException e) {
+                LOG.warn("FSFileAdder couldn't crawl {}: {}", directory.toAbsolutePath(), e.getMessage(), e);
+            } finally {
+                pendingDirectories.decrementAndGet();
+            }
+        }
+    }
+}
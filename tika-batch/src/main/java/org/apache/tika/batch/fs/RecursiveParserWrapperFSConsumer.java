@@ -23,7 +23,7 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.tika.batch.FileResource;
@@ -59,7 +59,7 @@ public class RecursiveParserWrapperFSConsumer extends AbstractFSConsumer {
      * @param contentHandlerFactory
      * @param fsOSFactory
      */
-    public RecursiveParserWrapperFSConsumer(ArrayBlockingQueue<FileResource> queue,
+    public RecursiveParserWrapperFSConsumer(BlockingQueue<FileResource> queue,
                                             Parser parser,
                                             ContentHandlerFactory contentHandlerFactory,
                                             OutputStreamFactory fsOSFactory) {
@@ -42,7 +42,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * This uses the {@link JsonStreamingSerializer} to write out a
@@ -56,7 +56,7 @@ public class StreamOutRPWFSConsumer extends AbstractFSConsumer {
     private String outputEncoding = "UTF-8";
 
 
-    public StreamOutRPWFSConsumer(ArrayBlockingQueue<FileResource> queue,
+    public StreamOutRPWFSConsumer(BlockingQueue<FileResource> queue,
                                   Parser parser,
                                   ContentHandlerFactory contentHandlerFactory,
                                   OutputStreamFactory fsOSFactory) {
@@ -24,7 +24,7 @@ import java.nio.file.Paths;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.tika.batch.ConsumersManager;
 import org.apache.tika.batch.FileResource;
@@ -56,7 +56,7 @@ public class BasicTikaFSConsumersBuilder extends AbstractConsumersBuilder {
 
     @Override
     public ConsumersManager build(Node node, Map<String, String> runtimeAttributes,
-                                            ArrayBlockingQueue<FileResource> queue) {
+                                            BlockingQueue<FileResource> queue) {
 
         //figure out if we're building a recursiveParserWrapper
         boolean recursiveParserWrapper = false;
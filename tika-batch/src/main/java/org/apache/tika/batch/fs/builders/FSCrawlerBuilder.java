@@ -26,7 +26,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.regex.Pattern;
 
 import org.apache.tika.batch.FileResource;
@@ -36,13 +36,15 @@ import org.apache.tika.batch.builders.ICrawlerBuilder;
 import org.apache.tika.batch.fs.FSDirectoryCrawler;
 import org.apache.tika.batch.fs.FSDocumentSelector;
 import org.apache.tika.batch.fs.FSListCrawler;
+import org.apache.tika.batch.fs.FSParallelDirectoryCrawler;
 import org.apache.tika.extractor.DocumentSelector;
 import org.apache.tika.util.PropsUtil;
 import org.apache.tika.util.XMLDOMUtil;
 import org.w3c.dom.Node;
 
 /**
- * Builds either an FSDirectoryCrawler or an FSListCrawler.
+ * Builds an FSDirectoryCrawler, an FSParallelDirectoryCrawler (if numCrawlerThreads &gt; 1)
+ * or an FSListCrawler.
  */
 public class FSCrawlerBuilder implements ICrawlerBuilder {
 
@@ -52,6 +54,7 @@ public class FSCrawlerBuilder implements ICrawlerBuilder {
 
 
     private final static String CRAWL_ORDER = "crawlOrder";
+    private final static String NUM_CRAWLER_THREADS_ATTR = "numCrawlerThreads";
     private final static String INPUT_DIR_ATTR = "inputDir";
     private final static String INPUT_START_DIR_ATTR = "startDir";
     private final static String MAX_FILE_SIZE_BYTES_ATTR = "maxFileSizeBytes";
@@ -63,7 +66,7 @@ public class FSCrawlerBuilder implements ICrawlerBuilder {
 
     @Override
     public FileResourceCrawler build(Node node, Map<String, String> runtimeAttributes,
-                                     ArrayBlockingQueue<FileResource> queue) {
+                                     BlockingQueue<FileResource> queue) {
 
         Map<String, String> attributes = XMLDOMUtil.mapifyAttrs(node, runtimeAttributes);
 
@@ -95,7 +98,11 @@ public class FSCrawlerBuilder implements ICrawlerBuilder {
         } else {
             FSDirectoryCrawler.CRAWL_ORDER crawlOrder = getCrawlOrder(attributes.get(CRAWL_ORDER));
             Path startDir = PropsUtil.getPath(attributes.get(INPUT_START_DIR_ATTR), null);
-            if (startDir == null) {
+            int numCrawlerThreads = PropsUtil.getInt(attributes.get(NUM_CRAWLER_THREADS_ATTR), 1);
+            if (numCrawlerThreads > 1) {
+                crawler = new FSParallelDirectoryCrawler(queue, numConsumers, inputDir,
+                        (startDir == null) ? inputDir : startDir, crawlOrder, numCrawlerThreads);
+            } else if (startDir == null) {
                 crawler = new FSDirectoryCrawler(queue, numConsumers, inputDir, crawlOrder);
             } else {
                 crawler = new FSDirectoryCrawler(queue, numConsumers, inputDir, startDir, crawlOrder);
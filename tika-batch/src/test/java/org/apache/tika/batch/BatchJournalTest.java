@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.batch;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.tika.batch.fs.FSFileResource;
+import org.apache.tika.metadata.Metadata;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchJournalTest {
+
+    private Path dir;
+
+    private Path journalPath;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("tika-batch-journal-");
+        journalPath = dir.resolve("journal.txt");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir.toFile());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        FileResource finished = resource("finished.txt", "finished");
+        FileResource failed = resource("failed.txt", "failed");
+        FileResource aborted = resource("aborted.txt", "aborted");
+        FileResource crashed = resource("crashed.txt", "crashed");
+        FileResource untouched = resource("untouched.txt", "untouched");
+
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertEquals(0, journal.getResumed());
+            journal.started(finished);
+            assertFalse(journal.isDone(finished));
+            journal.finished(finished);
+            assertTrue(journal.isDone(finished));
+            journal.started(failed);
+            journal.failed(failed);
+            journal.started(aborted);
+            journal.aborted(aborted);
+            assertFalse(journal.isDone(aborted));
+            journal.started(crashed);
+        }
+
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertEquals(2, journal.getResumed());
+            assertTrue(journal.isDone(finished));
+            assertTrue(journal.isDone(failed));
+            //aborted by a shutdown or never ended, so they're retried
+            assertFalse(journal.isDone(aborted));
+            assertFalse(journal.isDone(crashed));
+            assertFalse(journal.isDone(untouched));
+            journal.started(crashed);
+            journal.finished(crashed);
+        }
+
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertEquals(3, journal.getResumed());
+            assertTrue(journal.isDone(crashed));
+        }
+    }
+
+    @Test
+    public void testAbortedAfterFailed() throws Exception {
+        //a timed out file may still be aborted when its consumer is shut down
+        FileResource timedOut = resource("timedOut.txt", "timedOut");
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            journal.started(timedOut);
+            journal.failed(timedOut);
+            journal.aborted(timedOut);
+            assertTrue(journal.isDone(timedOut));
+        }
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertTrue(journal.isDone(timedOut));
+        }
+    }
+
+    @Test
+    public void testChangedFile() throws Exception {
+        Path path = dir.resolve("changed.txt");
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            journal.finished(resource("changed.txt", "before"));
+        }
+        Files.write(path, "after, and longer".getBytes(UTF_8));
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertFalse(journal.isDone(new FSFileResource(dir, path)));
+        }
+
+        Files.setLastModifiedTime(path, FileTime.fromMillis(0));
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            journal.finished(new FSFileResource(dir, path));
+        }
+        Files.setLastModifiedTime(path, FileTime.fromMillis(60000));
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertFalse(journal.isDone(new FSFileResource(dir, path)));
+        }
+    }
+
+    @Test
+    public void testTornEntry() throws Exception {
+        FileResource first = resource("first.txt", "first");
+        FileResource second = resource("second.txt", "second");
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            journal.finished(first);
+        }
+        //a crash in the middle of writing an entry
+        long length = Files.size(journalPath);
+        Files.write(journalPath, "F\t12\t3".getBytes(UTF_8), StandardOpenOption.APPEND);
+
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertEquals(1, journal.getResumed());
+            assertEquals(length, Files.size(journalPath));
+            journal.finished(second);
+        }
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertEquals(2, journal.getResumed());
+            assertTrue(journal.isDone(first));
+            assertTrue(journal.isDone(second));
+        }
+    }
+
+    @Test
+    public void testManyFiles() throws Exception {
+        Path path = dir.resolve("many.txt");
+        Files.write(path, "many".getBytes(UTF_8));
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            for (int i = 0; i < 10000; i++) {
+                journal.finished(new NamedResource(new FSFileResource(dir, path), "file" + i));
+            }
+        }
+        try (BatchJournal journal = BatchJournal.open(journalPath)) {
+            assertEquals(10000, journal.getResumed());
+            for (int i = 0; i < 10000; i++) {
+                assertTrue(journal.isDone(
+                        new NamedResource(new FSFileResource(dir, path), "file" + i)));
+            }
+            assertFalse(journal.isDone(
+                    new NamedResource(new FSFileResource(dir, path), "file10000")));
+        }
+    }
+
+    private FileResource resource(String name, String content) throws Exception {
+        Path path = dir.resolve(name);
+        Files.write(path, content.getBytes(UTF_8));
+        return new FSFileResource(dir, path);
+    }
+
+    //same size and last modified time, different id
+    private static class NamedResource implements FileResource {
+
+        private final FileResource resource;
+
+        private final String resourceId;
+
+        private NamedResource(FileResource resource, String resourceId) {
+            this.resource = resource;
+            this.resourceId = resourceId;
+        }
+
+        @Override
+        public String getResourceId() {
+            return resourceId;
+        }
+
+        @Override
+        public Metadata getMetadata() {
+            return resource.getMetadata();
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.junit.Test;
+
+public class LanedFileResourceQueueTest {
+
+    @Test
+    public void testSelectLane() throws Exception {
+        LanedFileResourceQueue queue = new LanedFileResourceQueue(10, Arrays.asList(
+                new LanedFileResourceQueue.Lane("large", 1000, null, -1),
+                new LanedFileResourceQueue.Lane("mail", -1, Pattern.compile("(?i)\\.pst$"), -1),
+                new LanedFileResourceQueue.Lane("small", -1, null, -1)), false);
+        queue.offer(resource("big.txt", 5000));
+        queue.offer(resource("big.pst", 5000));
+        queue.offer(resource("small.PST", 10));
+        queue.offer(resource("small.txt", 10));
+        queue.offer(resource("unknown.txt", -1));
+
+        List<LanedFileResourceQueue.Lane> lanes = queue.getLanes();
+        assertEquals(2, lanes.get(0).getBacklog());
+        assertEquals(1, lanes.get(1).getBacklog());
+        assertEquals(2, lanes.get(2).getBacklog());
+        assertEquals(5, queue.size());
+        assertEquals(5, queue.toArray().length);
+    }
+
+    @Test
+    public void testLargestFirst() throws Exception {
+        LanedFileResourceQueue queue = new LanedFileResourceQueue(10, Arrays.asList(
+                new LanedFileResourceQueue.Lane("all", -1, null, -1)), true);
+        queue.offer(resource("a", 10));
+        queue.offer(resource("b", 1000));
+        queue.offer(resource("c", 100));
+        queue.offer(resource("d", 1000));
+        assertEquals("b", queue.poll().getResourceId());
+        assertEquals("d", queue.poll().getResourceId());
+        assertEquals("c", queue.poll().getResourceId());
+        assertEquals("a", queue.poll().getResourceId());
+        assertNull(queue.poll());
+
+        queue = new LanedFileResourceQueue(10, Arrays.asList(
+                new LanedFileResourceQueue.Lane("all", -1, null, -1)), false);
+        queue.offer(resource("a", 10));
+        queue.offer(resource("b", 1000));
+        assertEquals("a", queue.poll().getResourceId());
+        assertEquals("b", queue.poll().getResourceId());
+    }
+
+    @Test
+    public void testMaxConsumers() throws Exception {
+        LanedFileResourceQueue queue = new LanedFileResourceQueue(10, Arrays.asList(
+                new LanedFileResourceQueue.Lane("large", 1000, null, 1),
+                new LanedFileResourceQueue.Lane("small", -1, null, -1)), true);
+        queue.offer(resource("large1", 2000));
+        queue.offer(resource("large2", 1000));
+        queue.offer(resource("small1", 10));
+        PoisonFileResource poison = new PoisonFileResource();
+        queue.offer(poison);
+
+        //the lane with the fewest consumers goes first
+        FileResource large1 = queue.poll();
+        assertEquals("large1", large1.getResourceId());
+        FileResource small1 = queue.poll();
+        assertEquals("small1", small1.getResourceId());
+        //large is at its cap, and the poison has to wait for large2
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        assertNull(queue.peek());
+        //but they're still queued, so consumers keep waiting for them
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.getLanes().get(0).getActive());
+
+        queue.finished(large1);
+        assertEquals("large2", queue.poll().getResourceId());
+        assertSame(poison, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(1, queue.getLanes().get(0).getCompleted());
+        assertEquals(2000, queue.getLanes().get(0).getCompletedBytes());
+    }
+
+    @Test(timeout = 10000)
+    public void testFinishedWakesConsumer() throws Exception {
+        final LanedFileResourceQueue queue = new LanedFileResourceQueue(10, Arrays.asList(
+                new LanedFileResourceQueue.Lane("all", -1, null, 1)), false);
+        queue.offer(resource("a", 10));
+        queue.offer(resource("b", 10));
+        final FileResource a = queue.poll();
+        Thread finisher = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    //swallow
+                }
+                queue.finished(a);
+            }
+        };
+        finisher.start();
+        assertEquals("b", queue.poll(5, TimeUnit.SECONDS).getResourceId());
+        finisher.join();
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        LanedFileResourceQueue queue = new LanedFileResourceQueue(2, Arrays.asList(
+                new LanedFileResourceQueue.Lane("all", -1, null, -1)), false);
+        assertTrue(queue.offer(resource("a", 10)));
+        assertTrue(queue.offer(new PoisonFileResource()));
+        assertFalse(queue.offer(resource("b", 10)));
+        assertFalse(queue.offer(resource("b", 10), 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, queue.remainingCapacity());
+        queue.poll();
+        assertEquals(1, queue.remainingCapacity());
+        assertTrue(queue.offer(resource("b", 10)));
+        queue.clear();
+        assertEquals(2, queue.remainingCapacity());
+        assertEquals(0, queue.getLanes().get(0).getBacklog());
+    }
+
+    private static FileResource resource(String name, long length) {
+        Metadata metadata = new Metadata();
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, name);
+        if (length > -1) {
+            metadata.set(Metadata.CONTENT_LENGTH, Long.toString(length));
+        }
+        return new MockResource(name, metadata);
+    }
+
+    private static class MockResource implements FileResource {
+
+        private final String resourceId;
+
+        private final Metadata metadata;
+
+        private MockResource(String resourceId, Metadata metadata) {
+            this.resourceId = resourceId;
+            this.metadata = metadata;
+        }
+
+        @Override
+        public String getResourceId() {
+            return resourceId;
+        }
+
+        @Override
+        public Metadata getMetadata() {
+            return metadata;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return null;
+        }
+    }
+}
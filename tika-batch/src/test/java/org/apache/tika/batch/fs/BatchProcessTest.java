@@ -53,6 +53,57 @@ public class BatchProcessTest extends FSBatchTestBase {
     }
 
 
+    @Test(timeout = 30000)
+    public void testResumeFromJournal() throws Exception {
+        Path journal = getNewOutputDir("one_heavy_hang_journal-").resolve("journal.txt");
+        Path outputDir = getNewOutputDir("one_heavy_hang-");
+        Map<String, String> args = getDefaultArgs("one_heavy_hang", outputDir);
+        args.put("journal", "\""+journal.toString()+"\"");
+        new BatchProcessTestExecutor(args).execute();
+        assertEquals(5, countChildren(outputDir));
+        assertTrue(Files.isRegularFile(journal));
+        //only the file that timed out is journaled as failed
+        String journalString = readFileToString(journal, UTF_8);
+        assertContains("X\t", journalString);
+        for (String line : journalString.split("\n")) {
+            if (line.startsWith("X\t")) {
+                assertTrue(line, line.endsWith("test0_heavy_hang.xml"));
+            }
+        }
+
+        //everything was either processed or hung, so nothing is left to do,
+        //even with a new output directory
+        Path rerunOutputDir = getNewOutputDir("one_heavy_hang_rerun-");
+        args = getDefaultArgs("one_heavy_hang", rerunOutputDir);
+        args.put("journal", "\""+journal.toString()+"\"");
+        new BatchProcessTestExecutor(args).execute();
+        assertEquals(0, countChildren(rerunOutputDir));
+    }
+
+    @Test(timeout = 30000)
+    public void testLanes() throws Exception {
+        Path outputDir = getNewOutputDir("lanes-");
+        Map<String, String> args = getDefaultArgs("hierarchical", outputDir);
+        BatchProcessTestExecutor ex = new BatchProcessTestExecutor(args,
+                "/tika-batch-config-lanes-test.xml");
+        ex.execute();
+        assertTrue(Files.isRegularFile(outputDir.resolve("test1.xml.xml")));
+        assertTrue(Files.isRegularFile(outputDir.resolve("sub1a/test2.xml.xml")));
+        assertTrue(Files.isRegularFile(outputDir.resolve("sub1a/sub2a/test3.xml.xml")));
+    }
+
+    @Test(timeout = 30000)
+    public void testParallelCrawler() throws Exception {
+        Path outputDir = getNewOutputDir("parallel-crawler-");
+        Map<String, String> args = getDefaultArgs("hierarchical", outputDir);
+        args.put("numCrawlerThreads", "4");
+        BatchProcessTestExecutor ex = new BatchProcessTestExecutor(args);
+        ex.execute();
+        assertTrue(Files.isRegularFile(outputDir.resolve("test1.xml.xml")));
+        assertTrue(Files.isRegularFile(outputDir.resolve("sub1a/test2.xml.xml")));
+        assertTrue(Files.isRegularFile(outputDir.resolve("sub1a/sub2a/test3.xml.xml")));
+    }
+
     @Test(timeout = 15000)
     public void allHeavyHangsTest() throws Exception {
         //each of the three threads hits a heavy hang.  The BatchProcess runs into
@@ -0,0 +1,159 @@
+package org.apache.tika.batch.fs;
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.tika.batch.FileResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FSParallelDirectoryCrawlerTest {
+
+    private Path root;
+
+    private Set<String> expected;
+
+    @Before
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("tika-batch-parallel-crawl-");
+        expected = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            Path a = root.resolve("a" + i);
+            for (int j = 0; j < 5; j++) {
+                Path b = a.resolve("b" + j);
+                Files.createDirectories(b);
+                for (int k = 0; k < 4; k++) {
+                    write(b.resolve("file" + k + ".txt"));
+                }
+            }
+            write(a.resolve("file.txt"));
+        }
+        write(root.resolve("file.txt"));
+        Files.createDirectories(root.resolve("empty"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(root.toFile());
+    }
+
+    @Test(timeout = 30000)
+    public void testAllFilesOnce() throws Exception {
+        ArrayBlockingQueue<FileResource> queue = new ArrayBlockingQueue<>(1000);
+        FSParallelDirectoryCrawler crawler = newCrawler(queue, FSDirectoryCrawler.CRAWL_ORDER.OS_ORDER);
+        crawler.call();
+        assertEquals(expected.size(), crawler.getAdded());
+        assertEquals(expected.size(), crawler.getConsidered());
+        assertEquals(expected, resourceIds(queue));
+    }
+
+    @Test(timeout = 30000)
+    public void testSortedWithinDirectory() throws Exception {
+        ArrayBlockingQueue<FileResource> queue = new ArrayBlockingQueue<>(1000);
+        newCrawler(queue, FSDirectoryCrawler.CRAWL_ORDER.SORTED).call();
+        //the crawler's thread hands files over in the order in which a directory lists them
+        String last = null;
+        for (FileResource r : queue) {
+            if (!(r instanceof FSFileResource)) {
+                continue;
+            }
+            String id = r.getResourceId().replace('\\', '/');
+            if (id.startsWith("a2/b3/")) {
+                if (last != null) {
+                    assertTrue(last + " should come before " + id, last.compareTo(id) < 0);
+                }
+                last = id;
+            }
+        }
+        assertEquals("a2/b3/file3.txt", last);
+    }
+
+    @Test(timeout = 30000)
+    public void testMaxFilesToAdd() throws Exception {
+        ArrayBlockingQueue<FileResource> queue = new ArrayBlockingQueue<>(1000);
+        FSParallelDirectoryCrawler crawler = newCrawler(queue, FSDirectoryCrawler.CRAWL_ORDER.OS_ORDER);
+        crawler.setMaxFilesToAdd(10);
+        crawler.call();
+        assertEquals(10, crawler.getAdded());
+        assertEquals(10, resourceIds(queue).size());
+    }
+
+    @Test(timeout = 30000)
+    public void testSmallQueue() throws Exception {
+        //the crawler has to wait for the consumer over and over again
+        final ArrayBlockingQueue<FileResource> queue = new ArrayBlockingQueue<>(2);
+        final FSParallelDirectoryCrawler crawler =
+                newCrawler(queue, FSDirectoryCrawler.CRAWL_ORDER.RANDOM);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = executor.submit(crawler);
+            Set<String> ids = new HashSet<>();
+            while (!future.isDone() || !queue.isEmpty()) {
+                FileResource r = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (r instanceof FSFileResource) {
+                    assertTrue(ids.add(r.getResourceId().replace('\\', '/')));
+                }
+            }
+            future.get();
+            assertEquals(expected.size(), crawler.getAdded());
+            assertEquals(expected, ids);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FSParallelDirectoryCrawler newCrawler(ArrayBlockingQueue<FileResource> queue,
+                                                  FSDirectoryCrawler.CRAWL_ORDER crawlOrder) {
+        FSParallelDirectoryCrawler crawler = new FSParallelDirectoryCrawler(queue, 1,
+                root, root, crawlOrder, 4);
+        crawler.setDocumentSelector(new FSDocumentSelector(null, null, -1, -1));
+        return crawler;
+    }
+
+    private Set<String> resourceIds(ArrayBlockingQueue<FileResource> queue) {
+        Set<String> ids = new HashSet<>();
+        List<FileResource> resources = new ArrayList<>(queue);
+        for (FileResource r : resources) {
+            if (r instanceof FSFileResource) {
+                assertTrue(ids.add(r.getResourceId().replace('\\', '/')));
+            }
+        }
+        return ids;
+    }
+
+    private void write(Path file) throws Exception {
+        Files.write(file, file.getFileName().toString().getBytes(UTF_8));
+        expected.add(root.relativize(file).toString().replace('\\', '/'));
+    }
+}
@@ -17,7 +17,7 @@ package org.apache.tika.batch.mock;
  * limitations under the License.
  */
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.tika.batch.ConsumersManager;
 import org.apache.tika.batch.FileResource;
@@ -28,7 +28,7 @@ public class MockConsumersBuilder extends BasicTikaFSConsumersBuilder {
 
     @Override
     public ConsumersManager build(Node node, Map<String, String> runtimeAttributes,
-                                  ArrayBlockingQueue<FileResource> queue) {
+                                  BlockingQueue<FileResource> queue) {
         ConsumersManager manager = super.build(node, runtimeAttributes, queue);
 
         boolean hangOnInit = runtimeAttributes.containsKey("hangOnInit");
@@ -24,6 +24,7 @@ import java.io.Reader;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 import org.apache.tika.config.TikaConfig;
 import org.apache.tika.detect.Detector;
@@ -74,6 +75,13 @@ public class Tika {
      */
     private int maxStringLength = 100 * 1000;
 
+    /**
+     * Executor for the parsing tasks behind the readers returned by the
+     * parse methods, or <code>null</code> to use a shared pool of
+     * daemon threads.
+     */
+    private Executor executor = null;
+
     /**
      * Creates a Tika facade using the given detector and parser instances, but the default Translator.
      *
@@ -409,6 +417,9 @@ public class Tika {
             throws IOException {
         ParseContext context = new ParseContext();
         context.set(Parser.class, parser);
+        if (executor != null) {
+            return new ParsingReader(parser, stream, metadata, context, executor);
+        }
         return new ParsingReader(parser, stream, metadata, context);
     }
 
@@ -686,6 +697,34 @@ public class Tika {
         this.maxStringLength = maxStringLength;
     }
 
+    /**
+     * Returns the executor that runs the parsing tasks behind the readers
+     * returned by the parse methods.
+     *
+     * @since Apache Tika 2.0.0
+     * @return executor, or <code>null</code> if a shared pool of daemon
+     *         threads is used
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the executor that runs the parsing tasks behind the readers
+     * returned by the parse methods. Each task blocks while its reader
+     * is not being read, so the executor should not limit the number of
+     * concurrent tasks below the number of open readers. On JVMs that
+     * have them, an executor that starts a virtual thread per task is
+     * a good fit.
+     *
+     * @since Apache Tika 2.0.0
+     * @param executor executor, or <code>null</code> to use a shared pool
+     *                 of daemon threads
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
     /**
      * Returns the parser instance used by this facade.
      *
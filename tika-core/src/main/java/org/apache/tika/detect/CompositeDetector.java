@@ -31,6 +31,10 @@ import org.apache.tika.mime.MediaTypeRegistry;
 
 /**
  * Content type detector that combines multiple different detection mechanisms.
+ * <p>
+ * The start of the stream is read once, into a {@link DetectionProbe} that
+ * is shared by the component {@link ProbeDetector}s.  Other detectors are
+ * given the stream.
  */
 public class CompositeDetector implements Detector {
 
@@ -74,14 +78,24 @@ public class CompositeDetector implements Detector {
     public MediaType detect(InputStream input, Metadata metadata)
             throws IOException { 
         MediaType type = MediaType.OCTET_STREAM;
-        for (Detector detector : getDetectors()) {
+        List<Detector> detectors = getDetectors();
+        DetectionProbe probe = null;
+        for (Detector detector : detectors) {
             //short circuit via OverrideDetector
             //can't rely on ordering because subsequent detector may
             //change Override's to a specialization of Override's
             if (detector instanceof OverrideDetector && metadata.get(TikaCoreProperties.CONTENT_TYPE_OVERRIDE) != null) {
                 return detector.detect(input, metadata);
             }
-            MediaType detected = detector.detect(input, metadata);
+            MediaType detected;
+            if (detector instanceof ProbeDetector && input != null && input.markSupported()) {
+                if (probe == null) {
+                    probe = DetectionProbe.get(input, getProbeLength(detectors));
+                }
+                detected = ((ProbeDetector) detector).detectFromProbe(probe, metadata);
+            } else {
+                detected = detector.detect(input, metadata);
+            }
             if (registry.isSpecializationOf(detected, type)) {
                 type = detected;
             }
@@ -89,6 +103,16 @@ public class CompositeDetector implements Detector {
         return type;
     }
 
+    private static int getProbeLength(List<Detector> detectors) {
+        int length = 0;
+        for (Detector detector : detectors) {
+            if (detector instanceof ProbeDetector) {
+                length = Math.max(length, ((ProbeDetector) detector).getProbeLength());
+            }
+        }
+        return length;
+    }
+
     /**
      * Returns the component detectors.
      */
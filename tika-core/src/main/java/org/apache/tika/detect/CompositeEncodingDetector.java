@@ -27,6 +27,14 @@ import java.util.List;
 
 import org.apache.tika.metadata.Metadata;
 
+/**
+ * Encoding detector that returns the first encoding found by its component
+ * detectors.
+ * <p>
+ * The start of the stream is read once, into a {@link DetectionProbe} that
+ * is shared by the component {@link ProbeEncodingDetector}s.  Other
+ * detectors are given the stream.
+ */
 public class CompositeEncodingDetector implements EncodingDetector, Serializable {
 
     /**
@@ -63,8 +71,18 @@ public class CompositeEncodingDetector implements EncodingDetector, Serializable
      */
     @Override
     public Charset detect(InputStream input, Metadata metadata) throws IOException {
-        for (EncodingDetector detector : getDetectors()) {
-            Charset detected = detector.detect(input, metadata);
+        List<EncodingDetector> detectors = getDetectors();
+        DetectionProbe probe = null;
+        for (EncodingDetector detector : detectors) {
+            Charset detected;
+            if (detector instanceof ProbeEncodingDetector && input != null && input.markSupported()) {
+                if (probe == null) {
+                    probe = DetectionProbe.get(input, getProbeLength(detectors));
+                }
+                detected = ((ProbeEncodingDetector) detector).detectFromProbe(probe, metadata);
+            } else {
+                detected = detector.detect(input, metadata);
+            }
             if (detected != null) {
                 return detected;
             }
@@ -72,6 +90,16 @@ public class CompositeEncodingDetector implements EncodingDetector, Serializable
         return null;
     }
 
+    private static int getProbeLength(List<EncodingDetector> detectors) {
+        int length = 0;
+        for (EncodingDetector detector : detectors) {
+            if (detector instanceof ProbeEncodingDetector) {
+                length = Math.max(length, ((ProbeEncodingDetector) detector).getProbeLength());
+            }
+        }
+        return length;
+    }
+
     public List<EncodingDetector> getDetectors() {
         return Collections.unmodifiableList(detectors);
     }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.detect;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.tika.io.IOUtils;
+import org.apache.tika.io.TikaInputStream;
+
+/**
+ * The first bytes of a document stream, read once and shared by the
+ * detectors that look at them.  {@link CompositeDetector} and
+ * {@link CompositeEncodingDetector} read a probe as long as the longest
+ * prefix that any of their {@link ProbeDetector probe-aware} components
+ * asks for, and hand out views of it rather than having each component
+ * mark, read and reset the stream into its own buffer.
+ * <p>
+ * When the stream is a {@link TikaInputStream}, the probe is kept with
+ * the stream, so that later detection at the same position, for example
+ * of the encoding after the media type, reuses it.
+ * <p>
+ * The bytes that are handed out are shared, and must not be modified.
+ *
+ * @since Apache Tika 2.0.0
+ */
+public final class DetectionProbe {
+
+    private final byte[] data;
+
+    private final boolean complete;
+
+    private DetectionProbe(byte[] data, boolean complete) {
+        this.data = data;
+        this.complete = complete;
+    }
+
+    /**
+     * Returns a probe with at least the given number of bytes from the
+     * current position of the stream, or all of them if the stream is
+     * shorter.  The stream is marked and reset, and must support that.
+     *
+     * @param input document stream
+     * @param length number of bytes to read
+     * @return detection probe
+     * @throws IOException if the stream could not be read
+     */
+    public static DetectionProbe get(InputStream input, int length) throws IOException {
+        TikaInputStream tis = TikaInputStream.cast(input);
+        if (tis != null) {
+            DetectionProbe probe = tis.getDetectionProbe();
+            if (probe != null && (probe.complete || probe.data.length >= length)) {
+                return probe;
+            }
+        }
+        DetectionProbe probe = read(input, length);
+        if (tis != null) {
+            tis.setDetectionProbe(probe);
+        }
+        return probe;
+    }
+
+    private static DetectionProbe read(InputStream input, int length) throws IOException {
+        byte[] data = new byte[length];
+        int n;
+        input.mark(length);
+        try {
+            n = IOUtils.read(input, data, 0, length);
+        } finally {
+            input.reset();
+        }
+        if (n < length) {
+            return new DetectionProbe(Arrays.copyOf(data, n), true);
+        }
+        return new DetectionProbe(data, false);
+    }
+
+    /**
+     * @return number of bytes in the probe
+     */
+    public int length() {
+        return data.length;
+    }
+
+    /**
+     * @return true if the probe holds the whole stream
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the bytes of the probe, without copying them.  The
+     * array must not be modified.
+     *
+     * @return shared array of {@link #length()} bytes
+     */
+    public byte[] array() {
+        return data;
+    }
+
+    /**
+     * Returns the first bytes of the probe as an array of exactly that
+     * length.  This is the shared array, which must not be modified,
+     * if it has that length, and a copy otherwise.
+     *
+     * @param maxLength number of bytes
+     * @return the first maxLength bytes, or all of them if there are fewer
+     */
+    public byte[] prefix(int maxLength) {
+        if (maxLength >= data.length) {
+            return data;
+        }
+        return Arrays.copyOf(data, maxLength);
+    }
+
+    /**
+     * @param maxLength number of bytes
+     * @return read-only view of the first maxLength bytes, or of all of
+     * them if there are fewer
+     */
+    public ByteBuffer slice(int maxLength) {
+        return ByteBuffer.wrap(data, 0, Math.min(maxLength, data.length)).asReadOnlyBuffer();
+    }
+
+    /**
+     * @param maxLength number of bytes
+     * @return stream over the first maxLength bytes, or over all of them
+     * if there are fewer; supports mark and reset
+     */
+    public InputStream newStream(int maxLength) {
+        return new ByteArrayInputStream(data, 0, Math.min(maxLength, data.length));
+    }
+}
@@ -245,6 +245,11 @@ public class MagicDetector implements Detector {
      */
     private final int offsetRangeEnd;
 
+    /**
+     * Compiled regular expression, created on first use.
+     */
+    private transient volatile Pattern regex;
+
     /**
      * Creates a detector for input documents that have the exact given byte
      * pattern at the beginning of the document stream.
@@ -388,25 +393,8 @@ public class MagicDetector implements Detector {
             }
 
             if (this.isRegex) {
-                int flags = 0;
-                if (this.isStringIgnoreCase) {
-                    flags = Pattern.CASE_INSENSITIVE;
-                }
-                
-                Pattern p = Pattern.compile(new String(this.pattern, UTF_8), flags);
-
-                ByteBuffer bb = ByteBuffer.wrap(buffer);
-                CharBuffer result = ISO_8859_1.decode(bb);
-                Matcher m = p.matcher(result);
-
-                boolean match = false;
-                // Loop until we've covered the entire offset range
-                for (int i = 0; i <= offsetRangeEnd - offsetRangeBegin; i++) {
-                    m.region(i,  length+i);
-                    match = m.lookingAt(); // match regex from start of region
-                    if (match) {
-                        return type;
-                    }
+                if (matchesRegex(buffer)) {
+                    return type;
                 }
             } else {
                 if (offset < offsetRangeBegin + length) {
@@ -435,6 +423,101 @@ public class MagicDetector implements Detector {
         }
     }
 
+    /**
+     * Checks whether the given document prefix matches this detector.
+     * This gives the same result as calling {@link #detect(InputStream, Metadata)}
+     * on a {@link java.io.ByteArrayInputStream} over the data, but
+     * compares against the array directly instead of copying the
+     * comparison window out of a stream.
+     *
+     * @param data first bytes of the document
+     * @return <code>true</code> if the magic matches
+     * @since Apache Tika 2.0.0
+     */
+    public boolean matches(byte[] data) {
+        if (data.length < offsetRangeBegin) {
+            return false;
+        }
+        if (this.isRegex) {
+            // Bytes past the end of the data are compared as zeros,
+            // as they would be in the window read from a stream
+            byte[] buffer = new byte[length + (offsetRangeEnd - offsetRangeBegin)];
+            System.arraycopy(data, offsetRangeBegin, buffer, 0,
+                    Math.min(buffer.length, data.length - offsetRangeBegin));
+            return matchesRegex(buffer);
+        }
+        if (data.length - offsetRangeBegin < length) {
+            return false;
+        }
+        // Loop until we've covered the entire offset range
+        for (int i = offsetRangeBegin; i <= offsetRangeEnd; i++) {
+            boolean match = true;
+            int masked;
+            for (int j = 0; match && j < length; j++) {
+                byte b = (i + j < data.length) ? data[i + j] : 0;
+                masked = (b & mask[j]);
+                if (this.isStringIgnoreCase) {
+                    masked = Character.toLowerCase(masked);
+                }
+                match = (masked == pattern[j]);
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns which values of the first byte of a document could be
+     * matched by this detector, indexed by unsigned byte value, or
+     * <code>null</code> if this detector does not look at the first
+     * byte on its own.  This allows callers to skip the detector
+     * for documents that can't match it.
+     *
+     * @return possible first bytes, or <code>null</code> if any
+     * @since Apache Tika 2.0.0
+     */
+    public boolean[] getFirstBytes() {
+        if (isRegex || offsetRangeBegin != 0 || offsetRangeEnd != 0 || length == 0) {
+            return null;
+        }
+        boolean[] firstBytes = new boolean[256];
+        for (int b = Byte.MIN_VALUE; b <= Byte.MAX_VALUE; b++) {
+            int masked = (((byte) b) & mask[0]);
+            if (this.isStringIgnoreCase) {
+                masked = Character.toLowerCase(masked);
+            }
+            firstBytes[b & 0xFF] = (masked == pattern[0]);
+        }
+        return firstBytes;
+    }
+
+    private boolean matchesRegex(byte[] buffer) {
+        Pattern p = regex;
+        if (p == null) {
+            int flags = 0;
+            if (this.isStringIgnoreCase) {
+                flags = Pattern.CASE_INSENSITIVE;
+            }
+            p = Pattern.compile(new String(this.pattern, UTF_8), flags);
+            regex = p;
+        }
+
+        ByteBuffer bb = ByteBuffer.wrap(buffer);
+        CharBuffer result = ISO_8859_1.decode(bb);
+        Matcher m = p.matcher(result);
+
+        // Loop until we've covered the entire offset range
+        for (int i = 0; i <= offsetRangeEnd - offsetRangeBegin; i++) {
+            m.region(i,  length+i);
+            if (m.lookingAt()) { // match regex from start of region
+                return true;
+            }
+        }
+        return false;
+    }
+
     public int getLength() {
         return this.patternLength;
     }
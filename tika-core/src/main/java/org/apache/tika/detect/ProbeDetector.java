@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.detect;
+
+import java.io.IOException;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+
+/**
+ * Detector that only looks at the start of the document stream, and
+ * can do so from a {@link DetectionProbe} shared with other detectors.
+ * {@link CompositeDetector} uses {@link #detectFromProbe(DetectionProbe, Metadata)}
+ * when the stream is available; the stream based method remains for
+ * other callers.
+ *
+ * @since Apache Tika 2.0.0
+ */
+public interface ProbeDetector extends Detector {
+
+    /**
+     * @return number of bytes from the start of the stream that the
+     * detector looks at
+     */
+    int getProbeLength();
+
+    /**
+     * Detects the media type from the start of the document stream, which
+     * holds at least {@link #getProbeLength()} bytes unless the stream is
+     * shorter, and from the metadata, which is only read.
+     *
+     * @param probe start of the document stream
+     * @param metadata input metadata for the document
+     * @return detected media type, or <code>application/octet-stream</code>
+     * @throws IOException if the document stream could not be read
+     */
+    MediaType detectFromProbe(DetectionProbe probe, Metadata metadata) throws IOException;
+
+}
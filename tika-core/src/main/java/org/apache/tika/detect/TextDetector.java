@@ -36,7 +36,7 @@ import org.apache.tika.mime.MediaType;
  *
  * @since Apache Tika 0.3
  */
-public class TextDetector implements Detector {
+public class TextDetector implements ProbeDetector {
 
     /** Serial version UID */
     private static final long serialVersionUID = 4774601079503507765L;
@@ -127,14 +127,30 @@ public class TextDetector implements Detector {
                 m = input.read(buffer, 0, Math.min(bytesToTest - n, buffer.length));
             }
 
-            if (stats.isMostlyAscii() || stats.looksLikeUTF8()) {
-                return MediaType.TEXT_PLAIN;
-            } else {
-                return MediaType.OCTET_STREAM;
-            }
+            return detect(stats);
         } finally {
             input.reset();
         }
     }
 
+    @Override
+    public int getProbeLength() {
+        return bytesToTest;
+    }
+
+    @Override
+    public MediaType detectFromProbe(DetectionProbe probe, Metadata metadata) {
+        TextStatistics stats = new TextStatistics();
+        stats.addData(probe.array(), 0, Math.min(bytesToTest, probe.length()));
+        return detect(stats);
+    }
+
+    private static MediaType detect(TextStatistics stats) {
+        if (stats.isMostlyAscii() || stats.looksLikeUTF8()) {
+            return MediaType.TEXT_PLAIN;
+        } else {
+            return MediaType.OCTET_STREAM;
+        }
+    }
+
 }
@@ -19,12 +19,24 @@ package org.apache.tika.fork;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
 
+/**
+ * Proxy for a {@link ContentHandler} in the parent process.
+ * <p>
+ * SAX events are written to the (buffered) output stream without waiting
+ * for the parent process and without flushing after every event, so that
+ * many events go over the pipe in a single write. Character data is sent
+ * in bulk, and element and attribute names are sent only once per call,
+ * after which they are referred to by their index in a string table that
+ * {@link ContentHandlerResource} maintains in step with this proxy.
+ */
 class ContentHandlerProxy implements ContentHandler, ForkProxy {
 
     public static final int START_DOCUMENT         =  1;
@@ -38,6 +50,21 @@ class ContentHandlerProxy implements ContentHandler, ForkProxy {
     public static final int PROCESSING_INSTRUCTION =  9;
     public static final int SKIPPED_ENTITY         = 10;
 
+    static final int STRING_NULL       = 0;
+    static final int STRING_LITERAL    = 1;
+    static final int STRING_DEFINITION = 2;
+    static final int STRING_REFERENCE  = 3;
+
+    /**
+     * Maximum number of names kept in the string table.
+     */
+    static final int MAX_STRING_TABLE_SIZE = 4096;
+
+    /**
+     * Size of the buffer used to convert character data to bytes.
+     */
+    static final int CHARACTER_BUFFER_SIZE = 8192;
+
     /** Serial version UID */
     private static final long serialVersionUID = 737511106054617524L;
 
@@ -45,12 +72,18 @@ class ContentHandlerProxy implements ContentHandler, ForkProxy {
 
     private transient DataOutputStream output;
 
+    private transient Map<String, Integer> strings;
+
+    private transient byte[] buffer;
+
     public ContentHandlerProxy(int resource) {
         this.resource = resource;
     }
 
     public void init(DataInputStream input, DataOutputStream output) {
         this.output = output;
+        this.strings = new HashMap<>();
+        this.buffer = new byte[CHARACTER_BUFFER_SIZE];
     }
 
     private void sendRequest(int type) throws SAXException {
@@ -63,13 +96,41 @@ class ContentHandlerProxy implements ContentHandler, ForkProxy {
         }
     }
 
+    /**
+     * Sends a name (namespace URI, prefix, element or attribute name or
+     * type), which is likely to be repeated and is thus added to the
+     * string table on first use.
+     */
+    private void sendName(String name) throws SAXException {
+        try {
+            if (name == null) {
+                output.writeByte(STRING_NULL);
+                return;
+            }
+            Integer index = strings.get(name);
+            if (index != null) {
+                output.writeByte(STRING_REFERENCE);
+                output.writeShort(index);
+            } else if (strings.size() < MAX_STRING_TABLE_SIZE) {
+                strings.put(name, strings.size());
+                output.writeByte(STRING_DEFINITION);
+                writeCharacters(name.toCharArray(), 0, name.length());
+            } else {
+                output.writeByte(STRING_LITERAL);
+                writeCharacters(name.toCharArray(), 0, name.length());
+            }
+        } catch (IOException e) {
+            throw new SAXException("Unexpected fork proxy problem", e);
+        }
+    }
+
     private void sendString(String string) throws SAXException {
         try {
             if (string != null) {
-                output.writeBoolean(true);
-                output.writeUTF(string);
+                output.writeByte(STRING_LITERAL);
+                writeCharacters(string.toCharArray(), 0, string.length());
             } else {
-                output.writeBoolean(false);
+                output.writeByte(STRING_NULL);
             }
         } catch (IOException e) {
             throw new SAXException("Unexpected fork proxy problem", e);
@@ -79,15 +140,32 @@ class ContentHandlerProxy implements ContentHandler, ForkProxy {
     private void sendCharacters(char[] ch, int start, int length)
             throws SAXException {
         try {
-            output.writeInt(length);
-            for (int i = 0; i < length; i++) {
-                output.writeChar(ch[start + i]);
-            }
+            writeCharacters(ch, start, length);
         } catch (IOException e) {
             throw new SAXException("Unexpected fork proxy problem", e);
         }
     }
 
+    /**
+     * Writes the length followed by the UTF-16 code units of the given
+     * characters, converted to bytes a buffer at a time.
+     */
+    private void writeCharacters(char[] ch, int start, int length)
+            throws IOException {
+        output.writeInt(length);
+        int end = start + length;
+        while (start < end) {
+            int n = Math.min(end - start, buffer.length / 2);
+            for (int i = 0; i < n; i++) {
+                char c = ch[start + i];
+                buffer[2 * i] = (byte) (c >>> 8);
+                buffer[2 * i + 1] = (byte) c;
+            }
+            output.write(buffer, 0, 2 * n);
+            start += n;
+        }
+    }
+
     private void doneSending() throws SAXException {
         try {
             output.flush();
@@ -102,7 +180,6 @@ class ContentHandlerProxy implements ContentHandler, ForkProxy {
 
     public void startDocument() throws SAXException {
         sendRequest(START_DOCUMENT);
-        doneSending();
     }
 
     public void endDocument() throws SAXException {
@@ -113,24 +190,22 @@ class ContentHandlerProxy implements ContentHandler, ForkProxy {
     public void startPrefixMapping(String prefix, String uri)
             throws SAXException {
         sendRequest(START_PREFIX_MAPPING);
-        sendString(prefix);
-        sendString(uri);
-        doneSending();
+        sendName(prefix);
+        sendName(uri);
     }
 
     public void endPrefixMapping(String prefix) throws SAXException {
         sendRequest(END_PREFIX_MAPPING);
-        sendString(prefix);
-        doneSending();
+        sendName(prefix);
     }
 
     public void startElement(
             String uri, String localName, String qName, Attributes atts)
             throws SAXException {
         sendRequest(START_ELEMENT);
-        sendString(uri);
-        sendString(localName);
-        sendString(qName);
+        sendName(uri);
+        sendName(localName);
+        sendName(qName);
         int n = -1;
         if (atts != null) {
             n = atts.getLength();
@@ -141,36 +216,32 @@ class ContentHandlerProxy implements ContentHandler, ForkProxy {
             throw new SAXException("Unexpected fork proxy problem", e);
         }
         for (int i = 0; i < n; i++) {
-            sendString(atts.getURI(i));
-            sendString(atts.getLocalName(i));
-            sendString(atts.getQName(i));
-            sendString(atts.getType(i));
+            sendName(atts.getURI(i));
+            sendName(atts.getLocalName(i));
+            sendName(atts.getQName(i));
+            sendName(atts.getType(i));
             sendString(atts.getValue(i));
         }
-        doneSending();
     }
 
     public void endElement(String uri, String localName, String qName)
             throws SAXException {
         sendRequest(END_ELEMENT);
-        sendString(uri);
-        sendString(localName);
-        sendString(qName);
-        doneSending();
+        sendName(uri);
+        sendName(localName);
+        sendName(qName);
     }
 
     public void characters(char[] ch, int start, int length)
             throws SAXException {
         sendRequest(CHARACTERS);
         sendCharacters(ch, start, length);
-        doneSending();
     }
 
     public void ignorableWhitespace(char[] ch, int start, int length)
             throws SAXException {
         sendRequest(IGNORABLE_WHITESPACE);
         sendCharacters(ch, start, length);
-        doneSending();
     }
 
     public void processingInstruction(String target, String data)
@@ -178,13 +249,11 @@ class ContentHandlerProxy implements ContentHandler, ForkProxy {
         sendRequest(PROCESSING_INSTRUCTION);
         sendString(target);
         sendString(data);
-        doneSending();
     }
 
     public void skippedEntity(String name) throws SAXException {
         sendRequest(SKIPPED_ENTITY);
         sendString(name);
-        doneSending();
     }
 
 }
@@ -19,6 +19,8 @@ package org.apache.tika.fork;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
@@ -28,6 +30,13 @@ class ContentHandlerResource implements ForkResource {
 
     private final ContentHandler handler;
 
+    /**
+     * Names sent by the {@link ContentHandlerProxy}, by index.
+     */
+    private final List<String> strings = new ArrayList<>();
+
+    private final byte[] buffer = new byte[ContentHandlerProxy.CHARACTER_BUFFER_SIZE];
+
     public ContentHandlerResource(ContentHandler handler) {
         this.handler = handler;
     }
@@ -88,8 +97,15 @@ class ContentHandlerResource implements ForkResource {
     }
 
     private String readString(DataInputStream input) throws IOException {
-        if (input.readBoolean()) {
-            return input.readUTF();
+        int type = input.readUnsignedByte();
+        if (type == ContentHandlerProxy.STRING_REFERENCE) {
+            return strings.get(input.readUnsignedShort());
+        } else if (type == ContentHandlerProxy.STRING_DEFINITION) {
+            String string = new String(readCharacters(input));
+            strings.add(string);
+            return string;
+        } else if (type == ContentHandlerProxy.STRING_LITERAL) {
+            return new String(readCharacters(input));
         } else {
             return null;
         }
@@ -98,8 +114,15 @@ class ContentHandlerResource implements ForkResource {
     private char[] readCharacters(DataInputStream input) throws IOException {
         int n = input.readInt();
         char[] ch = new char[n];
-        for (int i = 0; i < n; i++) {
-            ch[i] = input.readChar();
+        int start = 0;
+        while (start < n) {
+            int m = Math.min(n - start, buffer.length / 2);
+            input.readFully(buffer, 0, 2 * m);
+            for (int i = 0; i < m; i++) {
+                ch[start + i] = (char) (((buffer[2 * i] & 0xff) << 8)
+                        | (buffer[2 * i + 1] & 0xff));
+            }
+            start += m;
         }
         return ch;
     }
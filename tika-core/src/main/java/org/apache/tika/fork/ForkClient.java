@@ -197,6 +197,31 @@ class ForkClient {
     }
 
 
+    /**
+     * Asks the server how much of its heap is in use.
+     *
+     * @return fraction of the maximum heap that is in use
+     * @throws IOException if the server did not respond
+     */
+    public synchronized double getHeapUsage() throws IOException {
+        output.writeByte(ForkServer.HEALTH);
+        output.flush();
+        int type = input.read();
+        if (type != ForkServer.HEALTH) {
+            throw new IOException("Unexpected response to health check: " + type);
+        }
+        long used = input.readLong();
+        long max = input.readLong();
+        return (max > 0) ? (double) used / max : 0;
+    }
+
+    /**
+     * @return whether the server process is still running
+     */
+    public boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
     public synchronized Throwable call(String method, Object... args)
             throws IOException, TikaException {
         filesProcessed++;
@@ -0,0 +1,441 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.fork;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tika.exception.TikaException;
+
+/**
+ * Pool of forked server processes.
+ * <p>
+ * Checkout is first come, first served: callers wait on a fair semaphore
+ * with one permit per process, and idle processes are kept in a lock-free
+ * deque.  Everything that doesn't have to happen on the parsing thread
+ * happens in the background:
+ * <ul>
+ *     <li>a number of warm spare processes is started ahead of demand;</li>
+ *     <li>idle processes are pinged periodically, and dropped if they have
+ *     died, e.g. after the server wait timeout; they are replaced at the
+ *     next checkout, not right away, so that an idle pool can wind down;</li>
+ *     <li>if a heap limit is set, each process's heap is checked after every
+ *     parse and the process is replaced if it uses too much;</li>
+ *     <li>retired processes are shut down.</li>
+ * </ul>
+ */
+class ForkClientPool implements Closeable {
+
+    interface ClientFactory {
+        ForkClient newClient() throws IOException, TikaException;
+    }
+
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final ClientFactory factory;
+
+    private final ForkPoolMetrics metrics;
+
+    private final ConcurrentLinkedDeque<ForkClient> idle = new ConcurrentLinkedDeque<>();
+
+    //one permit per process that may be checked out
+    private final ResizableSemaphore permits;
+
+    //processes that are idle, checked out or being started
+    private final AtomicInteger live = new AtomicInteger();
+
+    private final AtomicInteger spawning = new AtomicInteger();
+
+    //processes whose heap is being checked after a parse
+    private final AtomicInteger checking = new AtomicInteger();
+
+    //notified when a heap check is done
+    private final Object checked = new Object();
+
+    //pings of idle processes
+    private final ScheduledExecutorService scheduler;
+
+    //starting and stopping processes, which can take a while
+    private final ExecutorService background;
+
+    private volatile int poolSize;
+
+    private volatile int warmSpares;
+
+    private volatile int maxFilesPerClient;
+
+    private volatile double maxHeapUsage;
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param factory creates new processes
+     * @param metrics metrics to update
+     * @param poolSize maximum number of processes
+     * @param warmSpares number of idle processes to keep ready
+     * @param maxFilesPerClient number of files after which a process is
+     *                          replaced, or -1 for no limit
+     * @param maxHeapUsage fraction of its maximum heap above which a process
+     *                     is replaced, or -1 to not check the heap
+     * @param healthCheckIntervalMillis how often to check the idle processes
+     */
+    ForkClientPool(ClientFactory factory, ForkPoolMetrics metrics, int poolSize, int warmSpares,
+                   int maxFilesPerClient, double maxHeapUsage, long healthCheckIntervalMillis) {
+        this.factory = factory;
+        this.metrics = metrics;
+        this.poolSize = poolSize;
+        this.warmSpares = warmSpares;
+        this.maxFilesPerClient = maxFilesPerClient;
+        this.maxHeapUsage = maxHeapUsage;
+        this.permits = new ResizableSemaphore(poolSize);
+
+        ThreadFactory threadFactory = new PoolThreadFactory();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.background = Executors.newCachedThreadPool(threadFactory);
+        if (healthCheckIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    checkIdleClients();
+                }
+            }, healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        ensureSpares();
+    }
+
+    /**
+     * Waits for a process to become available.  If there is no idle
+     * process, a new one is started on the calling thread.
+     *
+     * @return process that must be given back with {@link #release(ForkClient, boolean)}
+     */
+    ForkClient acquire() throws IOException, TikaException {
+        long start = System.currentTimeMillis();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            throw new TikaException(
+                    "Interrupted while waiting for a fork parser", e);
+        }
+        boolean ok = false;
+        try {
+            if (closed) {
+                throw new TikaException("ForkParser has been closed");
+            }
+            ForkClient client;
+            do {
+                while ((client = idle.pollFirst()) != null) {
+                    if (client.isAlive()) {
+                        break;
+                    }
+                    metrics.failedHealthCheck();
+                    retire(client);
+                }
+            } while (client == null && awaitHeapCheck());
+            metrics.checkedOut(System.currentTimeMillis() - start);
+            if (client == null) {
+                live.incrementAndGet();
+                client = spawn(true);
+            }
+            ok = true;
+            return client;
+        } finally {
+            if (!ok) {
+                permits.release();
+            }
+            ensureSpares();
+        }
+    }
+
+    /**
+     * Gives a process back after a parse.
+     *
+     * @param client process from {@link #acquire()}
+     * @param alive false if the process failed during the parse
+     */
+    void release(final ForkClient client, boolean alive) {
+        if (!alive) {
+            metrics.crashed();
+            retire(client);
+        } else if (closed || live.get() > poolSize) {
+            retire(client);
+        } else if (maxFilesPerClient > 0 && client.getFilesProcessed() >= maxFilesPerClient) {
+            metrics.recycledForFiles();
+            retire(client);
+        } else if (maxHeapUsage > 0) {
+            //a caller that finds no idle process waits for the
+            //check rather than starting a new process
+            checking.incrementAndGet();
+            try {
+                background.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (isHealthy(client)) {
+                                idle.offerFirst(client);
+                                if (closed && idle.remove(client)) {
+                                    retire(client);
+                                }
+                            } else {
+                                retire(client);
+                            }
+                        } finally {
+                            heapCheckDone();
+                            ensureSpares();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                //closed
+                heapCheckDone();
+                retire(client);
+            }
+        } else {
+            //most recently used first
+            idle.offerFirst(client);
+        }
+        permits.release();
+        ensureSpares();
+    }
+
+    void setPoolSize(int poolSize) {
+        synchronized (permits) {
+            int delta = poolSize - this.poolSize;
+            this.poolSize = poolSize;
+            if (delta > 0) {
+                permits.release(delta);
+            } else if (delta < 0) {
+                permits.reduce(-delta);
+            }
+        }
+        ensureSpares();
+    }
+
+    void setWarmSpares(int warmSpares) {
+        this.warmSpares = warmSpares;
+        ensureSpares();
+    }
+
+    void setMaxFilesPerClient(int maxFilesPerClient) {
+        this.maxFilesPerClient = maxFilesPerClient;
+    }
+
+    void setMaxHeapUsage(double maxHeapUsage) {
+        this.maxHeapUsage = maxHeapUsage;
+    }
+
+    /**
+     * @return number of processes that are ready for a parse
+     */
+    int getIdleCount() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        ForkClient client;
+        while ((client = idle.pollFirst()) != null) {
+            live.decrementAndGet();
+            client.close();
+        }
+        //processes that are still starting shut themselves down
+        background.shutdown();
+    }
+
+    /**
+     * Waits for a heap check that is under way, if there is one.
+     *
+     * @return whether it's worth looking for an idle process again
+     */
+    private boolean awaitHeapCheck() throws TikaException {
+        synchronized (checked) {
+            //a checked process goes back to idle before the check counts as done
+            if (!idle.isEmpty()) {
+                return true;
+            }
+            if (checking.get() == 0) {
+                return false;
+            }
+            try {
+                checked.wait();
+            } catch (InterruptedException e) {
+                throw new TikaException(
+                        "Interrupted while waiting for a fork parser", e);
+            }
+            return true;
+        }
+    }
+
+    private void heapCheckDone() {
+        synchronized (checked) {
+            checking.decrementAndGet();
+            checked.notifyAll();
+        }
+    }
+
+    private ForkClient spawn(boolean onRequest) throws IOException, TikaException {
+        long start = System.currentTimeMillis();
+        boolean ok = false;
+        try {
+            ForkClient client = factory.newClient();
+            metrics.spawned(System.currentTimeMillis() - start, onRequest);
+            ok = true;
+            return client;
+        } finally {
+            if (!ok) {
+                live.decrementAndGet();
+                metrics.spawnFailed();
+            }
+        }
+    }
+
+    /**
+     * Starts processes in the background until there are enough spares,
+     * as far as the pool size allows.
+     */
+    private void ensureSpares() {
+        while (!closed) {
+            if (idle.size() + spawning.get() + checking.get() >= warmSpares) {
+                return;
+            }
+            int current = live.get();
+            if (current >= poolSize) {
+                return;
+            }
+            if (!live.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            spawning.incrementAndGet();
+            try {
+                background.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        startSpare();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                spawning.decrementAndGet();
+                live.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void startSpare() {
+        try {
+            ForkClient client = spawn(false);
+            idle.offerLast(client);
+            if (closed && idle.remove(client)) {
+                retire(client);
+            }
+        } catch (IOException | TikaException | RuntimeException e) {
+            //swallow: the next caller will start a process itself,
+            //and report the problem
+        } finally {
+            spawning.decrementAndGet();
+        }
+    }
+
+    private void checkIdleClients() {
+        for (ForkClient client : new ArrayList<>(idle)) {
+            if (closed) {
+                return;
+            }
+            if (!idle.remove(client)) {
+                //checked out in the meantime
+                continue;
+            }
+            if (isHealthy(client)) {
+                idle.offerLast(client);
+            } else {
+                retire(client);
+            }
+        }
+    }
+
+    private boolean isHealthy(ForkClient client) {
+        if (!client.isAlive()) {
+            metrics.failedHealthCheck();
+            return false;
+        }
+        if (maxHeapUsage > 0) {
+            try {
+                if (client.getHeapUsage() > maxHeapUsage) {
+                    metrics.recycledForHeap();
+                    return false;
+                }
+                return true;
+            } catch (IOException e) {
+                metrics.failedHealthCheck();
+                return false;
+            }
+        }
+        if (!client.ping()) {
+            metrics.failedHealthCheck();
+            return false;
+        }
+        return true;
+    }
+
+    private void retire(final ForkClient client) {
+        live.decrementAndGet();
+        try {
+            background.execute(new Runnable() {
+                @Override
+                public void run() {
+                    client.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            client.close();
+        }
+    }
+
+    private static class ResizableSemaphore extends Semaphore {
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+
+    private static class PoolThreadFactory implements ThreadFactory {
+        private final int pool = POOL_COUNTER.incrementAndGet();
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "fork-pool-" + pool + "-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -23,9 +23,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.Set;
 
 import org.apache.tika.config.Field;
@@ -63,9 +61,20 @@ public class ForkParser extends AbstractParser implements Closeable
     @Field
     private int poolSize = 5;
 
-    private int currentlyInUse = 0;
+    /** Number of idle processes to start ahead of demand */
+    @Field
+    private int warmSpares = 0;
+
+    /** Fraction of the maximum heap above which a process is replaced */
+    @Field
+    private double maxHeapUsage = -1;
+
+    @Field
+    private long healthCheckIntervalMillis = 5000;
 
-    private final Queue<ForkClient> pool = new LinkedList<>();
+    private transient ForkClientPool pool;
+
+    private final ForkPoolMetrics metrics = new ForkPoolMetrics();
 
     @Field
     private long serverPulseMillis = 1000;
@@ -147,6 +156,69 @@ public class ForkParser extends AbstractParser implements Closeable
      */
     public synchronized void setPoolSize(int poolSize) {
         this.poolSize = poolSize;
+        if (pool != null) {
+            pool.setPoolSize(poolSize);
+        }
+    }
+
+    /**
+     * Returns the number of idle processes that are started ahead of demand.
+     *
+     * @return number of warm spare processes
+     */
+    public synchronized int getWarmSpares() {
+        return warmSpares;
+    }
+
+    /**
+     * Sets the number of idle processes to start in the background, so that
+     * parses don't have to wait for a new JVM to start.  Spares count towards
+     * the pool size.  The default is 0.
+     * <p>
+     * Idle processes, spares included, shut down after the server wait timeout
+     * (see {@link #setServerWaitTimeoutMillis(long)}).  They are replaced at
+     * the next parse, not as soon as they have shut down.
+     *
+     * @param warmSpares number of warm spare processes
+     */
+    public synchronized void setWarmSpares(int warmSpares) {
+        this.warmSpares = warmSpares;
+        if (pool != null) {
+            pool.setWarmSpares(warmSpares);
+        }
+    }
+
+    /**
+     * If set, each process's heap is checked in the background after every
+     * parse, and the process is replaced if the heap in use after the last
+     * garbage collection exceeds this fraction of its maximum heap.
+     * The default is -1, which doesn't check the heap.
+     *
+     * @param maxHeapUsage fraction between 0 and 1, or -1
+     */
+    public synchronized void setMaxHeapUsage(double maxHeapUsage) {
+        this.maxHeapUsage = maxHeapUsage;
+        if (pool != null) {
+            pool.setMaxHeapUsage(maxHeapUsage);
+        }
+    }
+
+    /**
+     * How often idle processes are checked in the background.  Dead
+     * processes are replaced.  The default is 5 seconds.  This must
+     * be set before the first parse.
+     *
+     * @param healthCheckIntervalMillis interval in milliseconds, or -1 to not check
+     */
+    public synchronized void setHealthCheckIntervalMillis(long healthCheckIntervalMillis) {
+        this.healthCheckIntervalMillis = healthCheckIntervalMillis;
+    }
+
+    /**
+     * @return metrics for the pool of processes
+     */
+    public ForkPoolMetrics getMetrics() {
+        return metrics;
     }
 
     /**
@@ -295,41 +367,28 @@ public class ForkParser extends AbstractParser implements Closeable
     }
 
     public synchronized void close() {
-        for (ForkClient client : pool) {
-            client.close();
+        if (pool != null) {
+            pool.close();
         }
-        pool.clear();
         poolSize = 0;
     }
 
-    private synchronized ForkClient acquireClient()
+    private ForkClient acquireClient()
             throws IOException, TikaException {
-        while (true) {
-            ForkClient client = pool.poll();
-
-            // Create a new process if there's room in the pool
-            if (client == null && currentlyInUse < poolSize) {
-                client = newClient();
-            }
-
-            // Ping the process, and get rid of it if it's inactive
-            if (client != null && !client.ping()) {
-                client.close();
-                client = null;
-            }
-
-            if (client != null) {
-                currentlyInUse++;
-                return client;
-            } else if (currentlyInUse >= poolSize) {
-                try {
-                    wait();
-                } catch (InterruptedException e) {
-                    throw new TikaException(
-                            "Interrupted while waiting for a fork parser", e);
+        return getPool().acquire();
+    }
+
+    private synchronized ForkClientPool getPool() {
+        if (pool == null) {
+            pool = new ForkClientPool(new ForkClientPool.ClientFactory() {
+                @Override
+                public ForkClient newClient() throws IOException, TikaException {
+                    return ForkParser.this.newClient();
                 }
-            }
+            }, metrics, poolSize, warmSpares, maxFilesProcessedPerClient,
+                    maxHeapUsage, healthCheckIntervalMillis);
         }
+        return pool;
     }
 
     private ForkClient newClient() throws IOException, TikaException {
@@ -346,18 +405,8 @@ public class ForkParser extends AbstractParser implements Closeable
         }
     }
 
-    private synchronized void releaseClient(ForkClient client, boolean alive) {
-        currentlyInUse--;
-        if (currentlyInUse + pool.size() < poolSize && alive) {
-            if (maxFilesProcessedPerClient > 0 && client.getFilesProcessed() >= maxFilesProcessedPerClient) {
-                client.close();
-            } else {
-                pool.offer(client);
-            }
-            notifyAll();
-        } else {
-            client.close();
-        }
+    private void releaseClient(ForkClient client, boolean alive) {
+        getPool().release(client, alive);
     }
 
     /**
@@ -403,8 +452,11 @@ public class ForkParser extends AbstractParser implements Closeable
      *                                 a new process. If set to -1, the server is never restarted
      *                                 because of the number of files handled.
      */
-    public void setMaxFilesProcessedPerServer(int maxFilesProcessedPerClient) {
+    public synchronized void setMaxFilesProcessedPerServer(int maxFilesProcessedPerClient) {
         this.maxFilesProcessedPerClient = maxFilesProcessedPerClient;
+        if (pool != null) {
+            pool.setMaxFilesPerClient(maxFilesProcessedPerClient);
+        }
     }
 
 }
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.fork;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals for the pool of forked server processes
+ * behind a {@link ForkParser}.
+ *
+ * @since Apache Tika 2.0.0
+ */
+public class ForkPoolMetrics implements Serializable {
+
+    private static final long serialVersionUID = 3371960356742815542L;
+
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong queueWaitMillis = new AtomicLong();
+    private final AtomicLong maxQueueWaitMillis = new AtomicLong();
+    private final AtomicLong spawns = new AtomicLong();
+    private final AtomicLong spawnsOnRequest = new AtomicLong();
+    private final AtomicLong spawnFailures = new AtomicLong();
+    private final AtomicLong spawnMillis = new AtomicLong();
+    private final AtomicLong crashes = new AtomicLong();
+    private final AtomicLong failedHealthChecks = new AtomicLong();
+    private final AtomicLong recycledForHeap = new AtomicLong();
+    private final AtomicLong recycledForFiles = new AtomicLong();
+
+    void checkedOut(long waitMillis) {
+        checkouts.incrementAndGet();
+        queueWaitMillis.addAndGet(waitMillis);
+        long max = maxQueueWaitMillis.get();
+        while (waitMillis > max && !maxQueueWaitMillis.compareAndSet(max, waitMillis)) {
+            max = maxQueueWaitMillis.get();
+        }
+    }
+
+    void spawned(long millis, boolean onRequest) {
+        spawns.incrementAndGet();
+        spawnMillis.addAndGet(millis);
+        if (onRequest) {
+            spawnsOnRequest.incrementAndGet();
+        }
+    }
+
+    void spawnFailed() {
+        spawnFailures.incrementAndGet();
+    }
+
+    void crashed() {
+        crashes.incrementAndGet();
+    }
+
+    void failedHealthCheck() {
+        failedHealthChecks.incrementAndGet();
+    }
+
+    void recycledForHeap() {
+        recycledForHeap.incrementAndGet();
+    }
+
+    void recycledForFiles() {
+        recycledForFiles.incrementAndGet();
+    }
+
+    /**
+     * @return number of times a process was handed out for a parse
+     */
+    public long getCheckouts() {
+        return checkouts.get();
+    }
+
+    /**
+     * @return total time parses waited for a free process, in milliseconds
+     */
+    public long getQueueWaitMillis() {
+        return queueWaitMillis.get();
+    }
+
+    /**
+     * @return longest time a parse waited for a free process, in milliseconds
+     */
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis.get();
+    }
+
+    /**
+     * @return number of processes started
+     */
+    public long getSpawns() {
+        return spawns.get();
+    }
+
+    /**
+     * @return number of processes that had to be started on the parsing
+     * thread because no warm process was available
+     */
+    public long getSpawnsOnRequest() {
+        return spawnsOnRequest.get();
+    }
+
+    /**
+     * @return number of processes that failed to start
+     */
+    public long getSpawnFailures() {
+        return spawnFailures.get();
+    }
+
+    /**
+     * @return total time spent starting processes, in milliseconds
+     */
+    public long getSpawnMillis() {
+        return spawnMillis.get();
+    }
+
+    /**
+     * @return number of parses during which the process died
+     */
+    public long getCrashes() {
+        return crashes.get();
+    }
+
+    /**
+     * @return crashes per checkout, or 0 if nothing has been parsed
+     */
+    public double getCrashRate() {
+        long n = checkouts.get();
+        return (n == 0) ? 0 : (double) crashes.get() / n;
+    }
+
+    /**
+     * @return number of idle processes that were found dead or unresponsive
+     */
+    public long getFailedHealthChecks() {
+        return failedHealthChecks.get();
+    }
+
+    /**
+     * @return number of processes shut down because they used too much heap
+     */
+    public long getRecycledForHeap() {
+        return recycledForHeap.get();
+    }
+
+    /**
+     * @return number of processes shut down because they
+     * had processed the maximum number of files
+     */
+    public long getRecycledForFiles() {
+        return recycledForFiles.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ForkPoolMetrics{" +
+                "checkouts=" + checkouts +
+                ", queueWaitMillis=" + queueWaitMillis +
+                ", maxQueueWaitMillis=" + maxQueueWaitMillis +
+                ", spawns=" + spawns +
+                ", spawnsOnRequest=" + spawnsOnRequest +
+                ", spawnFailures=" + spawnFailures +
+                ", spawnMillis=" + spawnMillis +
+                ", crashes=" + crashes +
+                ", failedHealthChecks=" + failedHealthChecks +
+                ", recycledForHeap=" + recycledForHeap +
+                ", recycledForFiles=" + recycledForFiles +
+                '}';
+    }
+}
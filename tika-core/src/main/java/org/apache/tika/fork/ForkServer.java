@@ -20,6 +20,7 @@ import org.apache.tika.exception.TikaException;
 import org.apache.tika.parser.ParserFactory;
 import org.xml.sax.SAXException;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -28,6 +29,10 @@ import java.io.InputStream;
 import java.io.NotSerializableException;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
@@ -55,6 +60,15 @@ class ForkServer implements Runnable {
     public static final byte INIT_LOADER_PARSER = 7;
     public static final byte INIT_PARSER_FACTORY_FACTORY_LOADER = 8;
 
+    public static final byte HEALTH = 9;
+
+    /**
+     * Size of the buffer on the channel to the parent process. Proxied
+     * SAX events are collected in this buffer, and only go over the pipe
+     * when it fills up or when the server waits for the parent process.
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     //milliseconds to sleep before checking to see if there has been any reading/writing
     //If no reading or writing in this time, shutdown the server.
     private long serverPulseMillis = 5000;
@@ -121,7 +135,7 @@ class ForkServer implements Runnable {
         this.input =
             new DataInputStream(input);
         this.output =
-            new DataOutputStream(output);
+            new DataOutputStream(new BufferedOutputStream(output, OUTPUT_BUFFER_SIZE));
         this.serverPulseMillis = serverPulseMillis;
         this.serverParserTimeoutMillis = serverParserTimeoutMillis;
         this.serverWaitTimeoutMillis = serverWaitTimeoutMillis;
@@ -171,6 +185,8 @@ class ForkServer implements Runnable {
                     break;
                 } else if (request == PING) {
                     output.writeByte(PING);
+                } else if (request == HEALTH) {
+                    writeHealth();
                 } else if (request == CALL) {
                     call(classLoader, parser);
                 } else {
@@ -184,6 +200,30 @@ class ForkServer implements Runnable {
         System.err.flush();
     }
 
+    /**
+     * Reports the heap in use and the maximum heap.  Where the JVM
+     * provides it, the usage after the last collection is used, so that
+     * garbage that has not been collected yet is not counted.
+     */
+    private void writeHealth() throws IOException {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) {
+                continue;
+            }
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage == null) {
+                usage = pool.getUsage();
+            }
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        output.writeByte(HEALTH);
+        output.writeLong(used);
+        output.writeLong(Runtime.getRuntime().maxMemory());
+    }
+
     private void initializeParserAndLoader() throws IOException, ClassNotFoundException,
             TikaException, SAXException {
         output.writeByte(READY);
@@ -21,17 +21,36 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+/**
+ * Proxy for an {@link InputStream} in the parent process.
+ * <p>
+ * Every round trip to the parent process asks for at least
+ * {@link #READ_AHEAD} bytes; whatever the caller didn't ask for is kept
+ * in a local buffer to serve subsequent reads, so that small reads don't
+ * each cost a round trip.
+ */
 class InputStreamProxy extends InputStream implements ForkProxy {
 
     /** Serial version UID */
     private static final long serialVersionUID = 4350939227765568438L;
 
+    /**
+     * Minimum number of bytes requested from the parent process at a time.
+     */
+    static final int READ_AHEAD = 64 * 1024;
+
     private final int resource;
 
     private transient DataInputStream input;
 
     private transient DataOutputStream output;
 
+    private transient byte[] buffer;
+
+    private transient int position;
+
+    private transient int limit;
+
     public InputStreamProxy(int resource) {
         this.resource = resource;
     }
@@ -39,24 +58,50 @@ class InputStreamProxy extends InputStream implements ForkProxy {
     public void init(DataInputStream input, DataOutputStream output) {
         this.input = input;
         this.output = output;
+        this.buffer = new byte[READ_AHEAD];
+        this.position = 0;
+        this.limit = 0;
     }
 
     @Override
     public int read() throws IOException {
-        output.writeByte(ForkServer.RESOURCE);
-        output.writeByte(resource);
-        output.writeInt(1);
-        output.flush();
-        int n = input.readInt();
-        if (n == 1) {
-            return input.readUnsignedByte();
-        } else {
-            return n;
+        if (position >= limit && !fill()) {
+            return -1;
         }
+        return buffer[position++] & 0xff;
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= limit) {
+            if (len >= buffer.length) {
+                // no point in copying through the buffer
+                return request(b, off, len);
+            } else if (!fill()) {
+                return -1;
+            }
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = Math.max(request(buffer, 0, buffer.length), 0);
+        return limit > 0;
+    }
+
+    private int request(byte[] b, int off, int len) throws IOException {
         output.writeByte(ForkServer.RESOURCE);
         output.writeByte(resource);
         output.writeInt(len);
@@ -25,6 +25,8 @@ class InputStreamResource implements ForkResource {
 
     private final InputStream stream;
 
+    private byte[] buffer = new byte[0];
+
     public InputStreamResource(InputStream stream) {
         this.stream = stream;
     }
@@ -32,16 +34,31 @@ class InputStreamResource implements ForkResource {
     public Throwable process(DataInputStream input, DataOutputStream output)
             throws IOException {
         int n = input.readInt();
-        byte[] buffer = new byte[n];
+        if (buffer.length < n) {
+            buffer = new byte[n];
+        }
         int m;
         try {
-            m = stream.read(buffer);
+            m = stream.read(buffer, 0, n);
         } catch (IOException e) {
             // returning exception causes deadlock
             // return e;
             e.printStackTrace();
             m = -1;
         }
+        // top up the window with whatever can be read without blocking;
+        // any problem will resurface on the next request
+        try {
+            while (m > 0 && m < n && stream.available() > 0) {
+                int k = stream.read(buffer, m, n - m);
+                if (k <= 0) {
+                    break;
+                }
+                m += k;
+            }
+        } catch (IOException e) {
+            //swallow
+        }
         output.writeInt(m);
         if (m > 0) {
             output.write(buffer, 0, m);
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+/**
+ * Read-only {@link SeekableByteChannel} over a {@link ByteBuffer}, which
+ * is either a heap buffer or a memory-mapped file.  A mapped buffer is
+ * unmapped when the channel is closed, if the platform allows it.
+ */
+class ByteBufferChannel implements SeekableByteChannel {
+
+    private final ByteBuffer buffer;
+
+    private final boolean mapped;
+
+    private long position = 0;
+
+    private boolean open = true;
+
+    /**
+     * @param buffer contents of the channel, from 0 to its limit
+     * @param mapped whether the buffer is a memory-mapped file
+     */
+    ByteBufferChannel(ByteBuffer buffer, boolean mapped) {
+        this.buffer = buffer;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= buffer.limit()) {
+            return -1;
+        }
+        int n = (int) Math.min(dst.remaining(), buffer.limit() - position);
+        ByteBuffer src = buffer.duplicate();
+        src.position((int) position);
+        src.limit((int) position + n);
+        dst.put(src);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("position must be >= 0: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public synchronized long size() throws IOException {
+        ensureOpen();
+        return buffer.limit();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        open = false;
+        if (mapped) {
+            //nothing can read from the buffer after this
+            MappedBufferCleaner.freeBuffer(buffer);
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
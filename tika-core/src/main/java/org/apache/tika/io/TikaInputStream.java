@@ -20,23 +20,28 @@ import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Blob;
 import java.sql.SQLException;
 
+import org.apache.tika.detect.DetectionProbe;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.Parser;
@@ -65,6 +70,14 @@ import org.apache.tika.parser.Parser;
  */
 public class TikaInputStream extends TaggedInputStream {
 
+    /**
+     * Default maximum number of bytes that {@link #getSeekableByteChannel()}
+     * holds in memory rather than spooling them to a temporary file.
+     *
+     * @since Apache Tika 2.0.0
+     */
+    public static final int DEFAULT_MEMORY_SPOOL_THRESHOLD = 1024 * 1024;
+
     /**
      * Checks whether the given stream is a TikaInputStream instance.
      * The given stream can be <code>null</code>, in which case the return
@@ -191,9 +204,11 @@ public class TikaInputStream extends TaggedInputStream {
      */
     public static TikaInputStream get(byte[] data, Metadata metadata) {
         metadata.set(Metadata.CONTENT_LENGTH, Integer.toString(data.length));
-        return new TikaInputStream(
+        TikaInputStream tis = new TikaInputStream(
                 new ByteArrayInputStream(data),
                 new TemporaryResources(), data.length);
+        tis.bytes = data;
+        return tis;
     }
 
     /**
@@ -475,6 +490,14 @@ public class TikaInputStream extends TaggedInputStream {
      */
     private Path path;
 
+    /**
+     * The contents of this stream, if they were given as an array
+     * or spooled to memory by {@link #getSeekableByteChannel()}.
+     */
+    private byte[] bytes;
+
+    private int memorySpoolThreshold = DEFAULT_MEMORY_SPOOL_THRESHOLD;
+
     /**
      * Tracker of temporary resources.
      */
@@ -502,6 +525,14 @@ public class TikaInputStream extends TaggedInputStream {
      */
     private Object openContainer;
 
+    /**
+     * Prefix of the stream shared by detectors, and the position
+     *  it was read from.
+     */
+    private DetectionProbe probe;
+
+    private long probePosition = -1;
+
     private int consecutiveEOFs = 0;
 
     /**
@@ -607,6 +638,30 @@ public class TikaInputStream extends TaggedInputStream {
         }
     }
     
+    /**
+     * Returns the detection probe that was read from the current
+     *  position, if any, so that the detectors that look at the
+     *  start of the stream can share a single read of it.
+     *
+     * @return detection probe, or <code>null</code> if there is
+     *  none for the current position
+     * @since Apache Tika 2.0.0
+     */
+    public DetectionProbe getDetectionProbe() {
+        return (probePosition == position) ? probe : null;
+    }
+
+    /**
+     * Stores a detection probe that was read from the current
+     *  position, and then reset to it.
+     *
+     * @since Apache Tika 2.0.0
+     */
+    public void setDetectionProbe(DetectionProbe probe) {
+        this.probe = probe;
+        this.probePosition = position;
+    }
+
     public boolean hasInputStreamFactory() {
         return steamFactory != null;
     }
@@ -646,7 +701,14 @@ public class TikaInputStream extends TaggedInputStream {
      * @throws IOException
      */
     public Path getPath(int maxBytes) throws IOException {
-        if (path == null) {
+        if (path == null && bytes != null) {
+            if (maxBytes > -1 && bytes.length >= maxBytes) {
+                return null;
+            }
+            //no need to switch streams
+            path = tmp.createTempFile();
+            Files.write(path, bytes);
+        } else if (path == null) {
             if (position > 0) {
                 throw new IOException("Stream is already being read");
             } else {
@@ -662,27 +724,116 @@ public class TikaInputStream extends TaggedInputStream {
                     // Spool the entire stream into a temporary file
                     Files.copy(in, path, REPLACE_EXISTING);
                 }
+                readFromSpool(Files.newInputStream(path), Files.size(path));
+            }
+        }
+        return path;
+    }
 
-                // Create a new input stream and make sure it'll get closed
-                InputStream newStream = Files.newInputStream(path);
-                tmp.addResource(newStream);
-
-                // Replace the spooled stream with the new stream in a way
-                // that still ends up closing the old stream if or when the
-                // close() method is called. The closing of the new stream
-                // is already being handled as noted above.
-                final InputStream oldStream = in;
-                in = new BufferedInputStream(newStream) {
-                    @Override
-                    public void close() throws IOException {
-                        oldStream.close();
-                    }
-                };
+    /**
+     * Returns a read-only, random access view of the whole stream, which is
+     * independent of the stream's position and is closed along with the stream.
+     * <p>
+     * Unlike {@link #getPath()}, this does not need a file: if the stream isn't
+     * backed by a file and is no longer than the
+     * {@link #setMemorySpoolThreshold(int) memory spool threshold}, it is held
+     * in memory.  Longer streams are spooled to a temporary file.  Files are
+     * memory-mapped if the platform can unmap them when the view is closed.
+     *
+     * @return random access view of the stream
+     * @throws IOException if the stream has already been read from, or
+     *                     can't be spooled
+     * @since Apache Tika 2.0.0
+     */
+    public SeekableByteChannel getSeekableByteChannel() throws IOException {
+        if (path == null && bytes == null) {
+            spool();
+        }
+        SeekableByteChannel channel;
+        if (bytes != null) {
+            channel = new ByteBufferChannel(ByteBuffer.wrap(bytes), false);
+        } else {
+            channel = openChannel(path);
+        }
+        tmp.addResource(channel);
+        return channel;
+    }
+
+    /**
+     * @param memorySpoolThreshold maximum number of bytes that
+     *                             {@link #getSeekableByteChannel()} holds in
+     *                             memory rather than in a temporary file
+     * @since Apache Tika 2.0.0
+     */
+    public void setMemorySpoolThreshold(int memorySpoolThreshold) {
+        this.memorySpoolThreshold = memorySpoolThreshold;
+    }
+
+    private void spool() throws IOException {
+        if (position > 0) {
+            throw new IOException("Stream is already being read");
+        }
+        if (length > memorySpoolThreshold) {
+            getPath();
+            return;
+        }
+        int initialSize = (length > 0) ? (int) length : Math.min(8192, memorySpoolThreshold + 1);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(initialSize);
+        byte[] chunk = new byte[8192];
+        int n;
+        while (buffer.size() <= memorySpoolThreshold
+                && (n = in.read(chunk, 0, Math.min(chunk.length, memorySpoolThreshold + 1 - buffer.size()))) != -1) {
+            buffer.write(chunk, 0, n);
+        }
+        if (buffer.size() <= memorySpoolThreshold) {
+            bytes = buffer.toByteArray();
+            readFromSpool(new ByteArrayInputStream(bytes), bytes.length);
+            return;
+        }
+        //too long: spill what has been read, and the rest, to a file
+        path = tmp.createTempFile();
+        try (OutputStream out = Files.newOutputStream(path)) {
+            buffer.writeTo(out);
+            IOUtils.copy(in, out);
+        }
+        readFromSpool(Files.newInputStream(path), Files.size(path));
+    }
 
-                length = Files.size(path);
+    /**
+     * Replaces the spooled stream with the given stream in a way
+     * that still ends up closing the old stream if or when the
+     * close() method is called.
+     */
+    private void readFromSpool(InputStream newStream, long length) {
+        // make sure the new stream gets closed
+        tmp.addResource(newStream);
+        final InputStream oldStream = in;
+        in = new BufferedInputStream(newStream) {
+            @Override
+            public void close() throws IOException {
+                oldStream.close();
             }
+        };
+        this.length = length;
+    }
+
+    private static SeekableByteChannel openChannel(Path path) throws IOException {
+        FileChannel fileChannel = FileChannel.open(path);
+        long size = fileChannel.size();
+        //without unmapping, the mapping would keep the file until the buffer is collected
+        if (!MappedBufferCleaner.UNMAP_SUPPORTED || size > Integer.MAX_VALUE) {
+            return fileChannel;
         }
-        return path;
+        ByteBuffer mapped;
+        try {
+            mapped = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            //e.g. out of address space; fall back to reading
+            return fileChannel;
+        }
+        //the mapping stays valid after the file channel is closed
+        fileChannel.close();
+        return new ByteBufferChannel(mapped, true);
     }
 
     /**
@@ -757,6 +908,7 @@ public class TikaInputStream extends TaggedInputStream {
     @Override
     public void close() throws IOException {
         path = null;
+        bytes = null;
         mark = -1;
 
         // The close method was explicitly called, so we indeed
@@ -18,6 +18,10 @@ package org.apache.tika.metadata;
 
 import static org.apache.tika.utils.DateUtils.formatDate;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.text.DateFormat;
 import java.text.DateFormatSymbols;
@@ -26,11 +30,9 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.TimeZone;
@@ -49,17 +51,53 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
     private static final long serialVersionUID = 5623926545693153182L;
 
     /**
-     * A map of all metadata attributes.
+     * The serialized form is still the map of names to values that this
+     * class used to keep, so that metadata can be exchanged with older
+     * versions.
      */
-    private Map<String, String[]> metadata = null;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("metadata", Map.class)
+    };
 
+    private static final String[] NO_VALUES = new String[0];
 
+    private static final int INITIAL_CAPACITY = 16;
+
+    /*
+     * Names and values are kept in parallel arrays, in insertion order
+     * until a name is removed, with an open-addressing hash table of
+     * positions in those arrays.
+     * A value array can have room for more values than it holds, so that
+     * adding values to a name takes amortized constant time.
+     */
+
+    /**
+     * Metadata names.
+     */
+    private transient String[] names;
+
+    /**
+     * Values of each name; values[i] may be longer than counts[i].
+     */
+    private transient String[][] values;
+
+    /**
+     * Number of values of each name.
+     */
+    private transient int[] counts;
+
+    /**
+     * Number of names.
+     */
+    private transient int size;
 
     /**
-     * Some parsers will have the date as a ISO-8601 string
-     *  already, and will set that into the Metadata object.
+     * Hash table of 1 + the position of a name, or 0 for an empty slot.
+     * At most half full.
      */
-    private static final DateUtils DATE_UTILS = new DateUtils();
+    private transient int[] index;
+
+
 
     private static DateFormat createDateFormat(String format, TimeZone timezone) {
         SimpleDateFormat sdf =
@@ -71,22 +109,23 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
     }
 
     /**
-     * Parses the given date string. This method is synchronized to prevent
-     * concurrent access to the thread-unsafe date formats.
+     * Parses the given date string. Some parsers will have the date as
+     * an ISO-8601 string already, and will set that into the Metadata object.
+     * This does not lock: the date formats are per thread.
      *
      * @see <a href="https://issues.apache.org/jira/browse/TIKA-495">TIKA-495</a>
      * @param date date string
      * @return parsed date, or <code>null</code> if the date can't be parsed
      */
-    private static synchronized Date parseDate(String date) {
-        return DATE_UTILS.tryToParse(date);
+    private static Date parseDate(String date) {
+        return DateUtils.tryToParseDate(date);
     }
 
     /**
      * Constructs a new, empty metadata.
      */
     public Metadata() {
-        metadata = new HashMap<String, String[]>();
+        init(INITIAL_CAPACITY);
     }
 
     /**
@@ -97,7 +136,7 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
      * @return true is named value is multivalued, false if single value or null
      */
     public boolean isMultiValued(final Property property) {
-        return metadata.get(property.getName()) != null && metadata.get(property.getName()).length > 1;
+        return isMultiValued(property.getName());
     }
     
     /**
@@ -108,7 +147,8 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
      * @return true is named value is multivalued, false if single value or null
      */
     public boolean isMultiValued(final String name) {
-        return metadata.get(name) != null && metadata.get(name).length > 1;
+        int i = find(name);
+        return i > -1 && counts[i] > 1;
     }
 
     /**
@@ -117,7 +157,7 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
      * @return Metadata names
      */
     public String[] names() {
-        return metadata.keySet().toArray(new String[metadata.keySet().size()]);
+        return Arrays.copyOf(names, size);
     }
 
     /**
@@ -129,11 +169,11 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
      * @return the value associated to the specified metadata name.
      */
     public String get(final String name) {
-        String[] values = metadata.get(name);
-        if (values == null) {
+        int i = find(name);
+        if (i < 0 || counts[i] == 0) {
             return null;
         } else {
-            return values[0];
+            return values[i][0];
         }
     }
 
@@ -220,18 +260,15 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
     }
 
     private String[] _getValues(final String name) {
-        String[] values = metadata.get(name);
-        if (values == null) {
-            values = new String[0];
+        int i = find(name);
+        if (i < 0 || counts[i] == 0) {
+            return NO_VALUES;
         }
-        return values;
-    }
-    
-    private String[] appendedValues(String[] values, final String value) {
-        String[] newValues = new String[values.length + 1];
-        System.arraycopy(values, 0, newValues, 0, values.length);
-        newValues[newValues.length - 1] = value;
-        return newValues;
+        if (values[i].length > counts[i]) {
+            //don't trim in place: getters may be called from several threads
+            return Arrays.copyOf(values[i], counts[i]);
+        }
+        return values[i];
     }
 
     /**
@@ -244,11 +281,11 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
      *          the metadata value.
      */
     public void add(final String name, final String value) {
-        String[] values = metadata.get(name);
-        if (values == null) {
+        int i = find(name);
+        if (i < 0) {
             set(name, value);
         } else {
-            metadata.put(name, appendedValues(values, value));
+            append(i, value);
         }
     }
     
@@ -274,13 +311,13 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
                 }
             }
         } else {
-            String[] values = metadata.get(property.getName());
+            int i = find(property.getName());
 
-            if (values == null) {
+            if (i < 0) {
                 set(property, value);
             } else {
                 if (property.isMultiValuePermitted()) {
-                    set(property, appendedValues(values, value));
+                    append(i, value);
                 } else {
                     throw new PropertyTypeException(property.getName() +
                             " : " + property.getPropertyType());
@@ -301,7 +338,7 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
             (Enumeration<String>) properties.propertyNames();
         while (names.hasMoreElements()) {
             String name = names.nextElement();
-            metadata.put(name, new String[] { properties.getProperty(name) });
+            put(name, new String[] { properties.getProperty(name) }, 1);
         }
     }
 
@@ -316,9 +353,9 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
      */
     public void set(String name, String value) {
         if (value != null) {
-            metadata.put(name, new String[] { value });
+            put(name, new String[] { value }, 1);
         } else {
-            metadata.remove(name);
+            remove(name);
         }
     }
 
@@ -364,7 +401,7 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
                 }
             }
         } else {
-            metadata.put(property.getName(), values);
+            put(property.getName(), values, (values == null) ? 0 : values.length);
         }
     }
 
@@ -491,7 +528,23 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
      *          metadata name to remove
      */
     public void remove(String name) {
-        metadata.remove(name);
+        int i = find(name);
+        if (i < 0) {
+            return;
+        }
+        removeFromIndex(i);
+        int last = size - 1;
+        if (i != last) {
+            //move the last name into the gap
+            index[slotOf(last)] = i + 1;
+            names[i] = names[last];
+            values[i] = values[last];
+            counts[i] = counts[last];
+        }
+        size--;
+        names[size] = null;
+        values[size] = null;
+        counts[size] = 0;
     }
 
     /**
@@ -500,21 +553,28 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
      * @return number of metadata names
      */
     public int size() {
-        return metadata.size();
+        return size;
     }
 
     public int hashCode() {
         int h = 0;
-        for (Iterator<Entry<String,String[]>> i = metadata.entrySet().iterator();
-             i.hasNext();) {
-            h += getMetadataEntryHashCode(i.next());
+        for (int i = 0; i < size; i++) {
+            h += getMetadataEntryHashCode(i);
         }
         return h;
     }
 
-    private int getMetadataEntryHashCode(Entry<String, String[]> e) {
-    	return Objects.hashCode(e.getKey()) ^ Arrays.hashCode(e.getValue());
-	}
+    private int getMetadataEntryHashCode(int i) {
+        int valuesHash = 0;
+        if (values[i] != null) {
+            //same as Arrays.hashCode of the values
+            valuesHash = 1;
+            for (int j = 0; j < counts[i]; j++) {
+                valuesHash = 31 * valuesHash + Objects.hashCode(values[i][j]);
+            }
+        }
+        return Objects.hashCode(names[i]) ^ valuesHash;
+    }
 
 	public boolean equals(Object o) {
 
@@ -564,4 +624,148 @@ public class Metadata implements CreativeCommons, Geographic, HttpHeaders,
         return buf.toString();
     }
 
+
+    private void init(int capacity) {
+        names = new String[capacity];
+        values = new String[capacity][];
+        counts = new int[capacity];
+        index = new int[capacity * 2];
+        size = 0;
+    }
+
+    /**
+     * @return position of the name, or -1 if it isn't there
+     */
+    private int find(String name) {
+        int mask = index.length - 1;
+        for (int slot = hash(name) & mask; ; slot = (slot + 1) & mask) {
+            int i = index[slot] - 1;
+            if (i < 0) {
+                return -1;
+            }
+            String n = names[i];
+            if (n == name || (name != null && name.equals(n))) {
+                return i;
+            }
+        }
+    }
+
+    private void put(String name, String[] newValues, int count) {
+        int i = find(name);
+        if (i < 0) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+                reindex(size * 4);
+            }
+            i = size++;
+            names[i] = intern(name);
+            addToIndex(i);
+        }
+        values[i] = newValues;
+        counts[i] = count;
+    }
+
+    private void append(int i, String value) {
+        String[] current = values[i];
+        int count = counts[i];
+        if (current == null || count == current.length) {
+            //the array may have been handed out by getValues, so never
+            //write to it; grow it instead
+            current = Arrays.copyOf((current == null) ? NO_VALUES : current,
+                    Math.max(count * 2, count + 1));
+            values[i] = current;
+        }
+        current[count] = value;
+        counts[i] = count + 1;
+    }
+
+    private void reindex(int capacity) {
+        index = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            addToIndex(i);
+        }
+    }
+
+    private void addToIndex(int i) {
+        int mask = index.length - 1;
+        int slot = hash(names[i]) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = i + 1;
+    }
+
+    /**
+     * @return slot in the index of the name at position i
+     */
+    private int slotOf(int i) {
+        int mask = index.length - 1;
+        int slot = hash(names[i]) & mask;
+        while (index[slot] != i + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties the slot of the name at position i, and shifts back the
+     * names after it that would no longer be found past the empty slot.
+     */
+    private void removeFromIndex(int i) {
+        int mask = index.length - 1;
+        int empty = slotOf(i);
+        index[empty] = 0;
+        for (int slot = (empty + 1) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int home = hash(names[index[slot] - 1]) & mask;
+            if (((slot - home) & mask) >= ((slot - empty) & mask)) {
+                index[empty] = index[slot];
+                index[slot] = 0;
+                empty = slot;
+            }
+        }
+    }
+
+    private static int hash(String name) {
+        if (name == null) {
+            return 0;
+        }
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Use the name of a known property, so that the names of the common
+     * properties are shared by all metadata objects, and compare by
+     * identity when looked up by property.
+     */
+    private static String intern(String name) {
+        Property property = (name == null) ? null : Property.get(name);
+        return (property == null) ? name : property.getName();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<String, String[]> metadata = new LinkedHashMap<String, String[]>();
+        for (int i = 0; i < size; i++) {
+            metadata.put(names[i], (values[i] == null) ? null : Arrays.copyOf(values[i], counts[i]));
+        }
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("metadata", metadata);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        Map<String, String[]> metadata = (Map<String, String[]>) fields.get("metadata", null);
+        int n = (metadata == null) ? 0 : metadata.size();
+        init(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(n, 1)) * 2));
+        if (metadata != null) {
+            for (Map.Entry<String, String[]> e : metadata.entrySet()) {
+                String[] nameValues = e.getValue();
+                put(e.getKey(), nameValues, (nameValues == null) ? 0 : nameValues.length);
+            }
+        }
+    }
 }
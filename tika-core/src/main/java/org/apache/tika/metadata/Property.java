@@ -18,12 +18,12 @@ package org.apache.tika.metadata;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * XMP property definition. Each instance of this class defines a single
@@ -55,8 +55,9 @@ public final class Property implements Comparable<Property> {
         MIME_TYPE, PROPER_NAME, RATIONAL, REAL, TEXT, URI, URL, XPATH, PROPERTY
     }
 
+    //read without locking by Metadata, for every new name it's given
     private static final Map<String, Property> properties =
-            new HashMap<String, Property>();
+            new ConcurrentHashMap<String, Property>();
 
     private final String name;
 
@@ -158,7 +159,7 @@ public final class Property implements Comparable<Property> {
      */
     public static PropertyType getPropertyType(String key) {
         PropertyType type = null;
-        Property prop = properties.get(key);
+        Property prop = get(key);
         if (prop != null) {
             type = prop.getPropertyType();
         }
@@ -171,7 +172,7 @@ public final class Property implements Comparable<Property> {
      * @return the Property object
      */
     public static Property get(String key) {
-        return properties.get(key);
+        return (key == null) ? null : properties.get(key);
     }
 
     public PropertyType getPropertyType() {
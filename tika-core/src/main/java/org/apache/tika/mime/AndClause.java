@@ -43,6 +43,25 @@ class AndClause implements Clause {
         return size;
     }
 
+    public boolean[] getFirstBytes() {
+        //all clauses must match, so any constrained clause constrains the whole
+        boolean[] firstBytes = null;
+        for (Clause clause : clauses) {
+            boolean[] clauseBytes = clause.getFirstBytes();
+            if (clauseBytes == null) {
+                continue;
+            }
+            if (firstBytes == null) {
+                firstBytes = clauseBytes.clone();
+            } else {
+                for (int i = 0; i < firstBytes.length; i++) {
+                    firstBytes[i] &= clauseBytes[i];
+                }
+            }
+        }
+        return firstBytes;
+    }
+
     public String toString() {
         return "and" + Arrays.toString(clauses);
     }
@@ -34,4 +34,11 @@ interface Clause extends Serializable {
      */
     int size();
 
+    /**
+     * Returns the possible values of the first byte of a chunk of data
+     * that this clause can match, indexed by unsigned byte value, or
+     * <code>null</code> if this clause may match any first byte.
+     */
+    boolean[] getFirstBytes();
+
 }
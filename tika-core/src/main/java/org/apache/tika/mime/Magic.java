@@ -55,6 +55,10 @@ class Magic implements Clause, Comparable<Magic> {
         return clause.size();
     }
 
+    public boolean[] getFirstBytes() {
+        return clause.getFirstBytes();
+    }
+
     public String toString() {
         return string;
     }
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.mime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index of a sorted list of magics by the first byte of the data they
+ * can match.  Most magics require specific bytes at offset zero, so
+ * for a given document only a small fraction of them need to be
+ * evaluated.
+ * <p>
+ * {@link #eval(byte[], List)} visits the candidate magics in the same
+ * order as the original list and applies the same priority cut-off,
+ * so the results are identical to evaluating every magic in turn.
+ */
+class MagicIndex {
+
+    /**
+     * Magics that may match any first byte, in list order.
+     */
+    private final Magic[] anyFirstByte;
+
+    /**
+     * Positions of {@link #anyFirstByte} in the original list.
+     */
+    private final int[] anyFirstBytePositions;
+
+    /**
+     * Magics that can only match the given first byte, in list order.
+     */
+    private final Magic[][] byFirstByte = new Magic[256][];
+
+    /**
+     * Positions of {@link #byFirstByte} in the original list.
+     */
+    private final int[][] byFirstBytePositions = new int[256][];
+
+    /**
+     * @param magics magics, sorted by decreasing priority
+     */
+    MagicIndex(List<Magic> magics) {
+        List<List<Integer>> buckets = new ArrayList<>(256);
+        for (int b = 0; b < 256; b++) {
+            buckets.add(new ArrayList<Integer>());
+        }
+        List<Integer> any = new ArrayList<>();
+        for (int i = 0; i < magics.size(); i++) {
+            boolean[] firstBytes = magics.get(i).getFirstBytes();
+            if (firstBytes == null) {
+                any.add(i);
+            } else {
+                for (int b = 0; b < 256; b++) {
+                    if (firstBytes[b]) {
+                        buckets.get(b).add(i);
+                    }
+                }
+            }
+        }
+        anyFirstBytePositions = toArray(any);
+        anyFirstByte = select(magics, anyFirstBytePositions);
+        for (int b = 0; b < 256; b++) {
+            byFirstBytePositions[b] = toArray(buckets.get(b));
+            byFirstByte[b] = select(magics, byFirstBytePositions[b]);
+        }
+    }
+
+    /**
+     * Adds the types of the highest priority magics that match the data
+     * to the result.
+     *
+     * @param data non-empty document prefix
+     * @param result list to add the matching types to
+     */
+    void eval(byte[] data, List<MimeType> result) {
+        int b = data[0] & 0xFF;
+        Magic[] bucket = byFirstByte[b];
+        int[] bucketPositions = byFirstBytePositions[b];
+
+        //merge the two candidate lists back into list order
+        int currentPriority = -1;
+        int i = 0;
+        int j = 0;
+        while (i < anyFirstByte.length || j < bucket.length) {
+            Magic magic;
+            if (j == bucket.length
+                    || (i < anyFirstByte.length && anyFirstBytePositions[i] < bucketPositions[j])) {
+                magic = anyFirstByte[i++];
+            } else {
+                magic = bucket[j++];
+            }
+            if (currentPriority > 0 && currentPriority > magic.getPriority()) {
+                break;
+            }
+            if (magic.eval(data)) {
+                result.add(magic.getType());
+                currentPriority = magic.getPriority();
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> positions) {
+        int[] array = new int[positions.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = positions.get(i);
+        }
+        return array;
+    }
+
+    private static Magic[] select(List<Magic> magics, int[] positions) {
+        Magic[] selected = new Magic[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            selected[i] = magics.get(positions[i]);
+        }
+        return selected;
+    }
+
+}
@@ -16,11 +16,7 @@
  */
 package org.apache.tika.mime;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-
 import org.apache.tika.detect.MagicDetector;
-import org.apache.tika.metadata.Metadata;
 
 /**
  * Defines a magic match.
@@ -37,7 +33,7 @@ class MagicMatch implements Clause {
 
     private final String mask;
 
-    private MagicDetector detector = null;
+    private volatile MagicDetector detector = null;
 
     MagicMatch(
             MediaType mediaType,
@@ -49,28 +45,29 @@ class MagicMatch implements Clause {
         this.mask = mask;
     }
 
-    private synchronized MagicDetector getDetector() {
-        if (detector == null) {
-            detector = MagicDetector.parse(mediaType, type, offset, value, mask);
+    private MagicDetector getDetector() {
+        //parsing is idempotent, so racing threads can each create one
+        MagicDetector d = detector;
+        if (d == null) {
+            d = MagicDetector.parse(mediaType, type, offset, value, mask);
+            detector = d;
         }
-        return detector;
+        return d;
     }
 
     public boolean eval(byte[] data) {
-        try {
-            return getDetector().detect(
-                    new ByteArrayInputStream(data), new Metadata())
-                    != MediaType.OCTET_STREAM;
-        } catch (IOException e) {
-            // Should never happen with a ByteArrayInputStream
-            return false;
-        }
+        //a match on octet-stream is indistinguishable from no match
+        return mediaType != MediaType.OCTET_STREAM && getDetector().matches(data);
     }
 
     public int size() {
         return getDetector().getLength();
     }
 
+    public boolean[] getFirstBytes() {
+        return getDetector().getFirstBytes();
+    }
+
     public String toString() {
         return mediaType.toString()
                 + " " + type + " " + offset + " " +  value + " " + mask;
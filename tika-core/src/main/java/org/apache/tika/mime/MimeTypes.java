@@ -35,7 +35,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import javax.xml.namespace.QName;
 
 import org.apache.tika.Tika;
-import org.apache.tika.detect.Detector;
+import org.apache.tika.detect.DetectionProbe;
+import org.apache.tika.detect.ProbeDetector;
 import org.apache.tika.detect.TextDetector;
 import org.apache.tika.detect.XmlRootExtractor;
 import org.apache.tika.metadata.Metadata;
@@ -55,7 +56,7 @@ import org.apache.tika.metadata.TikaCoreProperties;
  * (if available) to restore the stream back to the state it was before type
  * detection if it wants to process the stream based on the detected type.
  */
-public final class MimeTypes implements Detector, Serializable {
+public final class MimeTypes implements ProbeDetector, Serializable {
 
     /**
      * Serial version UID.
@@ -112,6 +113,9 @@ public final class MimeTypes implements Detector, Serializable {
     /** Sorted list of all registered magics */
     private final List<Magic> magics = new ArrayList<Magic>();
 
+    /** Index of {@link #magics} by first byte, built on first use */
+    private transient volatile MagicIndex magicIndex;
+
     /** Sorted list of all registered rootXML */
     private final List<MimeType> xmls = new ArrayList<MimeType>();
 
@@ -189,16 +193,7 @@ public final class MimeTypes implements Detector, Serializable {
 
         // Then, check for magic bytes
         List<MimeType> result = new ArrayList<MimeType>(1);
-        int currentPriority = -1;
-        for (Magic magic : magics) {
-            if (currentPriority > 0 && currentPriority > magic.getPriority()) {
-                break;
-            }
-            if (magic.eval(data)) {
-                result.add(magic.getType());
-                currentPriority = magic.getPriority();
-            }
-        }
+        getMagicIndex().eval(data, result);
  
         if (!result.isEmpty()) {
             for (int i=0; i<result.size(); i++) {
@@ -446,6 +441,7 @@ public final class MimeTypes implements Detector, Serializable {
         // Update the magics index...
         if (type.hasMagic()) {
             magics.addAll(type.getMagics());
+            magicIndex = null;
         }
 
         // Update the xml (xmlRoot) index...
@@ -467,6 +463,21 @@ public final class MimeTypes implements Detector, Serializable {
         }
         Collections.sort(magics);
         Collections.sort(xmls);
+        magicIndex = null;
+    }
+
+    private MagicIndex getMagicIndex() {
+        MagicIndex index = magicIndex;
+        if (index == null) {
+            synchronized (magics) {
+                index = magicIndex;
+                if (index == null) {
+                    index = new MagicIndex(magics);
+                    magicIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
     /**
@@ -496,7 +507,31 @@ public final class MimeTypes implements Detector, Serializable {
                 input.reset();
             }
         }
+        return detect(possibleTypes, metadata);
+    }
 
+    @Override
+    public int getProbeLength() {
+        return getMinLength();
+    }
+
+    /**
+     * Like {@link #detect(InputStream, Metadata)}, but looks for magic
+     * markers in a probe of the stream prefix that may be shared with
+     * other detectors.
+     *
+     * @since Apache Tika 2.0.0
+     */
+    @Override
+    public MediaType detectFromProbe(DetectionProbe probe, Metadata metadata) {
+        return detect(getMimeType(probe.prefix(getMinLength())), metadata);
+    }
+
+    /**
+     * @param possibleTypes types matched by magic, or <code>null</code>
+     *                      if there was no stream to match against
+     */
+    private MediaType detect(List<MimeType> possibleTypes, Metadata metadata) {
         // Get type based on resourceName hint (if available)
         String resourceName = metadata.get(TikaCoreProperties.RESOURCE_NAME_KEY);
         if (resourceName != null) {
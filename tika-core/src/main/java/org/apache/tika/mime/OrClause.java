@@ -43,6 +43,24 @@ class OrClause implements Clause {
         return size;
     }
 
+    public boolean[] getFirstBytes() {
+        if (clauses.isEmpty()) {
+            //can never match
+            return new boolean[256];
+        }
+        boolean[] firstBytes = new boolean[256];
+        for (Clause clause : clauses) {
+            boolean[] clauseBytes = clause.getFirstBytes();
+            if (clauseBytes == null) {
+                return null;
+            }
+            for (int i = 0; i < firstBytes.length; i++) {
+                firstBytes[i] |= clauseBytes[i];
+            }
+        }
+        return firstBytes;
+    }
+
     public String toString() {
         return "or" + clauses;
     }
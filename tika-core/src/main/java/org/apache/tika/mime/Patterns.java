@@ -17,11 +17,13 @@
 package org.apache.tika.mime;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 /**
  * Defines a MimeType pattern.
@@ -46,9 +48,12 @@ class Patterns implements Serializable {
     private final Map<String, MimeType> extensions =
         new HashMap<String, MimeType>();
 
-    private int minExtensionLength = Integer.MAX_VALUE;
-
-    private int maxExtensionLength = 0;
+    /**
+     * Extension patterns indexed by their reversed characters, so that
+     * the longest matching extension is found in a single walk back
+     * from the end of the name.
+     */
+    private final SuffixNode suffixes = new SuffixNode();
 
     /**
      * Index of generic glob patterns, sorted by length.
@@ -56,6 +61,19 @@ class Patterns implements Serializable {
     private final SortedMap<String, MimeType> globs =
         new TreeMap<String, MimeType>(new LengthComparator());
 
+    /**
+     * Compiled matchers for the generic glob patterns,
+     * keyed by the same regular expressions as {@link #globs}.
+     */
+    private final Map<String, GlobMatcher> globMatchers =
+        new HashMap<String, GlobMatcher>();
+
+    /**
+     * Generic glob matchers and their types, in {@link #globs} order.
+     * Rebuilt lazily after a glob is added.
+     */
+    private transient volatile GlobEntry[] globEntries;
+
     private static final class LengthComparator
             implements Comparator<String>, Serializable {
 
@@ -92,7 +110,7 @@ class Patterns implements Serializable {
         if (isJavaRegex) {
             // in this case, we don't need to build a regex pattern
             // it's already there for us, so just add the pattern as is
-            addGlob(pattern, type);
+            addGlob(pattern, new RegexMatcher(pattern), type);
         } else {
 
             if (pattern.indexOf('*') == -1 && pattern.indexOf('?') == -1
@@ -104,7 +122,7 @@ class Patterns implements Serializable {
                 addExtension(extension, type);
                 type.addExtension(extension);
             } else {
-                addGlob(compile(pattern), type);
+                addGlob(compile(pattern), new WildcardMatcher(pattern), type);
             }
         }
     }
@@ -128,9 +146,7 @@ class Patterns implements Serializable {
         if (previous == null
                 || registry.isSpecializationOf(previous.getType(), type.getType())) {
             extensions.put(extension, type);
-            int length = extension.length();
-            minExtensionLength = Math.min(minExtensionLength, length);
-            maxExtensionLength = Math.max(maxExtensionLength, length);
+            suffixes.add(extension, type);
         } else if (previous == type
                 || registry.isSpecializationOf(type.getType(), previous.getType())) {
             // do nothing
@@ -140,12 +156,14 @@ class Patterns implements Serializable {
         }
     }
 
-    private void addGlob(String glob, MimeType type)
+    private void addGlob(String glob, GlobMatcher matcher, MimeType type)
             throws MimeTypeException {
         MimeType previous = globs.get(glob);
         if (previous == null
                 || registry.isSpecializationOf(previous.getType(), type.getType())) {
             globs.put(glob, type);
+            globMatchers.put(glob, matcher);
+            globEntries = null;
         } else if (previous == type
                 || registry.isSpecializationOf(type.getType(), previous.getType())) {
             // do nothing
@@ -174,29 +192,43 @@ class Patterns implements Serializable {
         }
 
         // First, try exact match of the provided resource name
-        if (names.containsKey(name)) {
-            return names.get(name);
+        MimeType type = names.get(name);
+        if (type != null) {
+            return type;
         }
 
         // Then try "extension" (*.xxx) matching
-        int maxLength = Math.min(maxExtensionLength, name.length());
-        for (int n = maxLength; n >= minExtensionLength; n--) {
-            String extension = name.substring(name.length() - n);
-            if (extensions.containsKey(extension)) {
-                return extensions.get(extension);
-            }
+        type = suffixes.longestSuffix(name);
+        if (type != null) {
+            return type;
         }
 
-        // And finally, try complex regexp matching
-        for (Map.Entry<String, MimeType> entry : globs.entrySet()) {
-            if (name.matches(entry.getKey())) {
-                return entry.getValue();
+        // And finally, try complex glob matching
+        for (GlobEntry entry : getGlobEntries()) {
+            if (entry.matcher.matches(name)) {
+                return entry.type;
             }
         }
 
         return null;
     }
 
+    private GlobEntry[] getGlobEntries() {
+        GlobEntry[] entries = globEntries;
+        if (entries == null) {
+            synchronized (globs) {
+                entries = new GlobEntry[globs.size()];
+                int i = 0;
+                for (Map.Entry<String, MimeType> entry : globs.entrySet()) {
+                    entries[i++] = new GlobEntry(
+                            globMatchers.get(entry.getKey()), entry.getValue());
+                }
+                globEntries = entries;
+            }
+        }
+        return entries;
+    }
+
     private String compile(String glob) {
         StringBuilder pattern = new StringBuilder();
         pattern.append("\\A");
@@ -217,4 +249,174 @@ class Patterns implements Serializable {
         return pattern.toString();
     }
 
+    /**
+     * Node in the reversed extension trie.  Children are kept in
+     * arrays sorted by character, so lookups don't box characters.
+     */
+    private static final class SuffixNode implements Serializable {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 2357461371064567201L;
+
+        private static final char[] NO_KEYS = new char[0];
+
+        private static final SuffixNode[] NO_CHILDREN = new SuffixNode[0];
+
+        private char[] keys = NO_KEYS;
+
+        private SuffixNode[] children = NO_CHILDREN;
+
+        private MimeType type;
+
+        void add(String extension, MimeType type) {
+            SuffixNode node = this;
+            for (int i = extension.length() - 1; i >= 0; i--) {
+                node = node.getOrAddChild(extension.charAt(i));
+            }
+            node.type = type;
+        }
+
+        /**
+         * Returns the type of the longest extension that
+         * the given name ends with, or <code>null</code>.
+         */
+        MimeType longestSuffix(String name) {
+            MimeType match = type;
+            SuffixNode node = this;
+            for (int i = name.length() - 1; i >= 0 && node != null; i--) {
+                node = node.getChild(name.charAt(i));
+                if (node != null && node.type != null) {
+                    match = node.type;
+                }
+            }
+            return match;
+        }
+
+        private SuffixNode getChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private SuffixNode getOrAddChild(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            index = -(index + 1);
+            SuffixNode child = new SuffixNode();
+
+            char[] newKeys = new char[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            newKeys[index] = c;
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+
+            SuffixNode[] newChildren = new SuffixNode[children.length + 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newChildren[index] = child;
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+    }
+
+    private interface GlobMatcher extends Serializable {
+        boolean matches(String name);
+    }
+
+    /**
+     * Matches a glob in which only <code>*</code> and <code>?</code>
+     * are special, without compiling it to a regular expression.
+     * As with the regular expression produced by {@link Patterns#compile(String)},
+     * the wildcards do not match line terminators.
+     */
+    private static final class WildcardMatcher implements GlobMatcher {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = -3202467542536311826L;
+
+        private final String glob;
+
+        WildcardMatcher(String glob) {
+            this.glob = glob;
+        }
+
+        public boolean matches(String name) {
+            int g = 0;
+            int n = 0;
+            //position of the last '*' in the glob and where it started matching
+            int star = -1;
+            int starMatch = 0;
+            while (n < name.length()) {
+                if (g < glob.length()) {
+                    char gc = glob.charAt(g);
+                    char nc = name.charAt(n);
+                    if (gc == '*') {
+                        star = g++;
+                        starMatch = n;
+                        continue;
+                    } else if (gc == '?' ? !isLineTerminator(nc) : gc == nc) {
+                        g++;
+                        n++;
+                        continue;
+                    }
+                }
+                //backtrack: let the last '*' absorb one more character
+                if (star == -1 || isLineTerminator(name.charAt(starMatch))) {
+                    return false;
+                }
+                g = star + 1;
+                n = ++starMatch;
+            }
+            while (g < glob.length() && glob.charAt(g) == '*') {
+                g++;
+            }
+            return g == glob.length();
+        }
+
+        private static boolean isLineTerminator(char c) {
+            return c == '\n' || c == '\r' || c == '\u0085'
+                    || c == '\u2028' || c == '\u2029';
+        }
+
+    }
+
+    private static final class RegexMatcher implements GlobMatcher {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 6216359011475014367L;
+
+        private final Pattern pattern;
+
+        RegexMatcher(String regex) {
+            this.pattern = Pattern.compile(regex);
+        }
+
+        public boolean matches(String name) {
+            return pattern.matcher(name).matches();
+        }
+
+    }
+
+    private static final class GlobEntry {
+
+        private final GlobMatcher matcher;
+
+        private final MimeType type;
+
+        GlobEntry(GlobMatcher matcher, MimeType type) {
+            this.matcher = matcher;
+            this.type = type;
+        }
+
+    }
+
 }
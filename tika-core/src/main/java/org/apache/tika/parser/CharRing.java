@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded character pipe between one writing and one reading thread,
+ * backed by a ring buffer.  Neither side takes a lock: the positions
+ * are volatile, and a side that has to wait parks until the other one
+ * wakes it up.
+ * <p>
+ * To keep thread hand-offs down, a waiting reader is only woken once a
+ * batch of characters is available, when the writer is flushed or closed,
+ * or after a short timeout, whichever comes first.
+ */
+class CharRing {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long WRITER_CHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final char[] buffer;
+
+    private final int mask;
+
+    //number of characters written and read so far
+    private volatile long written = 0;
+
+    private volatile long read = 0;
+
+    private volatile boolean writerClosed = false;
+
+    private volatile boolean readerClosed = false;
+
+    private volatile Thread waitingReader = null;
+
+    private volatile Thread waitingWriter = null;
+
+    //the thread that read last, so a blocked writer can tell if it died
+    private volatile Thread lastReader = null;
+
+    /**
+     * @param capacity number of characters the pipe can hold,
+     *                 rounded up to a power of two
+     */
+    CharRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, BATCH_SIZE) - 1) << 1;
+        this.buffer = new char[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return the write end of the pipe
+     */
+    Writer getWriter() {
+        return new RingWriter();
+    }
+
+    /**
+     * Reads at least one character, waiting for it if necessary.
+     *
+     * @return number of characters read, or -1 if the writer has been
+     * closed and everything has been read
+     * @throws IOException if the reader has been closed
+     */
+    int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        lastReader = Thread.currentThread();
+        if (!awaitData()) {
+            return -1;
+        }
+        long r = read;
+        int n = (int) Math.min(len, written - r);
+        int start = (int) (r & mask);
+        int first = Math.min(n, buffer.length - start);
+        System.arraycopy(buffer, start, cbuf, off, first);
+        System.arraycopy(buffer, 0, cbuf, off + first, n - first);
+        read = r + n;
+        wake(waitingWriter);
+        return n;
+    }
+
+    /**
+     * Waits until there is something to read.
+     *
+     * @return false if the writer has been closed and everything has been read
+     * @throws IOException if the reader has been closed
+     */
+    boolean awaitData() throws IOException {
+        if (written != read) {
+            return true;
+        }
+        waitingReader = Thread.currentThread();
+        try {
+            while (written == read) {
+                if (readerClosed) {
+                    throw new IOException("Pipe closed");
+                }
+                if (writerClosed) {
+                    //nothing is written after the writer is closed
+                    return written != read;
+                }
+                park(MAX_WAIT_NANOS);
+            }
+            return true;
+        } finally {
+            waitingReader = null;
+        }
+    }
+
+    /**
+     * Closes the read end.  The writer fails on its next write.
+     */
+    void closeReader() {
+        readerClosed = true;
+        wake(waitingWriter);
+    }
+
+    private void write(char[] cbuf, int off, int len) throws IOException {
+        while (len > 0) {
+            if (readerClosed) {
+                throw new IOException("Pipe closed");
+            }
+            long w = written;
+            int free = (int) (buffer.length - (w - read));
+            if (free == 0) {
+                awaitSpace();
+                continue;
+            }
+            int n = Math.min(len, free);
+            int start = (int) (w & mask);
+            int first = Math.min(n, buffer.length - start);
+            System.arraycopy(cbuf, off, buffer, start, first);
+            System.arraycopy(cbuf, off + first, buffer, 0, n - first);
+            written = w + n;
+            off += n;
+            len -= n;
+            if (w + n - read >= BATCH_SIZE) {
+                wake(waitingReader);
+            }
+        }
+    }
+
+    private void awaitSpace() throws IOException {
+        waitingWriter = Thread.currentThread();
+        try {
+            while (written - read == buffer.length && !readerClosed) {
+                //the reader wakes a waiting writer, unless it has gone away
+                Thread reader = lastReader;
+                if (reader != null && !reader.isAlive()) {
+                    throw new IOException("Read end dead");
+                }
+                park(WRITER_CHECK_NANOS);
+            }
+        } finally {
+            waitingWriter = null;
+        }
+    }
+
+    private void park(long nanos) throws InterruptedIOException {
+        LockSupport.parkNanos(this, nanos);
+        if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static void wake(Thread thread) {
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private class RingWriter extends Writer {
+
+        private final char[] single = new char[1];
+
+        @Override
+        public void write(int c) throws IOException {
+            single[0] = (char) c;
+            CharRing.this.write(single, 0, 1);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            CharRing.this.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            char[] chars = new char[len];
+            str.getChars(off, off + len, chars, 0);
+            CharRing.this.write(chars, 0, len);
+        }
+
+        /**
+         * Hands whatever has been written over to the reader.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (readerClosed) {
+                throw new IOException("Pipe closed");
+            }
+            wake(waitingReader);
+        }
+
+        @Override
+        public void close() {
+            writerClosed = true;
+            wake(waitingReader);
+        }
+    }
+}
@@ -64,6 +64,19 @@ public class CompositeParser extends AbstractParser {
      */
     private Parser fallback = new EmptyParser();
 
+    /**
+     * Cached media type dispatch table, built lazily from the component
+     * parsers and discarded whenever the parser set or the registry change.
+     */
+    private transient volatile DispatchTable dispatch;
+
+    /**
+     * Whether a subclass overrides {@link #getParsers(ParseContext)}, in
+     * which case dispatch goes through that method; <code>null</code> until
+     * first checked.
+     */
+    private transient volatile Boolean getParsersOverridden;
+
     public CompositeParser(MediaTypeRegistry registry, List<Parser> parsers,
                            Collection<Class<? extends Parser>> excludeParsers) {
         if (excludeParsers == null || excludeParsers.isEmpty()) {
@@ -90,14 +103,66 @@ public class CompositeParser extends AbstractParser {
         this(new MediaTypeRegistry());
     }
 
+    /**
+     * Returns the component parsers keyed by the (normalised) media types
+     * they support in the given parse context. The returned map is a copy
+     * and may be freely modified by the caller.
+     * <p>
+     * Parser selection uses a cached dispatch table instead of this method,
+     * unless a subclass overrides it. Subclasses that only need to change
+     * the component parsers should override {@link #getDispatchParsers()},
+     * so that dispatch stays cached.
+     *
+     * @param context parse context
+     * @return component parsers, keyed by media type
+     */
     public Map<MediaType, Parser> getParsers(ParseContext context) {
-        Map<MediaType, Parser> map = new HashMap<MediaType, Parser>();
-        for (Parser parser : parsers) {
-            for (MediaType type : parser.getSupportedTypes(context)) {
-                map.put(registry.normalize(type), parser);
+        return new HashMap<MediaType, Parser>(getDispatchTable(context).parsers);
+    }
+
+    /**
+     * Returns the parsers that take part in media type dispatch, in
+     * increasing order of precedence: when several parsers declare
+     * support for the same type, the last one wins.
+     *
+     * @since Apache Tika 2.0.0
+     * @return dispatch parsers
+     */
+    protected List<Parser> getDispatchParsers() {
+        return parsers;
+    }
+
+    /**
+     * Returns the dispatch table for the given parse context. The cached
+     * table is reused as long as the registry and the component parsers
+     * are the same, and the component parsers whose types depend on the
+     * parse context report the same types as when it was built. Otherwise
+     * a table is built for this context only, and the cached one is kept.
+     */
+    private DispatchTable getDispatchTable(ParseContext context) {
+        List<Parser> current = getDispatchParsers();
+        DispatchTable table = dispatch;
+        if (table == null || !table.hasComponents(registry, current)) {
+            table = new DispatchTable(registry, current, context, true);
+            dispatch = table;
+        } else if (!table.isValid(context)) {
+            table = new DispatchTable(registry, current, context, false);
+        }
+        return table;
+    }
+
+    private boolean isGetParsersOverridden() {
+        Boolean overridden = getParsersOverridden;
+        if (overridden == null) {
+            try {
+                overridden = getClass().getMethod("getParsers", ParseContext.class)
+                        .getDeclaringClass() != CompositeParser.class;
+            } catch (NoSuchMethodException e) {
+                overridden = false;
             }
+            getParsersOverridden = overridden;
         }
-        return map;
+        return overridden;
     }
 
     private boolean isExcluded(Collection<Class<? extends Parser>> excludeParsers, Class<? extends Parser> p) {
@@ -162,6 +227,7 @@ public class CompositeParser extends AbstractParser {
      */
     public void setMediaTypeRegistry(MediaTypeRegistry registry) {
         this.registry = registry;
+        this.dispatch = null;
     }
 
     /**
@@ -193,6 +259,7 @@ public class CompositeParser extends AbstractParser {
             this.parsers.add(ParserDecorator.withTypes(
                     entry.getValue(), Collections.singleton(entry.getKey())));
         }
+        this.dispatch = null;
     }
 
     /**
@@ -231,27 +298,191 @@ public class CompositeParser extends AbstractParser {
     }
 
     protected Parser getParser(Metadata metadata, ParseContext context) {
-        Map<MediaType, Parser> map = getParsers(context);
         MediaType type = MediaType.parse(metadata.get(Metadata.CONTENT_TYPE));
         if (type != null) {
            // We always work on the normalised, canonical form
            type = registry.normalize(type);
         }
-        while (type != null) {
-            // Try finding a parser for the type
-            Parser parser = map.get(type);
-            if (parser != null) {
-                return parser;
+        if (isGetParsersOverridden()) {
+            Map<MediaType, Parser> map = getParsers(context);
+            while (type != null) {
+                // Try finding a parser for the type
+                Parser parser = map.get(type);
+                if (parser != null) {
+                    return parser;
+                }
+                // Failing that, try for the parent of the type
+                type = registry.getSupertype(type);
             }
-            
-            // Failing that, try for the parent of the type
-            type = registry.getSupertype(type);
+            return fallback;
         }
-        return fallback;
+        Parser parser = getDispatchTable(context).getParser(type);
+        return parser != null ? parser : fallback;
     }
 
     public Set<MediaType> getSupportedTypes(ParseContext context) {
-        return getParsers(context).keySet();
+        if (isGetParsersOverridden()) {
+            return getParsers(context).keySet();
+        }
+        return getDispatchTable(context).supportedTypes;
+    }
+
+    /**
+     * Immutable snapshot of the media type to parser mapping of a
+     * composite parser, optionally together with the supertype resolution
+     * of every type known to the media type registry. Lookups of resolved
+     * types are a single hash lookup; other types fall back to walking the
+     * registry's type hierarchy.
+     */
+    private static final class DispatchTable {
+
+        /**
+         * Marker for types whose whole supertype chain has no parser.
+         */
+        private static final Parser NO_PARSER = new EmptyParser();
+
+        private final MediaTypeRegistry registry;
+
+        private final List<Parser> components;
+
+        private final List<Set<MediaType>> componentTypes;
+
+        /**
+         * Positions of the components that read the parse context when
+         * asked for their types.
+         */
+        private final int[] contextSensitive;
+
+        private final Map<MediaType, Parser> parsers;
+
+        private final Set<MediaType> supportedTypes;
+
+        private final Map<MediaType, Parser> resolved;
+
+        DispatchTable(MediaTypeRegistry registry, List<Parser> components,
+                      ParseContext context, boolean resolveAll) {
+            this.registry = registry;
+            this.components = new ArrayList<Parser>(components);
+            this.componentTypes =
+                    new ArrayList<Set<MediaType>>(components.size());
+            this.parsers = new HashMap<MediaType, Parser>();
+            int[] sensitive = new int[this.components.size()];
+            int numSensitive = 0;
+            for (int i = 0; i < this.components.size(); i++) {
+                Parser parser = this.components.get(i);
+                RecordingParseContext recording = new RecordingParseContext(context);
+                Set<MediaType> types = parser.getSupportedTypes(recording);
+                if (recording.accessed) {
+                    sensitive[numSensitive++] = i;
+                }
+                componentTypes.add(types);
+                for (MediaType type : types) {
+                    parsers.put(registry.normalize(type), parser);
+                }
+            }
+            this.contextSensitive = Arrays.copyOf(sensitive, numSensitive);
+            this.supportedTypes = Collections.unmodifiableSet(parsers.keySet());
+
+            this.resolved = new HashMap<MediaType, Parser>();
+            if (resolveAll) {
+                for (MediaType type : registry.getTypes()) {
+                    resolve(type);
+                }
+                for (MediaType type : parsers.keySet()) {
+                    resolve(type);
+                }
+            }
+        }
+
+        private Parser resolve(MediaType type) {
+            Parser parser = resolved.get(type);
+            if (parser == null) {
+                parser = parsers.get(type);
+                if (parser == null) {
+                    MediaType supertype = registry.getSupertype(type);
+                    parser = supertype != null ? resolve(supertype) : NO_PARSER;
+                }
+                resolved.put(type, parser);
+            }
+            return parser;
+        }
+
+        /**
+         * Checks whether this table was built for the given registry and
+         * component parsers.
+         */
+        boolean hasComponents(MediaTypeRegistry registry, List<Parser> components) {
+            if (registry != this.registry
+                    || components.size() != this.components.size()) {
+                return false;
+            }
+            for (int i = 0; i < components.size(); i++) {
+                if (components.get(i) != this.components.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks whether the component parsers that read the parse context
+         * report the same types in the given context as when this table
+         * was built. Those parsers usually return the same set instance for
+         * the same configuration, so this is normally just an identity
+         * comparison per context-sensitive component.
+         */
+        boolean isValid(ParseContext context) {
+            for (int i : contextSensitive) {
+                Set<MediaType> types = components.get(i).getSupportedTypes(context);
+                Set<MediaType> cached = componentTypes.get(i);
+                if (types != cached && !types.equals(cached)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the parser for the given normalised type or its nearest
+         * supertype, or <code>null</code> if there is none.
+         */
+        Parser getParser(MediaType type) {
+            while (type != null) {
+                Parser parser = resolved.get(type);
+                if (parser != null) {
+                    return parser != NO_PARSER ? parser : null;
+                }
+                parser = parsers.get(type);
+                if (parser != null) {
+                    return parser;
+                }
+                type = registry.getSupertype(type);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Parse context that records whether a component parser looked at it
+     * while reporting its supported types.
+     */
+    private static final class RecordingParseContext extends ParseContext {
+
+        private static final long serialVersionUID = -4394937441632208473L;
+
+        private final ParseContext context;
+
+        private boolean accessed = false;
+
+        RecordingParseContext(ParseContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public <T> T get(Class<T> key) {
+            accessed = true;
+            return context.get(key);
+        }
     }
 
     /**
@@ -22,9 +22,11 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.CloseShieldInputStream;
 import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.digest.DigestingInputStream;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
@@ -55,6 +57,23 @@ public class DigestingParser extends ParserDecorator {
         void digest(InputStream is, Metadata m, ParseContext parseContext) throws IOException;
     };
 
+    /**
+     * Digester that can also compute its digests while the decorated parser
+     * consumes the stream, rather than reading the stream up front.
+     */
+    public interface InlineDigester extends Digester {
+        /**
+         * Wraps the given stream so that the bytes read through it are digested.
+         * The caller must call {@link DigestingInputStream#finish(Metadata)}
+         * once done with the stream to record the digests.
+         *
+         * @param is InputStream to digest
+         * @return digesting stream, or <code>null</code> if this digester
+         * can't digest inline
+         */
+        DigestingInputStream newDigestingStream(InputStream is);
+    }
+
     /**
      * Encodes byte array from a MessageDigest to String
      */
@@ -63,14 +82,37 @@ public class DigestingParser extends ParserDecorator {
     }
 
     private final Digester digester;
+
+    private final boolean inline;
+
     /**
      * Creates a decorator for the given parser.
      *
      * @param parser the parser instance to be decorated
      */
     public DigestingParser(Parser parser, Digester digester) {
+        this(parser, digester, false);
+    }
+
+    /**
+     * Creates a decorator for the given parser.
+     * <p>
+     * If <code>inline</code> is true and the digester is an {@link InlineDigester},
+     * streams that are not already backed by a file are digested while the
+     * decorated parser reads them, so the input is neither read twice nor
+     * spooled to a temporary file for digesting. Whatever the parser leaves
+     * unread is digested after it returns. Note that in this mode the digests
+     * are only added to the metadata once parsing has finished.
+     *
+     * @param parser the parser instance to be decorated
+     * @param digester digester to run
+     * @param inline whether to digest while parsing rather than before
+     * @since Apache Tika 2.0.0
+     */
+    public DigestingParser(Parser parser, Digester digester, boolean inline) {
         super(parser);
         this.digester = digester;
+        this.inline = inline;
     }
 
     @Override
@@ -78,12 +120,42 @@ public class DigestingParser extends ParserDecorator {
         TemporaryResources tmp = new TemporaryResources();
         TikaInputStream tis = TikaInputStream.get(stream, tmp);
         try {
-            if (digester != null) {
-                digester.digest(tis, metadata, context);
+            DigestingInputStream digestingStream = null;
+            if (inline && !tis.hasFile() && digester instanceof InlineDigester) {
+                digestingStream = ((InlineDigester) digester).newDigestingStream(tis);
+            }
+            if (digestingStream != null) {
+                parseInline(digestingStream, handler, metadata, context);
+            } else {
+                if (digester != null) {
+                    digester.digest(tis, metadata, context);
+                }
+                super.parse(tis, handler, metadata, context);
             }
-            super.parse(tis, handler, metadata, context);
         } finally {
             tmp.dispose();
         }
     }
+
+    private void parseInline(DigestingInputStream digestingStream, ContentHandler handler,
+                             Metadata metadata, ParseContext context)
+            throws IOException, SAXException, TikaException {
+        boolean parsed = false;
+        try {
+            super.parse(new CloseShieldInputStream(digestingStream), handler, metadata, context);
+            parsed = true;
+        } finally {
+            if (parsed) {
+                digestingStream.finish(metadata);
+            } else {
+                //still record the digests of documents that failed to parse,
+                //but don't let a read failure mask the parse exception
+                try {
+                    digestingStream.finish(metadata);
+                } catch (IOException e) {
+                    //swallow
+                }
+            }
+        }
+    }
 }
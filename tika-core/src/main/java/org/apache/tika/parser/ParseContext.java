@@ -66,6 +66,15 @@ public class ParseContext implements Serializable {
         }
     }
 
+    /**
+     * @return a shallow copy of this context, for use on another thread
+     */
+    ParseContext copy() {
+        ParseContext copy = new ParseContext();
+        copy.context.putAll(context);
+        return copy;
+    }
+
     /**
      * Returns the object in this context that implements the given interface.
      *
@@ -16,19 +16,19 @@
  */
 package org.apache.tika.parser;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PipedReader;
-import java.io.PipedWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.tika.exception.ZeroByteFileException;
 import org.apache.tika.metadata.Metadata;
@@ -43,20 +43,40 @@ import org.xml.sax.ContentHandler;
  * a given input stream. The {@link BodyContentHandler} class and a pipe
  * is used to convert the push-based SAX event stream to the pull-based
  * character stream defined by the {@link Reader} interface.
+ * <p>
+ * Unless an executor is given, the parsing tasks run on a shared pool
+ * of daemon threads.
  *
  * @since Apache Tika 0.2
  */
 public class ParsingReader extends Reader {
 
+    /**
+     * Number of characters buffered between the parsing task and the reader.
+     */
+    private static final int PIPE_CAPACITY = 16 * 1024;
+
+    /**
+     * Shared threads for the parsing tasks, if no executor is given.
+     */
+    private static final ExecutorService DEFAULT_EXECUTOR =
+            Executors.newCachedThreadPool(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Apache Tika");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
     /**
      * Parser instance used for parsing the given binary stream.
      */
     private final Parser parser;
 
     /**
-     * Buffered read end of the pipe.
+     * The pipe between the parsing task and this reader.
      */
-    private final Reader reader;
+    private final CharRing pipe;
 
     /**
      * Write end of the pipe.
@@ -81,7 +101,7 @@ public class ParsingReader extends Reader {
     /**
      * An exception (if any) thrown by the parsing thread.
      */
-    private transient Throwable throwable;
+    private transient volatile Throwable throwable;
 
     /**
      * Utility method that returns a {@link Metadata} instance
@@ -148,7 +168,7 @@ public class ParsingReader extends Reader {
     /**
      * Creates a reader for the text content of the given binary stream
      * with the given document metadata. The given parser is used for
-     * parsing. A new background thread is started for the parsing task.
+     * parsing. The parsing task runs on a shared pool of background threads.
      * <p>
      * The created reader will be responsible for closing the given stream.
      * The stream and any associated resources will be closed at or before
@@ -163,16 +183,25 @@ public class ParsingReader extends Reader {
             Parser parser, InputStream stream, final Metadata metadata,
             ParseContext context) throws IOException {
         this(parser, stream, metadata, context, new Executor() {
-            public void execute(Runnable command) {
+            public void execute(final Runnable command) {
                 String name = metadata.get(TikaCoreProperties.RESOURCE_NAME_KEY);
                 if (name != null) {
                     name = "Apache Tika: " + name;
                 } else {
                     name = "Apache Tika";
                 }
-                Thread thread = new Thread(command, name);
-                thread.setDaemon(true);
-                thread.start();
+                final String threadName = name;
+                DEFAULT_EXECUTOR.execute(new Runnable() {
+                    public void run() {
+                        Thread thread = Thread.currentThread();
+                        thread.setName(threadName);
+                        try {
+                            command.run();
+                        } finally {
+                            thread.setName("Apache Tika");
+                        }
+                    }
+                });
             }
         });
     }
@@ -201,23 +230,16 @@ public class ParsingReader extends Reader {
             Parser parser, InputStream stream, Metadata metadata,
             ParseContext context, Executor executor) throws IOException {
         this.parser = parser;
-        PipedReader pipedReader = new PipedReader();
-        this.reader = new BufferedReader(pipedReader);
-        try {
-            this.writer = new PipedWriter(pipedReader);
-        } catch (IOException e) {
-            throw new IllegalStateException(e); // Should never happen
-        }
+        this.pipe = new CharRing(PIPE_CAPACITY);
+        this.writer = pipe.getWriter();
         this.stream = stream;
         this.metadata = metadata;
         this.context = context;
 
         executor.execute(new ParsingTask());
 
-        // TIKA-203: Buffer first character to force metadata extraction
-        reader.mark(1);
-        reader.read();
-        reader.reset();
+        // TIKA-203: Wait for the first characters to force metadata extraction
+        pipe.awaitData();
     }
 
     /**
@@ -270,8 +292,26 @@ public class ParsingReader extends Reader {
      */
     @Override
     public int read(char[] cbuf, int off, int len) throws IOException {
-        if (throwable instanceof ZeroByteFileException) {
+        if (isEmptyDocument()) {
             return -1;
+        }
+        int n = pipe.read(cbuf, off, len);
+        if (n == -1) {
+            //the parsing task may have failed after the last check
+            isEmptyDocument();
+        }
+        return n;
+    }
+
+    /**
+     * Rethrows the exception, if any, thrown by the parsing task.
+     *
+     * @return true if the document turned out to be empty
+     * @throws IOException if the parsing task failed
+     */
+    private boolean isEmptyDocument() throws IOException {
+        if (throwable instanceof ZeroByteFileException) {
+            return true;
         } else if (throwable instanceof IOException) {
             throw (IOException) throwable;
         } else if (throwable != null) {
@@ -279,7 +319,7 @@ public class ParsingReader extends Reader {
             exception.initCause(throwable);
             throw exception;
         }
-        return reader.read(cbuf, off, len);
+        return false;
     }
 
     /**
@@ -291,7 +331,7 @@ public class ParsingReader extends Reader {
      */
     @Override
     public void close() throws IOException {
-        reader.close();
+        pipe.closeReader();
     }
 
 }
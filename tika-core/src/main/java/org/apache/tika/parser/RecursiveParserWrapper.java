@@ -19,6 +19,8 @@ package org.apache.tika.parser;
 
 import org.apache.tika.exception.CorruptedFileException;
 import org.apache.tika.exception.TikaException;
+import org.apache.tika.extractor.EmbeddedDocumentExtractor;
+import org.apache.tika.extractor.ParsingEmbeddedDocumentExtractor;
 import org.apache.tika.io.FilenameUtils;
 import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.io.TikaInputStream;
@@ -35,11 +37,22 @@ import org.apache.tika.utils.ParserUtils;
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This is a helper class that wraps a parser in a recursive handler.
@@ -67,6 +80,9 @@ import java.util.Set;
  * Note that this wrapper holds all data in memory and is not appropriate
  * for files with content too large to be held in memory.
  * <p>
+ * Embedded documents can be parsed concurrently, see
+ * {@link #setEmbeddedExecutor(Executor, int)}.
+ * <p>
  * Note, too, that this wrapper is not thread safe because it stores state.  
  * The client must initialize a new wrapper for each thread, and the client
  * is responsible for calling {@link #reset()} after each parse.
@@ -137,6 +153,10 @@ public class RecursiveParserWrapper extends ParserDecorator {
     @Deprecated
     private ParserState lastParseState = null;
 
+    private transient Executor embeddedExecutor = null;
+
+    private int maxPendingEmbedded = 0;
+
     /**
      * Initialize the wrapper with {@link #catchEmbeddedExceptions} set
      * to <code>true</code> as default.
@@ -197,6 +217,38 @@ public class RecursiveParserWrapper extends ParserDecorator {
         return getWrappedParser().getSupportedTypes(context);
     }
 
+    /**
+     * Parses the embedded documents of the container document concurrently.
+     * <p>
+     * Each of the container's embedded documents is spooled to a temporary
+     * file and parsed, along with its own embedded documents, on the given
+     * executor.  Embedded documents that need resources that the container's
+     * parser holds open (see {@link TikaInputStream#getOpenContainer()}) are
+     * still parsed on the calling thread.
+     * <p>
+     * The results are passed to the {@link AbstractRecursiveParserWrapperHandler}
+     * on the calling thread in the same order as in a sequential parse, and
+     * the handler's maximum number of embedded resources, write limits and
+     * {@link #catchEmbeddedExceptions} work as they do in a sequential parse.
+     * There are two differences: an exception from an embedded document that
+     * isn't caught is thrown the next time the container's parser hands off an
+     * embedded document, or after the container has been parsed; and unnamed
+     * documents below the first level are numbered per first level document.
+     *
+     * @param executor executor to parse the embedded documents on, or <code>null</code>
+     *                 to parse them on the calling thread (the default)
+     * @param maxPending maximum number of embedded documents that may be spooled
+     *                   or parsed ahead of the handler
+     * @since Apache Tika 2.0.0
+     */
+    public void setEmbeddedExecutor(Executor executor, int maxPending) {
+        if (executor != null && maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be > 0: " + maxPending);
+        }
+        this.embeddedExecutor = executor;
+        this.maxPendingEmbedded = maxPending;
+    }
+
     /**
      * Acts like a regular parser except it ignores the ContentHandler
      * and it automatically sets/overwrites the embedded Parser in the 
@@ -219,6 +271,12 @@ public class RecursiveParserWrapper extends ParserDecorator {
             parserState = new ParserState(new RecursiveParserWrapperHandler(contentHandlerFactory, maxEmbeddedResources));
             lastParseState = parserState;
         }
+        ConcurrentEmbedded concurrent = null;
+        if (embeddedExecutor != null) {
+            concurrent = new ConcurrentEmbedded(embeddedExecutor, maxPendingEmbedded,
+                    parserState.recursiveParserWrapperHandler);
+            parserState.concurrent = concurrent;
+        }
         EmbeddedParserDecorator decorator = new EmbeddedParserDecorator(getWrappedParser(), "/", parserState);
         context.set(Parser.class, decorator);
         ContentHandler localHandler = parserState.recursiveParserWrapperHandler.getNewContentHandler();
@@ -231,6 +289,9 @@ public class RecursiveParserWrapper extends ParserDecorator {
                         new RecursivelySecureContentHandler(localHandler, tis);
             context.set(RecursivelySecureContentHandler.class, secureContentHandler);
             getWrappedParser().parse(tis, secureContentHandler, metadata, context);
+            if (concurrent != null) {
+                concurrent.replayAll();
+            }
         } catch (SAXException e) {
             boolean wlr = isWriteLimitReached(e);
             if (wlr == false) {
@@ -244,6 +305,9 @@ public class RecursiveParserWrapper extends ParserDecorator {
             metadata.add(RecursiveParserWrapperHandler.CONTAINER_EXCEPTION, stackTrace);
             throw e;
         } finally {
+            if (concurrent != null) {
+                concurrent.close();
+            }
             tmp.dispose();
             long elapsedMillis = System.currentTimeMillis() - started;
             metadata.set(RecursiveParserWrapperHandler.PARSE_TIME_MILLIS, Long.toString(elapsedMillis));
@@ -358,6 +422,11 @@ public class RecursiveParserWrapper extends ParserDecorator {
         public void parse(InputStream stream, ContentHandler ignore,
                 Metadata metadata, ParseContext context) throws IOException,
                 SAXException, TikaException {
+            //only the container's own embedded documents are handed off
+            ConcurrentEmbedded concurrent = "/".equals(location) ? parserState.concurrent : null;
+            if (concurrent != null) {
+                concurrent.replayReady();
+            }
             //Test to see if we should avoid parsing
             if (parserState.recursiveParserWrapperHandler.hasHitMaximumEmbeddedResources()) {
                 return;
@@ -368,7 +437,20 @@ public class RecursiveParserWrapper extends ParserDecorator {
       
             metadata.add(AbstractRecursiveParserWrapperHandler.EMBEDDED_RESOURCE_PATH, objectLocation);
 
+            if (concurrent != null) {
+                TikaInputStream tis = TikaInputStream.cast(stream);
+                if (tis == null || tis.getOpenContainer() == null) {
+                    concurrent.submit(stream, metadata, context, objectLocation);
+                    return;
+                }
+                //this needs the container's open resources, so it can't wait
+                concurrent.replayAll();
+            }
+            parseEmbedded(stream, metadata, context, objectLocation);
+        }
 
+        private void parseEmbedded(InputStream stream, Metadata metadata, ParseContext context,
+                                   String objectLocation) throws IOException, SAXException, TikaException {
             //get a fresh handler
             ContentHandler localHandler = parserState.recursiveParserWrapperHandler.getNewContentHandler();
             parserState.recursiveParserWrapperHandler.startEmbeddedDocument(localHandler, metadata);
@@ -420,11 +502,278 @@ public class RecursiveParserWrapper extends ParserDecorator {
     private class ParserState {
         private int unknownCount = 0;
         private final AbstractRecursiveParserWrapperHandler recursiveParserWrapperHandler;
+        private ConcurrentEmbedded concurrent = null;
         private ParserState(AbstractRecursiveParserWrapperHandler handler) {
             this.recursiveParserWrapperHandler = handler;
         }
     }
 
+    /**
+     * The container's embedded documents that have been handed off to the
+     * {@link #embeddedExecutor}, in the order in which the container's parser
+     * handed them off.  Only the container's parsing thread uses this.
+     */
+    private class ConcurrentEmbedded {
+
+        private final Executor executor;
+        private final int maxPending;
+        private final AbstractRecursiveParserWrapperHandler handler;
+        private final Deque<EmbeddedTask> pending = new ArrayDeque<>();
+
+        //once set, the tasks skip documents that would be dropped anyway
+        private volatile boolean limitReached = false;
+
+        //whether the last exception came from an embedded document
+        private boolean failed = false;
+
+        private ConcurrentEmbedded(Executor executor, int maxPending,
+                                   AbstractRecursiveParserWrapperHandler handler) {
+            this.executor = executor;
+            this.maxPending = maxPending;
+            this.handler = handler;
+        }
+
+        /**
+         * Passes on the results of the documents at the head
+         * of the queue that have been parsed.
+         */
+        void replayReady() throws IOException, SAXException, TikaException {
+            //the container's parser carried on, so it handled any earlier failure
+            failed = false;
+            while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+                replay(pending.pollFirst());
+            }
+        }
+
+        void replayAll() throws IOException, SAXException, TikaException {
+            while (!pending.isEmpty()) {
+                replay(pending.pollFirst());
+            }
+        }
+
+        void submit(InputStream stream, Metadata metadata, ParseContext context,
+                    String objectLocation) throws IOException, SAXException, TikaException {
+            while (pending.size() >= maxPending) {
+                replay(pending.pollFirst());
+            }
+            TemporaryResources tmp = new TemporaryResources();
+            EmbeddedTask task = null;
+            try {
+                Path spooled = tmp.createTempFile();
+                Files.copy(stream, spooled, StandardCopyOption.REPLACE_EXISTING);
+                ParseContext taskContext = context.copy();
+                //this one is bound to the container's context;
+                //the AutoDetectParser will set up a new one
+                if (taskContext.get(EmbeddedDocumentExtractor.class) instanceof ParsingEmbeddedDocumentExtractor) {
+                    taskContext.set(EmbeddedDocumentExtractor.class, null);
+                }
+                task = new EmbeddedTask(this, spooled, tmp,
+                        ParserUtils.cloneMetadata(metadata), taskContext, objectLocation);
+            } finally {
+                if (task == null) {
+                    tmp.dispose();
+                }
+            }
+            pending.addLast(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+
+        /**
+         * If the container's parser failed, this passes on the documents
+         * that it handed off before it failed, unless it failed because of
+         * an embedded document.  Anything else is dropped.
+         */
+        void close() {
+            EmbeddedTask task;
+            while ((task = pending.pollFirst()) != null) {
+                if (failed) {
+                    task.cancel();
+                    continue;
+                }
+                try {
+                    replay(task);
+                } catch (IOException|SAXException|TikaException|RuntimeException e) {
+                    //swallow: the container's exception is the one that's thrown
+                }
+            }
+        }
+
+        private void replay(EmbeddedTask task) throws IOException, SAXException, TikaException {
+            try {
+                task.await();
+            } catch (InterruptedException e) {
+                task.cancel();
+                Thread.currentThread().interrupt();
+                throw new TikaException("Interrupted while waiting for an embedded document", e);
+            }
+            //documents beyond the limit are dropped along with their children,
+            //just as a sequential parse would not have parsed them
+            int skipping = 0;
+            for (Event event : task.recorder.events) {
+                if (event.start) {
+                    if (skipping > 0 || handler.hasHitMaximumEmbeddedResources()) {
+                        skipping++;
+                    } else {
+                        handler.startEmbeddedDocument(event.contentHandler, event.metadata);
+                    }
+                } else if (skipping > 0) {
+                    skipping--;
+                } else {
+                    handler.endEmbeddedDocument(event.contentHandler, event.metadata);
+                }
+            }
+            if (handler.hasHitMaximumEmbeddedResources()) {
+                limitReached = true;
+            }
+            if (task.failure != null) {
+                failed = true;
+                rethrow(task.failure);
+            }
+        }
+
+        private void rethrow(Throwable t) throws IOException, SAXException, TikaException {
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            } else if (t instanceof SAXException) {
+                throw (SAXException) t;
+            } else if (t instanceof TikaException) {
+                throw (TikaException) t;
+            } else if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw new TikaException("Unexpected exception in embedded document", t);
+        }
+    }
+
+    /**
+     * Parses a spooled embedded document and its children,
+     * recording what is to be passed to the handler.
+     */
+    private class EmbeddedTask implements Runnable {
+
+        private final Path spooled;
+        private final TemporaryResources tmp;
+        private final Metadata metadata;
+        private final ParseContext context;
+        private final String objectLocation;
+        private final Recorder recorder;
+
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Throwable failure = null;
+
+        private EmbeddedTask(ConcurrentEmbedded concurrent, Path spooled, TemporaryResources tmp,
+                             Metadata metadata, ParseContext context, String objectLocation) {
+            this.spooled = spooled;
+            this.tmp = tmp;
+            this.metadata = metadata;
+            this.context = context;
+            this.objectLocation = objectLocation;
+            this.recorder = new Recorder(concurrent);
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                //cancelled
+                return;
+            }
+            try (TikaInputStream tis = TikaInputStream.get(spooled)) {
+                context.set(RecursivelySecureContentHandler.class,
+                        new RecursivelySecureContentHandler(new DefaultHandler(), tis));
+                new EmbeddedParserDecorator(getWrappedParser(), "/", new ParserState(recorder))
+                        .parseEmbedded(tis, metadata, context, objectLocation);
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                dispose();
+            }
+        }
+
+        boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        void await() throws InterruptedException {
+            done.await();
+        }
+
+        /**
+         * Drops this task if it hasn't started yet.
+         */
+        void cancel() {
+            if (claimed.compareAndSet(false, true)) {
+                dispose();
+            }
+        }
+
+        private void dispose() {
+            try {
+                tmp.dispose();
+            } catch (TikaException e) {
+                //swallow
+            }
+            done.countDown();
+        }
+    }
+
+    /**
+     * Stands in for the real handler on the executor's threads.
+     */
+    private class Recorder extends AbstractRecursiveParserWrapperHandler {
+
+        private static final long serialVersionUID = -3236813578612931290L;
+
+        private final ConcurrentEmbedded concurrent;
+        private final List<Event> events = new ArrayList<>();
+
+        private Recorder(ConcurrentEmbedded concurrent) {
+            super(concurrent.handler.getContentHandlerFactory());
+            this.concurrent = concurrent;
+        }
+
+        @Override
+        public ContentHandler getNewContentHandler() {
+            return concurrent.handler.getNewContentHandler();
+        }
+
+        @Override
+        public void startEmbeddedDocument(ContentHandler contentHandler, Metadata metadata) throws SAXException {
+            //tracks the depth
+            super.startEmbeddedDocument(contentHandler, metadata);
+            events.add(new Event(true, contentHandler, metadata));
+        }
+
+        @Override
+        public void endEmbeddedDocument(ContentHandler contentHandler, Metadata metadata) throws SAXException {
+            super.endEmbeddedDocument(contentHandler, metadata);
+            events.add(new Event(false, contentHandler, metadata));
+        }
+
+        @Override
+        public boolean hasHitMaximumEmbeddedResources() {
+            return concurrent.limitReached;
+        }
+    }
+
+    private static class Event {
+        private final boolean start;
+        private final ContentHandler contentHandler;
+        private final Metadata metadata;
+
+        private Event(boolean start, ContentHandler contentHandler, Metadata metadata) {
+            this.start = start;
+            this.contentHandler = contentHandler;
+            this.metadata = metadata;
+        }
+    }
+
     private class RecursivelySecureContentHandler
             extends SecureContentHandler {
         private ContentHandler handler;
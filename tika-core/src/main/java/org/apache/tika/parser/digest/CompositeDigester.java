@@ -29,12 +29,42 @@ import org.apache.tika.parser.DigestingParser;
 import org.apache.tika.parser.ParseContext;
 
 
-public class CompositeDigester implements DigestingParser.Digester {
+/**
+ * Digester that runs several digesters over the same input stream.
+ * <p>
+ * If all of the digesters are {@link InputStreamDigester}s, the stream is
+ * read only once and every buffer is fed to all of the digest algorithms.
+ * In that case this digester can also digest inline, see
+ * {@link #newDigestingStream(InputStream)}.
+ */
+public class CompositeDigester implements DigestingParser.InlineDigester {
 
     private final DigestingParser.Digester[] digesters;
 
+    /**
+     * The digesters as {@link InputStreamDigester}s, or <code>null</code>
+     * if at least one of them isn't one.
+     */
+    private final InputStreamDigester[] streamDigesters;
+
+    private final int markLimit;
+
     public CompositeDigester(DigestingParser.Digester ... digesters) {
         this.digesters = digesters;
+
+        InputStreamDigester[] streamDigesters = digesters.length > 0 ?
+                new InputStreamDigester[digesters.length] : null;
+        int markLimit = Integer.MAX_VALUE;
+        for (int i = 0; streamDigesters != null && i < digesters.length; i++) {
+            if (!(digesters[i] instanceof InputStreamDigester)) {
+                streamDigesters = null;
+                break;
+            }
+            streamDigesters[i] = (InputStreamDigester) digesters[i];
+            markLimit = Math.min(markLimit, streamDigesters[i].getMarkLimit());
+        }
+        this.streamDigesters = streamDigesters;
+        this.markLimit = markLimit;
     }
 
     @Override
@@ -42,8 +72,12 @@ public class CompositeDigester implements DigestingParser.Digester {
         TemporaryResources tmp = new TemporaryResources();
         TikaInputStream tis = TikaInputStream.get(is, tmp);
         try {
-            for (DigestingParser.Digester digester : digesters) {
-                digester.digest(tis, m, parseContext);
+            if (streamDigesters != null) {
+                InputStreamDigester.digest(streamDigesters, markLimit, tis, m);
+            } else {
+                for (DigestingParser.Digester digester : digesters) {
+                    digester.digest(tis, m, parseContext);
+                }
             }
         } finally {
             try {
@@ -53,4 +87,17 @@ public class CompositeDigester implements DigestingParser.Digester {
             }
         }
     }
+
+    /**
+     * @return a stream that digests everything read through it with all of
+     * the digesters, or <code>null</code> if not all of the digesters
+     * are {@link InputStreamDigester}s
+     */
+    @Override
+    public DigestingInputStream newDigestingStream(InputStream is) {
+        if (streamDigesters == null) {
+            return null;
+        }
+        return new DigestingInputStream(is, streamDigesters);
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.digest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+import org.apache.tika.metadata.Metadata;
+
+/**
+ * Stream decorator that digests the bytes of the decorated stream as they
+ * are read, so that digests can be computed while a parser consumes the
+ * stream instead of in a separate pass.
+ * <p>
+ * Every byte of the underlying stream is digested exactly once: bytes
+ * that are read again after a {@link #reset()} are not digested again,
+ * and skipped bytes are read (and digested) rather than skipped.
+ * Call {@link #finish(Metadata)} once the consumer is done with the
+ * stream to digest whatever was left unread and record the digests.
+ *
+ * @since Apache Tika 2.0.0
+ */
+public class DigestingInputStream extends FilterInputStream {
+
+    private final InputStreamDigester[] digesters;
+
+    private final MessageDigest[] messageDigests;
+
+    /**
+     * Current position in the underlying stream.
+     */
+    private long position = 0;
+
+    /**
+     * Number of leading bytes of the underlying stream already digested.
+     */
+    private long digested = 0;
+
+    private long mark = -1;
+
+    public DigestingInputStream(InputStream in, InputStreamDigester... digesters) {
+        super(in);
+        this.digesters = digesters;
+        this.messageDigests = new MessageDigest[digesters.length];
+        for (int i = 0; i < digesters.length; i++) {
+            messageDigests[i] = digesters[i].newMessageDigest();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            if (position == digested) {
+                for (MessageDigest messageDigest : messageDigests) {
+                    messageDigest.update((byte) b);
+                }
+                digested++;
+            }
+            position++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            long end = position + n;
+            if (end > digested) {
+                int start = (int) (digested - position);
+                for (MessageDigest messageDigest : messageDigests) {
+                    messageDigest.update(b, off + start, n - start);
+                }
+                digested = end;
+            }
+            position = end;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        in.mark(readlimit);
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        in.reset();
+        position = mark;
+    }
+
+    /**
+     * Reads and digests the remainder of the stream, then records the
+     * digests in the given metadata. The stream is not closed.
+     *
+     * @param metadata metadata in which to store the digest information
+     * @throws IOException on IO problem
+     */
+    public void finish(Metadata metadata) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (read(buffer, 0, buffer.length) != -1) {
+            //digesting as we go
+        }
+        for (int i = 0; i < digesters.length; i++) {
+            digesters[i].setDigest(messageDigests[i], metadata);
+        }
+    }
+}
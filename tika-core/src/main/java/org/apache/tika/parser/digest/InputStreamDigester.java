@@ -35,7 +35,7 @@ import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.DigestingParser;
 import org.apache.tika.parser.ParseContext;
 
-public class InputStreamDigester implements DigestingParser.Digester {
+public class InputStreamDigester implements DigestingParser.InlineDigester {
 
     private final String algorithm;
     private final String algorithmKeyName;
@@ -70,7 +70,7 @@ public class InputStreamDigester implements DigestingParser.Digester {
         }
     }
 
-    private MessageDigest newMessageDigest() {
+    MessageDigest newMessageDigest() {
         try {
             Provider provider = getProvider();
             if (provider == null) {
@@ -108,17 +108,29 @@ public class InputStreamDigester implements DigestingParser.Digester {
     @Override
     public void digest(InputStream is, Metadata metadata,
                        ParseContext parseContext) throws IOException {
+        digest(new InputStreamDigester[]{this}, markLimit, is, metadata);
+    }
+
+    /**
+     * Runs all of the given digesters over a single read of the stream,
+     * feeding each buffer to every {@link MessageDigest} in turn.
+     *
+     * @param digesters digesters to run
+     * @param markLimit limit in bytes to allow for mark/reset before
+     *                  spooling to a temporary file
+     * @param is InputStream to digest; must support mark/reset
+     * @param metadata metadata in which to store the digest information
+     * @throws IOException on IO problem
+     */
+    static void digest(InputStreamDigester[] digesters, int markLimit,
+                       InputStream is, Metadata metadata) throws IOException {
         TikaInputStream tis = TikaInputStream.cast(is);
         if (tis != null && tis.hasFile()) {
-            long sz = -1;
-            if (tis.hasFile()) {
-                sz = tis.getLength();
-            }
             //if the inputstream has a file,
             //and its size is greater than its mark limit,
             //just digest the underlying file.
-            if (sz > markLimit) {
-                digestFile(tis.getFile(), metadata);
+            if (tis.getLength() > markLimit) {
+                digestFile(digesters, tis.getFile(), metadata);
                 return;
             }
         }
@@ -130,7 +142,7 @@ public class InputStreamDigester implements DigestingParser.Digester {
         BoundedInputStream bis = new BoundedInputStream(markLimit, is);
         boolean finishedStream = false;
         bis.mark(markLimit + 1);
-        finishedStream = digestStream(bis, metadata);
+        finishedStream = digestStream(digesters, bis, metadata);
         bis.reset();
         if (finishedStream) {
             return;
@@ -138,12 +150,12 @@ public class InputStreamDigester implements DigestingParser.Digester {
         //if the stream wasn't finished -- if the stream was longer than the mark limit --
         //spool to File and digest that.
         if (tis != null) {
-            digestFile(tis.getFile(), metadata);
+            digestFile(digesters, tis.getFile(), metadata);
         } else {
             TemporaryResources tmp = new TemporaryResources();
             try {
                 TikaInputStream tmpTikaInputStream = TikaInputStream.get(is, tmp);
-                digestFile(tmpTikaInputStream.getFile(), metadata);
+                digestFile(digesters, tmpTikaInputStream.getFile(), metadata);
             } finally {
                 try {
                     tmp.dispose();
@@ -154,52 +166,71 @@ public class InputStreamDigester implements DigestingParser.Digester {
         }
     }
 
-    private String getMetadataKey() {
+    @Override
+    public DigestingInputStream newDigestingStream(InputStream is) {
+        return new DigestingInputStream(is, this);
+    }
+
+    int getMarkLimit() {
+        return markLimit;
+    }
+
+    String getMetadataKey() {
         return TikaCoreProperties.TIKA_META_PREFIX +
                 "digest" + TikaCoreProperties.NAMESPACE_PREFIX_DELIMITER +
                 algorithmKeyName;
     }
 
-    private void digestFile(File f, Metadata m) throws IOException {
+    void setDigest(MessageDigest messageDigest, Metadata metadata) {
+        metadata.set(getMetadataKey(), encoder.encode(messageDigest.digest()));
+    }
+
+    private static void digestFile(InputStreamDigester[] digesters, File f, Metadata m) throws IOException {
         try (InputStream is = new FileInputStream(f)) {
-            digestStream(is, m);
+            digestStream(digesters, is, m);
         }
     }
 
     /**
+     * @param digesters digesters to run
      * @param is       input stream to read from
      * @param metadata metadata for reporting the digest
      * @return whether or not this finished the input stream
      * @throws IOException
      */
-    private boolean digestStream(InputStream is, Metadata metadata) throws IOException {
-        byte[] digestBytes;
-        MessageDigest messageDigest = newMessageDigest();
+    private static boolean digestStream(InputStreamDigester[] digesters,
+                                        InputStream is, Metadata metadata) throws IOException {
+        MessageDigest[] messageDigests = new MessageDigest[digesters.length];
+        for (int i = 0; i < digesters.length; i++) {
+            messageDigests[i] = digesters[i].newMessageDigest();
+        }
 
-        updateDigest(messageDigest, is);
-        digestBytes = messageDigest.digest();
+        updateDigests(messageDigests, is);
 
         if (is instanceof BoundedInputStream) {
             if (((BoundedInputStream) is).hasHitBound()) {
                 return false;
             }
         }
-        metadata.set(getMetadataKey(), encoder.encode(digestBytes));
+        for (int i = 0; i < digesters.length; i++) {
+            digesters[i].setDigest(messageDigests[i], metadata);
+        }
         return true;
     }
 
 
     /**
-     * Copied from commons-codec
+     * Adapted from commons-codec's DigestUtils.updateDigest
      */
-    private static MessageDigest updateDigest(MessageDigest digest, InputStream data) throws IOException {
-        byte[] buffer = new byte[1024];
+    private static void updateDigests(MessageDigest[] digests, InputStream data) throws IOException {
+        byte[] buffer = new byte[8192];
 
-        for (int read = data.read(buffer, 0, 1024); read > -1; read = data.read(buffer, 0, 1024)) {
-            digest.update(buffer, 0, read);
+        for (int read = data.read(buffer, 0, buffer.length); read > -1;
+             read = data.read(buffer, 0, buffer.length)) {
+            for (MessageDigest digest : digests) {
+                digest.update(buffer, 0, read);
+            }
         }
-
-        return digest;
     }
 
 }
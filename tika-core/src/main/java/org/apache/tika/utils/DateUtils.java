@@ -19,6 +19,10 @@ package org.apache.tika.utils;
 import java.text.DateFormat;
 import java.text.DateFormatSymbols;
 import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
@@ -50,6 +54,30 @@ public class DateUtils {
      */
     public static final TimeZone MIDDAY = TimeZone.getTimeZone("GMT-12:00");
 
+    /*
+     * Dates from this year on are parsed and formatted by hand, since the
+     * proleptic Gregorian calendar of java.time and the GregorianCalendar
+     * used by the date formats agree from then on.  Earlier dates, and
+     * anything that isn't in one of the common layouts, go through the
+     * date formats.
+     */
+    private static final int MIN_FAST_YEAR = 1600;
+
+    private static final int MAX_FAST_YEAR = 9999;
+
+    private static final long MIN_FAST_MILLIS =
+            LocalDateTime.of(MIN_FAST_YEAR, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000;
+
+    private static final long MAX_FAST_MILLIS =
+            LocalDateTime.of(MAX_FAST_YEAR + 1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000;
+
+    private static final ThreadLocal<DateUtils> THREAD_LOCAL = new ThreadLocal<DateUtils>() {
+        @Override
+        protected DateUtils initialValue() {
+            return new DateUtils();
+        }
+    };
+
     private static DateFormat createDateFormat(String format, TimeZone timezone) {
         final SimpleDateFormat sdf =
                 new SimpleDateFormat(format, new DateFormatSymbols(Locale.US));
@@ -93,6 +121,10 @@ public class DateUtils {
      * @return ISO 8601 date string, including timezone details
      */
     public static String formatDate(Date date) {
+        long millis = date.getTime();
+        if (millis >= MIN_FAST_MILLIS && millis < MAX_FAST_MILLIS) {
+            return formatMillis(millis);
+        }
         Calendar calendar = GregorianCalendar.getInstance(UTC, Locale.US);
         calendar.setTime(date);
         return doFormatDate(calendar);
@@ -108,6 +140,11 @@ public class DateUtils {
     public static String formatDate(Calendar date) {
         // Explicitly switch it into UTC before formatting
         date.setTimeZone(UTC);
+        long millis = date.getTimeInMillis();
+        if (date.getClass() == GregorianCalendar.class
+                && millis >= MIN_FAST_MILLIS && millis < MAX_FAST_MILLIS) {
+            return formatMillis(millis);
+        }
         return doFormatDate(date);
     }
     /**
@@ -127,6 +164,32 @@ public class DateUtils {
         // Strip the timezone details before returning
         return formatted.substring(0, formatted.length()-1);
     }
+    private static String formatMillis(long millis) {
+        LocalDateTime t = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(millis, 1000), 0, ZoneOffset.UTC);
+        char[] chars = new char[20];
+        appendDigits(chars, 0, t.getYear(), 4);
+        chars[4] = '-';
+        appendDigits(chars, 5, t.getMonthValue(), 2);
+        chars[7] = '-';
+        appendDigits(chars, 8, t.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        appendDigits(chars, 11, t.getHour(), 2);
+        chars[13] = ':';
+        appendDigits(chars, 14, t.getMinute(), 2);
+        chars[16] = ':';
+        appendDigits(chars, 17, t.getSecond(), 2);
+        chars[19] = 'Z';
+        return new String(chars);
+    }
+
+    private static void appendDigits(char[] chars, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
     private static String doFormatDate(Calendar calendar) {
         return String.format(
                 Locale.ROOT,
@@ -139,11 +202,129 @@ public class DateUtils {
                 calendar.get(Calendar.SECOND));
     }
 
+    /**
+     * Tries to parse the date string; returns null if no parse was possible.
+     * Accepts the same ISO 8601 variants as {@link #tryToParse(String)}.
+     * This method is thread safe and non-blocking.
+     *
+     * @param dateString date to parse
+     * @return the date, or null if it couldn't be parsed
+     * @since Apache Tika 2.0.0
+     */
+    public static Date tryToParseDate(String dateString) {
+        if (dateString == null) {
+            return null;
+        }
+        Date date = parseCommonLayouts(dateString);
+        if (date != null) {
+            return date;
+        }
+        return THREAD_LOCAL.get().tryToParse(dateString);
+    }
+
+    /**
+     * Parses yyyy-MM-dd, yyyy:MM:dd, and yyyy-MM-dd'T'HH:mm:ss (or with a space
+     * instead of the T) followed by Z, +hh:mm or +hhmm, without creating
+     * any intermediate objects.
+     *
+     * @return the date, or null if the string isn't in one of these layouts,
+     * or is out of range
+     */
+    private static Date parseCommonLayouts(String s) {
+        int n = s.length();
+        if (n != 10 && n != 20 && n != 24 && n != 25) {
+            return null;
+        }
+        int year = digits(s, 0, 4);
+        char dateSeparator = s.charAt(4);
+        if ((dateSeparator != '-' && !(dateSeparator == ':' && n == 10))
+                || s.charAt(7) != dateSeparator) {
+            return null;
+        }
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        if (year < MIN_FAST_YEAR || year > MAX_FAST_YEAR || month < 1 || month > 12
+                || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        long epochDay = epochDay(year, month, day);
+        if (n == 10) {
+            //date without time, set to midday UTC
+            return new Date((epochDay * 86400 + 12 * 3600) * 1000);
+        }
+        char timeSeparator = s.charAt(10);
+        if ((timeSeparator != 'T' && timeSeparator != ' ')
+                || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return null;
+        }
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        int offsetSeconds;
+        char zone = s.charAt(19);
+        if (n == 20) {
+            if (zone != 'Z') {
+                return null;
+            }
+            offsetSeconds = 0;
+        } else {
+            if ((zone != '+' && zone != '-') || (n == 25 && s.charAt(22) != ':')) {
+                return null;
+            }
+            int offsetHours = digits(s, 20, 2);
+            int offsetMinutes = digits(s, n - 2, 2);
+            if (offsetHours < 0 || offsetHours > 23 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return null;
+            }
+            offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+            if (zone == '-') {
+                offsetSeconds = -offsetSeconds;
+            }
+        }
+        long epochSecond = epochDay * 86400 + hour * 3600 + minute * 60 + second - offsetSeconds;
+        return new Date(epochSecond * 1000);
+    }
+
+    /**
+     * Same as LocalDate.of(year, month, day).toEpochDay() for a valid date
+     */
+    private static long epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!Year.isLeap(year)) {
+                total--;
+            }
+        }
+        //days from 0000-01-01 to 1970-01-01
+        return total - 719528;
+    }
+
+    /**
+     * @return the number, or -1 if there is anything but ASCII digits
+     */
+    private static int digits(String s, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
     /**
      * Tries to parse the date string; returns null if no parse was possible.
      *
-     * This is not thread safe!  Wrap in synchronized or create new {@link DateUtils}
-     * for each class.
+     * This is not thread safe!  Use {@link #tryToParseDate(String)} instead,
+     * or wrap in synchronized or create a new {@link DateUtils} for each class.
      *
      * @param dateString
      * @return
@@ -152,7 +333,7 @@ public class DateUtils {
         // Java doesn't like timezones in the form ss+hh:mm
         // It only likes the hhmm form, without the colon
         int n = dateString.length();
-        if (dateString.charAt(n - 3) == ':'
+        if (n >= 6 && dateString.charAt(n - 3) == ':'
                 && (dateString.charAt(n - 6) == '+' || dateString.charAt(n - 6) == '-')) {
             dateString = dateString.substring(0, n - 3) + dateString.substring(n - 2);
         }
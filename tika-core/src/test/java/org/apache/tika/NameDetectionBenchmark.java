@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures resource name based type detection, which runs on every
+ * file and embedded document.  Uses the names of the files in the
+ * given directories, plus a few that fall through to the generic globs.
+ */
+public class NameDetectionBenchmark {
+
+    private static final Tika tika = new Tika();
+
+    private static final int ITERATIONS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        List<String> names = new ArrayList<>();
+        if (args.length > 0) {
+            for (String arg : args) {
+                collect(new File(arg), names);
+            }
+        } else {
+            collect(new File(
+                    "../tika-parsers/src/test/resources/test-documents"), names);
+        }
+        names.add("Makefile");
+        names.add("a_investigation.txt");
+        names.add("archive.tar-gz");
+        names.add("no-extension-at-all");
+
+        //warm up
+        for (int i = 0; i < ITERATIONS; i++) {
+            detectAll(names);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            detectAll(names);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(
+                Locale.ROOT,
+                "%d names, %dns per Tika.detect(name)%n",
+                names.size(), elapsed / ((long) ITERATIONS * names.size()));
+    }
+
+    private static int detectAll(List<String> names) {
+        int hash = 0;
+        for (String name : names) {
+            hash += tika.detect(name).hashCode();
+        }
+        return hash;
+    }
+
+    private static void collect(File file, List<String> names) {
+        if (file.isHidden()) {
+            // ignore
+        } else if (file.isFile()) {
+            names.add(file.getName());
+        } else if (file.isDirectory()) {
+            for (File child : file.listFiles()) {
+                collect(child, names);
+            }
+        }
+    }
+
+}
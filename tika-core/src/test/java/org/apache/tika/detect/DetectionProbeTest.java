@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.detect;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.junit.Test;
+
+public class DetectionProbeTest {
+
+    @Test
+    public void testGet() throws Exception {
+        byte[] data = "Hello, World!".getBytes(US_ASCII);
+        InputStream stream = new ByteArrayInputStream(data);
+
+        DetectionProbe probe = DetectionProbe.get(stream, 5);
+        assertEquals(5, probe.length());
+        assertFalse(probe.isComplete());
+        assertEquals("Hello", new String(probe.prefix(10), US_ASCII));
+        assertEquals("He", new String(probe.prefix(2), US_ASCII));
+        assertSame(probe.array(), probe.prefix(5));
+        assertEquals(3, probe.slice(3).remaining());
+        assertEquals('H', stream.read());
+
+        probe = DetectionProbe.get(new ByteArrayInputStream(data), 1024);
+        assertEquals(data.length, probe.length());
+        assertTrue(probe.isComplete());
+        assertTrue(Arrays.equals(data, probe.array()));
+    }
+
+    @Test
+    public void testSharedWithTikaInputStream() throws Exception {
+        try (TikaInputStream tis = TikaInputStream.get("Hello, World!".getBytes(US_ASCII))) {
+            DetectionProbe probe = DetectionProbe.get(tis, 5);
+            assertSame(probe, DetectionProbe.get(tis, 3));
+            assertEquals(0, tis.getPosition());
+
+            //a longer probe replaces the shorter one
+            DetectionProbe longer = DetectionProbe.get(tis, 1024);
+            assertNotSame(probe, longer);
+            assertTrue(longer.isComplete());
+            assertSame(longer, DetectionProbe.get(tis, 4096));
+
+            //the probe only applies to the position it was read from
+            assertEquals('H', tis.read());
+            probe = DetectionProbe.get(tis, 4);
+            assertNotSame(longer, probe);
+            assertEquals("ello", new String(probe.array(), US_ASCII));
+        }
+    }
+
+    @Test
+    public void testCompositeDetector() throws Exception {
+        RecordingDetector a = new RecordingDetector(10);
+        RecordingDetector b = new RecordingDetector(20);
+        final List<Integer> firstBytes = new ArrayList<>();
+        Detector plain = new Detector() {
+            @Override
+            public MediaType detect(InputStream input, Metadata metadata) throws IOException {
+                if (input == null) {
+                    return MediaType.OCTET_STREAM;
+                }
+                input.mark(1);
+                firstBytes.add(input.read());
+                input.reset();
+                return MediaType.OCTET_STREAM;
+            }
+        };
+        Detector detector = new CompositeDetector(a, plain, b);
+
+        InputStream stream = new ByteArrayInputStream(new byte[100]);
+        assertEquals(MediaType.OCTET_STREAM, detector.detect(stream, new Metadata()));
+        assertEquals(1, a.probes.size());
+        assertSame(a.probes.get(0), b.probes.get(0));
+        assertEquals(20, a.probes.get(0).length());
+        assertEquals(Arrays.asList(0), firstBytes);
+
+        //no stream, no probe
+        assertEquals(MediaType.OCTET_STREAM, detector.detect(null, new Metadata()));
+        assertEquals(1, a.probes.size());
+        assertEquals(1, a.nulls);
+    }
+
+    @Test
+    public void testCompositeEncodingDetector() throws Exception {
+        final List<DetectionProbe> probes = new ArrayList<>();
+        EncodingDetector first = new RecordingEncodingDetector(probes, null);
+        EncodingDetector second = new RecordingEncodingDetector(probes, UTF_8);
+        EncodingDetector detector =
+                new CompositeEncodingDetector(Arrays.asList(first, second));
+
+        try (TikaInputStream tis = TikaInputStream.get(new byte[100])) {
+            assertEquals(UTF_8, detector.detect(tis, new Metadata()));
+            assertEquals(2, probes.size());
+            assertSame(probes.get(0), probes.get(1));
+            //and again, from the probe kept with the stream
+            assertEquals(UTF_8, detector.detect(tis, new Metadata()));
+            assertSame(probes.get(0), probes.get(3));
+        }
+    }
+
+    private static class RecordingDetector implements ProbeDetector {
+
+        private final int length;
+
+        private final List<DetectionProbe> probes = new ArrayList<>();
+
+        private int nulls = 0;
+
+        private RecordingDetector(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public int getProbeLength() {
+            return length;
+        }
+
+        @Override
+        public MediaType detectFromProbe(DetectionProbe probe, Metadata metadata) {
+            probes.add(probe);
+            return MediaType.OCTET_STREAM;
+        }
+
+        @Override
+        public MediaType detect(InputStream input, Metadata metadata) {
+            if (input == null) {
+                nulls++;
+            }
+            return MediaType.OCTET_STREAM;
+        }
+    }
+
+    private static class RecordingEncodingDetector implements ProbeEncodingDetector {
+
+        private final List<DetectionProbe> probes;
+
+        private final Charset charset;
+
+        private RecordingEncodingDetector(List<DetectionProbe> probes, Charset charset) {
+            this.probes = probes;
+            this.charset = charset;
+        }
+
+        @Override
+        public int getProbeLength() {
+            return 8;
+        }
+
+        @Override
+        public Charset detectFromProbe(DetectionProbe probe, Metadata metadata) {
+            probes.add(probe);
+            return charset;
+        }
+
+        @Override
+        public Charset detect(InputStream input, Metadata metadata) {
+            return charset;
+        }
+    }
+}
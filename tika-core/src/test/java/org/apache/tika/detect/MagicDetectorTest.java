@@ -237,6 +237,11 @@ public class MagicDetectorTest {
         try {
             InputStream stream = new ByteArrayInputStream(bytes);
             assertEquals(type, detector.detect(stream, new Metadata()));
+            if (detector instanceof MagicDetector) {
+                //matching the array directly must agree with the stream
+                assertEquals(!MediaType.OCTET_STREAM.equals(type),
+                        ((MagicDetector) detector).matches(bytes));
+            }
 
             // Test that the stream has been reset
             for (int i = 0; i < bytes.length; i++) {
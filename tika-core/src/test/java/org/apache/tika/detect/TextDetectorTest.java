@@ -34,7 +34,7 @@ import static org.junit.Assert.fail;
  */
 public class TextDetectorTest {
 
-    private final Detector detector = new TextDetector();
+    private final TextDetector detector = new TextDetector();
 
     @Test
     public void testDetectNull() throws Exception {
@@ -95,6 +95,10 @@ public class TextDetectorTest {
                 assertEquals(data[i], (byte) stream.read());
             }
             assertEquals(-1, stream.read());
+
+            assertEquals(
+                    MediaType.TEXT_PLAIN,
+                    detector.detectFromProbe(probe(data), new Metadata()));
         } catch (IOException e) {
             fail("Unexpected exception from TextDetector");
         }
@@ -106,9 +110,17 @@ public class TextDetectorTest {
                     MediaType.OCTET_STREAM,
                     detector.detect(
                             new ByteArrayInputStream(data), new Metadata()));
+            assertEquals(
+                    MediaType.OCTET_STREAM,
+                    detector.detectFromProbe(probe(data), new Metadata()));
         } catch (IOException e) {
             fail("Unexpected exception from TextDetector");
         }
     }
 
+    private DetectionProbe probe(byte[] data) throws IOException {
+        return DetectionProbe.get(
+                new ByteArrayInputStream(data), detector.getProbeLength());
+    }
+
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.fork;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.AbstractParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.XHTMLContentHandler;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * Compares parsing through a {@link ForkParser} with parsing in-process,
+ * for a parser that reads its input a byte at a time and emits many small
+ * SAX events, i.e. the worst case for the fork protocol. Run it on
+ * different revisions to compare protocol changes.
+ */
+public class ForkParserBenchmark {
+
+    private static final int DOCUMENT_SIZE = 1024 * 1024;
+
+    private static final int ITERATIONS = 10;
+
+    public static void main(String[] args) throws Exception {
+        byte[] content = new byte[DOCUMENT_SIZE];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        Parser parser = new ChattyParser();
+        benchmark("in-process", parser, content);
+        try (ForkParser forkParser =
+                     new ForkParser(ForkParserBenchmark.class.getClassLoader(), parser)) {
+            benchmark("forked", forkParser, content);
+        }
+    }
+
+    private static void benchmark(String name, Parser parser, byte[] content)
+            throws Exception {
+        // warm up
+        parse(parser, content);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parse(parser, content);
+        }
+        System.out.printf(
+                Locale.ROOT,
+                "%6dms per %s parse of %d bytes%n",
+                (System.currentTimeMillis() - start) / ITERATIONS, name, content.length);
+    }
+
+    private static void parse(Parser parser, byte[] content) throws Exception {
+        BodyContentHandler handler = new BodyContentHandler(-1);
+        parser.parse(new ByteArrayInputStream(content), handler, new Metadata(), new ParseContext());
+        if (handler.toString().length() < content.length) {
+            throw new IllegalStateException("Lost content");
+        }
+    }
+
+    /**
+     * Reads single bytes and emits a paragraph per 64 characters and a
+     * characters event per 8 characters.
+     */
+    private static class ChattyParser extends AbstractParser {
+
+        private static final long serialVersionUID = -7356423498761392323L;
+
+        public Set<MediaType> getSupportedTypes(ParseContext context) {
+            return Collections.singleton(MediaType.TEXT_PLAIN);
+        }
+
+        public void parse(
+                InputStream stream, ContentHandler handler,
+                Metadata metadata, ParseContext context)
+                throws IOException, SAXException, TikaException {
+            XHTMLContentHandler xhtml = new XHTMLContentHandler(handler, metadata);
+            xhtml.startDocument();
+            char[] ch = new char[8];
+            int n = 0;
+            int count = 0;
+            for (int b = stream.read(); b != -1; b = stream.read()) {
+                ch[n++] = (char) b;
+                if (n == ch.length) {
+                    if (count % 8 == 0) {
+                        xhtml.startElement("p");
+                    }
+                    xhtml.characters(ch, 0, n);
+                    if (++count % 8 == 0) {
+                        xhtml.endElement("p");
+                    }
+                    n = 0;
+                }
+            }
+            if (count % 8 != 0) {
+                xhtml.endElement("p");
+            }
+            xhtml.characters(ch, 0, n);
+            xhtml.endDocument();
+        }
+    }
+}
@@ -559,6 +559,86 @@ public class ForkParserTest extends TikaTest {
         }
     }
 
+    @Test
+    public void testPoolMetrics() throws Exception {
+        try (ForkParser parser = new ForkParser(ForkParserTest.class.getClassLoader(), new MockParser())) {
+            for (int i = 0; i < 3; i++) {
+                ContentHandler output = new BodyContentHandler();
+                parser.parse(mockInput("<write element=\"p\">Hello, World!</write>"),
+                        output, new Metadata(), new ParseContext());
+                assertContains("Hello, World!", output.toString());
+            }
+            ForkPoolMetrics metrics = parser.getMetrics();
+            assertEquals(3, metrics.getCheckouts());
+            //only the very first parse has to wait for a new process
+            assertEquals(1, metrics.getSpawnsOnRequest());
+            assertEquals(0, metrics.getCrashes());
+
+            try {
+                parser.parse(mockInput("<system_exit/>"), new BodyContentHandler(),
+                        new Metadata(), new ParseContext());
+                fail("should have thrown TikaException");
+            } catch (TikaException e) {
+                //expected
+            }
+            assertEquals(1, metrics.getCrashes());
+            assertEquals(0.25, metrics.getCrashRate(), 0.0001);
+
+            //the pool recovers
+            ContentHandler output = new BodyContentHandler();
+            parser.parse(mockInput("<write element=\"p\">Hello, World!</write>"),
+                    output, new Metadata(), new ParseContext());
+            assertContains("Hello, World!", output.toString());
+        }
+    }
+
+    @Test
+    public void testRecycleForHeap() throws Exception {
+        try (ForkParser parser = new ForkParser(ForkParserTest.class.getClassLoader(), new MockParser())) {
+            parser.setWarmSpares(0);
+            //any process will be over this limit
+            parser.setMaxHeapUsage(0.0000001);
+            for (int i = 0; i < 2; i++) {
+                ContentHandler output = new BodyContentHandler();
+                parser.parse(mockInput("<write element=\"p\">Hello, World!</write>"),
+                        output, new Metadata(), new ParseContext());
+                assertContains("Hello, World!", output.toString());
+            }
+            ForkPoolMetrics metrics = parser.getMetrics();
+            //the heap is checked in the background
+            long deadline = System.currentTimeMillis() + 30000;
+            while (metrics.getRecycledForHeap() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(2, metrics.getRecycledForHeap());
+            assertEquals(2, metrics.getSpawns());
+        }
+    }
+
+    @Test
+    public void testIdleSparesAreNotRespawned() throws Exception {
+        try (ForkParser parser = new ForkParser(ForkParserTest.class.getClassLoader(), new MockParser())) {
+            parser.setWarmSpares(1);
+            parser.setServerPulseMillis(100);
+            parser.setServerWaitTimeoutMillis(500);
+            parser.setHealthCheckIntervalMillis(100);
+            ContentHandler output = new BodyContentHandler();
+            parser.parse(mockInput("<write element=\"p\">Hello, World!</write>"),
+                    output, new Metadata(), new ParseContext());
+            assertContains("Hello, World!", output.toString());
+
+            ForkPoolMetrics metrics = parser.getMetrics();
+            //the parsing process and the spare time out a few times over
+            Thread.sleep(4000);
+            assertEquals(2, metrics.getSpawns());
+            assertEquals(1, metrics.getSpawnsOnRequest());
+        }
+    }
+
+    private static InputStream mockInput(String body) {
+        return new ByteArrayInputStream(("<mock>" + body + "</mock>").getBytes(StandardCharsets.UTF_8));
+    }
+
     //use this to test that a handler that extends RecursiveParserWrapperHandler
     //does have both contenthandlers and metadata objects proxied back from the
     //server.
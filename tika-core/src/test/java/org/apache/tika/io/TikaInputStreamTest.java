@@ -26,6 +26,8 @@ import static org.junit.Assert.assertNotNull;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -113,6 +115,60 @@ public class TikaInputStreamTest {
         stream.close();
     }
 
+    @Test
+    public void testSeekableByteChannel() throws IOException {
+        //short streams stay in memory
+        TikaInputStream stream = TikaInputStream.get(
+                IOUtils.toInputStream("Hello, World!", UTF_8.name()));
+        SeekableByteChannel channel = stream.getSeekableByteChannel();
+        assertFalse(stream.hasFile());
+        assertEquals(13, channel.size());
+        assertEquals("World!", readChannel(channel, 7));
+        assertEquals(
+                "The stream should still be readable from the start",
+                "Hello, World!", readStream(stream));
+        stream.close();
+        assertFalse(channel.isOpen());
+
+        //long ones are spilled to a file
+        stream = TikaInputStream.get(
+                IOUtils.toInputStream("Hello, World!", UTF_8.name()));
+        stream.setMemorySpoolThreshold(5);
+        channel = stream.getSeekableByteChannel();
+        assertTrue(stream.hasFile());
+        assertEquals("Hello, World!", readFile(stream.getPath()));
+        assertEquals("Hello", readChannel(channel, 0).substring(0, 5));
+        assertEquals("Hello, World!", readStream(stream));
+        Path spooled = stream.getPath();
+        stream.close();
+        assertFalse(Files.exists(spooled));
+
+        //files are read in place
+        Path path = createTempFile("Hello, World!");
+        stream = TikaInputStream.get(path);
+        assertEquals(", World!", readChannel(stream.getSeekableByteChannel(), 5));
+        assertEquals("Hello, World!", readStream(stream));
+        stream.close();
+        Files.delete(path);
+
+        //arrays are not copied
+        stream = TikaInputStream.get("Hello, World!".getBytes(UTF_8));
+        assertEquals("Hello, World!", readStream(stream));
+        assertEquals("Hello, World!", readChannel(stream.getSeekableByteChannel(), 0));
+        assertFalse(stream.hasFile());
+        stream.close();
+    }
+
+    private String readChannel(SeekableByteChannel channel, long position) throws IOException {
+        channel.position(position);
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (channel.read(buffer) != -1) {
+            //keep reading
+        }
+        buffer.flip();
+        return UTF_8.decode(buffer).toString();
+    }
+
     private Path createTempFile(String data) throws IOException {
         Path file = Files.createTempFile("tika-", ".tmp");
         Files.write(file, data.getBytes(UTF_8));
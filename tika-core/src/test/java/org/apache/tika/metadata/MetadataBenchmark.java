@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.metadata;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+/**
+ * Measures the garbage created per document by filling in and then
+ * reading back a {@link Metadata} object, roughly the way a parse
+ * followed by /rmeta serialization does.  Reports allocated bytes per
+ * document (on JVMs that support thread allocation counters) and time
+ * per document.
+ */
+public class MetadataBenchmark {
+
+    private static final int ITERATIONS = 200000;
+
+    private static final Property[] PROPERTIES = new Property[]{
+            TikaCoreProperties.FORMAT, TikaCoreProperties.IDENTIFIER,
+            TikaCoreProperties.CREATOR, TikaCoreProperties.MODIFIER,
+            TikaCoreProperties.CREATOR_TOOL, TikaCoreProperties.LANGUAGE,
+            TikaCoreProperties.PUBLISHER, TikaCoreProperties.RELATION,
+            TikaCoreProperties.RIGHTS, TikaCoreProperties.SOURCE,
+            TikaCoreProperties.TYPE, TikaCoreProperties.TITLE,
+            TikaCoreProperties.DESCRIPTION, TikaCoreProperties.CREATED,
+            TikaCoreProperties.MODIFIED, TikaCoreProperties.PRINT_DATE,
+            TikaCoreProperties.METADATA_DATE, TikaCoreProperties.RATING,
+            TikaCoreProperties.COMMENTS,
+            Office.INITIAL_AUTHOR, Office.LAST_AUTHOR, Office.CREATION_DATE,
+            Office.SAVE_DATE, Office.PAGE_COUNT, Office.PARAGRAPH_COUNT,
+            Office.LINE_COUNT, Office.WORD_COUNT, Office.CHARACTER_COUNT,
+            Office.TABLE_COUNT, Office.IMAGE_COUNT,
+            PDF.DOC_INFO_CREATED, PDF.DOC_INFO_CREATOR, PDF.DOC_INFO_PRODUCER,
+            PDF.DOC_INFO_TITLE, PDF.PDF_VERSION, PDF.IS_ENCRYPTED,
+            PDF.HAS_XFA, PDF.HAS_XMP, PDF.HAS_ACROFORM_FIELDS
+    };
+
+    private static final String[] MULTI_VALUED = new String[]{
+            "X-Parsed-By", "X-TIKA:digest", "meta:keyword",
+            "custom:a", "custom:b"
+    };
+
+    private static final String[] VALUES = new String[20];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = "value " + i;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        //warm up
+        run(ITERATIONS);
+
+        long start = System.nanoTime();
+        long allocatedStart = allocatedBytes();
+        int hash = run(ITERATIONS);
+        long allocated = allocatedBytes() - allocatedStart;
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf(Locale.ROOT, "%d keys per document (hash %d)%n",
+                PROPERTIES.length + MULTI_VALUED.length + 3, hash);
+        if (allocatedStart >= 0) {
+            System.out.printf(Locale.ROOT, "%d bytes allocated per document%n",
+                    allocated / ITERATIONS);
+        }
+        System.out.printf(Locale.ROOT, "%dns per document%n", elapsed / ITERATIONS);
+    }
+
+    private static int run(int iterations) {
+        int hash = 0;
+        for (int i = 0; i < iterations; i++) {
+            hash += document().size();
+        }
+        return hash;
+    }
+
+    private static Metadata document() {
+        Metadata metadata = new Metadata();
+        metadata.set(Metadata.CONTENT_TYPE, "application/pdf");
+        metadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, "test.pdf");
+        metadata.set(Metadata.CONTENT_LENGTH, "12345");
+        for (int i = 0; i < PROPERTIES.length; i++) {
+            metadata.set(PROPERTIES[i], VALUES[i % VALUES.length]);
+        }
+        for (String name : MULTI_VALUED) {
+            for (int i = 0; i < 4; i++) {
+                metadata.add(name, VALUES[i]);
+            }
+        }
+        for (String value : VALUES) {
+            metadata.add(PDF.CHARACTERS_PER_PAGE, value);
+        }
+
+        //read it back, like a serializer would
+        int n = 0;
+        for (String name : metadata.names()) {
+            n += metadata.getValues(name).length;
+        }
+        n += metadata.get(TikaCoreProperties.TITLE).length();
+        return (n > 0) ? metadata : null;
+    }
+
+    private static long allocatedBytes() {
+        //com.sun.management.ThreadMXBean isn't available on every JVM
+        try {
+            Method method = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+            return (Long) method.invoke(ManagementFactory.getThreadMXBean(),
+                    Thread.currentThread().getId());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -25,6 +25,11 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -230,6 +235,54 @@ public class TestMetadata {
         assertFalse(meta1.equals(meta2));
     }
 
+    @Test
+    public void testManyNamesAndValues() throws Exception {
+        Metadata meta = new Metadata();
+        for (int i = 0; i < 1000; i++) {
+            meta.add("name" + (i % 100), Integer.toString(i));
+        }
+        assertEquals(100, meta.size());
+        assertEquals("name0", meta.names()[0]);
+        assertEquals("name99", meta.names()[99]);
+        String[] values = meta.getValues("name7");
+        assertEquals(10, values.length);
+        assertEquals("7", values[0]);
+        assertEquals("907", values[9]);
+
+        //adding must not change arrays that have been handed out
+        meta.add("name7", "1000");
+        assertEquals(10, values.length);
+        assertEquals(11, meta.getValues("name7").length);
+        assertEquals("1000", meta.getValues("name7")[10]);
+
+        for (int i = 0; i < 100; i += 2) {
+            meta.remove("name" + i);
+        }
+        assertEquals(50, meta.size());
+        assertNull(meta.get("name0"));
+        for (int i = 1; i < 100; i += 2) {
+            assertEquals((i == 7) ? 11 : 10, meta.getValues("name" + i).length);
+            assertEquals(Integer.toString(i), meta.get("name" + i));
+        }
+
+        //round trip through serialization, which still writes a map
+        assertNotNull(ObjectStreamClass.lookup(Metadata.class).getField("metadata"));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(meta);
+        }
+        Metadata copy;
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new ByteArrayInputStream(bos.toByteArray()))) {
+            copy = (Metadata) ois.readObject();
+        }
+        assertEquals(meta, copy);
+        assertEquals(meta.hashCode(), copy.hashCode());
+        assertEquals(11, copy.getValues("name7").length);
+        copy.add("name7", "1001");
+        assertEquals(12, copy.getValues("name7").length);
+    }
+
     /**
      * Tests for getting and setting integer
      *  based properties
@@ -474,7 +527,8 @@ public class TestMetadata {
         m.add("key", "value1");
         m.add("key", "value2");
         m.add("key2", "value12");
-        assertEquals("key2=value12 key=value1 key=value2", m.toString());
+        //names are kept in the order they were first added
+        assertEquals("key=value1 key=value2 key2=value12", m.toString());
     }
     
     @Test
@@ -23,9 +23,16 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import static java.nio.charset.StandardCharsets.*;
 import static org.junit.Assert.assertEquals;
@@ -161,6 +168,53 @@ public class MimeDetectionTest {
         testStream(expected, url, in);
     }
 
+    /**
+     * The magic index must give exactly the same types, in the same order,
+     * as evaluating every magic in priority order.
+     */
+    @Test
+    public void testMagicIndex() throws Exception {
+        List<Magic> magics = new ArrayList<>();
+        for (MediaType type : registry.getTypes()) {
+            magics.addAll(mimeTypes.forName(type.toString()).getMagics());
+        }
+        Collections.sort(magics);
+        MagicIndex index = new MagicIndex(magics);
+
+        List<byte[]> samples = new ArrayList<>();
+        File dir = new File(getClass().getResource("circles.svg").toURI()).getParentFile();
+        for (File file : dir.listFiles()) {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            samples.add(Arrays.copyOf(bytes, Math.min(bytes.length, mimeTypes.getMinLength())));
+        }
+        for (String s : new String[]{ "<?xml", "%PDF-1.4", "PK\u0003\u0004", "<html", "#!/bin/sh", "{\\rtf1" }) {
+            samples.add(s.getBytes(ISO_8859_1));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            byte[] bytes = new byte[1 + random.nextInt(64)];
+            random.nextBytes(bytes);
+            samples.add(bytes);
+        }
+
+        for (byte[] data : samples) {
+            List<MimeType> expected = new ArrayList<>();
+            int currentPriority = -1;
+            for (Magic magic : magics) {
+                if (currentPriority > 0 && currentPriority > magic.getPriority()) {
+                    break;
+                }
+                if (magic.eval(data)) {
+                    expected.add(magic.getType());
+                    currentPriority = magic.getPriority();
+                }
+            }
+            List<MimeType> actual = new ArrayList<>();
+            index.eval(data, actual);
+            assertEquals(expected, actual);
+        }
+    }
+
     private void testFile(String expected, String filename) throws IOException {
         InputStream in = getClass().getResourceAsStream(filename);
         testStream(expected, filename, in);
@@ -19,6 +19,7 @@ package org.apache.tika.mime;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -93,4 +94,43 @@ public class PatternsTest {
         assertTrue(extensions.contains(".jpeg"));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLongestExtension() throws MimeTypeException {
+        MimeType gzip = types.forName("application/gzip");
+        MimeType tgz = types.forName("application/x-gtar");
+        patterns.add("*.gz", gzip);
+        patterns.add("*.tar.gz", tgz);
+
+        assertEquals(tgz, patterns.matches("Data.tar.gz"));
+        assertEquals(tgz, patterns.matches(".tar.gz"));
+        assertEquals(gzip, patterns.matches("Data.star.GZ.gz"));
+        assertEquals(gzip, patterns.matches("tar.gz"));
+        assertNull(patterns.matches("gz"));
+        assertNull(patterns.matches(""));
+    }
+
+    @Test
+    public void testGlobs() throws MimeTypeException {
+        MimeType html = types.forName("text/html");
+        MimeType xml = types.forName("application/xml");
+        MimeType rdf = types.forName("application/rdf+xml");
+        patterns.add("Makefile", text);
+        patterns.add("a_*.txt", html);
+        patterns.add("*[x]?l*", xml);
+        patterns.add("^rdf$", true, rdf);
+
+        assertEquals(text, patterns.matches("Makefile"));
+        assertEquals(html, patterns.matches("a_.txt"));
+        assertEquals(html, patterns.matches("a_b_c.txt"));
+        assertNull(patterns.matches("a_b.txtx"));
+        //wildcards don't match line terminators, as with the regex they used to be
+        assertNull(patterns.matches("a_b\nc.txt"));
+        //'[' and ']' are literals
+        assertEquals(xml, patterns.matches("[x]ml"));
+        assertEquals(xml, patterns.matches("foo[x]Xl.bar"));
+        assertNull(patterns.matches("xml"));
+        assertEquals(rdf, patterns.matches("rdf"));
+        assertNull(patterns.matches("rdfs"));
+    }
+
+}
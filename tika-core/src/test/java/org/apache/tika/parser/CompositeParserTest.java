@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tika.config.TikaConfig;
 import org.apache.tika.metadata.Metadata;
@@ -153,4 +154,72 @@ public class CompositeParserTest {
        assertEquals("True", metadata.get("BMP"));
        assertEquals("True", metadata.get("Alias"));
     }
+
+    @Test
+    @SuppressWarnings("serial")
+    public void testDispatchTable() throws Exception {
+        final Set<MediaType> xmlTypes = Collections.singleton(MediaType.APPLICATION_XML);
+        final AtomicInteger xmlCalls = new AtomicInteger();
+        Parser xml = new EmptyParser() {
+            public Set<MediaType> getSupportedTypes(ParseContext context) {
+                xmlCalls.incrementAndGet();
+                return xmlTypes;
+            }
+        };
+        //only claims its type when asked to in the parse context
+        Parser contextSensitive = new EmptyParser() {
+            public Set<MediaType> getSupportedTypes(ParseContext context) {
+                if (context.get(String.class) != null) {
+                    return Collections.singleton(MediaType.application("rdf+xml"));
+                }
+                return Collections.emptySet();
+            }
+        };
+        CompositeParser composite = new CompositeParser(
+                MediaTypeRegistry.getDefaultRegistry(), xml, contextSensitive);
+
+        //supertype resolution, with and without parameters
+        assertEquals(xml, getParser(composite, "application/rdf+xml", new ParseContext()));
+        assertEquals(xml, getParser(composite, "application/x-unknown+xml; a=b", new ParseContext()));
+        assertEquals(composite.getFallback(), getParser(composite, "image/png", new ParseContext()));
+
+        //only the parser that reads the context is asked for its types again
+        assertEquals(1, xmlCalls.get());
+
+        //which is honored, without replacing the cached table
+        ParseContext context = new ParseContext();
+        context.set(String.class, "rdf");
+        assertEquals(contextSensitive, getParser(composite, "application/rdf+xml", context));
+        assertEquals(xml, getParser(composite, "application/rdf+xml", new ParseContext()));
+        assertEquals(2, xmlCalls.get());
+        assertEquals(xml, getParser(composite, "application/rdf+xml", new ParseContext()));
+        assertEquals(2, xmlCalls.get());
+
+        //and when the component parsers are replaced
+        composite.setParsers(Collections.singletonMap(MediaType.image("png"), xml));
+        assertEquals(MediaType.image("png"), getParser(composite, "image/png", new ParseContext())
+                .getSupportedTypes(new ParseContext()).iterator().next());
+        assertEquals(composite.getFallback(), getParser(composite, "application/xml", new ParseContext()));
+    }
+
+    @Test
+    @SuppressWarnings("serial")
+    public void testGetParsersOverride() throws Exception {
+        final Parser png = new EmptyParser();
+        CompositeParser composite = new CompositeParser() {
+            @Override
+            public Map<MediaType, Parser> getParsers(ParseContext context) {
+                return Collections.singletonMap(MediaType.image("png"), png);
+            }
+        };
+        assertEquals(png, getParser(composite, "image/png", new ParseContext()));
+        assertEquals(Collections.singleton(MediaType.image("png")),
+                composite.getSupportedTypes(new ParseContext()));
+    }
+
+    private static Parser getParser(CompositeParser composite, String type, ParseContext context) {
+        Metadata metadata = new Metadata();
+        metadata.set(Metadata.CONTENT_TYPE, type);
+        return composite.getParser(metadata, context);
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class DateUtilsTest {
+
+    private static final String[] DATES = new String[]{
+            "2012-02-17T10:11:12Z",
+            "2012-02-17 10:11:12Z",
+            "2012-02-17T10:11:12+05:30",
+            "2012-02-17T10:11:12-0800",
+            "2012-02-17T10:11:12",
+            "2012-02-17T10:11:12.345Z",
+            "2012-02-17",
+            "2012:02:17",
+            "2012-02-29",
+            //handled leniently by the date formats
+            "2011-02-29",
+            "2012-02-17T24:00:00Z",
+            //before the Gregorian calendar was widely used
+            "1500-03-01T00:00:00Z",
+            "not a date",
+            "12"
+    };
+
+    @Test
+    public void testParse() {
+        DateUtils dateUtils = new DateUtils();
+        for (String date : DATES) {
+            assertEquals(date, dateUtils.tryToParse(date), DateUtils.tryToParseDate(date));
+        }
+        assertEquals("2012-02-17T04:41:12Z",
+                DateUtils.formatDate(DateUtils.tryToParseDate("2012-02-17T10:11:12+05:30")));
+        assertEquals("2012-02-17T12:00:00Z",
+                DateUtils.formatDate(DateUtils.tryToParseDate("2012-02-17")));
+        assertNull(DateUtils.tryToParseDate("not a date"));
+        assertNull(DateUtils.tryToParseDate(null));
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("1970-01-01T00:00:01Z", DateUtils.formatDate(new Date(1000)));
+        assertEquals("2012-02-17T10:11:12Z",
+                DateUtils.formatDate(new Date(1329473472999L)));
+        //before 1600 and after 9999 the calendar is used
+        assertEquals("1500-03-01T00:00:00Z",
+                DateUtils.formatDate(DateUtils.tryToParseDate("1500-03-01T00:00:00Z")));
+        assertEquals("10000-01-01T00:00:00Z",
+                DateUtils.formatDate(new Date(253402300800000L)));
+    }
+
+    @Test
+    public void testConcurrentParse() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        DateUtils dateUtils = new DateUtils();
+                        for (int j = 0; j < 1000; j++) {
+                            for (String date : DATES) {
+                                assertEquals(dateUtils.tryToParse(date),
+                                        DateUtils.tryToParseDate(date));
+                            }
+                        }
+                        return 0;
+                    }
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
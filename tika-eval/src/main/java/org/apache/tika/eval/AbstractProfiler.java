@@ -30,7 +30,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -207,7 +207,7 @@ public abstract class AbstractProfiler extends FileResourceConsumer {
         COMMON_TOKEN_COUNT_MANAGER = new CommonTokenCountManager(p, defaultLangCode);
     }
 
-    public AbstractProfiler(ArrayBlockingQueue<FileResource> fileQueue,
+    public AbstractProfiler(BlockingQueue<FileResource> fileQueue,
                             IDBWriter writer) {
         super(fileQueue);
         this.writer = writer;
@@ -24,7 +24,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
@@ -179,7 +179,7 @@ public class ExtractComparer extends AbstractProfiler {
     private final TokenContraster tokenContraster = new TokenContraster();
     private final ExtractReader extractReader;
 
-    public ExtractComparer(ArrayBlockingQueue<FileResource> queue,
+    public ExtractComparer(BlockingQueue<FileResource> queue,
                            Path inputDir, Path extractsA, Path extractsB, ExtractReader extractReader,
                            IDBWriter writer) {
         super(queue, writer);
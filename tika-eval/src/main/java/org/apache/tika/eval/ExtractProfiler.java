@@ -22,7 +22,7 @@ import java.sql.Types;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
@@ -178,7 +178,7 @@ public class ExtractProfiler extends AbstractProfiler {
     private final Path extracts;
     private final ExtractReader extractReader;
 
-    public ExtractProfiler(ArrayBlockingQueue<FileResource> queue,
+    public ExtractProfiler(BlockingQueue<FileResource> queue,
                            Path inputDir, Path extracts,
                            ExtractReader extractReader, IDBWriter dbWriter) {
         super(queue, dbWriter);
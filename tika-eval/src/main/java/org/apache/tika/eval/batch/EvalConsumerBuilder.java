@@ -25,7 +25,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tika.batch.FileResource;
@@ -44,13 +44,13 @@ import org.apache.tika.util.PropsUtil;
 
 public abstract class EvalConsumerBuilder {
     private AtomicInteger count = new AtomicInteger(0);
-    protected ArrayBlockingQueue<FileResource> queue;
+    protected BlockingQueue<FileResource> queue;
     Map<String, String> localAttrs;
     JDBCUtil dbUtil;
     private MimeBuffer mimeBuffer;
     AtomicInteger initialized = new AtomicInteger(0);
 
-    public MimeBuffer init(ArrayBlockingQueue<FileResource> queue, Map<String, String> localAttrs,
+    public MimeBuffer init(BlockingQueue<FileResource> queue, Map<String, String> localAttrs,
                      JDBCUtil dbUtil, boolean forceDrop) throws IOException, SQLException {
         if (initialized.getAndIncrement() > 0) {
             throw new RuntimeException("Can only init a consumer builder once!");
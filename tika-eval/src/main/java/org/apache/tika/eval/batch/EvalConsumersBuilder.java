@@ -24,7 +24,7 @@ import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.apache.tika.batch.ConsumersManager;
 import org.apache.tika.batch.FileResource;
@@ -45,7 +45,7 @@ public class EvalConsumersBuilder extends AbstractConsumersBuilder {
 
     @Override
     public ConsumersManager build(Node node, Map<String, String> runtimeAttributes,
-                                  ArrayBlockingQueue<FileResource> queue) {
+                                  BlockingQueue<FileResource> queue) {
 
         List<FileResourceConsumer> consumers = new LinkedList<>();
         int numConsumers = BatchProcessBuilder.getNumConsumers(runtimeAttributes);
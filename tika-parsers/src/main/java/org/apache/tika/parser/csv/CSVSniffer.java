@@ -18,25 +18,27 @@
 package org.apache.tika.parser.csv;
 
 import java.io.BufferedReader;
-import java.io.EOFException;
 import java.io.IOException;
-import java.io.PushbackReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.commons.io.input.ProxyReader;
-import org.apache.commons.lang3.mutable.MutableInt;
+import org.apache.commons.io.IOUtils;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 
+/**
+ * Guesses the delimiter of delimited text.
+ * <p>
+ * The first markLimit characters are read once into a buffer, and every
+ * candidate delimiter is then tested against each character in a single
+ * pass over that buffer.
+ */
 class CSVSniffer {
     private static final int DEFAULT_MARK_LIMIT = 10000;
     private static final double DEFAULT_MIN_CONFIDENCE = 0.50;
-    private static final int PUSH_BACK = 2;
     static final int EOF = -1;
     static final int NEW_LINE = '\n';
     static final int CARRIAGE_RETURN = '\r';
@@ -60,16 +62,32 @@ class CSVSniffer {
         if (! reader.markSupported()) {
             reader = new BufferedReader(reader);
         }
-        List<CSVResult> ret = new ArrayList<>();
-        for (char delimiter : delimiters) {
-            reader.mark(markLimit);
-            try {
-                CSVResult result = new Snifflet(delimiter).sniff(reader);
-                ret.add(result);
-            } finally {
-                reader.reset();
+        //read at most markLimit-1 characters; if there are that many,
+        //treat the text as cut off at the mark limit
+        char[] window = new char[Math.max(0, markLimit - 1)];
+        int length;
+        reader.mark(markLimit);
+        try {
+            length = IOUtils.read(reader, window);
+        } finally {
+            reader.reset();
+        }
+        boolean hitMarkLimit = length == window.length;
+
+        Snifflet[] snifflets = new Snifflet[delimiters.length];
+        for (int i = 0; i < delimiters.length; i++) {
+            snifflets[i] = new Snifflet(delimiters[i]);
+        }
+        for (int i = 0; i < length; i++) {
+            char c = window[i];
+            for (Snifflet snifflet : snifflets) {
+                snifflet.accept(c);
             }
         }
+        List<CSVResult> ret = new ArrayList<>();
+        for (Snifflet snifflet : snifflets) {
+            ret.add(snifflet.finish(hitMarkLimit));
+        }
         Collections.sort(ret);
         return ret;
     }
@@ -97,83 +115,147 @@ class CSVSniffer {
 
 
     //inner class that tests a single hypothesis/combination
-    //of parameters for delimiter and quote character
-    //this will throw an EOF before reading beyond the
-    //markLimit number of characters (not bytes!)
+    //of parameters for delimiter and quote character.
+    //It is fed one character at a time, so that all
+    //hypotheses can be tested in the same pass.
     private class Snifflet {
 
+        //states
+        private static final int CELL = 0;
+        //skipping spaces after a delimiter
+        private static final int SPACES = 1;
+        //skipping consecutive '\r\n' in any order
+        private static final int NEW_LINES = 2;
+        private static final int QUOTED = 3;
+        //after a quote character within a quoted cell
+        private static final int QUOTE = 4;
+        //skipping spaces after a closing quote
+        private static final int SPACES_AFTER_QUOTE = 5;
+        private static final int PARSE_EXCEPTION = 6;
+
         private final char delimiter;
 
         //hardcode this for now
         private final char quoteCharacter = '"';
 
-        Map<Integer, MutableInt> rowLengthCounts = new HashMap<>();
-        int charsRead = 0;
+        //rowLengthCounts[n] is the number of rows with n columns
+        int[] rowLengthCounts = new int[16];
         int colCount = 0;
         int encapsulated = 0; //number of cells that are encapsulated in dquotes (for now)
         boolean parseException = false;
 
+        int state = CELL;
+        int lastC = -1;
+        //length of the unquoted text in the current cell
+        int unquoted = 0;
+
         public Snifflet(char delimiter) {
             this.delimiter = delimiter;
         }
 
-        CSVResult sniff(Reader r) throws IOException {
-            boolean eof = false;
-            boolean hitMarkLimit = false;
-            int lastC = -1;
-            StringBuilder unquoted = new StringBuilder();
-            try (PushbackReader reader = new PushbackReader(new CloseShieldReader(r), PUSH_BACK)) {
-                int c = read(reader);
-                while (c != EOF) {
+        void accept(int c) {
+            switch (state) {
+                case CELL:
                     if (c == quoteCharacter) {
-                        handleUnquoted(unquoted);
+                        unquoted = 0;
                         //test to make sure there isn't an unencapsulated quote character in the middle of a cell
-                        if (lastC > -1 && lastC != delimiter && lastC != NEW_LINE && lastC != CARRIAGE_RETURN) {
-                            parseException = true;
-                            return calcResult();
-                        }
                         //TODO: test to make sure cell doesn't start with escaped ""the quick brown cat"
-                        boolean correctlyEncapsulated = consumeQuoted(reader, quoteCharacter);
-                        if (! correctlyEncapsulated) {
+                        if (lastC > -1 && lastC != delimiter && lastC != NEW_LINE && lastC != CARRIAGE_RETURN) {
                             parseException = true;
-                            return calcResult();
+                            state = PARSE_EXCEPTION;
+                        } else {
+                            state = QUOTED;
                         }
                     } else if (c == delimiter) {
-                        handleUnquoted(unquoted);
+                        unquoted = 0;
                         endColumn();
-                        consumeSpaceCharacters(reader);
+                        lastC = c;
+                        state = SPACES;
                     } else if (c == NEW_LINE || c == CARRIAGE_RETURN) {
-                        if (unquoted.length() > 0) {
+                        if (unquoted > 0) {
                             endColumn();
                         }
-                        handleUnquoted(unquoted);
+                        unquoted = 0;
                         endRow();
-                        consumeNewLines(reader);
+                        lastC = c;
+                        state = NEW_LINES;
                     } else {
-                        unquoted.append((char) c);
+                        //TODO -- do some analysis of the unquoted text to make sure
+                        //you don't have large tokens like 2,3,2,3,2,3,
+                        unquoted++;
+                        lastC = c;
                     }
-                    lastC = c;
-                    c = read(reader);
-                }
-            } catch (HitMarkLimitException e) {
-                hitMarkLimit = true;
-            } catch (UnsurprisingEOF e) {
-                //totally ignore
-            } catch (EOFException e) {
-                //the consume* throw this to avoid
-                //having to check -1 every time and
-                //having to rely on potentially wonky
-                //inputstreams not consistently returning -1
-                //after hitting EOF and returning the first -1.
-                //Yes.  That's a thing.
-                eof = true;
-            } finally {
-                r.reset();
+                    break;
+                case SPACES:
+                    if (c != SPACE) {
+                        state = CELL;
+                        accept(c);
+                    }
+                    break;
+                case NEW_LINES:
+                    if (c != NEW_LINE && c != CARRIAGE_RETURN) {
+                        state = CELL;
+                        accept(c);
+                    }
+                    break;
+                case QUOTED:
+                    if (c == quoteCharacter) {
+                        state = QUOTE;
+                    }
+                    break;
+                case QUOTE:
+                    //this currently assumes excel "escaping" of double quotes:
+                    //'the " quick' -> "the "" quick"
+                    //we can make this more interesting later with other
+                    //escaping options
+                    if (c == quoteCharacter) {
+                        state = QUOTED;
+                    } else {
+                        encapsulated++;
+                        endColumn();
+                        state = SPACES_AFTER_QUOTE;
+                        accept(c);
+                    }
+                    break;
+                case SPACES_AFTER_QUOTE:
+                    //now make sure that the next character is eof, \r\n
+                    //or a delimiter
+                    if (c == SPACE) {
+                        break;
+                    }
+                    if (c == NEW_LINE || c == CARRIAGE_RETURN || c == delimiter) {
+                        lastC = quoteCharacter;
+                        state = CELL;
+                        accept(c);
+                    } else {
+                        parseException = true;
+                        state = PARSE_EXCEPTION;
+                    }
+                    break;
+                default:
+                    //a parse exception; nothing more to learn
+                    break;
+            }
+        }
+
+        /**
+         * @param hitMarkLimit whether the text went on after the last character
+         * @return the result for this hypothesis
+         */
+        CSVResult finish(boolean hitMarkLimit) {
+            if (state == PARSE_EXCEPTION) {
+                return calcResult();
+            }
+            if (state == QUOTE && !hitMarkLimit) {
+                //the file ended right after the close quote
+                encapsulated++;
+                endColumn();
             }
             //if you've hit the marklimit or an eof on a truncated file
+            //(within a quoted cell, or after the last line break)
             //don't add the last row's info
-            if (!hitMarkLimit && !eof && lastC != NEW_LINE && lastC != CARRIAGE_RETURN) {
-                handleUnquoted(unquoted);
+            boolean truncated = state == QUOTED || state == NEW_LINES;
+            if (!hitMarkLimit && !truncated && lastC != NEW_LINE && lastC != CARRIAGE_RETURN) {
                 endColumn();
                 endRow();
             }
@@ -189,125 +271,19 @@ class CSVSniffer {
             return new CSVResult(confidence, mediaType, delimiter);
         }
 
-        private void handleUnquoted(StringBuilder unquoted) {
-            if (unquoted.length() > 0) {
-                unquoted(unquoted.toString());
-                unquoted.setLength(0);
-            }
-        }
-
-        void consumeSpaceCharacters(PushbackReader reader) throws IOException {
-            int c = read(reader);
-            while (c == SPACE) {
-                c = read(reader);
-            }
-            if (c == EOF) {
-                throw new UnsurprisingEOF();
-            }
-            unread(reader, c);
-        }
-
-
-        /**
-         *
-         * @param reader
-         * @param quoteCharacter
-         * @return whether or not this was a correctly encapsulated cell
-         * @throws UnsurprisingEOF if the file ended immediately after the close quote
-         * @throws EOFException if the file ended in the middle of the encapsulated section
-         * @throws IOException on other IOExceptions
-         */
-        boolean consumeQuoted(PushbackReader reader, int quoteCharacter) throws IOException {
-            //this currently assumes excel "escaping" of double quotes:
-            //'the " quick' -> "the "" quick"
-            //we can make this more interesting later with other
-            //escaping options
-            int c = read(reader);
-            while (c != -1) {
-                if (c == quoteCharacter) {
-                    int nextC = read(reader);
-                    if (nextC == EOF) {
-                        encapsulated++;
-                        endColumn();
-                        throw new UnsurprisingEOF();
-                    } else if (nextC != quoteCharacter) {
-                        encapsulated++;
-                        endColumn();
-                        unread(reader, nextC);
-                        consumeSpaceCharacters(reader);
-                        //now make sure that the next character is eof, \r\n
-                        //or a delimiter
-                        nextC = read(reader);
-                        if (nextC == EOF) {
-                            throw new UnsurprisingEOF();
-                        } else if (nextC == NEW_LINE || nextC == CARRIAGE_RETURN) {
-                            unread(reader, nextC);
-                            return true;
-                        } else if (nextC != delimiter) {
-                            unread(reader, nextC);
-                            return false;
-                        }
-                        unread(reader, nextC);
-                        return true;
-                    }
-                }
-                c = read(reader);
-            }
-            throw new EOFException();
-        }
-
-        private int read(PushbackReader reader) throws IOException {
-            if (charsRead >= markLimit -1) {
-                throw new HitMarkLimitException();
-            }
-            int c = reader.read();
-            if (c == EOF) {
-                return EOF;
-            }
-            charsRead++;
-            return c;
-        }
-
-        private void unread(PushbackReader reader, int c) throws IOException {
-            if (c != EOF) {
-                reader.unread(c);
-                charsRead--;
-            }
-        }
-        //consume all consecutive '\r\n' in any order
-        void consumeNewLines(PushbackReader reader) throws IOException {
-            int c = read(reader);
-            while (c == NEW_LINE || c == CARRIAGE_RETURN) {
-                c = read(reader);
-            }
-            if (c == EOF) {
-                throw new EOFException();
-            }
-            unread(reader, c);
-            return;
-        }
-
-
         void endColumn() {
             colCount++;
         }
 
         void endRow() {
-            MutableInt cnt = rowLengthCounts.get(colCount);
-            if (cnt == null) {
-                cnt = new MutableInt(1);
-                rowLengthCounts.put(colCount, cnt);
-            } else {
-                cnt.increment();
+            if (colCount >= rowLengthCounts.length) {
+                rowLengthCounts = Arrays.copyOf(rowLengthCounts,
+                        Math.max(colCount + 1, rowLengthCounts.length * 2));
             }
+            rowLengthCounts[colCount]++;
             colCount = 0;
         }
 
-        void unquoted(String string) {
-            //TODO -- do some analysis to make sure you don't have
-            //large tokens like 2,3,2,3,2,3,
-        }
-
         double getConfidence() {
             double confidence = 0.0f;
 
@@ -336,9 +312,11 @@ class CSVSniffer {
             int max = -1;
             int totalRows = 0;
             //find the most common row
-            for (Map.Entry<Integer, MutableInt> e : rowLengthCounts.entrySet()) {
-                int numCols = e.getKey();
-                int count = e.getValue().intValue();
+            for (int numCols = 0; numCols < rowLengthCounts.length; numCols++) {
+                int count = rowLengthCounts[numCols];
+                if (count == 0) {
+                    continue;
+                }
                 //require that numCols > 1 so that you had at least
                 //one delimiter in that row
                 if (numCols > 1 && count > max) {
@@ -357,23 +335,4 @@ class CSVSniffer {
         }
 
     }
-
-    private static class UnsurprisingEOF extends EOFException {
-
-    }
-
-    private static class HitMarkLimitException extends EOFException {
-
-    }
-
-    private class CloseShieldReader extends ProxyReader {
-        public CloseShieldReader(Reader r) {
-            super(r);
-        }
-
-        @Override
-        public void close() throws IOException {
-            //do nothing
-        }
-    }
 }
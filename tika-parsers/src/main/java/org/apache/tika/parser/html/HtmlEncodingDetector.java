@@ -31,7 +31,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.tika.config.Field;
-import org.apache.tika.detect.EncodingDetector;
+import org.apache.tika.detect.DetectionProbe;
+import org.apache.tika.detect.ProbeEncodingDetector;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.utils.CharsetUtils;
 
@@ -44,7 +45,7 @@ import org.apache.tika.utils.CharsetUtils;
  *
  * @since Apache Tika 1.2
  */
-public class HtmlEncodingDetector implements EncodingDetector {
+public class HtmlEncodingDetector implements ProbeEncodingDetector {
 
     /**
      * HTML can include non-iana supported charsets that Java
@@ -122,10 +123,24 @@ public class HtmlEncodingDetector implements EncodingDetector {
         }
         input.reset();
 
+        return detect(ByteBuffer.wrap(buffer, 0, n));
+    }
+
+    @Override
+    public int getProbeLength() {
+        return markLimit;
+    }
+
+    @Override
+    public Charset detectFromProbe(DetectionProbe probe, Metadata metadata) {
+        return detect(probe.slice(markLimit));
+    }
+
+    private Charset detect(ByteBuffer bytes) {
         // Interpret the head as ASCII and try to spot a meta tag with
         // a possible character encoding hint
 
-        String head = ASCII.decode(ByteBuffer.wrap(buffer, 0, n)).toString();
+        String head = ASCII.decode(bytes).toString();
         //strip out comments
         String headNoComments = head.replaceAll("<!--.*?(-->|$)", " ");
         //try to find the encoding in head without comments
@@ -18,7 +18,8 @@ package org.apache.tika.parser.html.charsetdetector;
 
 import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.tika.config.Field;
-import org.apache.tika.detect.EncodingDetector;
+import org.apache.tika.detect.DetectionProbe;
+import org.apache.tika.detect.ProbeEncodingDetector;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 
@@ -49,7 +50,7 @@ import static org.apache.tika.parser.html.charsetdetector.CharsetAliases.getChar
  * }</pre>
  * <p>
  */
-public final class StandardHtmlEncodingDetector implements EncodingDetector {
+public final class StandardHtmlEncodingDetector implements ProbeEncodingDetector {
     private static final int META_TAG_BUFFER_SIZE = 8192;
 
     @Field
@@ -73,8 +74,25 @@ public final class StandardHtmlEncodingDetector implements EncodingDetector {
     public Charset detect(InputStream input, Metadata metadata) throws IOException {
         int limit = getMarkLimit();
         input.mark(limit);
-        // Never read more than the first META_TAG_BUFFER_SIZE bytes
-        InputStream limitedStream = new BoundedInputStream(input, limit);
+        try {
+            // Never read more than the first META_TAG_BUFFER_SIZE bytes
+            return scan(new BoundedInputStream(input, limit), metadata);
+        } finally {
+            input.reset();
+        }
+    }
+
+    @Override
+    public int getProbeLength() {
+        return getMarkLimit();
+    }
+
+    @Override
+    public Charset detectFromProbe(DetectionProbe probe, Metadata metadata) throws IOException {
+        return scan(probe.newStream(getMarkLimit()), metadata);
+    }
+
+    private static Charset scan(InputStream limitedStream, Metadata metadata) throws IOException {
         PreScanner preScanner = new PreScanner(limitedStream);
 
         // The order of priority for detection is:
@@ -85,7 +103,6 @@ public final class StandardHtmlEncodingDetector implements EncodingDetector {
         // 3. HTML <meta> tag
         if (detectedCharset == null) detectedCharset = preScanner.scan();
 
-        input.reset();
         return detectedCharset;
     }
 
@@ -21,8 +21,16 @@ import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.io.IOExceptionWithCause;
 import org.apache.tika.exception.CorruptedFileException;
@@ -33,19 +41,45 @@ import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.AbstractParser;
 import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.utils.SharedWorkerPool;
 import org.apache.tika.sax.XHTMLContentHandler;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
 /**
  * Abstract class that handles iterating through tables within a database.
+ * <p/>
+ * If {@link #openConnection()} is implemented, tables can be read in
+ * parallel, each over its own connection, in batches of rows that are
+ * written to the handler in table order.
  */
 abstract class AbstractDBParser extends AbstractParser {
 
     private final static byte[] EMPTY_BYTE_ARR = new byte[0];
 
+    //number of row batches a table can read ahead
+    private final static int MAX_PENDING_BATCHES = 4;
+
+    //marks that a table's headers have been read
+    private final static Object HEADERS = new Object();
+
+    //marks the end of a table's batches
+    private final static Object END_OF_TABLE = new Object();
+
+    //how long to wait for a table reader to stop once the parse is over
+    private final static long STOP_WAIT_SECONDS = 10;
+
+    //reads tables for all database parses
+    private final static SharedWorkerPool TABLE_READERS = new SharedWorkerPool("Apache Tika table reader");
+
     private Connection connection;
 
+    private int fetchSize = 0;
+
+    private int tableThreads = 1;
+
+    private int rowBatchSize = 1000;
+
     @Override
     public Set<MediaType> getSupportedTypes(ParseContext context) {
         return null;
@@ -80,24 +114,12 @@ abstract class AbstractDBParser extends AbstractParser {
         xHandler.startDocument();
 
         try {
-            for (String tableName : tableNames) {
-                JDBCTableReader tableReader = getTableReader(connection, tableName, embeddedDocumentUtil);
-                xHandler.startElement("table", "name", tableReader.getTableName());
-                xHandler.startElement("thead");
-                xHandler.startElement("tr");
-                for (String header : tableReader.getHeaders()) {
-                    xHandler.startElement("th");
-                    xHandler.characters(header);
-                    xHandler.endElement("th");
-                }
-                xHandler.endElement("tr");
-                xHandler.endElement("thead");
-                xHandler.startElement("tbody");
-                while (tableReader.nextRow(xHandler, context)) {
-                    //no-op
+            if (tableThreads > 1 && tableNames.size() > 1) {
+                parseTablesConcurrently(tableNames, xHandler, embeddedDocumentUtil, context);
+            } else {
+                for (String tableName : tableNames) {
+                    parseTable(tableName, xHandler, embeddedDocumentUtil, context);
                 }
-                xHandler.endElement("tbody");
-                xHandler.endElement("table");
             }
         } finally {
             try {
@@ -111,6 +133,296 @@ abstract class AbstractDBParser extends AbstractParser {
         }
     }
 
+    private void parseTable(String tableName, XHTMLContentHandler xHandler,
+                            EmbeddedDocumentUtil embeddedDocumentUtil, ParseContext context)
+            throws IOException, SAXException {
+        JDBCTableReader tableReader = getTableReader(connection, tableName, embeddedDocumentUtil);
+        tableReader.setFetchSize(fetchSize);
+        try {
+            startTable(xHandler, tableReader.getTableName(), tableReader.getHeaders());
+            while (tableReader.nextRow(xHandler, context)) {
+                //no-op
+            }
+            endTable(xHandler);
+        } finally {
+            tableReader.close();
+        }
+    }
+
+    private void startTable(XHTMLContentHandler xHandler, String tableName, List<String> headers)
+            throws SAXException {
+        xHandler.startElement("table", "name", tableName);
+        xHandler.startElement("thead");
+        xHandler.startElement("tr");
+        for (String header : headers) {
+            xHandler.startElement("th");
+            xHandler.characters(header);
+            xHandler.endElement("th");
+        }
+        xHandler.endElement("tr");
+        xHandler.endElement("thead");
+        xHandler.startElement("tbody");
+    }
+
+    private void endTable(XHTMLContentHandler xHandler) throws SAXException {
+        xHandler.endElement("tbody");
+        xHandler.endElement("table");
+    }
+
+    /**
+     * Reads the tables on worker threads, each with its own connection,
+     * and writes them to the handler in order on this thread.  Falls back
+     * to reading them here if no more connections can be opened.
+     */
+    private void parseTablesConcurrently(List<String> tableNames, XHTMLContentHandler xHandler,
+                                         EmbeddedDocumentUtil embeddedDocumentUtil,
+                                         ParseContext context)
+            throws IOException, SAXException, TikaException {
+        int threads = Math.min(tableThreads, tableNames.size());
+        BlockingQueue<Connection> connections = new ArrayBlockingQueue<>(threads);
+        List<Connection> opened = new ArrayList<>();
+        List<TableTask> tasks = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                Connection c = openConnection();
+                if (c == null) {
+                    break;
+                }
+                opened.add(c);
+                connections.add(c);
+            }
+            if (connections.isEmpty()) {
+                for (String tableName : tableNames) {
+                    parseTable(tableName, xHandler, embeddedDocumentUtil, context);
+                }
+                return;
+            }
+            ExecutorService executor = TABLE_READERS.get(opened.size());
+            for (int i = 0; i < tableNames.size(); i++) {
+                //start the next tables while there are free connections;
+                //the table that is written next always gets one, once the
+                //tables before it have been written
+                while (tasks.size() < tableNames.size()) {
+                    Connection c = (tasks.size() == i) ? connections.take() : connections.poll();
+                    if (c == null) {
+                        break;
+                    }
+                    TableTask task = new TableTask(tableNames.get(tasks.size()), c, connections,
+                            embeddedDocumentUtil, context);
+                    tasks.add(task);
+                    task.future = executor.submit(task);
+                }
+                TableTask task = tasks.get(i);
+                startTable(xHandler, task.tableName, task.takeHeaders());
+                Object batch = task.take();
+                while (batch != END_OF_TABLE) {
+                    try {
+                        ((RowBatch) batch).replay(xHandler, embeddedDocumentUtil);
+                    } finally {
+                        ((RowBatch) batch).close();
+                    }
+                    batch = task.take();
+                }
+                endTable(xHandler);
+            }
+        } catch (SQLException e) {
+            throw new IOExceptionWithCause(e);
+        } catch (InterruptedException e) {
+            throw new TikaException("Interrupted while waiting for a connection", e);
+        } finally {
+            //the workers are shared, so stop this parse's tasks only
+            for (TableTask task : tasks) {
+                task.stop();
+            }
+            for (TableTask task : tasks) {
+                for (Object batch : task.batches) {
+                    if (batch instanceof RowBatch) {
+                        ((RowBatch) batch).close();
+                    }
+                }
+            }
+            for (Connection c : opened) {
+                try {
+                    c.close();
+                } catch (SQLException e) {
+                    //swallow
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a table in batches of rows, over one of the connections.
+     */
+    private class TableTask implements Runnable {
+
+        private final String tableName;
+
+        private final Connection connection;
+
+        //where the connection goes back to when the table has been read
+        private final BlockingQueue<Connection> connections;
+
+        private final EmbeddedDocumentUtil embeddedDocumentUtil;
+
+        private final ParseContext context;
+
+        //HEADERS, then RowBatches, then END_OF_TABLE or a Throwable
+        private final BlockingQueue<Object> batches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+
+        //set before HEADERS is queued, so the queue makes it visible to the parsing thread
+        private List<String> headers;
+
+        //set by whichever comes first: the worker starting the task, or the task being stopped
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private Future<?> future;
+
+        private TableTask(String tableName, Connection connection,
+                          BlockingQueue<Connection> connections,
+                          EmbeddedDocumentUtil embeddedDocumentUtil, ParseContext context) {
+            this.tableName = tableName;
+            this.connection = connection;
+            this.connections = connections;
+            this.embeddedDocumentUtil = embeddedDocumentUtil;
+            this.context = context;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                //stopped before it started
+                return;
+            }
+            RowBatch batch = null;
+            try {
+                JDBCTableReader tableReader = getTableReader(connection, tableName, embeddedDocumentUtil);
+                tableReader.setFetchSize(fetchSize);
+                try {
+                    headers = tableReader.getHeaders();
+                    batches.put(HEADERS);
+                    batch = new RowBatch();
+                    int rows = 0;
+                    while (tableReader.nextRow(batch, context)) {
+                        if (++rows == rowBatchSize) {
+                            batches.put(batch);
+                            batch = new RowBatch();
+                            rows = 0;
+                        }
+                    }
+                    batches.put(batch);
+                    batch = null;
+                    batches.put(END_OF_TABLE);
+                } finally {
+                    tableReader.close();
+                }
+            } catch (InterruptedException e) {
+                //the parse has been given up
+            } catch (Throwable t) {
+                try {
+                    batches.put(t);
+                } catch (InterruptedException e) {
+                    //the parse has been given up
+                }
+            } finally {
+                if (batch != null) {
+                    batch.close();
+                }
+                connections.add(connection);
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Cancels the task if it hasn't started, or interrupts it and
+         * waits a while for it to finish, so that its connection and
+         * batches can be closed.
+         */
+        private void stop() {
+            if (claimed.compareAndSet(false, true)) {
+                future.cancel(false);
+                return;
+            }
+            future.cancel(true);
+            try {
+                finished.await(STOP_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * @return the table's column names
+         */
+        private List<String> takeHeaders() throws IOException, SAXException, TikaException {
+            Object item = take();
+            if (item != HEADERS) {
+                throw new TikaException("Expected the headers of table " + tableName);
+            }
+            return headers;
+        }
+
+        /**
+         * @return the next item, rethrowing anything thrown by the task
+         */
+        private Object take() throws IOException, SAXException, TikaException {
+            Object item;
+            try {
+                item = batches.take();
+            } catch (InterruptedException e) {
+                throw new TikaException("Interrupted while reading table " + tableName, e);
+            }
+            if (item instanceof IOException) {
+                throw (IOException) item;
+            } else if (item instanceof SAXException) {
+                throw (SAXException) item;
+            } else if (item instanceof RuntimeException) {
+                throw (RuntimeException) item;
+            } else if (item instanceof Error) {
+                throw (Error) item;
+            } else if (item instanceof Throwable) {
+                throw new TikaException("Couldn't read table " + tableName, (Throwable) item);
+            }
+            return item;
+        }
+    }
+
+    /**
+     * Override this to allow tables to be read in parallel.
+     *
+     * @return another read-only connection to the database that is being
+     * parsed, or <code>null</code> if that isn't supported
+     * @throws java.sql.SQLException
+     */
+    protected Connection openConnection() throws SQLException {
+        return null;
+    }
+
+    /**
+     * @param fetchSize number of rows to fetch from the database at a time,
+     *                  or 0 for the driver's default
+     */
+    void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @param tableThreads number of tables to read at the same time
+     */
+    void setTableThreads(int tableThreads) {
+        this.tableThreads = tableThreads;
+    }
+
+    /**
+     * @param rowBatchSize number of rows handed over at a time from the
+     *                     threads that read tables
+     */
+    void setRowBatchSize(int rowBatchSize) {
+        this.rowBatchSize = rowBatchSize;
+    }
+
     /**
      * Override this for any special handling of closing the connection.
      *
@@ -19,8 +19,8 @@ package org.apache.tika.parser.jdbc;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
@@ -35,6 +35,7 @@ import java.util.List;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOExceptionWithCause;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ProxyInputStream;
 import org.apache.tika.config.TikaConfig;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.extractor.EmbeddedDocumentUtil;
@@ -59,6 +60,8 @@ class JDBCTableReader {
     private final Connection connection;
     private final String tableName;
     int maxClobLength = 1000000;
+    int fetchSize = 0;
+    Statement statement = null;
     ResultSet results = null;
     int rows = 0;
     private final EmbeddedDocumentUtil embeddedDocumentUtil;
@@ -83,7 +86,8 @@ class JDBCTableReader {
         try {
             ResultSetMetaData meta = results.getMetaData();
             handler.startElement(XHTMLContentHandler.XHTML, "tr", "tr", EMPTY_ATTRIBUTES);
-            for (int i = 1; i <= meta.getColumnCount(); i++) {
+            int columnCount = meta.getColumnCount();
+            for (int i = 1; i <= columnCount; i++) {
                 handler.startElement(XHTMLContentHandler.XHTML, "td", "td", EMPTY_ATTRIBUTES);
                 handleCell(meta, i, handler, context);
                 handler.endElement(XHTMLContentHandler.XHTML, "td", "td");
@@ -197,9 +201,7 @@ class JDBCTableReader {
 
         //is there a more efficient way to go from a Reader to an InputStream?
         String s = clob.getSubString(0, readSize);
-        if (embeddedDocumentUtil.shouldParseEmbedded(m)) {
-            embeddedDocumentUtil.parseEmbedded(new ByteArrayInputStream(s.getBytes(UTF_8)), handler, m, true);
-        }
+        parseEmbedded(TikaInputStream.get(s.getBytes(UTF_8)), handler, m);
     }
 
     protected void handleBlob(String tableName, String columnName, int rowNum, ResultSet resultSet, int columnIndex,
@@ -209,14 +211,12 @@ class JDBCTableReader {
         m.set(Database.COLUMN_NAME, columnName);
         m.set(Database.PREFIX + "ROW_NUM", Integer.toString(rowNum));
         m.set(Database.PREFIX + "IS_BLOB", "true");
-        Blob blob = null;
         TikaInputStream is = null;
         try {
-            blob = getBlob(resultSet, columnIndex, m);
-            if (blob == null) {
+            is = getBlobStream(resultSet, columnIndex, m);
+            if (is == null) {
                 return;
             }
-            is = TikaInputStream.get(blob, m);
             Attributes attrs = new AttributesImpl();
             ((AttributesImpl) attrs).addAttribute("", "type", "type", "CDATA", "blob");
             ((AttributesImpl) attrs).addAttribute("", "column_name", "column_name", "CDATA", columnName);
@@ -227,23 +227,65 @@ class JDBCTableReader {
             m.set(TikaCoreProperties.RESOURCE_NAME_KEY,
                     //just in case something screwy is going on with the column name
                     FilenameUtils.normalize(FilenameUtils.getName(columnName + "_" + rowNum + extension)));
-            if (embeddedDocumentUtil.shouldParseEmbedded(m)) {
-                embeddedDocumentUtil.parseEmbedded(is, handler, m, true);
-            }
+            parseEmbedded(is, handler, m);
 
         } finally {
-            if (blob != null) {
-                try {
-                    blob.free();
-                } catch (SQLException|UnsupportedOperationException e) {
-                    //swallow
-                }
-            }
             IOUtils.closeQuietly(is);
         }
         handler.endElement("", "span", "span");
     }
 
+    /**
+     * Parses a blob or clob as an embedded document.  If the handler is
+     * a {@link RowBatch}, that is left to whoever replays the batch.
+     */
+    private void parseEmbedded(TikaInputStream is, ContentHandler handler, Metadata m)
+            throws IOException, SAXException {
+        if (handler instanceof RowBatch) {
+            ((RowBatch) handler).addEmbedded(is, m);
+        } else if (embeddedDocumentUtil.shouldParseEmbedded(m)) {
+            embeddedDocumentUtil.parseEmbedded(is, handler, m, true);
+        }
+    }
+
+    /**
+     * Opens a stream over a blob, which is read from the database as the
+     * stream is read rather than copied to the heap up front.
+     *
+     * @param resultSet result set to grab value from
+     * @param columnIndex index in result set
+     * @param metadata metadata to populate
+     * @return the stream or <code>null</code> if the value was null
+     * @throws SQLException
+     */
+    protected TikaInputStream getBlobStream(ResultSet resultSet, int columnIndex, Metadata metadata)
+            throws SQLException {
+        final Blob blob = getBlob(resultSet, columnIndex, metadata);
+        if (blob == null) {
+            return null;
+        }
+        try {
+            metadata.set(Metadata.CONTENT_LENGTH, Long.toString(blob.length()));
+        } catch (SQLException e) {
+            //swallow
+        }
+        InputStream is = new ProxyInputStream(blob.getBinaryStream()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    try {
+                        blob.free();
+                    } catch (SQLException|UnsupportedOperationException e) {
+                        //swallow
+                    }
+                }
+            }
+        };
+        return TikaInputStream.get(is);
+    }
+
     /**
      *
      * @param resultSet result set to grab value from
@@ -277,23 +319,49 @@ class JDBCTableReader {
     }
 
     void reset() throws IOException {
+        close();
 
+        String sql = "SELECT * from " + tableName;
+        try {
+            statement = connection.createStatement();
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            results = statement.executeQuery(sql);
+        } catch (SQLException e) {
+            throw new IOExceptionWithCause(e);
+        }
+        rows = 0;
+    }
+
+    /**
+     * Closes the result set and statement, if any.
+     */
+    void close() {
         if (results != null) {
             try {
                 results.close();
             } catch (SQLException e) {
                 //swallow
             }
+            results = null;
         }
-
-        String sql = "SELECT * from " + tableName;
-        try {
-            Statement st = connection.createStatement();
-            results = st.executeQuery(sql);
-        } catch (SQLException e) {
-            throw new IOExceptionWithCause(e);
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                //swallow
+            }
+            statement = null;
         }
-        rows = 0;
+    }
+
+    /**
+     * @param fetchSize number of rows to fetch from the database at a time,
+     *                  or 0 for the driver's default
+     */
+    void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
     }
 
     public String getTableName() {
@@ -0,0 +1,188 @@
+package org.apache.tika.parser.jdbc;
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.tika.extractor.EmbeddedDocumentUtil;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Records the SAX events of a batch of rows, so that a table can be read
+ * on one thread and written to the handler on another.  Blobs and clobs
+ * are detached from the result set: small ones are kept in memory, and
+ * larger ones are spooled to temporary files.  They are parsed as
+ * embedded documents when the batch is replayed.
+ */
+class RowBatch extends DefaultHandler {
+
+    private static final int MAX_IN_MEMORY_EMBEDDED = 64 * 1024;
+
+    private final List<Object> events = new ArrayList<>();
+
+    //for spooled embedded documents; null if nothing was spooled
+    private TemporaryResources tmp = null;
+
+    @Override
+    public void startElement(String uri, String localName, String qName,
+                             Attributes attributes) {
+        events.add(new StartElement(uri, localName, qName, attributes));
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        events.add(new EndElement(uri, localName, qName));
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        events.add(new String(ch, start, length));
+    }
+
+    /**
+     * Reads the embedded document, to be parsed when the batch is replayed.
+     */
+    void addEmbedded(InputStream is, Metadata metadata) throws IOException {
+        byte[] buffer = new byte[8192];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int n = is.read(buffer);
+        while (n != -1 && bytes.size() + n <= MAX_IN_MEMORY_EMBEDDED) {
+            bytes.write(buffer, 0, n);
+            n = is.read(buffer);
+        }
+        if (n == -1) {
+            events.add(new Embedded(bytes.toByteArray(), null, metadata));
+            return;
+        }
+        if (tmp == null) {
+            tmp = new TemporaryResources();
+        }
+        Path file = tmp.createTempFile();
+        try (OutputStream os = Files.newOutputStream(file)) {
+            bytes.writeTo(os);
+            while (n != -1) {
+                os.write(buffer, 0, n);
+                n = is.read(buffer);
+            }
+        }
+        events.add(new Embedded(null, file, metadata));
+    }
+
+    /**
+     * Writes the recorded events to the handler, and parses the embedded
+     * documents in between.
+     */
+    void replay(ContentHandler handler, EmbeddedDocumentUtil embeddedDocumentUtil)
+            throws IOException, SAXException {
+        for (Object event : events) {
+            if (event instanceof String) {
+                char[] chars = ((String) event).toCharArray();
+                handler.characters(chars, 0, chars.length);
+            } else if (event instanceof StartElement) {
+                StartElement e = (StartElement) event;
+                handler.startElement(e.uri, e.localName, e.qName, e.attributes);
+            } else if (event instanceof EndElement) {
+                EndElement e = (EndElement) event;
+                handler.endElement(e.uri, e.localName, e.qName);
+            } else {
+                Embedded e = (Embedded) event;
+                if (embeddedDocumentUtil.shouldParseEmbedded(e.metadata)) {
+                    try (TikaInputStream is = (e.file != null) ?
+                            TikaInputStream.get(e.file) : TikaInputStream.get(e.data)) {
+                        embeddedDocumentUtil.parseEmbedded(is, handler, e.metadata, true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes any spooled embedded documents.
+     */
+    void close() {
+        if (tmp != null) {
+            try {
+                tmp.close();
+            } catch (IOException e) {
+                //swallow
+            }
+            tmp = null;
+        }
+    }
+
+    private static class StartElement {
+
+        private final String uri;
+
+        private final String localName;
+
+        private final String qName;
+
+        private final Attributes attributes;
+
+        private StartElement(String uri, String localName, String qName, Attributes attributes) {
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+            this.attributes = new AttributesImpl(attributes);
+        }
+    }
+
+    private static class EndElement {
+
+        private final String uri;
+
+        private final String localName;
+
+        private final String qName;
+
+        private EndElement(String uri, String localName, String qName) {
+            this.uri = uri;
+            this.localName = localName;
+            this.qName = qName;
+        }
+    }
+
+    private static class Embedded {
+
+        private final byte[] data;
+
+        private final Path file;
+
+        private final Metadata metadata;
+
+        private Embedded(byte[] data, Path file, Metadata metadata) {
+            this.data = data;
+            this.file = file;
+            this.metadata = metadata;
+        }
+    }
+}
@@ -49,6 +49,8 @@ class SQLite3DBParser extends AbstractDBParser {
     //If the InputStream wasn't a TikaInputStream, copy to this tmp file
     Path tmpFile = null;
 
+    private String connectionString = null;
+
     /**
      * @param context context
      * @return null (always)
@@ -60,25 +62,27 @@ class SQLite3DBParser extends AbstractDBParser {
 
     @Override
     protected Connection getConnection(InputStream stream, Metadata metadata, ParseContext context) throws IOException {
-        String connectionString = getConnectionString(stream, metadata, context);
+        connectionString = getConnectionString(stream, metadata, context);
 
-        Connection connection = null;
         try {
             Class.forName(getJDBCClassName());
         } catch (ClassNotFoundException e) {
             throw new IOExceptionWithCause(e);
         }
         try {
-            SQLiteConfig config = new SQLiteConfig();
-
-            //good habit, but effectively meaningless here
-            config.setReadOnly(true);
-            connection = config.createConnection(connectionString);
-
+            return openConnection();
         } catch (SQLException e) {
             throw new IOException(e.getMessage());
         }
-        return connection;
+    }
+
+    @Override
+    protected Connection openConnection() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+
+        //good habit, but effectively meaningless here
+        config.setReadOnly(true);
+        return config.createConnection(connectionString);
     }
 
     @Override
@@ -22,6 +22,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.tika.config.Field;
 import org.apache.tika.config.Initializable;
 import org.apache.tika.config.InitializableProblemHandler;
 import org.apache.tika.config.Param;
@@ -72,6 +73,16 @@ public class SQLite3Parser extends AbstractParser implements Initializable {
         }
         SUPPORTED_TYPES = Collections.unmodifiableSet(tmp);
     }
+
+    @Field
+    private int fetchSize = 0;
+
+    @Field
+    private int tableThreads = 1;
+
+    @Field
+    private int rowBatchSize = 1000;
+
     /**
      * Checks to see if class is available for org.sqlite.JDBC.
      * <p/>
@@ -89,9 +100,74 @@ public class SQLite3Parser extends AbstractParser implements Initializable {
     @Override
     public void parse(InputStream stream, ContentHandler handler, Metadata metadata, ParseContext context) throws IOException, SAXException, TikaException {
         SQLite3DBParser p = new SQLite3DBParser();
+        p.setFetchSize(fetchSize);
+        p.setTableThreads(tableThreads);
+        p.setRowBatchSize(rowBatchSize);
         p.parse(stream, handler, metadata, context);
     }
 
+    /**
+     * Number of rows to fetch from the database at a time.
+     * Default is 0, which leaves this up to the driver.
+     *
+     * @param fetchSize number of rows
+     * @since Apache Tika 2.0.0
+     */
+    @Field
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 0) {
+            throw new IllegalArgumentException("fetchSize must be >= 0");
+        }
+        this.fetchSize = fetchSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Number of tables to read at the same time.  Default is 1, in which
+     * case tables are read one after the other on the parsing thread.
+     * With more, tables are read on worker threads, each over its own
+     * read-only connection, and rows are handed to the parsing thread in
+     * {@link #setRowBatchSize(int) batches}.  Tables and their rows are
+     * written in the same order either way, and embedded documents are
+     * always parsed on the parsing thread.
+     *
+     * @param tableThreads number of threads that read tables
+     * @since Apache Tika 2.0.0
+     */
+    @Field
+    public void setTableThreads(int tableThreads) {
+        if (tableThreads < 1) {
+            throw new IllegalArgumentException("tableThreads must be >= 1");
+        }
+        this.tableThreads = tableThreads;
+    }
+
+    public int getTableThreads() {
+        return tableThreads;
+    }
+
+    /**
+     * Number of rows that a {@link #setTableThreads(int) worker thread}
+     * hands over to the parsing thread at a time.  Default is 1000.
+     *
+     * @param rowBatchSize number of rows
+     * @since Apache Tika 2.0.0
+     */
+    @Field
+    public void setRowBatchSize(int rowBatchSize) {
+        if (rowBatchSize < 1) {
+            throw new IllegalArgumentException("rowBatchSize must be >= 1");
+        }
+        this.rowBatchSize = rowBatchSize;
+    }
+
+    public int getRowBatchSize() {
+        return rowBatchSize;
+    }
+
     /**
      * No-op
      * @param params params to use for initialization
@@ -16,14 +16,13 @@ package org.apache.tika.parser.jdbc;
  * limitations under the License.
  */
 
-import javax.sql.rowset.serial.SerialBlob;
 import java.io.IOException;
-import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import org.apache.tika.extractor.EmbeddedDocumentUtil;
+import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.parser.ParseContext;
 import org.xml.sax.ContentHandler;
@@ -66,11 +65,16 @@ class SQLite3TableReader extends JDBCTableReader {
         //no-op for now.
     }
 
+    /**
+     * xerial's driver only hands out blobs as byte arrays, so this wraps
+     * that array rather than copying it into a Blob and out again.
+     */
     @Override
-    protected Blob getBlob(ResultSet resultSet, int columnIndex, Metadata m) throws SQLException {
+    protected TikaInputStream getBlobStream(ResultSet resultSet, int columnIndex, Metadata m)
+            throws SQLException {
         byte[] bytes = resultSet.getBytes(columnIndex);
         if (!resultSet.wasNull()) {
-            return new SerialBlob(bytes);
+            return TikaInputStream.get(bytes, m);
         }
         return null;
     }
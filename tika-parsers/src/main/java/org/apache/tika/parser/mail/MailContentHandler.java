@@ -93,7 +93,17 @@ class MailContentHandler implements ContentHandler {
     //use this pattern to insert space: 10:30 am
     private static final Pattern AM_PM = Pattern.compile("(?i)(\\d)([ap]m)\\b");
 
-    private static final DateFormat[] ALTERNATE_DATE_FORMATS = new DateFormat[] {
+    //date formats aren't thread safe, so each thread gets its own
+    private static final ThreadLocal<DateFormat[]> ALTERNATE_DATE_FORMATS =
+            new ThreadLocal<DateFormat[]>() {
+                @Override
+                protected DateFormat[] initialValue() {
+                    return createAlternateDateFormats();
+                }
+            };
+
+    private static DateFormat[] createAlternateDateFormats() {
+        return new DateFormat[] {
             //note that the string is "cleaned" before processing:
             //1) condense multiple whitespace to single space
             //2) trim()
@@ -126,7 +136,8 @@ class MailContentHandler implements ContentHandler {
             createDateFormat("d MMM yy", MIDDAY, false),
             createDateFormat("yy/MM/dd", MIDDAY, false),
             createDateFormat("MM/dd/yy", MIDDAY, false)
-    };
+        };
+    }
 
     private static DateFormat createDateFormat(String format, TimeZone timezone) {
         return createDateFormat(format, timezone, true);
@@ -435,7 +446,7 @@ class MailContentHandler implements ContentHandler {
         }
     }
 
-    private static synchronized Date tryOtherDateFormats(String text) {
+    private static Date tryOtherDateFormats(String text) {
         if (text == null) {
             return null;
         }
@@ -453,7 +464,7 @@ class MailContentHandler implements ContentHandler {
             text = matcher.replaceFirst("$1 $2");
         }
 
-        for (DateFormat format : ALTERNATE_DATE_FORMATS) {
+        for (DateFormat format : ALTERNATE_DATE_FORMATS.get()) {
             try {
                 return format.parse(text);
             } catch (ParseException e) {
@@ -16,21 +16,18 @@
  */
 package org.apache.tika.parser.mbox;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -52,12 +49,17 @@ import org.xml.sax.SAXException;
 /**
  * Mbox (mailbox) parser. This version extracts each mail from Mbox and uses the
  * DelegatingParser to process each mail.
+ * <p>
+ * The mailbox is split into mails at the byte level, see {@link MboxSplitter},
+ * and only the headers of each mail are decoded here.
  */
 public class MboxParser extends AbstractParser {
 
     public static final String MBOX_MIME_TYPE = "application/mbox";
     public static final String MBOX_RECORD_DIVIDER = "From ";
     public static final int MAIL_MAX_SIZE = 50000000;
+    private static final int MAX_HEADER_SIZE = 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
     /**
      * Serial version UID
      */
@@ -65,6 +67,7 @@ public class MboxParser extends AbstractParser {
     private static final Set<MediaType> SUPPORTED_TYPES = Collections.singleton(MediaType.application("mbox"));
     private static final Pattern EMAIL_HEADER_PATTERN = Pattern.compile("([^ ]+):[ \t]*(.*)");
     private static final Pattern EMAIL_ADDRESS_PATTERN = Pattern.compile("<(.*@.*)>");
+    private static final Pattern LINE_BREAK_PATTERN = Pattern.compile("\r?\n");
 
     private static final String EMAIL_HEADER_METADATA_PREFIX = "MboxParser-";
     private static final String EMAIL_FROMLINE_METADATA = EMAIL_HEADER_METADATA_PREFIX + "from";
@@ -93,56 +96,35 @@ public class MboxParser extends AbstractParser {
         XHTMLContentHandler xhtml = new XHTMLContentHandler(handler, metadata);
         xhtml.startDocument();
 
-        InputStreamReader isr = new InputStreamReader(stream, charsetName);
-        try (BufferedReader reader = new BufferedReader(isr)) {
-            String curLine = reader.readLine();
-            int mailItem = 0;
-            do {
-                if (curLine.startsWith(MBOX_RECORD_DIVIDER)) {
-                    Metadata mailMetadata = new Metadata();
-                    Queue<String> multiline = new LinkedList<String>();
-                    mailMetadata.add(EMAIL_FROMLINE_METADATA, curLine.substring(MBOX_RECORD_DIVIDER.length()));
-                    mailMetadata.set(Metadata.CONTENT_TYPE, "message/rfc822");
-                    mailMetadata.set(TikaCoreProperties.CONTENT_TYPE_OVERRIDE, "message/rfc822");
-                    curLine = reader.readLine();
-                    if (curLine == null) {
-                        break;
-                    }
-                    ByteArrayOutputStream message = new ByteArrayOutputStream(100000);
-                    do {
-                        if (curLine.startsWith(" ") || curLine.startsWith("\t")) {
-                            String latestLine = multiline.poll();
-                            latestLine += " " + curLine.trim();
-                            multiline.add(latestLine);
-                        } else {
-                            multiline.add(curLine);
-                        }
-
-                        message.write(curLine.getBytes(charsetName));
-                        message.write(0x0A);
-                        curLine = reader.readLine();
-                    }
-                    while (curLine != null && !curLine.startsWith(MBOX_RECORD_DIVIDER) && message.size() < MAIL_MAX_SIZE);
-
-                    for (String item : multiline) {
-                        saveHeaderInMetadata(mailMetadata, item);
-                    }
-
-                    ByteArrayInputStream messageStream = new ByteArrayInputStream(message.toByteArray());
-                    message = null;
-
-                    if (extractor.shouldParseEmbedded(mailMetadata)) {
-                        extractor.parseEmbedded(messageStream, xhtml, mailMetadata, true);
-                    }
-
-                    if (tracking) {
-                        getTrackingMetadata().put(mailItem++, mailMetadata);
-                    }
-                } else {
-                    curLine = reader.readLine();
-                }
+        Charset charset = Charset.forName(charsetName);
+        MboxSplitter splitter = new MboxSplitter(stream, BUFFER_SIZE);
+        int mailItem = 0;
+        String fromLine;
+        while ((fromLine = splitter.nextFromLine(charset)) != null
+                && !Thread.currentThread().isInterrupted()) {
+            if (splitter.isEOF()) {
+                break;
+            }
+            Metadata mailMetadata = new Metadata();
+            mailMetadata.add(EMAIL_FROMLINE_METADATA, fromLine);
+            mailMetadata.set(Metadata.CONTENT_TYPE, "message/rfc822");
+            mailMetadata.set(TikaCoreProperties.CONTENT_TYPE_OVERRIDE, "message/rfc822");
+
+            MboxSplitter.MessageStream message = splitter.messageStream(MAIL_MAX_SIZE);
+            byte[] headers = message.readHeaders(MAX_HEADER_SIZE);
+            saveHeadersInMetadata(mailMetadata, new String(headers, charset));
+
+            if (extractor.shouldParseEmbedded(mailMetadata)) {
+                //only the header block has been copied, the body
+                //is read straight from the mailbox
+                InputStream messageStream = new SequenceInputStream(
+                        new ByteArrayInputStream(headers), message);
+                extractor.parseEmbedded(messageStream, xhtml, mailMetadata, true);
+            }
 
-            } while (curLine != null && !Thread.currentThread().isInterrupted());
+            if (tracking) {
+                getTrackingMetadata().put(mailItem++, mailMetadata);
+            }
         }
 
         xhtml.endDocument();
@@ -160,6 +142,25 @@ public class MboxParser extends AbstractParser {
         return trackingMetadata;
     }
 
+    private void saveHeadersInMetadata(Metadata metadata, String headers) {
+        String header = null;
+        for (String line : LINE_BREAK_PATTERN.split(headers)) {
+            if (line.startsWith(" ") || line.startsWith("\t")) {
+                if (header != null) {
+                    header += " " + line.trim();
+                }
+                continue;
+            }
+            if (header != null) {
+                saveHeaderInMetadata(metadata, header);
+            }
+            header = line;
+        }
+        if (header != null) {
+            saveHeaderInMetadata(metadata, header);
+        }
+    }
+
     private void saveHeaderInMetadata(Metadata metadata, String curLine) {
         Matcher headerMatcher = EMAIL_HEADER_PATTERN.matcher(curLine);
         if (!headerMatcher.matches()) {
@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.mbox;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Splits an mbox into its messages at the byte level.  The mailbox is
+ * read through one reusable buffer, and each message is handed out as
+ * a stream that ends at the next "From " line, so message bodies are
+ * neither decoded nor copied.
+ */
+class MboxSplitter {
+
+    private static final byte[] DIVIDER = MboxParser.MBOX_RECORD_DIVIDER.getBytes(US_ASCII);
+
+    private final InputStream in;
+
+    private final byte[] buffer;
+
+    private int pos = 0;
+
+    private int limit = 0;
+
+    private boolean eof = false;
+
+    //true if pos is at the start of a line
+    private boolean lineStart = true;
+
+    private MessageStream current = null;
+
+    MboxSplitter(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[Math.max(bufferSize, DIVIDER.length)];
+    }
+
+    /**
+     * Skips the rest of the current message, and anything else up to the
+     * next "From " line, and reads that line.
+     *
+     * @param charset charset to decode the line with
+     * @return the rest of the "From " line, without the line ending,
+     * or null at the end of the mailbox
+     */
+    String nextFromLine(Charset charset) throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        while (true) {
+            if (lineStart && atDivider()) {
+                pos += DIVIDER.length;
+                ByteArrayOutputStream line = new ByteArrayOutputStream(80);
+                readLine(line);
+                return trimLineEnding(line.toString(charset.name()));
+            }
+            if (!readLine(null)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @param maxSize number of bytes after which the message is cut off,
+     *                at the next line break
+     * @return the message after the last "From " line, up to the next one
+     */
+    MessageStream messageStream(long maxSize) {
+        current = new MessageStream(maxSize);
+        return current;
+    }
+
+    /**
+     * @return true if there is nothing left to read
+     */
+    boolean isEOF() throws IOException {
+        return !fill(1);
+    }
+
+    /**
+     * Makes sure that at least n bytes are buffered, unless the end of
+     * the input has been reached.
+     */
+    private boolean fill(int n) throws IOException {
+        if (limit - pos >= n) {
+            return true;
+        }
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        while (limit < n && !eof) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+        return limit - pos >= n;
+    }
+
+    private boolean atDivider() throws IOException {
+        if (!fill(DIVIDER.length)) {
+            return false;
+        }
+        for (int i = 0; i < DIVIDER.length; i++) {
+            if (buffer[pos + i] != DIVIDER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads up to and including the next line break.
+     *
+     * @param out where to copy the line to, or null to skip it
+     * @return false if the end of the input had already been reached
+     */
+    private boolean readLine(ByteArrayOutputStream out) throws IOException {
+        if (!fill(1)) {
+            return false;
+        }
+        do {
+            int n = lineLength(limit - pos);
+            if (out != null) {
+                out.write(buffer, pos, n);
+            }
+            pos += n;
+        } while (!lineStart && fill(1));
+        return true;
+    }
+
+    /**
+     * @return number of buffered bytes, at most max, up to and including
+     * the next line break; sets {@link #lineStart} accordingly
+     */
+    private int lineLength(int max) {
+        for (int i = pos; i < pos + max; i++) {
+            if (buffer[i] == '\n') {
+                lineStart = true;
+                return i - pos + 1;
+            }
+        }
+        lineStart = false;
+        return max;
+    }
+
+    private static String trimLineEnding(String line) {
+        int end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * Stream over one message.  A single read never returns bytes from
+     * more than one line.  Closing the stream skips the rest of the message.
+     */
+    class MessageStream extends InputStream {
+
+        private final long maxSize;
+
+        private long count = 0;
+
+        private boolean done = false;
+
+        private final byte[] single = new byte[1];
+
+        private MessageStream(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Reads the header block, up to and including the blank line that
+         * ends it.  The bytes that have been read are no longer part of
+         * this stream.
+         *
+         * @param maxBytes number of bytes after which to stop,
+         *                 even if the headers go on
+         * @return the header block
+         */
+        byte[] readHeaders(int maxBytes) throws IOException {
+            ByteArrayOutputStream headers = new ByteArrayOutputStream(1024);
+            byte[] chunk = new byte[1024];
+            boolean blank = true;
+            while (headers.size() < maxBytes) {
+                int n = next(chunk, 0, Math.min(chunk.length, maxBytes - headers.size()));
+                if (n < 0) {
+                    break;
+                }
+                headers.write(chunk, 0, n);
+                for (int i = 0; i < n && blank; i++) {
+                    blank = chunk[i] == '\r' || chunk[i] == '\n';
+                }
+                if (chunk[n - 1] == '\n') {
+                    if (blank) {
+                        break;
+                    }
+                    blank = true;
+                }
+            }
+            return headers.toByteArray();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int n = next(single, 0, 1);
+            return (n < 0) ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            return next(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n) {
+                int s = next(null, 0, (int) Math.min(Integer.MAX_VALUE, n - skipped));
+                if (s < 0) {
+                    break;
+                }
+                skipped += s;
+            }
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            while (next(null, 0, Integer.MAX_VALUE) > -1) {
+                //skip the rest of the message
+            }
+        }
+
+        /**
+         * @param b where to copy the bytes to, or null to skip them
+         */
+        private int next(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (lineStart && (count >= maxSize || atDivider())) {
+                done = true;
+                return -1;
+            }
+            if (!fill(1)) {
+                done = true;
+                return -1;
+            }
+            int n = lineLength(Math.min(len, limit - pos));
+            if (b != null) {
+                System.arraycopy(buffer, pos, b, off, n);
+            }
+            pos += n;
+            count += n;
+            return n;
+        }
+    }
+}
@@ -21,19 +21,37 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.singleton;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.pff.PSTAttachment;
 import com.pff.PSTException;
 import com.pff.PSTFile;
 import com.pff.PSTFolder;
 import com.pff.PSTMessage;
+import com.pff.PSTObject;
 import com.pff.PSTRecipient;
+import org.apache.tika.config.Field;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.extractor.EmbeddedDocumentExtractor;
 import org.apache.tika.extractor.EmbeddedDocumentUtil;
+import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Message;
 import org.apache.tika.metadata.Metadata;
@@ -43,21 +61,74 @@ import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.AbstractParser;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.microsoft.OutlookExtractor;
+import org.apache.tika.parser.utils.SharedWorkerPool;
 import org.apache.tika.sax.XHTMLContentHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.AttributesImpl;
 
 /**
  * Parser for MS Outlook PST email storage files
+ * <p>
+ * The folder tree is walked with an explicit work queue, so deep trees
+ * don't use up the stack.  By default, messages are read and parsed one
+ * at a time on the calling thread, and attachments are streamed from the
+ * PST.  With {@link #setMessageThreads(int)}, messages are read from the
+ * PST on worker threads, each with its own handle on the file, while the
+ * calling thread parses them in folder order.  Attachments read ahead
+ * that way are held in memory up to {@link #setMaxAttachmentMemoryBytes(long)}
+ * per message, and are spooled to temporary files beyond that.
+ * <p>
+ * A {@link FolderListener} in the parse context is told about each folder
+ * once it has been parsed.
  */
 public class OutlookPSTParser extends AbstractParser {
 
     private static final long serialVersionUID = 620998217748364063L;
 
+    private static final Logger LOG = LoggerFactory.getLogger(OutlookPSTParser.class);
+
     public static final MediaType MS_OUTLOOK_PST_MIMETYPE = MediaType.application("vnd.ms-outlook-pst");
     private static final Set<MediaType> SUPPORTED_TYPES = singleton(MS_OUTLOOK_PST_MIMETYPE);
 
+    //number of messages read ahead per worker thread
+    private static final int PENDING_MESSAGES_PER_THREAD = 4;
+
+    //size of the reads of attachments that are read ahead, whatever the memory budget
+    private static final int READ_AHEAD_BUFFER_SIZE = 64 * 1024;
+
+    //reads messages for all PST parses
+    private static final SharedWorkerPool MESSAGE_READERS = new SharedWorkerPool("Apache Tika PST reader");
+
+    /**
+     * Receives progress information while a PST is parsed.
+     *
+     * @since Apache Tika 2.0.0
+     */
+    public interface FolderListener {
+
+        /**
+         * Called once a folder's own messages have been parsed,
+         * after those of its subfolders.
+         *
+         * @param path          path of the folder, made up of the display names
+         *                      of the folders below the root, separated by '/'
+         * @param messages      number of messages in the folder
+         * @param attachments   number of attachments of those messages
+         * @param elapsedMillis time from entering to leaving the folder,
+         *                      including its subfolders
+         */
+        void folderParsed(String path, int messages, int attachments, long elapsedMillis);
+    }
+
+    @Field
+    private int messageThreads = 1;
+
+    @Field
+    private long maxAttachmentMemoryBytes = 1024 * 1024;
+
     private static AttributesImpl createAttribute(String attName, String attValue) {
         AttributesImpl attributes = new AttributesImpl();
         attributes.addAttribute("", attName, attName, "CDATA", attValue);
@@ -82,8 +153,10 @@ public class OutlookPSTParser extends AbstractParser {
 
         TikaInputStream in = TikaInputStream.get(stream);
         PSTFile pstFile = null;
+        MessageReader reader = null;
         try {
-            pstFile = new PSTFile(in.getFile().getPath());
+            String path = in.getFile().getPath();
+            pstFile = new PSTFile(path);
             metadata.set(Metadata.CONTENT_LENGTH, valueOf(pstFile.getFileHandle().length()));
             boolean isValid = pstFile.getFileHandle().getFD().valid();
             metadata.set("isValid", valueOf(isValid));
@@ -91,7 +164,13 @@ public class OutlookPSTParser extends AbstractParser {
                 throw new TikaException("OST 2013 support not added yet. It will be when https://github.com/rjohnsondev/java-libpst/issues/60 is fixed.");
             }
             if (isValid) {
-                parseFolder(xhtml, pstFile.getRootFolder(), embeddedExtractor);
+                FolderListener listener = context.get(FolderListener.class);
+                if (messageThreads > 1) {
+                    reader = new ConcurrentMessageReader(xhtml, embeddedExtractor, listener, path);
+                } else {
+                    reader = new MessageReader(xhtml, embeddedExtractor, listener);
+                }
+                parseFolders(pstFile.getRootFolder(), reader);
             }
         } catch (Exception e) {
             if(e instanceof TikaException) {
@@ -100,6 +179,9 @@ public class OutlookPSTParser extends AbstractParser {
                 throw new TikaException(e.getMessage(), e);
             }
         } finally {
+            if (reader != null) {
+                reader.close();
+            }
             if (pstFile != null && pstFile.getFileHandle() != null) {
                 try {
                     pstFile.getFileHandle().close();
@@ -112,44 +194,66 @@ public class OutlookPSTParser extends AbstractParser {
         xhtml.endDocument();
     }
 
-    private void parseFolder(XHTMLContentHandler handler, PSTFolder pstFolder, EmbeddedDocumentExtractor embeddedExtractor)
-            throws Exception {
-        if (pstFolder.getContentCount() > 0) {
-            PSTMessage pstMail = (PSTMessage) pstFolder.getNextChild();
-            while (pstMail != null) {
-                AttributesImpl attributes = new AttributesImpl();
-                attributes.addAttribute("", "class", "class", "CDATA", "embedded");
-                attributes.addAttribute("", "id", "id", "CDATA", pstMail.getInternetMessageId());
-                handler.startElement("div", attributes);
-                handler.element("h1", pstMail.getSubject());
-
-                final Metadata mailMetadata = new Metadata();
-                //parse attachments first so that stream exceptions
-                //in attachments can make it into mailMetadata.
-                //RecursiveParserWrapper copies the metadata and thereby prevents
-                //modifications to mailMetadata from making it into the
-                //metadata objects cached by the RecursiveParserWrapper
-                parseMailAttachments(handler, pstMail, mailMetadata, embeddedExtractor);
-                parserMailItem(handler, pstMail, mailMetadata, embeddedExtractor);
-
-                handler.endElement("div");
-
-                pstMail = (PSTMessage) pstFolder.getNextChild();
+    /**
+     * Walks the folder tree depth first, with each folder's messages
+     * before its subfolders.
+     */
+    private void parseFolders(PSTFolder root, MessageReader reader) throws Exception {
+        Deque<FolderState> queue = new ArrayDeque<>();
+        queue.push(new FolderState(root, null, ""));
+        while (!queue.isEmpty()) {
+            FolderState state = queue.pop();
+            if (state.folder == null) {
+                reader.endFolder(state);
+                continue;
+            }
+            PSTFolder pstFolder = state.folder;
+            //don't hold on to the folder's tables while its subfolders are parsed
+            state.folder = null;
+            reader.startFolder(state);
+            if (pstFolder.getContentCount() > 0) {
+                reader.readMessages(pstFolder, state);
             }
-        }
 
-        if (pstFolder.hasSubfolders()) {
-            for (PSTFolder pstSubFolder : pstFolder.getSubFolders()) {
-                handler.startElement("div", createAttribute("class", "email-folder"));
-                handler.element("h1", pstSubFolder.getDisplayName());
-                parseFolder(handler, pstSubFolder, embeddedExtractor);
-                handler.endElement("div");
+            //the folder is left once its subfolders are done
+            queue.push(state);
+            if (pstFolder.hasSubfolders()) {
+                List<PSTFolder> subFolders = pstFolder.getSubFolders();
+                for (int i = subFolders.size() - 1; i >= 0; i--) {
+                    PSTFolder pstSubFolder = subFolders.get(i);
+                    String name = pstSubFolder.getDisplayName();
+                    String path = (state.name == null) ? name : state.path + "/" + name;
+                    queue.push(new FolderState(pstSubFolder, name, path));
+                }
             }
         }
+        reader.finish();
     }
 
-    private void parserMailItem(XHTMLContentHandler handler, PSTMessage pstMail, Metadata mailMetadata,
-                                EmbeddedDocumentExtractor embeddedExtractor) throws SAXException, IOException {
+    private void parseMessage(XHTMLContentHandler handler, ExtractedMessage message,
+                              EmbeddedDocumentExtractor embeddedExtractor) throws Exception {
+        AttributesImpl attributes = new AttributesImpl();
+        attributes.addAttribute("", "class", "class", "CDATA", "embedded");
+        attributes.addAttribute("", "id", "id", "CDATA", message.internetMessageId);
+        handler.startElement("div", attributes);
+        handler.element("h1", message.subject);
+
+        //parse attachments first so that stream exceptions
+        //in attachments can make it into mailMetadata.
+        //RecursiveParserWrapper copies the metadata and thereby prevents
+        //modifications to mailMetadata from making it into the
+        //metadata objects cached by the RecursiveParserWrapper
+        parseMailAttachments(handler, message, embeddedExtractor);
+
+        message.mailMetadata.set(TikaCoreProperties.CONTENT_TYPE_OVERRIDE,
+                MediaType.TEXT_PLAIN.toString());
+        embeddedExtractor.parseEmbedded(new ByteArrayInputStream(message.body),
+                handler, message.mailMetadata, true);
+
+        handler.endElement("div");
+    }
+
+    private static void parserMailItem(PSTMessage pstMail, Metadata mailMetadata) {
         mailMetadata.set(TikaCoreProperties.RESOURCE_NAME_KEY, pstMail.getInternetMessageId());
         mailMetadata.set(TikaCoreProperties.EMBEDDED_RELATIONSHIP_ID, pstMail.getInternetMessageId());
         mailMetadata.set(TikaCoreProperties.IDENTIFIER, pstMail.getInternetMessageId());
@@ -208,37 +312,20 @@ public class OutlookPSTParser extends AbstractParser {
                         break;
                 }
             }
-        } catch (PSTException e) {
+        } catch (PSTException | IOException e) {
             //swallow
         }
-        //we may want to experiment with working with the bodyHTML.
-        //However, because we can't get the raw bytes, we _could_ wind up sending
-        //a UTF-8 byte representation of the html that has a conflicting metaheader
-        //that causes the HTMLParser to get the encoding wrong.  Better if we could get
-        //the underlying bytes from the pstMail object...
-
-        byte[] mailContent = pstMail.getBody().getBytes(UTF_8);
-        mailMetadata.set(TikaCoreProperties.CONTENT_TYPE_OVERRIDE,
-                MediaType.TEXT_PLAIN.toString());
-        embeddedExtractor.parseEmbedded(new ByteArrayInputStream(mailContent),
-                handler, mailMetadata, true);
     }
 
-    private void parseMailAttachments(XHTMLContentHandler xhtml, PSTMessage email,
-                                     final Metadata mailMetadata,
+    private void parseMailAttachments(XHTMLContentHandler xhtml, ExtractedMessage message,
                                       EmbeddedDocumentExtractor embeddedExtractor)
             throws TikaException {
-        int numberOfAttachments = email.getNumberOfAttachments();
-        for (int i = 0; i < numberOfAttachments; i++) {
+        for (ExtractedAttachment attachment : message.attachments) {
             try {
-                PSTAttachment attach = email.getAttachment(i);
-
-                // Get the filename; both long and short filenames can be used for attachments
-                String filename = attach.getLongFilename();
-                if (filename.isEmpty()) {
-                    filename = attach.getFilename();
+                if (attachment.failure != null) {
+                    throw attachment.failure;
                 }
-
+                String filename = attachment.filename;
                 xhtml.element("p", filename);
 
                 Metadata attachMeta = new Metadata();
@@ -251,9 +338,9 @@ public class OutlookPSTParser extends AbstractParser {
                 if (embeddedExtractor.shouldParseEmbedded(attachMeta)) {
                     TikaInputStream tis = null;
                     try {
-                        tis = TikaInputStream.get(attach.getFileInputStream());
+                        tis = attachment.openStream();
                     } catch (NullPointerException e) {//TIKA-2488
-                        EmbeddedDocumentUtil.recordEmbeddedStreamException(e, mailMetadata);
+                        EmbeddedDocumentUtil.recordEmbeddedStreamException(e, message.mailMetadata);
                         continue;
                     }
 
@@ -272,4 +359,513 @@ public class OutlookPSTParser extends AbstractParser {
         }
     }
 
+    /**
+     * Number of threads that read messages from the PST.  With the default
+     * of 1, messages are read on the parsing thread and their attachments
+     * are streamed from the PST.  With more, messages are read on that many
+     * worker threads, each with its own handle on the file, and are parsed
+     * on the parsing thread in the same order.
+     *
+     * @param messageThreads number of threads that read messages
+     * @since Apache Tika 2.0.0
+     */
+    @Field
+    public void setMessageThreads(int messageThreads) {
+        if (messageThreads < 1) {
+            throw new IllegalArgumentException("messageThreads must be >= 1");
+        }
+        this.messageThreads = messageThreads;
+    }
+
+    public int getMessageThreads() {
+        return messageThreads;
+    }
+
+    /**
+     * Number of bytes of attachments per message to hold in memory when
+     * messages are read ahead by {@link #setMessageThreads(int) worker threads}.
+     * Beyond that, attachments are spooled to temporary files.
+     * Default is 1MB.
+     *
+     * @param maxAttachmentMemoryBytes number of bytes per message, at least 0
+     * @since Apache Tika 2.0.0
+     */
+    @Field
+    public void setMaxAttachmentMemoryBytes(long maxAttachmentMemoryBytes) {
+        //attachments read ahead can't be streamed from the PST later on,
+        //because the worker's handle on the PST is in use by other workers by then
+        if (maxAttachmentMemoryBytes < 0) {
+            throw new IllegalArgumentException("maxAttachmentMemoryBytes must be >= 0");
+        }
+        this.maxAttachmentMemoryBytes = maxAttachmentMemoryBytes;
+    }
+
+    public long getMaxAttachmentMemoryBytes() {
+        return maxAttachmentMemoryBytes;
+    }
+
+    /**
+     * A folder in the traversal, and its progress counters.
+     */
+    private static class FolderState {
+
+        //null once the folder has been entered
+        private PSTFolder folder;
+
+        //null for the root folder, which isn't wrapped in a div
+        private final String name;
+
+        private final String path;
+
+        private long start;
+
+        private int messages = 0;
+
+        private int attachments = 0;
+
+        private FolderState(PSTFolder folder, String name, String path) {
+            this.folder = folder;
+            this.name = name;
+            this.path = path;
+        }
+    }
+
+    /**
+     * A message and its attachments, read from the PST.
+     */
+    private static class ExtractedMessage {
+
+        private final String internetMessageId;
+
+        private final String subject;
+
+        private final Metadata mailMetadata = new Metadata();
+
+        private final byte[] body;
+
+        private final List<ExtractedAttachment> attachments = new ArrayList<>();
+
+        //for attachments spooled to files; null if nothing was spooled
+        private TemporaryResources tmp = null;
+
+        private ExtractedMessage(PSTMessage pstMail) {
+            this.internetMessageId = pstMail.getInternetMessageId();
+            this.subject = pstMail.getSubject();
+            parserMailItem(pstMail, mailMetadata);
+            //we may want to experiment with working with the bodyHTML.
+            //However, because we can't get the raw bytes, we _could_ wind up sending
+            //a UTF-8 byte representation of the html that has a conflicting metaheader
+            //that causes the HTMLParser to get the encoding wrong.  Better if we could get
+            //the underlying bytes from the pstMail object...
+            this.body = pstMail.getBody().getBytes(UTF_8);
+        }
+
+        private void close() {
+            if (tmp != null) {
+                try {
+                    tmp.close();
+                } catch (IOException e) {
+                    //swallow
+                }
+                tmp = null;
+            }
+        }
+    }
+
+    /**
+     * An attachment, to be streamed from the PST or read ahead.
+     */
+    private static class ExtractedAttachment {
+
+        private String filename;
+
+        //set if the attachment is to be streamed from the PST
+        private PSTAttachment attach;
+
+        //set if the attachment has been read ahead, into memory or a file
+        private byte[] data;
+
+        private Path file;
+
+        //if set, the attachment couldn't be read; thrown when it is parsed
+        private Exception failure;
+
+        private TikaInputStream openStream() throws IOException, PSTException {
+            if (attach != null) {
+                return TikaInputStream.get(attach.getFileInputStream());
+            } else if (file != null) {
+                return TikaInputStream.get(file);
+            } else if (data != null) {
+                return TikaInputStream.get(data);
+            }
+            //TIKA-2488: the attachment's stream couldn't be opened
+            throw new NullPointerException();
+        }
+    }
+
+    /**
+     * Reads a message and lists its attachments.
+     *
+     * @param attachmentMemory number of bytes of attachments to read into
+     *                         memory, beyond which they are spooled to
+     *                         temporary files; or -1 to stream them from
+     *                         the PST when they are parsed
+     */
+    private static ExtractedMessage extract(PSTMessage pstMail, long attachmentMemory) {
+        ExtractedMessage message = new ExtractedMessage(pstMail);
+        int numberOfAttachments = pstMail.getNumberOfAttachments();
+        for (int i = 0; i < numberOfAttachments; i++) {
+            ExtractedAttachment attachment = new ExtractedAttachment();
+            message.attachments.add(attachment);
+            try {
+                PSTAttachment attach = pstMail.getAttachment(i);
+
+                // Get the filename; both long and short filenames can be used for attachments
+                String filename = attach.getLongFilename();
+                if (filename.isEmpty()) {
+                    filename = attach.getFilename();
+                }
+                attachment.filename = filename;
+                if (attachmentMemory < 0) {
+                    attachment.attach = attach;
+                    continue;
+                }
+
+                InputStream is;
+                try {
+                    is = attach.getFileInputStream();
+                } catch (NullPointerException e) {//TIKA-2488
+                    continue;
+                }
+                try {
+                    attachmentMemory -= readAhead(is, attachment, attachmentMemory, message);
+                } finally {
+                    is.close();
+                }
+            } catch (Exception e) {
+                //parsing stops at this attachment, as it would if it were streamed
+                attachment.failure = e;
+                break;
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Reads an attachment into memory, or into a temporary file if it
+     * is larger than maxMemory.
+     *
+     * @return number of bytes held in memory
+     */
+    private static long readAhead(InputStream is, ExtractedAttachment attachment, long maxMemory,
+                                  ExtractedMessage message) throws IOException {
+        byte[] buffer = new byte[READ_AHEAD_BUFFER_SIZE];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int n = is.read(buffer);
+        while (n != -1 && bytes.size() + n <= maxMemory) {
+            bytes.write(buffer, 0, n);
+            n = is.read(buffer);
+        }
+        if (n == -1) {
+            attachment.data = bytes.toByteArray();
+            return attachment.data.length;
+        }
+        if (message.tmp == null) {
+            message.tmp = new TemporaryResources();
+        }
+        attachment.file = message.tmp.createTempFile();
+        try (OutputStream os = Files.newOutputStream(attachment.file)) {
+            bytes.writeTo(os);
+            while (n != -1) {
+                os.write(buffer, 0, n);
+                n = is.read(buffer);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the messages of each folder and writes them, and the folders,
+     * to the handler.  This one reads each message on the parsing thread,
+     * just before it is parsed, and streams its attachments from the PST.
+     */
+    private class MessageReader {
+
+        protected final XHTMLContentHandler handler;
+
+        protected final EmbeddedDocumentExtractor embeddedExtractor;
+
+        private final FolderListener listener;
+
+        MessageReader(XHTMLContentHandler handler, EmbeddedDocumentExtractor embeddedExtractor,
+                      FolderListener listener) {
+            this.handler = handler;
+            this.embeddedExtractor = embeddedExtractor;
+            this.listener = listener;
+        }
+
+        void startFolder(FolderState state) throws Exception {
+            emitStartFolder(state);
+        }
+
+        void endFolder(FolderState state) throws Exception {
+            emitEndFolder(state);
+        }
+
+        void readMessages(PSTFolder pstFolder, FolderState state) throws Exception {
+            PSTMessage pstMail = (PSTMessage) pstFolder.getNextChild();
+            while (pstMail != null) {
+                emitMessage(extract(pstMail, -1), state);
+                pstMail = (PSTMessage) pstFolder.getNextChild();
+            }
+        }
+
+        /**
+         * Writes whatever hasn't been written yet.
+         */
+        void finish() throws Exception {
+        }
+
+        void close() {
+        }
+
+        protected void emitStartFolder(FolderState state) throws SAXException {
+            state.start = System.currentTimeMillis();
+            if (state.name != null) {
+                handler.startElement("div", createAttribute("class", "email-folder"));
+                handler.element("h1", state.name);
+            }
+        }
+
+        protected void emitEndFolder(FolderState state) throws SAXException {
+            if (state.name != null) {
+                handler.endElement("div");
+            }
+            long elapsed = System.currentTimeMillis() - state.start;
+            LOG.debug("Parsed PST folder '{}': {} messages, {} attachments in {} ms",
+                    state.path, state.messages, state.attachments, elapsed);
+            if (listener != null) {
+                listener.folderParsed(state.path, state.messages, state.attachments, elapsed);
+            }
+        }
+
+        protected void emitMessage(ExtractedMessage message, FolderState state) throws Exception {
+            state.messages++;
+            state.attachments += message.attachments.size();
+            try {
+                parseMessage(handler, message, embeddedExtractor);
+            } finally {
+                message.close();
+            }
+        }
+    }
+
+    /**
+     * Reads messages ahead on worker threads, each of which has its own
+     * handle on the PST, and writes them in folder order on the parsing
+     * thread.  The number of messages read ahead is bounded.
+     */
+    private class ConcurrentMessageReader extends MessageReader {
+
+        private final ExecutorService executor;
+
+        //handles that aren't being used by a worker
+        private final BlockingQueue<PSTFile> pstFiles;
+
+        //every handle that has been opened, to be closed with the reader
+        private final List<PSTFile> opened = new ArrayList<>();
+
+        private final int maxPending;
+
+        //folders to start or end, and messages being read, in order
+        private final Deque<Object> pending = new ArrayDeque<>();
+
+        private int pendingMessages = 0;
+
+        //messages that have been read but not yet parsed, to be closed if the parse fails
+        private final Set<ExtractedMessage> unparsed = new HashSet<>();
+
+        private boolean closed = false;
+
+        ConcurrentMessageReader(XHTMLContentHandler handler,
+                                EmbeddedDocumentExtractor embeddedExtractor,
+                                FolderListener listener, String path)
+                throws IOException, PSTException {
+            super(handler, embeddedExtractor, listener);
+            this.maxPending = messageThreads * PENDING_MESSAGES_PER_THREAD;
+            this.pstFiles = new ArrayBlockingQueue<>(messageThreads);
+            this.executor = MESSAGE_READERS.get(messageThreads);
+            boolean ok = false;
+            try {
+                for (int i = 0; i < messageThreads; i++) {
+                    PSTFile pstFile = new PSTFile(path);
+                    opened.add(pstFile);
+                    pstFiles.add(pstFile);
+                }
+                ok = true;
+            } finally {
+                if (!ok) {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        void startFolder(FolderState state) throws Exception {
+            pending.add(new FolderEvent(state, true));
+            emitReady();
+        }
+
+        @Override
+        void endFolder(FolderState state) throws Exception {
+            pending.add(new FolderEvent(state, false));
+            emitReady();
+        }
+
+        @Override
+        void readMessages(PSTFolder pstFolder, FolderState state) throws Exception {
+            for (Integer descriptorNodeId : pstFolder.getChildDescriptorNodes()) {
+                while (pendingMessages >= maxPending) {
+                    emitNext();
+                }
+                pending.add(new PendingMessage(state, executor.submit(new ReadMessage(descriptorNodeId))));
+                pendingMessages++;
+                emitReady();
+            }
+        }
+
+        @Override
+        void finish() throws Exception {
+            while (!pending.isEmpty()) {
+                emitNext();
+            }
+        }
+
+        @Override
+        void close() {
+            synchronized (unparsed) {
+                closed = true;
+                for (ExtractedMessage message : unparsed) {
+                    message.close();
+                }
+                unparsed.clear();
+            }
+            //the workers are shared, so stop this reader's messages only
+            for (Object item : pending) {
+                if (item instanceof PendingMessage) {
+                    ((PendingMessage) item).future.cancel(true);
+                }
+            }
+            pending.clear();
+            //including the handles that workers are still reading from
+            for (PSTFile pstFile : opened) {
+                try {
+                    pstFile.close();
+                } catch (IOException e) {
+                    //swallow
+                }
+            }
+        }
+
+        /**
+         * Writes what has been read, up to the first message still being read.
+         */
+        private void emitReady() throws Exception {
+            while (!pending.isEmpty()) {
+                Object item = pending.peek();
+                if (item instanceof PendingMessage && !((PendingMessage) item).future.isDone()) {
+                    return;
+                }
+                emitNext();
+            }
+        }
+
+        private void emitNext() throws Exception {
+            Object item = pending.poll();
+            if (item instanceof FolderEvent) {
+                FolderEvent event = (FolderEvent) item;
+                if (event.start) {
+                    emitStartFolder(event.state);
+                } else {
+                    emitEndFolder(event.state);
+                }
+                return;
+            }
+            PendingMessage message = (PendingMessage) item;
+            pendingMessages--;
+            ExtractedMessage extracted;
+            try {
+                extracted = message.future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw new TikaException("Unable to read message", cause);
+            }
+            if (extracted != null) {
+                synchronized (unparsed) {
+                    unparsed.remove(extracted);
+                }
+                emitMessage(extracted, message.state);
+            }
+        }
+
+        /**
+         * Reads a message with one of the PST handles.
+         */
+        private class ReadMessage implements Callable<ExtractedMessage> {
+
+            private final long descriptorNodeId;
+
+            private ReadMessage(long descriptorNodeId) {
+                this.descriptorNodeId = descriptorNodeId;
+            }
+
+            public ExtractedMessage call() throws Exception {
+                PSTFile pstFile = pstFiles.take();
+                try {
+                    PSTObject pstObject = PSTObject.detectAndLoadPSTObject(pstFile, descriptorNodeId);
+                    if (!(pstObject instanceof PSTMessage)) {
+                        return null;
+                    }
+                    ExtractedMessage message = extract((PSTMessage) pstObject, maxAttachmentMemoryBytes);
+                    synchronized (unparsed) {
+                        if (closed) {
+                            message.close();
+                            return null;
+                        }
+                        unparsed.add(message);
+                    }
+                    return message;
+                } finally {
+                    pstFiles.add(pstFile);
+                }
+            }
+        }
+    }
+
+    private static class FolderEvent {
+
+        private final FolderState state;
+
+        private final boolean start;
+
+        private FolderEvent(FolderState state, boolean start) {
+            this.state = state;
+            this.start = start;
+        }
+    }
+
+    private static class PendingMessage {
+
+        private final FolderState state;
+
+        private final Future<ExtractedMessage> future;
+
+        private PendingMessage(FolderState state, Future<ExtractedMessage> future) {
+            this.state = state;
+            this.future = future;
+        }
+    }
 }
@@ -114,6 +114,15 @@ public abstract class AbstractOfficeParser extends AbstractParser {
         defaultOfficeParserConfig.getConcatenatePhoneticRuns();
     }
 
+    /**
+     * @see OfficeParserConfig#setMaxSharedStringsMemoryBytes(long)
+     * @since 2.0.0
+     */
+    @Field
+    public void setMaxSharedStringsMemoryBytes(long maxSharedStringsMemoryBytes) {
+        defaultOfficeParserConfig.setMaxSharedStringsMemoryBytes(maxSharedStringsMemoryBytes);
+    }
+
     /**
      * Some .msg files can contain body content in html, rtf and/or text.
      * The default behavior is to pick the first non-null value and include only that.
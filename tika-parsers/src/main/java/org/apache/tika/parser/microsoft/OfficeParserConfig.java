@@ -31,6 +31,7 @@ public class OfficeParserConfig implements Serializable {
     private boolean includeSlideNotes = true;
     private boolean includeSlideMasterContent = true;
     private boolean concatenatePhoneticRuns = true;
+    private long maxSharedStringsMemoryBytes = 32 * 1024 * 1024;
 
     private boolean useSAXDocxExtractor = false;
     private boolean useSAXPptxExtractor = false;
@@ -176,6 +177,24 @@ public class OfficeParserConfig implements Serializable {
     }
 
 
+    /**
+     * The xlsx parser keeps the workbook's shared strings as UTF-8 in a single
+     * byte array.  Beyond this many bytes, it moves them to a memory-mapped
+     * temporary file instead, so that heap use doesn't grow with the workbook.
+     * The default is 32 MB; -1 keeps them all on the heap.
+     *
+     * @param maxSharedStringsMemoryBytes number of bytes of shared strings to
+     *                                    hold on the heap
+     * @since 2.0.0
+     */
+    public void setMaxSharedStringsMemoryBytes(long maxSharedStringsMemoryBytes) {
+        this.maxSharedStringsMemoryBytes = maxSharedStringsMemoryBytes;
+    }
+
+    public long getMaxSharedStringsMemoryBytes() {
+        return maxSharedStringsMemoryBytes;
+    }
+
     /**
      * Some .msg files can contain body content in html, rtf and/or text.
      * The default behavior is to pick the first non-null value and include only that.
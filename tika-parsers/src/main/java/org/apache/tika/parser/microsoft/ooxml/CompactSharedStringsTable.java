@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.microsoft.ooxml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.MappedBufferCleaner;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.sax.OfflineContentHandler;
+import org.apache.tika.utils.XMLReaderUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Read-only shared strings table that holds the strings as UTF-8 in one
+ * byte arena, indexed by an int offset table, and only builds a String
+ * when a cell asks for it.  The heap then holds a few bytes per string
+ * rather than a String object per string.
+ * <p>
+ * If the arena grows beyond the memory limit, it is moved to a temporary
+ * file, which is memory-mapped once the table has been read.
+ * <p>
+ * Other than that, this works like POI's ReadOnlySharedStringsTable.
+ */
+class CompactSharedStringsTable extends DefaultHandler implements SharedStrings, Closeable {
+
+    private static final String NS_SPREADSHEETML =
+            "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private final boolean includePhoneticRuns;
+
+    private final long memoryLimit;
+
+    private final TemporaryResources tmp = new TemporaryResources();
+
+    private int count;
+
+    private int uniqueCount;
+
+    //offsets[i] is the start of string i in the arena; offsets[size] is the end
+    private int[] offsets = new int[1025];
+
+    private int size = 0;
+
+    private byte[] arena = new byte[16 * 1024];
+
+    private int arenaLength = 0;
+
+    //set once the arena has been moved to a file
+    private OutputStream spill = null;
+
+    private Path spillPath = null;
+
+    private ByteBuffer mapped = null;
+
+    private final StringBuilder characters = new StringBuilder(64);
+
+    private boolean tIsOpen = false;
+
+    private boolean inRPh = false;
+
+    /**
+     * @param pkg package to read the shared strings from
+     * @param includePhoneticRuns whether to append phonetic runs to the text
+     * @param memoryLimit number of bytes of strings to hold on the heap
+     *                    before moving them to a temporary file,
+     *                    or -1 to hold them all on the heap
+     * @param context parse context, for the SAX parser
+     */
+    CompactSharedStringsTable(OPCPackage pkg, boolean includePhoneticRuns, long memoryLimit,
+                              ParseContext context)
+            throws IOException, SAXException, TikaException {
+        this.includePhoneticRuns = includePhoneticRuns;
+        this.memoryLimit = memoryLimit;
+        boolean ok = false;
+        try {
+            List<PackagePart> parts = pkg.getPartsByContentType(
+                    XSSFRelation.SHARED_STRINGS.getContentType());
+            if (parts.size() > 0) {
+                try (InputStream is = parts.get(0).getInputStream()) {
+                    readFrom(is, context);
+                }
+            }
+            finishReading();
+            ok = true;
+        } finally {
+            if (!ok) {
+                close();
+            }
+        }
+    }
+
+    private void readFrom(InputStream is, ParseContext context)
+            throws IOException, SAXException, TikaException {
+        //an empty part is not an error
+        PushbackInputStream pis = new PushbackInputStream(is, 1);
+        int emptyTest = pis.read();
+        if (emptyTest > -1) {
+            pis.unread(emptyTest);
+            XMLReaderUtils.parseSAX(pis, new OfflineContentHandler(this), context);
+        }
+    }
+
+    private void finishReading() throws IOException {
+        if (spill == null) {
+            return;
+        }
+        spill.close();
+        spill = null;
+        try (FileChannel channel = FileChannel.open(spillPath)) {
+            //the mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, arenaLength);
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    /**
+     * @param idx index of the string
+     * @return the string
+     */
+    public String getEntryAt(int idx) {
+        if (idx < 0 || idx >= size) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + size);
+        }
+        int start = offsets[idx];
+        int length = offsets[idx + 1] - start;
+        if (mapped == null) {
+            return new String(arena, start, length, UTF_8);
+        }
+        ByteBuffer buffer = mapped.duplicate();
+        buffer.position(start);
+        buffer.limit(start + length);
+        return UTF_8.decode(buffer).toString();
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(getEntryAt(idx));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spill != null) {
+            spill.close();
+            spill = null;
+        }
+        if (mapped != null) {
+            MappedBufferCleaner.freeBuffer(mapped);
+            mapped = null;
+        }
+        arena = null;
+        try {
+            tmp.dispose();
+        } catch (TikaException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String name,
+                             Attributes attributes) throws SAXException {
+        if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+            return;
+        }
+
+        if ("sst".equals(localName)) {
+            String count = attributes.getValue("count");
+            if (count != null) {
+                this.count = Integer.parseInt(count);
+            }
+            String uniqueCount = attributes.getValue("uniqueCount");
+            if (uniqueCount != null) {
+                this.uniqueCount = Integer.parseInt(uniqueCount);
+            }
+        } else if ("si".equals(localName)) {
+            characters.setLength(0);
+        } else if ("t".equals(localName)) {
+            tIsOpen = true;
+        } else if ("rPh".equals(localName)) {
+            inRPh = true;
+            //append space...this assumes that rPh always comes after regular <t>
+            if (includePhoneticRuns && characters.length() > 0) {
+                characters.append(" ");
+            }
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String name) throws SAXException {
+        if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+            return;
+        }
+
+        if ("si".equals(localName)) {
+            try {
+                add(characters.toString().getBytes(UTF_8));
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        } else if ("t".equals(localName)) {
+            tIsOpen = false;
+        } else if ("rPh".equals(localName)) {
+            inRPh = false;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (tIsOpen) {
+            if (inRPh && includePhoneticRuns) {
+                characters.append(ch, start, length);
+            } else if (!inRPh) {
+                characters.append(ch, start, length);
+            }
+        }
+    }
+
+    private void add(byte[] bytes) throws IOException, SAXException {
+        if ((long) arenaLength + bytes.length > Integer.MAX_VALUE) {
+            throw new SAXException("Shared strings table is larger than 2GB");
+        }
+        if (spill == null && memoryLimit > -1 && (long) arenaLength + bytes.length > memoryLimit) {
+            spillPath = tmp.createTempFile();
+            spill = new BufferedOutputStream(Files.newOutputStream(spillPath));
+            spill.write(arena, 0, arenaLength);
+            arena = null;
+        }
+        if (spill != null) {
+            spill.write(bytes);
+        } else {
+            if (arenaLength + bytes.length > arena.length) {
+                arena = Arrays.copyOf(arena,
+                        (int) Math.min(Integer.MAX_VALUE,
+                                Math.max((long) arena.length * 2, (long) arenaLength + bytes.length)));
+            }
+            System.arraycopy(bytes, 0, arena, arenaLength, bytes.length);
+        }
+        arenaLength += bytes.length;
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++size] = arenaLength;
+    }
+}
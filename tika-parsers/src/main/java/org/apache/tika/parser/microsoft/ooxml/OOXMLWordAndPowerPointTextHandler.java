@@ -165,8 +165,6 @@ public class OOXMLWordAndPowerPointTextHandler extends DefaultHandler {
 
     private OOXMLWordAndPowerPointTextHandler.EditType editType = OOXMLWordAndPowerPointTextHandler.EditType.NONE;
 
-    private DateUtils dateUtils = new DateUtils();
-
     public OOXMLWordAndPowerPointTextHandler(XWPFBodyContentsHandler bodyContentsHandler,
                                              Map<String, String> hyperlinks) {
         this(bodyContentsHandler, hyperlinks, true, true);
@@ -360,7 +358,7 @@ public class OOXMLWordAndPowerPointTextHandler extends DefaultHandler {
         String editDateString = atts.getValue(W_NS, "date");
         Date editDate = null;
         if (editDateString != null) {
-            editDate = dateUtils.tryToParse(editDateString);
+            editDate = DateUtils.tryToParseDate(editDateString);
         }
         bodyContentsHandler.startEditedSection(editAuthor, editDate, editType);
         this.editType = editType;
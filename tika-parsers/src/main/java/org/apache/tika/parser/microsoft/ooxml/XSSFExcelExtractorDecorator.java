@@ -41,12 +41,12 @@ import org.apache.poi.openxml4j.opc.TargetMode;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.HeaderFooter;
 import org.apache.poi.ss.util.CellReference;
-import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
 import org.apache.poi.xssf.extractor.XSSFEventBasedExcelExtractor;
 import org.apache.poi.xssf.model.CommentsTable;
+import org.apache.poi.xssf.model.SharedStrings;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFDrawing;
@@ -129,7 +129,7 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
             XmlException, IOException {
         OPCPackage container = extractor.getPackage();
 
-        ReadOnlySharedStringsTable strings;
+        CompactSharedStringsTable strings;
         XSSFReader.SheetIterator iter;
         XSSFReader xssfReader;
         StylesTable styles;
@@ -138,13 +138,33 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
             styles = xssfReader.getStylesTable();
 
             iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
-            strings = new ReadOnlySharedStringsTable(container, config.getConcatenatePhoneticRuns());
+            strings = new CompactSharedStringsTable(container, config.getConcatenatePhoneticRuns(),
+                    config.getMaxSharedStringsMemoryBytes(), parseContext);
         } catch (InvalidFormatException e) {
             throw new XmlException(e);
         } catch (OpenXML4JException oe) {
             throw new XmlException(oe);
+        } catch (TikaException e) {
+            throw new XmlException(e);
+        }
+
+        try {
+            processSheets(xhtml, iter, styles, strings);
+        } finally {
+            strings.close();
+        }
+
+        //consider adding this back to POI
+        try (InputStream wbData = xssfReader.getWorkbookData()) {
+            XMLReaderUtils.parseSAX(wbData, new OfflineContentHandler(new AbsPathExtractorHandler()), parseContext);
+        } catch (InvalidFormatException|TikaException e) {
+            //swallow
         }
+    }
 
+    private void processSheets(XHTMLContentHandler xhtml, XSSFReader.SheetIterator iter,
+                               StylesTable styles, SharedStrings strings)
+            throws SAXException, IOException {
         while (iter.hasNext()) {
             SheetTextAsHTML sheetExtractor = new SheetTextAsHTML(config, xhtml);
             PackagePart sheetPart = null;
@@ -193,13 +213,6 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
             // All done with this sheet
             xhtml.endElement("div");
         }
-
-        //consider adding this back to POI
-        try (InputStream wbData = xssfReader.getWorkbookData()) {
-            XMLReaderUtils.parseSAX(wbData, new OfflineContentHandler(new AbsPathExtractorHandler()), parseContext);
-        } catch (InvalidFormatException|TikaException e) {
-            //swallow
-        }
     }
 
 
@@ -340,7 +353,7 @@ public class XSSFExcelExtractorDecorator extends AbstractOOXMLExtractor {
             SheetContentsHandler sheetContentsExtractor,
             CommentsTable comments,
             StylesTable styles,
-            ReadOnlySharedStringsTable strings,
+            SharedStrings strings,
             InputStream sheetInputStream)
             throws IOException, SAXException {
         try {
@@ -407,43 +407,9 @@ public class TesseractOCRParser extends AbstractParser implements Initializable
             throws IOException, SAXException, TikaException {
         File tmpTxtOutput = null;
         try {
-            File input = tikaInputStream.getFile();
-            long size = tikaInputStream.getLength();
-
-            if (size >= config.getMinFileSizeToOcr() && size <= config.getMaxFileSizeToOcr()) {
-
-            	// Process image if ImageMagick Tool is present
-            	if(config.isEnableImageProcessing() == 1 && hasImageMagick(config)) {
-                    // copy the contents of the original input file into a temporary file
-                    // which will be preprocessed for OCR
-                    TemporaryResources tmp = new TemporaryResources();
-                    try {
-                        File tmpFile = tmp.createTemporaryFile();
-                        FileUtils.copyFile(input, tmpFile);
-                        processImage(tmpFile, config);
-                        doOCR(tmpFile, tmpOCROutputFile, config);
-                    } finally {
-                        if (tmp != null) {
-                            tmp.dispose();
-                        }
-                    }
-            	} else {
-                    doOCR(input, tmpOCROutputFile, config);
-                }
-
-                // Tesseract appends the output type (.txt or .hocr) to output file name
-                tmpTxtOutput = new File(tmpOCROutputFile.getAbsolutePath() + "." +
-                        config.getOutputType().toString().toLowerCase(Locale.US));
-
-                if (tmpTxtOutput.exists()) {
-                    try (InputStream is = new FileInputStream(tmpTxtOutput)) {
-                        if (config.getOutputType().equals(TesseractOCRConfig.OUTPUT_TYPE.HOCR)) {
-                            extractHOCROutput(is, parseContext, xhtml);
-                        } else {
-                            extractOutput(is, xhtml);
-                        }
-                    }
-                }
+            tmpTxtOutput = runOCR(tikaInputStream.getFile(), tmpOCROutputFile, config);
+            if (tmpTxtOutput != null) {
+                extractOCROutput(tmpTxtOutput, xhtml, parseContext, config);
             }
         } finally {
             if (tmpTxtOutput != null) {
@@ -452,6 +418,88 @@ public class TesseractOCRParser extends AbstractParser implements Initializable
         }
     }
 
+    /**
+     * Runs OCR on an image file and leaves the output in a file rather than
+     * writing it to a content handler. This does not touch any shared state,
+     * so callers may run it on worker threads and then write the
+     * results, in order, with
+     * {@link #extractOCROutput(File, XHTMLContentHandler, ParseContext, TesseractOCRConfig)}.
+     * The caller is responsible for deleting the returned file.
+     *
+     * @param input image file to OCR
+     * @param tmpOCROutputFile base name for the output; Tesseract appends the output type
+     * @param config TesseractOCRConfig to use
+     * @return the output file, or <code>null</code> if the image was skipped
+     * or Tesseract did not write any output
+     * @throws IOException
+     * @throws TikaException if Tesseract timed out
+     * @since Apache Tika 2.0.0
+     */
+    public File runOCR(File input, File tmpOCROutputFile, TesseractOCRConfig config)
+            throws IOException, TikaException {
+        long size = input.length();
+        if (size < config.getMinFileSizeToOcr() || size > config.getMaxFileSizeToOcr()) {
+            return null;
+        }
+
+        // Process image if ImageMagick Tool is present
+        if (config.isEnableImageProcessing() == 1 && hasImageMagick(config)) {
+            // copy the contents of the original input file into a temporary file
+            // which will be preprocessed for OCR
+            TemporaryResources tmp = new TemporaryResources();
+            try {
+                File tmpFile = tmp.createTemporaryFile();
+                FileUtils.copyFile(input, tmpFile);
+                processImage(tmpFile, config);
+                doOCR(tmpFile, tmpOCROutputFile, config);
+            } finally {
+                tmp.dispose();
+            }
+        } else {
+            doOCR(input, tmpOCROutputFile, config);
+        }
+
+        File tmpTxtOutput = getOutputFile(tmpOCROutputFile, config);
+        return tmpTxtOutput.exists() ? tmpTxtOutput : null;
+    }
+
+    /**
+     * Writes the output of {@link #runOCR(File, File, TesseractOCRConfig)}
+     * to the content handler without starting a new document.
+     *
+     * @param ocrOutput file returned by runOCR
+     * @param xhtml handler
+     * @param parseContext parse context
+     * @param config TesseractOCRConfig that was used for runOCR
+     * @throws IOException
+     * @throws SAXException
+     * @throws TikaException
+     * @since Apache Tika 2.0.0
+     */
+    public void extractOCROutput(File ocrOutput, XHTMLContentHandler xhtml, ParseContext parseContext,
+                                 TesseractOCRConfig config)
+            throws IOException, SAXException, TikaException {
+        try (InputStream is = new FileInputStream(ocrOutput)) {
+            if (config.getOutputType().equals(TesseractOCRConfig.OUTPUT_TYPE.HOCR)) {
+                extractHOCROutput(is, parseContext, xhtml);
+            } else {
+                extractOutput(is, xhtml);
+            }
+        }
+    }
+
+    /**
+     * @param tmpOCROutputFile base name passed to Tesseract
+     * @param config TesseractOCRConfig to use
+     * @return the file Tesseract writes its output to
+     * @since Apache Tika 2.0.0
+     */
+    public File getOutputFile(File tmpOCROutputFile, TesseractOCRConfig config) {
+        // Tesseract appends the output type (.txt or .hocr) to output file name
+        return new File(tmpOCROutputFile.getAbsolutePath() + "." +
+                config.getOutputType().toString().toLowerCase(Locale.US));
+    }
+
     /**
      * no-op
      * @param params params to use for initialization
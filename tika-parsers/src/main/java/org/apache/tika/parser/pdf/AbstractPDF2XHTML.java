@@ -164,6 +164,9 @@ class AbstractPDF2XHTML extends PDFTextStripper {
 
     private final Set<String> fontNames = new HashSet<>();
 
+    //only used if ocrThreads > 1
+    private PageOCRPipeline ocrPipeline;
+
     AbstractPDF2XHTML(PDDocument pdDocument, ContentHandler handler, ParseContext context, Metadata metadata,
                       PDFParserConfig config) throws IOException {
         this.pdDocument = pdDocument;
@@ -341,6 +344,21 @@ class AbstractPDF2XHTML extends PDFTextStripper {
                     "Please set the OCR_STRATEGY to NO_OCR or configure Tesseract correctly");
         }
 
+        if (ocrPipeline == null && usePageOCRPipeline()) {
+            ocrPipeline = new PageOCRPipeline(pdDocument, config, tesseractOCRParser, tesseractConfig,
+                    context, pageIndex, Math.min(getEndPage(), pdDocument.getNumberOfPages()));
+        }
+        if (ocrPipeline != null) {
+            try {
+                ocrPipeline.writePage(pageIndex, xhtml);
+            } catch (IOException e) {
+                handleCatchableIOE(e);
+            } catch (SAXException e) {
+                throw new IOExceptionWithCause("error writing OCR content from PDF", e);
+            }
+            return;
+        }
+
         PDFRenderer renderer = new PDFRenderer(pdDocument);
         TemporaryResources tmp = new TemporaryResources();
         try {
@@ -365,6 +383,30 @@ class AbstractPDF2XHTML extends PDFTextStripper {
         }
     }
 
+    /**
+     * Pages are OCR'd ahead of time only if every page will be OCR'd.
+     * With {@link PDFParserConfig.OCR_STRATEGY#AUTO}, whether a page
+     * is OCR'd isn't known until its text has been extracted.
+     */
+    private boolean usePageOCRPipeline() {
+        if (config.getOcrThreads() < 2) {
+            return false;
+        }
+        return config.getOcrStrategy().equals(PDFParserConfig.OCR_STRATEGY.OCR_ONLY) ||
+                config.getOcrStrategy().equals(PDFParserConfig.OCR_STRATEGY.OCR_AND_TEXT_EXTRACTION);
+    }
+
+    /**
+     * Stops any outstanding OCR work.  This must be called once
+     * the document has been processed, even if processing failed.
+     */
+    void closeOCR() {
+        if (ocrPipeline != null) {
+            ocrPipeline.close();
+            ocrPipeline = null;
+        }
+    }
+
     @Override
     protected void endPage(PDPage page) throws IOException {
         metadata.add(PDF.CHARACTERS_PER_PAGE, totalCharsPerPage);
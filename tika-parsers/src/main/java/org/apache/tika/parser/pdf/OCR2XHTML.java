@@ -82,6 +82,10 @@ class OCR2XHTML extends AbstractPDF2XHTML {
             } else {
                 throw new TikaException("Unable to extract PDF content", e);
             }
+        } finally {
+            if (ocr2XHTML != null) {
+                ocr2XHTML.closeOCR();
+            }
         }
         if (ocr2XHTML.exceptions.size() > 0) {
             //throw the first
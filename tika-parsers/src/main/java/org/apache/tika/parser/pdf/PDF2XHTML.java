@@ -140,6 +140,10 @@ class PDF2XHTML extends AbstractPDF2XHTML {
             } else {
                 throw new TikaException("Unable to extract PDF content", e);
             }
+        } finally {
+            if (pdf2XHTML != null) {
+                pdf2XHTML.closeOCR();
+            }
         }
         if (pdf2XHTML.exceptions.size() > 0) {
             //throw the first
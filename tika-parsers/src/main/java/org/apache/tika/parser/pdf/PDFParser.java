@@ -440,6 +440,16 @@ public class PDFParser extends AbstractParser implements Initializable {
         defaultConfig.setOcrDPI(dpi);
     }
 
+    @Field
+    void setOcrThreads(int ocrThreads) {
+        defaultConfig.setOcrThreads(ocrThreads);
+    }
+
+    @Field
+    void setOcrMaxPagesInFlight(int ocrMaxPagesInFlight) {
+        defaultConfig.setOcrMaxPagesInFlight(ocrMaxPagesInFlight);
+    }
+
     @Field
     void setOcrImageQuality(float imageQuality) {
         defaultConfig.setOcrImageQuality(imageQuality);
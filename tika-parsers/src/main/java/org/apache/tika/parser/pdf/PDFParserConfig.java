@@ -129,6 +129,8 @@ public class PDFParserConfig implements Serializable {
     private ImageType ocrImageType = ImageType.GRAY;
     private String ocrImageFormatName = "png";
     private float ocrImageQuality = 1.0f;
+    private int ocrThreads = 1;
+    private int ocrMaxPagesInFlight = -1;
 
     private AccessChecker accessChecker;
 
@@ -222,6 +224,11 @@ public class PDFParserConfig implements Serializable {
 
         setOcrDPI(getIntProp(props.getProperty("ocrDPI"), getOcrDPI()));
 
+        setOcrThreads(getIntProp(props.getProperty("ocrThreads"), getOcrThreads()));
+
+        setOcrMaxPagesInFlight(getIntProp(props.getProperty("ocrMaxPagesInFlight"),
+                getOcrMaxPagesInFlight()));
+
         setOcrImageFormatName(props.getProperty("ocrImageFormatName"));
 
         setOcrImageType(parseImageType(props.getProperty("ocrImageType")));
@@ -685,6 +692,47 @@ public class PDFParserConfig implements Serializable {
         this.ocrImageQuality = ocrImageQuality;
     }
 
+    /**
+     * Number of threads used to run OCR on page images.
+     * @return number of OCR threads
+     */
+    public int getOcrThreads() {
+        return ocrThreads;
+    }
+
+    /**
+     * Number of threads used to run OCR on page images.  If this is
+     * greater than 1 and the strategy is {@link OCR_STRATEGY#OCR_ONLY}
+     * or {@link OCR_STRATEGY#OCR_AND_TEXT_EXTRACTION}, pages are rendered
+     * ahead of the text extraction and OCR'd concurrently.  The OCR output
+     * is still written in page order.  Default is 1, which runs OCR
+     * on the parsing thread.
+     *
+     * @param ocrThreads
+     */
+    public void setOcrThreads(int ocrThreads) {
+        this.ocrThreads = ocrThreads;
+    }
+
+    /**
+     * @see #setOcrMaxPagesInFlight(int)
+     */
+    public int getOcrMaxPagesInFlight() {
+        return ocrMaxPagesInFlight;
+    }
+
+    /**
+     * Maximum number of rendered pages waiting for, or undergoing, OCR
+     * when {@link #getOcrThreads()} is greater than 1.  This bounds the
+     * memory held by page images.  If this is less than 1,
+     * twice the number of OCR threads is used.
+     *
+     * @param ocrMaxPagesInFlight
+     */
+    public void setOcrMaxPagesInFlight(int ocrMaxPagesInFlight) {
+        this.ocrMaxPagesInFlight = ocrMaxPagesInFlight;
+    }
+
     /**
      * Whether or not to extract PDActions from the file.
      * Most Action types are handled inline; javascript macros
@@ -796,6 +844,8 @@ public class PDFParserConfig implements Serializable {
         if (getExtractUniqueInlineImagesOnly() != config.getExtractUniqueInlineImagesOnly()) return false;
         if (getIfXFAExtractOnlyXFA() != config.getIfXFAExtractOnlyXFA()) return false;
         if (getOcrDPI() != config.getOcrDPI()) return false;
+        if (getOcrThreads() != config.getOcrThreads()) return false;
+        if (getOcrMaxPagesInFlight() != config.getOcrMaxPagesInFlight()) return false;
         if (getCatchIntermediateIOExceptions() != config.getCatchIntermediateIOExceptions()) return false;
         if (!getAverageCharTolerance().equals(config.getAverageCharTolerance())) return false;
         if (!getSpacingTolerance().equals(config.getSpacingTolerance())) return false;
@@ -824,6 +874,8 @@ public class PDFParserConfig implements Serializable {
         result = 31 * result + (getIfXFAExtractOnlyXFA() ? 1 : 0);
         result = 31 * result + ocrStrategy.hashCode();
         result = 31 * result + getOcrDPI();
+        result = 31 * result + getOcrThreads();
+        result = 31 * result + getOcrMaxPagesInFlight();
         result = 31 * result + getOcrImageType().hashCode();
         result = 31 * result + getOcrImageFormatName().hashCode();
         result = 31 * result + getAccessChecker().hashCode();
@@ -850,6 +902,8 @@ public class PDFParserConfig implements Serializable {
                 ", ifXFAExtractOnlyXFA=" + ifXFAExtractOnlyXFA +
                 ", ocrStrategy=" + ocrStrategy +
                 ", ocrDPI=" + ocrDPI +
+                ", ocrThreads=" + ocrThreads +
+                ", ocrMaxPagesInFlight=" + ocrMaxPagesInFlight +
                 ", ocrImageType=" + ocrImageType +
                 ", ocrImageFormatName='" + ocrImageFormatName + '\'' +
                 ", accessChecker=" + accessChecker +
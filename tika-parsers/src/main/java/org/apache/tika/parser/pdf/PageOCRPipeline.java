@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.pdf;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.io.IOExceptionWithCause;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.tools.imageio.ImageIOUtil;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.ocr.TesseractOCRConfig;
+import org.apache.tika.parser.ocr.TesseractOCRParser;
+import org.apache.tika.parser.utils.SharedWorkerPool;
+import org.apache.tika.sax.XHTMLContentHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * Runs OCR on page images concurrently while the parsing thread
+ * walks the pages in order.
+ * <p>
+ * PDFBox is not thread-safe, so pages are rendered on the parsing thread,
+ * up to {@link PDFParserConfig#getOcrMaxPagesInFlight()} pages ahead of the
+ * page being processed.  Encoding the image and running Tesseract happen on
+ * worker threads, which are shared by all PDF parses.  When the parser
+ * reaches a page, it waits for that page's OCR and writes the output, so
+ * the content is in page order.
+ */
+class PageOCRPipeline implements Closeable {
+
+    private static final SharedWorkerPool WORKERS = new SharedWorkerPool("pdf-ocr");
+
+    private final PageOCR pageOCR;
+    private final ExecutorService executorService;
+    private final int maxPagesInFlight;
+    //exclusive
+    private final int endPageIndex;
+
+    private final Deque<PendingPage> pending = new ArrayDeque<>();
+    private int nextPageIndex = 0;
+
+    /**
+     * @param startPageIndex zero-based index of the first page to OCR
+     * @param endPageIndex zero-based index after the last page to OCR
+     */
+    PageOCRPipeline(PDDocument pdDocument, PDFParserConfig config, TesseractOCRParser tesseractOCRParser,
+                    TesseractOCRConfig tesseractConfig, ParseContext context,
+                    int startPageIndex, int endPageIndex) {
+        this(new TesseractPageOCR(pdDocument, config, tesseractOCRParser, tesseractConfig, context),
+                config.getOcrThreads(), config.getOcrMaxPagesInFlight(), startPageIndex, endPageIndex);
+    }
+
+    /**
+     * @param maxPagesInFlight maximum number of pages rendered ahead,
+     *                         or &lt;= 0 for twice the number of threads
+     */
+    PageOCRPipeline(PageOCR pageOCR, int threads, int maxPagesInFlight,
+                    int startPageIndex, int endPageIndex) {
+        this.pageOCR = pageOCR;
+        this.nextPageIndex = startPageIndex;
+        this.endPageIndex = endPageIndex;
+        this.maxPagesInFlight = (maxPagesInFlight > 0) ? maxPagesInFlight : 2 * threads;
+        this.executorService = WORKERS.get(threads);
+    }
+
+    /**
+     * Writes the OCR output for a page, rendering and submitting pages
+     * ahead of it as needed.  This must be called in increasing page order.
+     *
+     * @param pageIndex zero-based page index
+     * @param xhtml handler to write the OCR output to
+     * @throws IOException if rendering or OCR failed for the page
+     * @throws TikaException if Tesseract timed out
+     * @throws SAXException if the handler fails
+     */
+    void writePage(int pageIndex, XHTMLContentHandler xhtml) throws IOException, TikaException, SAXException {
+        //drop pages that were never processed, e.g. after an exception
+        while (!pending.isEmpty() && pending.peekFirst().pageIndex < pageIndex) {
+            pending.removeFirst().cancel();
+        }
+        if (nextPageIndex < pageIndex) {
+            nextPageIndex = pageIndex;
+        }
+        //submit the requested page, even if it falls outside the expected range
+        if (pending.isEmpty() && nextPageIndex == pageIndex) {
+            submit(nextPageIndex++);
+        }
+        while (nextPageIndex < endPageIndex && nextPageIndex < pageIndex + maxPagesInFlight) {
+            submit(nextPageIndex++);
+        }
+
+        PendingPage page = pending.removeFirst();
+        try {
+            File ocrOutput = page.get();
+            if (ocrOutput != null) {
+                pageOCR.write(ocrOutput, xhtml);
+            }
+        } finally {
+            page.tmp.dispose();
+        }
+    }
+
+    private void submit(final int pageIndex) throws IOException {
+        final TemporaryResources tmp = new TemporaryResources();
+        final Callable<File> ocr;
+        try {
+            ocr = pageOCR.render(pageIndex, tmp);
+        } catch (IOException e) {
+            tmp.close();
+            //report the failure when the parser reaches this page
+            pending.addLast(new PendingPage(pageIndex, tmp, null, e));
+            return;
+        }
+        PendingPage page = new PendingPage(pageIndex, tmp, ocr, null);
+        page.future = executorService.submit(page);
+        pending.addLast(page);
+    }
+
+    /**
+     * Cancels any outstanding OCR and deletes the temporary files,
+     * once the worker threads are done with them.
+     */
+    @Override
+    public void close() {
+        while (!pending.isEmpty()) {
+            pending.removeFirst().cancel();
+        }
+    }
+
+    /**
+     * The steps of OCR'ing a page.
+     */
+    interface PageOCR {
+
+        /**
+         * Renders a page on the parsing thread.
+         *
+         * @param pageIndex zero-based page index
+         * @param tmp temporary resources of the page, disposed once the page has been written
+         * @return the rest of the OCR, to be run on a worker thread; returns
+         *         the file to pass to {@link #write}, or <code>null</code> if there is no output
+         * @throws IOException if the page can't be rendered
+         */
+        Callable<File> render(int pageIndex, TemporaryResources tmp) throws IOException;
+
+        /**
+         * Writes the output of the OCR on the parsing thread.
+         */
+        void write(File ocrOutput, XHTMLContentHandler xhtml) throws IOException, SAXException, TikaException;
+    }
+
+    private static class TesseractPageOCR implements PageOCR {
+        private final PDFRenderer renderer;
+        private final PDFParserConfig config;
+        private final TesseractOCRParser tesseractOCRParser;
+        private final TesseractOCRConfig tesseractConfig;
+        private final ParseContext context;
+
+        TesseractPageOCR(PDDocument pdDocument, PDFParserConfig config, TesseractOCRParser tesseractOCRParser,
+                         TesseractOCRConfig tesseractConfig, ParseContext context) {
+            this.renderer = new PDFRenderer(pdDocument);
+            this.config = config;
+            this.tesseractOCRParser = tesseractOCRParser;
+            this.tesseractConfig = tesseractConfig;
+            this.context = context;
+        }
+
+        @Override
+        public Callable<File> render(int pageIndex, TemporaryResources tmp) throws IOException {
+            final int dpi = config.getOcrDPI();
+            final BufferedImage image = renderer.renderImageWithDPI(pageIndex, dpi, config.getOcrImageType());
+            final Path imageFile = tmp.createTempFile();
+            final File ocrOutputFile = tmp.createTemporaryFile();
+            //Tesseract writes to a file derived from the output file name
+            final File tesseractOutput = tesseractOCRParser.getOutputFile(ocrOutputFile, tesseractConfig);
+            tmp.addResource(new Closeable() {
+                @Override
+                public void close() throws IOException {
+                    Files.deleteIfExists(tesseractOutput.toPath());
+                }
+            });
+            return new Callable<File>() {
+                @Override
+                public File call() throws Exception {
+                    try (OutputStream os = Files.newOutputStream(imageFile)) {
+                        ImageIOUtil.writeImage(image, config.getOcrImageFormatName(),
+                                os, dpi, config.getOcrImageQuality());
+                    }
+                    return tesseractOCRParser.runOCR(imageFile.toFile(), ocrOutputFile, tesseractConfig);
+                }
+            };
+        }
+
+        @Override
+        public void write(File ocrOutput, XHTMLContentHandler xhtml)
+                throws IOException, SAXException, TikaException {
+            tesseractOCRParser.extractOCROutput(ocrOutput, xhtml, context, tesseractConfig);
+        }
+    }
+
+    private static class PendingPage implements Callable<File> {
+        private final int pageIndex;
+        private final TemporaryResources tmp;
+        private final Callable<File> ocr;
+        private final IOException renderException;
+        private Future<File> future;
+
+        //set by whichever comes first: the worker starting the OCR, or the page being cancelled
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        PendingPage(int pageIndex, TemporaryResources tmp, Callable<File> ocr, IOException renderException) {
+            this.pageIndex = pageIndex;
+            this.tmp = tmp;
+            this.ocr = ocr;
+            this.renderException = renderException;
+        }
+
+        @Override
+        public File call() throws Exception {
+            if (!claimed.compareAndSet(false, true)) {
+                //cancelled before it started
+                return null;
+            }
+            try {
+                return ocr.call();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        File get() throws IOException, TikaException {
+            if (renderException != null) {
+                throw renderException;
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new TikaException("interrupted while waiting for OCR", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof TikaException) {
+                    throw (TikaException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOExceptionWithCause("error running OCR", cause);
+            }
+        }
+
+        /**
+         * Stops the OCR and deletes the temporary files.  If the OCR has
+         * started, this waits for it to stop, so that its files aren't
+         * deleted while Tesseract may still be reading them.
+         */
+        void cancel() {
+            if (future != null) {
+                if (claimed.compareAndSet(false, true)) {
+                    future.cancel(false);
+                } else {
+                    //interrupting the OCR kills the Tesseract process
+                    future.cancel(true);
+                    boolean interrupted = false;
+                    while (true) {
+                        try {
+                            finished.await();
+                            break;
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            try {
+                tmp.dispose();
+            } catch (TikaException e) {
+                //swallow
+            }
+        }
+    }
+}
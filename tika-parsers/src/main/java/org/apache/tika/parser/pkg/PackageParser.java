@@ -255,9 +255,10 @@ public class PackageParser extends AbstractParser {
                 SevenZFile sevenz;
                 try{
                     if (password == null) {
-                        sevenz = new SevenZFile(tstream.getFile());
+                        sevenz = new SevenZFile(tstream.getSeekableByteChannel());
                     } else {
-                        sevenz = new SevenZFile(tstream.getFile(), password.getBytes("UnicodeLittleUnmarked"));
+                        sevenz = new SevenZFile(tstream.getSeekableByteChannel(),
+                                password.getBytes("UnicodeLittleUnmarked"));
                     }
                 }catch(PasswordRequiredException e){
                     throw new EncryptedDocumentException(e);
@@ -120,10 +120,7 @@ public class ZipContainerDetector implements Detector {
 
             if (TikaInputStream.isTikaInputStream(input)) {
                 TikaInputStream tis = TikaInputStream.cast(input);
-                if (markLimit < 0) {
-                    tis.getFile();
-                }
-                if (tis.hasFile()) {
+                if (markLimit < 0 || tis.hasFile()) {
                     return detectZipFormatOnFile(tis);
                 }
             }
@@ -194,7 +191,8 @@ public class ZipContainerDetector implements Detector {
     }
 
     /**
-     * This will call TikaInputStream's getFile(). If there are no exceptions,
+     * This will call TikaInputStream's getSeekableByteChannel(), which only
+     * spools large streams to disk. If there are no exceptions,
      * it will place the ZipFile in TikaInputStream's openContainer and leave it
      * open.
      * @param tis
@@ -203,7 +201,7 @@ public class ZipContainerDetector implements Detector {
     private static MediaType detectZipFormatOnFile(TikaInputStream tis) {
         try {
 
-            ZipFile zip = new ZipFile(tis.getFile()); // TODO: hasFile()?
+            ZipFile zip = new ZipFile(tis.getSeekableByteChannel());
             MediaType type = null;
             try {
                 type = detectOpenDocument(zip);
@@ -122,6 +122,8 @@ public class CharsetDetector {
             new short[256];  //   Value is percent, not absolute.
     boolean fC1Bytes =          // True if any bytes in the range 0x80 - 0x9F are in the input;
             false;
+    int[][] fNGramScores;       // Confidences of the single byte recognizers, scored together
+                                //   on first use.  Tika modification.
     String fDeclaredEncoding;
     byte[] fRawInput;     // Original, untouched input bytes.
     //  If user gave us a byte array, this is it.
@@ -206,7 +208,15 @@ public class CharsetDetector {
         return setText(in, in.length);
     }
 
-    private CharsetDetector setText(byte[] in, int length) {
+    /**
+     * Set the input text from the start of a byte array, which is not
+     * copied and must not be modified while the detector uses it.
+     *
+     * @param in the input text of unknown encoding
+     * @param length number of bytes of input text
+     * @return This CharsetDetector
+     */
+    CharsetDetector setText(byte[] in, int length) {
         fRawInput = in;
         fRawLength = length;
 
@@ -272,11 +282,7 @@ public class CharsetDetector {
      * @stable ICU 3.4
      */
     public CharsetMatch detect() {
-//   TODO:  A better implementation would be to copy the detect loop from
-//          detectAll(), and cut it short as soon as a match with a high confidence
-//          is found.  This is something to be done later, after things are otherwise
-//          working.
-        CharsetMatch matches[] = detectAll();
+        CharsetMatch matches[] = detectAll(true);
 
         if (matches == null || matches.length == 0) {
             return null;
@@ -300,15 +306,37 @@ public class CharsetDetector {
      * @stable ICU 3.4
      */
     public CharsetMatch[] detectAll() {
+        return detectAll(false);
+    }
+
+    /**
+     * Like {@link #detectAll()}, but optionally cut short once a match has
+     * a higher confidence than any single byte recognizer can report.  The
+     * single byte recognizers, which are the most expensive ones, are then
+     * skipped, and only the best match is returned.  Either way, the best
+     * match is the same.  Tika modification.
+     *
+     * @param stopWhenCertain whether to cut detection short
+     * @return the matches, best first; only the best one if detection was
+     * cut short
+     */
+    CharsetMatch[] detectAll(boolean stopWhenCertain) {
         CharsetRecognizer csr;
         int i;
         CharsetMatch charsetMatch;
         int confidence;
+        int bestConfidence = 0;
+        boolean skipped = false;
         ArrayList<CharsetMatch> matches = new ArrayList<CharsetMatch>();
         //  Iterate over all possible charsets, remember all that
         //    give a match quality > 0.
         for (i = 0; i < ALL_CS_RECOGNIZERS.size(); i++) {
             csr = ALL_CS_RECOGNIZERS.get(i).recognizer;
+            if (stopWhenCertain && csr instanceof CharsetRecog_sbcs
+                    && bestConfidence > CharsetRecog_sbcs.MAX_CONFIDENCE) {
+                skipped = true;
+                continue;
+            }
             charsetMatch = csr.match(this);
             if (charsetMatch != null) {
                 confidence = charsetMatch.getConfidence() & 0x000000ff;
@@ -323,11 +351,15 @@ public class CharsetDetector {
                     }
                     CharsetMatch m = new CharsetMatch(this, csr, confidence, charsetMatch.getName(), charsetMatch.getLanguage());
                     matches.add(m);
+                    bestConfidence = Math.max(bestConfidence, confidence);
                 }
             }
         }
         Collections.sort(matches);      // CharsetMatch compares on confidence
         Collections.reverse(matches);   //  Put best match first.
+        if (skipped) {
+            return new CharsetMatch[]{matches.get(0)};
+        }
         CharsetMatch[] resultArray = new CharsetMatch[matches.size()];
         resultArray = matches.toArray(resultArray);
         return resultArray;
@@ -514,6 +546,7 @@ public class CharsetDetector {
         // Tally up the byte occurence statistics.
         //   These are available for use by the various detectors.
         //
+        fNGramScores = null;
         Arrays.fill(fByteStats, (short) 0);
         for (srci = 0; srci < fInputLen; srci++) {
             int val = fInputBytes[srci] & 0x00ff;
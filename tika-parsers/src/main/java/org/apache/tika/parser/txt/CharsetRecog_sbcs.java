@@ -10,6 +10,8 @@
 
 package org.apache.tika.parser.txt;
 
+import java.util.Arrays;
+
 /**
  * This class recognizes single-byte encodings. Because the encoding scheme is so
  * simple, language statistics are used to do the matching.
@@ -32,6 +34,12 @@ package org.apache.tika.parser.txt;
  */
 abstract class CharsetRecog_sbcs extends CharsetRecognizer {
 
+    /**
+     * Highest confidence that a single byte recognizer can report, even
+     * with a declared encoding.  Tika modification.
+     */
+    static final int MAX_CONFIDENCE = 99;
+
     /* (non-Javadoc)
      * @see com.ibm.icu.text.CharsetRecognizer#getName()
      */
@@ -42,15 +50,86 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
     }
 
     int match(CharsetDetector det, int[] ngrams, byte[] byteMap, byte spaceChar) {
+        int confidence = scoredMatch(det, ngrams, byteMap, spaceChar, false);
+        if (confidence >= 0) {
+            return confidence;
+        }
         NGramParser parser = new NGramParser(ngrams, byteMap);
         return parser.parse(det, spaceChar);
     }
 
     int matchIBM420(CharsetDetector det, int[] ngrams, byte[] byteMap, byte spaceChar) {
+        int confidence = scoredMatch(det, ngrams, byteMap, spaceChar, true);
+        if (confidence >= 0) {
+            return confidence;
+        }
         NGramParser_IBM420 parser = new NGramParser_IBM420(ngrams, byteMap);
         return parser.parse(det, spaceChar);
     }
 
+    /**
+     * Looks up the confidence for the table in the scores of all the
+     * recognizers, which are computed in one pass over the input the
+     * first time that any of them is matched.  Tika modification.
+     *
+     * @return the confidence, or -1 if the table is not scored that way
+     */
+    private static int scoredMatch(CharsetDetector det, int[] ngrams, byte[] byteMap,
+                                   byte spaceChar, boolean ibm420) {
+        if (det.fNGramScores == null) {
+            det.fNGramScores = Scorer.INSTANCE.score(det);
+        }
+        return Scorer.INSTANCE.find(det.fNGramScores, byteMap, spaceChar, ibm420, ngrams);
+    }
+
+    /**
+     * The ngram tables of all the recognizers below, grouped by the byte
+     * mapping of the input that they are matched against.  This is in a
+     * holder class so that it is only built once the recognizers have been
+     * initialized.
+     */
+    private static class Scorer {
+
+        private static final NGramScorer INSTANCE = new NGramScorer(Arrays.asList(
+                new NGramScorer.Channel(CharsetRecog_8859_1.byteMap, (byte) 0x20, false,
+                        tables(CharsetRecog_8859_1.ngrams_8859_1)),
+                new NGramScorer.Channel(CharsetRecog_8859_2.byteMap, (byte) 0x20, false,
+                        tables(CharsetRecog_8859_2.ngrams_8859_2)),
+                new NGramScorer.Channel(CharsetRecog_8859_5.byteMap, (byte) 0x20, false,
+                        CharsetRecog_8859_5_ru.ngrams),
+                new NGramScorer.Channel(CharsetRecog_8859_6.byteMap, (byte) 0x20, false,
+                        CharsetRecog_8859_6_ar.ngrams),
+                new NGramScorer.Channel(CharsetRecog_8859_7.byteMap, (byte) 0x20, false,
+                        CharsetRecog_8859_7_el.ngrams),
+                new NGramScorer.Channel(CharsetRecog_8859_8.byteMap, (byte) 0x20, false,
+                        CharsetRecog_8859_8_I_he.ngrams, CharsetRecog_8859_8_he.ngrams),
+                new NGramScorer.Channel(CharsetRecog_8859_9.byteMap, (byte) 0x20, false,
+                        CharsetRecog_8859_9_tr.ngrams),
+                new NGramScorer.Channel(CharsetRecog_windows_1251.byteMap, (byte) 0x20, false,
+                        CharsetRecog_windows_1251.ngrams),
+                new NGramScorer.Channel(CharsetRecog_IBM866_ru.byteMap, (byte) 0x20, false,
+                        CharsetRecog_IBM866_ru.ngrams),
+                new NGramScorer.Channel(CharsetRecog_windows_1256.byteMap, (byte) 0x20, false,
+                        CharsetRecog_windows_1256.ngrams),
+                new NGramScorer.Channel(CharsetRecog_KOI8_R.byteMap, (byte) 0x20, false,
+                        CharsetRecog_KOI8_R.ngrams),
+                new NGramScorer.Channel(CharsetRecog_IBM424_he.byteMap, (byte) 0x40, false,
+                        CharsetRecog_IBM424_he_rtl.ngrams, CharsetRecog_IBM424_he_ltr.ngrams),
+                new NGramScorer.Channel(CharsetRecog_IBM420_ar.byteMap, (byte) 0x40, true,
+                        CharsetRecog_IBM420_ar_rtl.ngrams, CharsetRecog_IBM420_ar_ltr.ngrams),
+                new NGramScorer.Channel(CharsetRecog_EBCDIC_500.byteMap, (byte) 0x20, false,
+                        tables(CharsetRecog_8859_1.ngrams_8859_1))
+        ));
+
+        private static int[][] tables(NGramsPlusLang[] ngrams) {
+            int[][] tables = new int[ngrams.length][];
+            for (int i = 0; i < ngrams.length; i++) {
+                tables[i] = ngrams[i].fNGrams;
+            }
+            return tables;
+        }
+    }
+
     static class NGramParser {
         //        private static final int N_GRAM_SIZE = 3;
         private static final int N_GRAM_MASK = 0xFFFFFF;
@@ -210,7 +289,7 @@ abstract class CharsetRecog_sbcs extends CharsetRecognizer {
             super(theNgramList, theByteMap);
         }
 
-        private byte isLamAlef(byte b) {
+        static byte isLamAlef(byte b) {
             if (b == (byte) 0xb2 || b == (byte) 0xb3) {
                 return (byte) 0x47;
             } else if (b == (byte) 0xb4 || b == (byte) 0xb5) {
@@ -21,12 +21,13 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 
 import org.apache.tika.config.Field;
-import org.apache.tika.detect.EncodingDetector;
+import org.apache.tika.detect.DetectionProbe;
+import org.apache.tika.detect.ProbeEncodingDetector;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
 import org.apache.tika.utils.CharsetUtils;
 
-public class Icu4jEncodingDetector implements EncodingDetector {
+public class Icu4jEncodingDetector implements ProbeEncodingDetector {
 
     @Field
     private boolean stripMarkup = false;
@@ -40,6 +41,24 @@ public class Icu4jEncodingDetector implements EncodingDetector {
             return null;
         }
 
+        CharsetDetector detector = newDetector(metadata);
+        detector.setText(input);
+        return detect(detector);
+    }
+
+    @Override
+    public int getProbeLength() {
+        return markLimit;
+    }
+
+    @Override
+    public Charset detectFromProbe(DetectionProbe probe, Metadata metadata) {
+        CharsetDetector detector = newDetector(metadata);
+        detector.setText(probe.array(), Math.min(probe.length(), markLimit));
+        return detect(detector);
+    }
+
+    private CharsetDetector newDetector(Metadata metadata) {
         CharsetDetector detector = new CharsetDetector(markLimit);
 
         String incomingCharset = metadata.get(Metadata.CONTENT_ENCODING);
@@ -64,10 +83,21 @@ public class Icu4jEncodingDetector implements EncodingDetector {
         // TIKA-341 without enabling input filtering (stripping of tags)
         // short HTML tests don't work well
         detector.enableInputFilter(true);
+        return detector;
+    }
 
-        detector.setText(input);
+    private static Charset detect(CharsetDetector detector) {
+        CharsetMatch[] matches = detector.detectAll(true);
+        Charset charset = firstSupported(matches);
+        if (charset == null && matches.length == 1) {
+            //detection may have been cut short
+            charset = firstSupported(detector.detectAll());
+        }
+        return charset;
+    }
 
-        for (CharsetMatch match : detector.detectAll()) {
+    private static Charset firstSupported(CharsetMatch[] matches) {
+        for (CharsetMatch match : matches) {
             try {
                 return CharsetUtils.forName(match.getName());
             } catch (Exception e) {
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.txt;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scores the input of a {@link CharsetDetector} against the ngram tables of
+ * all the single byte recognizers in one pass over the input, rather than
+ * one pass per table.
+ * <p>
+ * The sequence of ngrams only depends on the byte map and the space
+ * character, so the tables that share those form a {@link Channel}.  Each
+ * channel keeps its own ngram state, in arrays indexed by channel, and
+ * looks up each ngram once, in a hash table that is built up front and
+ * that maps the ngram to the set of tables that contain it.
+ * <p>
+ * The confidences are computed exactly as by
+ * {@link CharsetRecog_sbcs.NGramParser}.
+ */
+class NGramScorer {
+
+    private static final int N_GRAM_MASK = 0xFFFFFF;
+
+    private static final int EMPTY = -1;
+
+    private final Channel[] channels;
+
+    /**
+     * @param channels the channels to score; at most 64 tables each
+     */
+    NGramScorer(List<Channel> channels) {
+        this.channels = channels.toArray(new Channel[0]);
+    }
+
+    /**
+     * Scores the input of the detector.
+     *
+     * @return the confidence for each table of each channel,
+     * in the order in which they were given
+     */
+    int[][] score(CharsetDetector det) {
+        int n = channels.length;
+        int[] ngram = new int[n];
+        int[] ngramCount = new int[n];
+        boolean[] ignoreSpace = new boolean[n];
+        boolean[] done = new boolean[n];
+        int[][] hits = new int[n][];
+        for (int c = 0; c < n; c++) {
+            hits[c] = new int[channels[c].tables.length];
+        }
+
+        byte[] input = det.fInputBytes;
+        int length = det.fInputLen;
+        for (int i = 0; i < length; i++) {
+            int b = input[i] & 0xFF;
+            for (int c = 0; c < n; c++) {
+                Channel channel = channels[c];
+                byte alef = 0;
+                if (channel.ibm420) {
+                    //this channel ends at the first zero byte
+                    if (done[c]) {
+                        continue;
+                    }
+                    if (b == 0) {
+                        done[c] = true;
+                        continue;
+                    }
+                    alef = CharsetRecog_sbcs.NGramParser_IBM420.isLamAlef((byte) b);
+                    int unshaped = (alef != 0) ? 0xB1 :
+                            CharsetRecog_sbcs.NGramParser_IBM420.unshapeMap[b] & 0xFF;
+                    addMapped(channel, c, channel.byteMap[unshaped], ngram, ngramCount, ignoreSpace, hits);
+                    if (alef != 0) {
+                        addMapped(channel, c, channel.byteMap[alef & 0xFF], ngram, ngramCount, ignoreSpace, hits);
+                    }
+                } else {
+                    addMapped(channel, c, channel.byteMap[b], ngram, ngramCount, ignoreSpace, hits);
+                }
+            }
+        }
+
+        int[][] confidences = new int[n][];
+        for (int c = 0; c < n; c++) {
+            Channel channel = channels[c];
+            //the buffer could have ended in the middle of a word
+            add(channel, c, channel.spaceChar, ngram, ngramCount, hits);
+            confidences[c] = new int[hits[c].length];
+            for (int t = 0; t < hits[c].length; t++) {
+                confidences[c][t] = confidence(hits[c][t], ngramCount[c]);
+            }
+        }
+        return confidences;
+    }
+
+    private static void addMapped(Channel channel, int c, byte mb, int[] ngram, int[] ngramCount,
+                                  boolean[] ignoreSpace, int[][] hits) {
+        if (mb != 0) {
+            if (!(mb == channel.spaceChar && ignoreSpace[c])) {
+                add(channel, c, mb, ngram, ngramCount, hits);
+            }
+            ignoreSpace[c] = (mb == channel.spaceChar);
+        }
+    }
+
+    private static void add(Channel channel, int c, byte b, int[] ngram, int[] ngramCount, int[][] hits) {
+        int g = ((ngram[c] << 8) + (b & 0xFF)) & N_GRAM_MASK;
+        ngram[c] = g;
+        ngramCount[c]++;
+        long tables = channel.lookup(g);
+        while (tables != 0) {
+            hits[c][Long.numberOfTrailingZeros(tables)]++;
+            tables &= tables - 1;
+        }
+    }
+
+    private static int confidence(int hitCount, int ngramCount) {
+        double rawPercent = (double) hitCount / (double) ngramCount;
+        if (rawPercent > 0.33) {
+            return 98;
+        }
+        return (int) (rawPercent * 300.0);
+    }
+
+    /**
+     * Finds the scores of a table.
+     *
+     * @param scores result of {@link #score(CharsetDetector)}
+     * @return the confidence, or -1 if the table is not one of those scored
+     */
+    int find(int[][] scores, byte[] byteMap, byte spaceChar, boolean ibm420, int[] ngrams) {
+        for (int c = 0; c < channels.length; c++) {
+            Channel channel = channels[c];
+            if (channel.byteMap == byteMap && channel.spaceChar == spaceChar && channel.ibm420 == ibm420) {
+                for (int t = 0; t < channel.tables.length; t++) {
+                    if (channel.tables[t] == ngrams) {
+                        return scores[c][t];
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Ngram tables that are matched against the same byte mapping of the input.
+     */
+    static class Channel {
+
+        private final byte[] byteMap;
+
+        private final byte spaceChar;
+
+        private final boolean ibm420;
+
+        private final int[][] tables;
+
+        //open addressing hash table from ngram to the set of tables that contain it
+        private final int[] keys;
+
+        private final long[] values;
+
+        private final int mask;
+
+        /**
+         * @param byteMap byte map of the recognizers
+         * @param spaceChar space character of the recognizers
+         * @param ibm420 whether the input is unshaped as IBM420 Arabic
+         * @param tables ngram tables of the recognizers, at most 64
+         */
+        Channel(byte[] byteMap, byte spaceChar, boolean ibm420, int[]... tables) {
+            if (tables.length > 64) {
+                throw new IllegalArgumentException("Too many tables: " + tables.length);
+            }
+            this.byteMap = byteMap;
+            this.spaceChar = spaceChar;
+            this.ibm420 = ibm420;
+            this.tables = tables;
+            int entries = 0;
+            for (int[] table : tables) {
+                entries += table.length;
+            }
+            int size = Integer.highestOneBit(Math.max(entries, 1) * 4 - 1) << 1;
+            this.keys = new int[size];
+            this.values = new long[size];
+            this.mask = size - 1;
+            Arrays.fill(keys, EMPTY);
+            for (int t = 0; t < tables.length; t++) {
+                for (int ngram : tables[t]) {
+                    int slot = slot(ngram);
+                    keys[slot] = ngram;
+                    values[slot] |= 1L << t;
+                }
+            }
+        }
+
+        private int slot(int ngram) {
+            int slot = (ngram * 0x9E3779B1) >>> 7 & mask;
+            while (keys[slot] != EMPTY && keys[slot] != ngram) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private long lookup(int ngram) {
+            int slot = (ngram * 0x9E3779B1) >>> 7 & mask;
+            int key;
+            while ((key = keys[slot]) != EMPTY) {
+                if (key == ngram) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+    }
+}
@@ -21,10 +21,11 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 
 import org.apache.tika.config.Field;
-import org.apache.tika.detect.EncodingDetector;
+import org.apache.tika.detect.DetectionProbe;
+import org.apache.tika.detect.ProbeEncodingDetector;
 import org.apache.tika.metadata.Metadata;
 
-public class UniversalEncodingDetector implements EncodingDetector {
+public class UniversalEncodingDetector implements ProbeEncodingDetector {
 
     private static final int BUFSIZE = 1024;
 
@@ -60,6 +61,30 @@ public class UniversalEncodingDetector implements EncodingDetector {
         }
     }
 
+    @Override
+    public int getProbeLength() {
+        return markLimit;
+    }
+
+    @Override
+    public Charset detectFromProbe(DetectionProbe probe, Metadata metadata) {
+        try {
+            UniversalEncodingListener listener =
+                    new UniversalEncodingListener(metadata);
+
+            byte[] b = probe.array();
+            int length = Math.min(probe.length(), markLimit);
+            //hand the data over in the same chunks as when reading the stream
+            for (int n = 0; n < length && !listener.isDone(); n += BUFSIZE) {
+                listener.handleData(b, n, Math.min(BUFSIZE, length - n));
+            }
+
+            return listener.dataEnd();
+        } catch (LinkageError e) {
+            return null; // juniversalchardet is not available
+        }
+    }
+
     /**
      * How far into the stream to read for charset detection.
      * Default is 8192.
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of daemon worker threads shared by all the parses of a parser,
+ * for work that a parse hands off to other threads.  The number of threads
+ * is bounded by the largest number any parse has asked for, however many
+ * parses run at the same time, and threads that have been idle for a
+ * minute exit.
+ * <p>
+ * Tasks run in the order in which they are submitted, so a parse that
+ * waits for its tasks in that order can't be starved by the tasks of
+ * other parses.  Callers must not shut down the executor.
+ */
+public class SharedWorkerPool {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final String threadName;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * @param threadName prefix of the names of the worker threads
+     */
+    public SharedWorkerPool(String threadName) {
+        this.threadName = threadName;
+    }
+
+    /**
+     * @param threads number of tasks the caller would like to run at the same time
+     * @return the shared executor, with at least that many threads
+     */
+    public synchronized ExecutorService get(int threads) {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, threadName + "-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+        } else if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        }
+        return executor;
+    }
+}
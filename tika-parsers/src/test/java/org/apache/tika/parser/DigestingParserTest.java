@@ -29,17 +29,22 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.tika.TikaTest;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
+import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.utils.CommonsDigester;
 import org.junit.Test;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.helpers.DefaultHandler;
 
 
 public class DigestingParserTest extends TikaTest {
@@ -126,6 +131,26 @@ public class DigestingParserTest extends TikaTest {
         assertEquals(expectedMD5, m.get(P+"MD5"));
     }
 
+    @Test
+    public void testInline() throws Exception {
+        Metadata m = new Metadata();
+        try (InputStream is = getResourceAsStream("/test-documents/test_recursive_embedded.docx")) {
+            getXML(is, new DigestingParser(AUTO_DETECT_PARSER,
+                    new CommonsDigester(100, "md5,sha256"), true), m);
+        }
+        assertEquals("59f626e09a8c16ab6dbc2800c685f772", m.get(P + "MD5"));
+        assertEquals("c4b7fab030a8b6a9d6691f6699ac8e6f" +
+                "82bc53764a0f1430d134ae3b70c32654", m.get(P + "SHA256"));
+
+        //the parser doesn't read anything, so everything is digested after the parse
+        m = new Metadata();
+        try (InputStream is = getResourceAsStream("/test-documents/test_recursive_embedded.docx")) {
+            getXML(is, new DigestingParser(new EmptyParser(),
+                    new CommonsDigester(100, "md5"), true), m);
+        }
+        assertEquals("59f626e09a8c16ab6dbc2800c685f772", m.get(P + "MD5"));
+    }
+
     @Test
     public void testNegativeMaxMarkLength() throws Exception {
         Metadata m = new Metadata();
@@ -175,7 +200,7 @@ public class DigestingParserTest extends TikaTest {
     }
 
     private void testMulti(Path tmp, int fileLength, int markLimit,
-                           boolean useTikaInputStream) throws IOException {
+                           boolean useTikaInputStream) throws Exception {
 
         OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmp,
                 StandardOpenOption.CREATE));
@@ -212,6 +237,39 @@ public class DigestingParserTest extends TikaTest {
         checkMulti(truth, tmp, fileLength, markLimit, useTikaInputStream,
                 CommonsDigester.DigestAlgorithm.MD5);
 
+        checkInline(truth, tmp,
+                CommonsDigester.DigestAlgorithm.SHA1,
+                CommonsDigester.DigestAlgorithm.MD5);
+    }
+
+    private void checkInline(Metadata truth, Path tmp, CommonsDigester.DigestAlgorithm... algos)
+            throws Exception {
+        Metadata result = new Metadata();
+        CommonsDigester digester = new CommonsDigester(0, algos);
+        //reads some, rereads some and skips some
+        Parser parser = new AbstractParser() {
+            @Override
+            public Set<MediaType> getSupportedTypes(ParseContext context) {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public void parse(InputStream stream, ContentHandler handler, Metadata metadata,
+                              ParseContext context) throws IOException {
+                stream.mark(100);
+                stream.read(new byte[50]);
+                stream.reset();
+                stream.read();
+                stream.skip(200);
+                stream.read(new byte[10]);
+            }
+        };
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(tmp))) {
+            new DigestingParser(parser, digester, true).parse(is, new DefaultHandler(), result, new ParseContext());
+        }
+        for (CommonsDigester.DigestAlgorithm algo : algos) {
+            assertEquals(algo.name(), truth.get(P + algo.name()), result.get(P + algo.name()));
+        }
     }
 
     private void checkMulti(Metadata truth, Path tmp,
@@ -19,7 +19,12 @@ package org.apache.tika.parser;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.tika.Tika;
 import org.apache.tika.TikaTest;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
@@ -27,6 +32,7 @@ import org.junit.Test;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ParsingReaderTest extends TikaTest {
 
@@ -102,6 +108,67 @@ public class ParsingReaderTest extends TikaTest {
         }
     }
 
+    @Test
+    public void testLongText() throws Exception {
+        //a lot more text than the pipe holds at once
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            data.append("line ").append(i).append('\n');
+        }
+        InputStream stream = new ByteArrayInputStream(data.toString().getBytes(UTF_8));
+        StringBuilder text = new StringBuilder();
+        try (Reader reader = new ParsingReader(stream, "test.txt")) {
+            char[] buffer = new char[777];
+            int n = reader.read(buffer);
+            while (n != -1) {
+                text.append(buffer, 0, n);
+                n = reader.read(buffer);
+            }
+        }
+        //the text parser ends the document with a newline
+        assertEquals(data.toString() + "\n", text.toString());
+    }
+
+    @Test
+    public void testCloseBeforeEnd() throws Exception {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            data.append("line ").append(i).append('\n');
+        }
+        final CountDownLatch closed = new CountDownLatch(1);
+        InputStream stream = new ByteArrayInputStream(data.toString().getBytes(UTF_8)) {
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        Reader reader = new ParsingReader(stream, "test.txt");
+        assertEquals('l', (char) reader.read());
+        reader.close();
+        //the parsing task gives up and closes the stream
+        assertTrue(closed.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Tika tika = new Tika();
+            tika.setExecutor(executor);
+            for (int i = 0; i < 10; i++) {
+                InputStream stream = new ByteArrayInputStream(
+                        ("test content " + i).getBytes(UTF_8));
+                try (Reader reader = tika.parse(stream)) {
+                    char[] buffer = new char[100];
+                    int n = reader.read(buffer);
+                    assertTrue(new String(buffer, 0, n).startsWith("test content " + i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testZeroByte() throws Exception {
         InputStream is = new ByteArrayInputStream(new byte[0]);
@@ -27,6 +27,8 @@ import java.io.InputStream;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.tika.TikaTest;
@@ -35,6 +37,7 @@ import org.apache.tika.io.ClosedInputStream;
 import org.apache.tika.io.ProxyInputStream;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.Property;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.utils.CommonsDigester;
 import org.apache.tika.sax.AbstractRecursiveParserWrapperHandler;
@@ -365,6 +368,56 @@ public class RecursiveParserWrapperTest extends TikaTest {
 
     }
 
+    @Test
+    public void testConcurrentEmbedded() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (String fileName : new String[]{"test_recursive_embedded.docx",
+                    "test_recursive_embedded.doc", "test_recursive_embedded_npe.docx"}) {
+                List<Metadata> expected = getMetadata(fileName, -1, null);
+                List<Metadata> actual = getMetadata(fileName, -1, executor);
+                assertEquals(fileName, expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    for (Property p : new Property[]{
+                            AbstractRecursiveParserWrapperHandler.EMBEDDED_RESOURCE_PATH,
+                            AbstractRecursiveParserWrapperHandler.EMBEDDED_DEPTH,
+                            AbstractRecursiveParserWrapperHandler.TIKA_CONTENT}) {
+                        assertEquals(fileName + " " + i + " " + p.getName(),
+                                expected.get(i).get(p), actual.get(i).get(p));
+                    }
+                }
+            }
+
+            //same documents are dropped once the limit is hit
+            List<Metadata> expected = getMetadata("test_recursive_embedded.docx", 4, null);
+            List<Metadata> actual = getMetadata("test_recursive_embedded.docx", 4, executor);
+            assertEquals(5, actual.size());
+            assertEquals("true", actual.get(0).get(
+                    AbstractRecursiveParserWrapperHandler.EMBEDDED_RESOURCE_LIMIT_REACHED));
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).get(AbstractRecursiveParserWrapperHandler.EMBEDDED_RESOURCE_PATH),
+                        actual.get(i).get(AbstractRecursiveParserWrapperHandler.EMBEDDED_RESOURCE_PATH));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Metadata> getMetadata(String fileName, int maxEmbedded, ExecutorService executor)
+            throws Exception {
+        RecursiveParserWrapper wrapper = new RecursiveParserWrapper(AUTO_DETECT_PARSER);
+        if (executor != null) {
+            wrapper.setEmbeddedExecutor(executor, 2);
+        }
+        RecursiveParserWrapperHandler handler = new RecursiveParserWrapperHandler(
+                new BasicContentHandlerFactory(BasicContentHandlerFactory.HANDLER_TYPE.TEXT, -1),
+                maxEmbedded);
+        try (InputStream stream = getResourceAsStream("/test-documents/" + fileName)) {
+            wrapper.parse(stream, handler, new Metadata(), new ParseContext());
+        }
+        return handler.getMetadataList();
+    }
+
     private List<Metadata> getMetadata(Metadata metadata, ContentHandlerFactory contentHandlerFactory,
                                        boolean catchEmbeddedExceptions,
                                        DigestingParser.Digester digester) throws Exception {
@@ -17,11 +17,14 @@
 package org.apache.tika.parser.csv;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -105,6 +108,31 @@ public class CSVSnifferTest extends TikaTest {
         assertEquals(new Character(','), results.get(0).getDelimiter());
     }
 
+    @Test
+    public void testSinglePass() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("the;quick;\"brown\";fox\n");
+        }
+        final int[] charsRead = new int[1];
+        Reader reader = new BufferedReader(new StringReader(sb.toString())) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                int n = super.read(cbuf, off, len);
+                charsRead[0] += Math.max(n, 0);
+                return n;
+            }
+        };
+        CSVSniffer sniffer = new CSVSniffer(1000, new char[]{',', '\t', ';', '|'}, 0.5);
+        List<CSVResult> results = sniffer.sniff(reader);
+        assertEquals(4, results.size());
+        assertEquals(new Character(';'), results.get(0).getDelimiter());
+        //all delimiters are tested in one pass over the mark window
+        assertTrue(charsRead[0] < 1000);
+        //and the reader is reset
+        assertEquals('t', reader.read());
+    }
+
     @Test
     public void testSort() {
         List<CSVResult> list = new ArrayList<>();
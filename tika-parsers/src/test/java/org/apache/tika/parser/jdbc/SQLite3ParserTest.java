@@ -36,6 +36,8 @@ import org.apache.tika.metadata.Database;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.DefaultParser;
 import org.apache.tika.parser.EmptyParser;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.Parser;
@@ -242,6 +244,30 @@ public class SQLite3ParserTest extends TikaTest {
         assertContains("<tr><td>2</td><td/><td/><td/><td/><td/><td/><td/><td/><td/></tr>", xml);
     }
 
+    @Test
+    public void testTableThreads() throws Exception {
+        ParseContext context = new ParseContext();
+        context.set(Parser.class, AUTO_DETECT_PARSER);
+        String expected = getXML(TEST_FILE_NAME, new SQLite3Parser(), context).xml;
+
+        SQLite3Parser parser = new SQLite3Parser();
+        parser.setTableThreads(3);
+        parser.setRowBatchSize(1);
+        parser.setFetchSize(2);
+        context = new ParseContext();
+        context.set(Parser.class, AUTO_DETECT_PARSER);
+        assertEquals(expected, getXML(TEST_FILE_NAME, parser, context).xml);
+
+        //blobs are still parsed as embedded documents, in the same order
+        List<Metadata> metadataList = getRecursiveMetadata(TEST_FILE_NAME,
+                new AutoDetectParser(new DefaultParser(), parser));
+        assertEquals(5, metadataList.size());
+        assertEquals("/BYTES_COL_0.doc/image1.png",
+                metadataList.get(1).get(AbstractRecursiveParserWrapperHandler.EMBEDDED_RESOURCE_PATH));
+        assertContains("The quick brown fox",
+                metadataList.get(4).get(AbstractRecursiveParserWrapperHandler.TIKA_CONTENT));
+    }
+
     public static class InputStreamResettingHandler implements EmbeddedResourceHandler {
 
         public List<byte[]> bytes = new ArrayList<byte[]>();
@@ -16,8 +16,11 @@
  */
 package org.apache.tika.parser.mbox;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
@@ -116,6 +119,41 @@ public class MboxParserTest extends TikaTest {
         assertEquals("from xxx by xxx with xxx; date", mailMetadata.get("MboxParser-received"));
     }
 
+    @Test
+    public void testSplitting() throws Exception {
+        String mbox = "preamble\r\n" +
+                "From a@b.com Mon Jun 01 10:00:00 2009\r\n" +
+                "Subject: first\r\n" +
+                "X-Folded: one\r\n" +
+                "\ttwo\r\n" +
+                "\r\n" +
+                "body 1\r\n" +
+                "Not-A-Header: body 1\r\n" +
+                ">From quoted\r\n" +
+                "From c@d.com Mon Jun 01 11:00:00 2009\n" +
+                "Subject: second\n" +
+                "\n" +
+                "body 2";
+        ContentHandler handler = new BodyContentHandler();
+        try (InputStream stream = new ByteArrayInputStream(mbox.getBytes(US_ASCII))) {
+            mboxParser.parse(stream, handler, new Metadata(), recursingContext);
+        }
+
+        Map<Integer, Metadata> mails = mboxParser.getTrackingMetadata();
+        assertEquals(2, mails.size());
+        assertEquals("a@b.com Mon Jun 01 10:00:00 2009", mails.get(0).get("MboxParser-from"));
+        assertEquals("one two", mails.get(0).get("MboxParser-x-folded"));
+        assertNull(mails.get(0).get("MboxParser-not-a-header"));
+        assertEquals("c@d.com Mon Jun 01 11:00:00 2009", mails.get(1).get("MboxParser-from"));
+        assertEquals("second", mails.get(1).get(TikaCoreProperties.SUBJECT));
+
+        String content = handler.toString();
+        assertContains("body 1", content);
+        assertContains(">From quoted", content);
+        assertContains("body 2", content);
+        assertNotContained("preamble", content);
+    }
+
     @Test
     public void testQuoted() throws Exception {
         ContentHandler handler = new BodyContentHandler();
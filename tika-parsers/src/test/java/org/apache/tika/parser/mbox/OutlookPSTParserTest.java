@@ -137,6 +137,52 @@ public class OutlookPSTParserTest extends TikaTest {
         assertContains("2014-02-26", m1.get(Office.MAPI_MESSAGE_CLIENT_SUBMIT_TIME));
     }
 
+    @Test
+    public void testMessageThreads() throws Exception {
+        for (String file : new String[]{"testPST.pst", "testPST_variousBodyTypes.pst"}) {
+            String expected = getPSTXML(file, new OutlookPSTParser(), new ParseContext());
+
+            OutlookPSTParser concurrent = new OutlookPSTParser();
+            concurrent.setMessageThreads(3);
+            //spool every attachment to a file
+            concurrent.setMaxAttachmentMemoryBytes(0);
+            assertEquals(expected, getPSTXML(file, concurrent, new ParseContext()));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaxAttachmentMemory() {
+        //attachments can't be streamed from a worker's handle on the PST
+        new OutlookPSTParser().setMaxAttachmentMemoryBytes(-1);
+    }
+
+    @Test
+    public void testFolderListener() throws Exception {
+        final List<String> folders = new ArrayList<>();
+        ParseContext context = new ParseContext();
+        context.set(OutlookPSTParser.FolderListener.class, new OutlookPSTParser.FolderListener() {
+            @Override
+            public void folderParsed(String path, int messages, int attachments, long elapsedMillis) {
+                folders.add(path + ":" + messages);
+            }
+        });
+        getPSTXML("testPST.pst", new OutlookPSTParser(), context);
+        //subfolders are done before their parents, the root folder last
+        assertEquals("", folders.get(folders.size() - 1).split(":")[0]);
+        int messages = 0;
+        for (String folder : folders) {
+            messages += Integer.parseInt(folder.substring(folder.lastIndexOf(':') + 1));
+        }
+        assertEquals(6, messages);
+    }
+
+    private String getPSTXML(String file, Parser pstParser, ParseContext context) throws Exception {
+        context.set(Parser.class, AUTO_DETECT_PARSER);
+        try (InputStream is = getResourceAsStream("/test-documents/" + file)) {
+            return getXML(is, pstParser, new Metadata(), context).xml;
+        }
+    }
+
     @Test
     public void testOverrideDetector() throws Exception {
         List<Metadata> metadataList = getRecursiveMetadata("testPST_variousBodyTypes.pst");
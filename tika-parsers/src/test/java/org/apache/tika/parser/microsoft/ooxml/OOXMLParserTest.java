@@ -1703,6 +1703,17 @@ public class OOXMLParserTest extends TikaTest {
 
     }
 
+    @Test
+    public void testXLSXSharedStringsOnDisk() throws Exception {
+        OfficeParserConfig officeParserConfig = new OfficeParserConfig();
+        officeParserConfig.setMaxSharedStringsMemoryBytes(0);
+        for (String fileName : new String[]{"testEXCEL.xlsx", "testEXCEL_phonetic.xlsx"}) {
+            ParseContext pc = new ParseContext();
+            pc.set(OfficeParserConfig.class, officeParserConfig);
+            assertEquals(fileName, getXML(fileName).xml, getXML(fileName, pc).xml);
+        }
+    }
+
     @Test
     public void testDOCXPhoneticStrings() throws Exception {
 
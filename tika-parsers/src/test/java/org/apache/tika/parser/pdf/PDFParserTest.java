@@ -1299,6 +1299,23 @@ public class PDFParserTest extends TikaTest {
         assertEquals("", txt.trim());
     }
 
+    @Test
+    public void testMultiThreadedOCR() throws Exception {
+        assumeTrue("can run OCR", canRunOCR());
+        for (String fileName : new String[]{"testOCR.pdf", "testPDFVarious.pdf"}) {
+            PDFParserConfig config = new PDFParserConfig();
+            config.setOcrStrategy(PDFParserConfig.OCR_STRATEGY.OCR_AND_TEXT_EXTRACTION);
+            ParseContext context = new ParseContext();
+            context.set(PDFParserConfig.class, config);
+            String expected = getXML(fileName, context).xml;
+
+            //output must be identical and in page order
+            config.setOcrThreads(3);
+            config.setOcrMaxPagesInFlight(2);
+            assertEquals(expected, getXML(fileName, context).xml);
+        }
+    }
+
     @Test
     public void testTesseractInitializationWorks() throws Exception {
         //TIKA-2970 -- make sure that configurations set on the TesseractOCRParser
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.pdf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.sax.XHTMLContentHandler;
+import org.junit.Test;
+
+public class PageOCRPipelineTest {
+
+    @Test(timeout = 30000)
+    public void testPageOrder() throws Exception {
+        final Thread parsingThread = Thread.currentThread();
+        final List<String> written = new ArrayList<>();
+        final List<Thread> ocrThreads = Collections.synchronizedList(new ArrayList<Thread>());
+        PageOCRPipeline.PageOCR pageOCR = new PageOCRPipeline.PageOCR() {
+            @Override
+            public Callable<File> render(final int pageIndex, TemporaryResources tmp) throws IOException {
+                assertSame(parsingThread, Thread.currentThread());
+                final File file = tmp.createTemporaryFile();
+                return new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        ocrThreads.add(Thread.currentThread());
+                        //later pages finish first
+                        Thread.sleep((8 - pageIndex) * 20);
+                        Files.write(file.toPath(), ("page " + pageIndex).getBytes(UTF_8));
+                        return file;
+                    }
+                };
+            }
+
+            @Override
+            public void write(File ocrOutput, XHTMLContentHandler xhtml) throws IOException {
+                assertSame(parsingThread, Thread.currentThread());
+                written.add(new String(Files.readAllBytes(ocrOutput.toPath()), UTF_8));
+            }
+        };
+        try (PageOCRPipeline pipeline = new PageOCRPipeline(pageOCR, 4, 0, 0, 8)) {
+            for (int i = 0; i < 8; i++) {
+                pipeline.writePage(i, null);
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            expected.add("page " + i);
+        }
+        assertEquals(expected, written);
+        for (Thread t : ocrThreads) {
+            assertNotSame(parsingThread, t);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testCloseWaitsForRunningOCR() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean(false);
+        final AtomicBoolean fileExistedUntilDone = new AtomicBoolean(false);
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final File[] files = new File[2];
+        PageOCRPipeline.PageOCR pageOCR = new PageOCRPipeline.PageOCR() {
+            @Override
+            public Callable<File> render(final int pageIndex, TemporaryResources tmp) throws IOException {
+                final File file = tmp.createTemporaryFile();
+                files[pageIndex] = file;
+                return new Callable<File>() {
+                    @Override
+                    public File call() throws Exception {
+                        if (pageIndex == 0) {
+                            return null;
+                        }
+                        started.countDown();
+                        try {
+                            Thread.sleep(20000);
+                        } catch (InterruptedException e) {
+                            interrupted.set(true);
+                        }
+                        //like Tesseract, which still reads its input while being stopped
+                        Thread.sleep(200);
+                        fileExistedUntilDone.set(file.exists());
+                        done.set(true);
+                        return null;
+                    }
+                };
+            }
+
+            @Override
+            public void write(File ocrOutput, XHTMLContentHandler xhtml) {
+            }
+        };
+        PageOCRPipeline pipeline = new PageOCRPipeline(pageOCR, 2, 0, 0, 2);
+        pipeline.writePage(0, null);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        pipeline.close();
+
+        assertTrue(interrupted.get());
+        assertTrue(done.get());
+        assertTrue(fileExistedUntilDone.get());
+        assertFalse(files[1].exists());
+    }
+}
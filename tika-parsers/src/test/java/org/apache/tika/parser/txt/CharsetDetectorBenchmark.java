@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.parser.txt;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the time that {@link CharsetDetector} takes per document, for
+ * {@link CharsetDetector#detect()} and {@link CharsetDetector#detectAll()},
+ * over the files in a directory (by default, the test documents).  Only the
+ * first 12000 bytes of each file are used, like the detector does with a
+ * stream.
+ */
+public class CharsetDetectorBenchmark {
+
+    private static final int MAX_BYTES = 12000;
+
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        File dir = new File(args.length > 0 ? args[0] : "src/test/resources/test-documents");
+        List<byte[]> inputs = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files == null) {
+            throw new IllegalArgumentException("Not a directory: " + dir);
+        }
+        for (File file : files) {
+            if (file.isFile()) {
+                byte[] bytes = Files.readAllBytes(file.toPath());
+                byte[] input = new byte[Math.min(bytes.length, MAX_BYTES)];
+                System.arraycopy(bytes, 0, input, 0, input.length);
+                inputs.add(input);
+            }
+        }
+
+        //warm up
+        run(inputs, false);
+        run(inputs, true);
+
+        for (boolean all : new boolean[]{false, true}) {
+            long start = System.nanoTime();
+            int hash = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                hash += run(inputs, all);
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf(Locale.ROOT, "%s: %dus per document (hash %d)%n",
+                    all ? "detectAll" : "detect",
+                    elapsed / 1000 / ((long) ROUNDS * inputs.size()), hash);
+        }
+    }
+
+    private static int run(List<byte[]> inputs, boolean all) {
+        int hash = 0;
+        for (byte[] input : inputs) {
+            CharsetDetector detector = new CharsetDetector();
+            detector.setText(input);
+            if (all) {
+                hash += detector.detectAll().length;
+            } else {
+                CharsetMatch match = detector.detect();
+                hash += (match == null) ? 0 : match.getConfidence();
+            }
+        }
+        return hash;
+    }
+}
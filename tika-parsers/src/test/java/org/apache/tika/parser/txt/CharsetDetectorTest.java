@@ -21,6 +21,9 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
 
 import org.apache.tika.TikaTest;
 import org.junit.Test;
@@ -118,4 +121,101 @@ public class CharsetDetectorTest extends TikaTest {
         detector.setText(sb.toString().getBytes("UTF-8"));
         assertEquals("UTF-8", detector.detect().getName());
     }
+
+    @Test
+    public void testDetectMatchesDetectAll() throws Exception {
+        //detect() may skip the single byte recognizers, but its answer should not change
+        String[] files = new String[]{
+                "english.cp500.txt", "russian.cp866.txt", "multi-language.txt",
+                "testTXT_win-1252.txt", "resume.html"
+        };
+        for (String file : files) {
+            byte[] bytes = Files.readAllBytes(
+                    getResourceAsFile("/test-documents/" + file).toPath());
+            assertSameBest(file, bytes);
+        }
+        String text = "\u0627\u0644\u062D\u0627\u0633\u0648\u0628 \u05E9\u05DC\u05D5\u05DD " +
+                "\u043F\u0440\u0438\u0432\u0435\u0442 \u03B3\u03B5\u03B9\u03AC ";
+        for (String charset : new String[]{"UTF-8", "UTF-16LE", "windows-1256", "KOI8-R",
+                "ISO-8859-7", "windows-1251", "ISO-8859-8", "Shift_JIS"}) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 50; i++) {
+                sb.append(text);
+            }
+            assertSameBest(charset, sb.toString().getBytes(charset));
+        }
+    }
+
+    private static void assertSameBest(String name, byte[] bytes) {
+        CharsetDetector detector = new CharsetDetector();
+        detector.setText(bytes);
+        CharsetMatch best = detector.detect();
+        CharsetMatch first = detector.detectAll()[0];
+        assertEquals(name, first.getName(), best.getName());
+        assertEquals(name, first.getLanguage(), best.getLanguage());
+        assertEquals(name, first.getConfidence(), best.getConfidence());
+    }
+
+    @Test
+    public void testNGramScorer() throws Exception {
+        //the one pass scorer should agree with the per table parsers
+        byte[] latin = Files.readAllBytes(
+                getResourceAsFile("/test-documents/multi-language.txt").toPath());
+        byte[] random = new byte[5000];
+        new Random(42).nextBytes(random);
+
+        for (byte[] input : Arrays.asList(latin, random)) {
+            CharsetDetector detector = new CharsetDetector();
+            detector.setText(input);
+            byte[] latinMap = CharsetRecog_sbcs.CharsetRecog_8859_1.byteMap;
+            byte[] arabicMap = CharsetRecog_sbcs.CharsetRecog_IBM420_ar.byteMap;
+            int[][] latinTables = tables(input, latinMap, 3);
+            int[][] arabicTables = tables(input, arabicMap, 2);
+            NGramScorer scorer = new NGramScorer(Arrays.asList(
+                    new NGramScorer.Channel(latinMap, (byte) 0x20, false, latinTables),
+                    new NGramScorer.Channel(arabicMap, (byte) 0x40, true, arabicTables)));
+            int[][] scores = scorer.score(detector);
+
+            for (int[] table : latinTables) {
+                int expected = new CharsetRecog_sbcs.NGramParser(table, latinMap)
+                        .parse(detector, (byte) 0x20);
+                assertEquals(expected,
+                        scorer.find(scores, latinMap, (byte) 0x20, false, table));
+            }
+            for (int[] table : arabicTables) {
+                int expected = new CharsetRecog_sbcs.NGramParser_IBM420(table, arabicMap)
+                        .parse(detector, (byte) 0x40);
+                assertEquals(expected,
+                        scorer.find(scores, arabicMap, (byte) 0x40, true, table));
+            }
+            assertEquals(-1, scorer.find(scores, latinMap, (byte) 0x20, true, latinTables[0]));
+        }
+    }
+
+    /**
+     * Builds sorted tables of 64 ngrams, part of which occur in the input.
+     */
+    private static int[][] tables(byte[] input, byte[] byteMap, int count) {
+        Random random = new Random(count);
+        int[][] tables = new int[count][];
+        for (int t = 0; t < count; t++) {
+            TreeSet<Integer> ngrams = new TreeSet<>();
+            while (ngrams.size() < 64) {
+                if (random.nextBoolean()) {
+                    int i = random.nextInt(input.length - 2);
+                    ngrams.add((byteMap[input[i] & 0xFF] & 0xFF) << 16
+                            | (byteMap[input[i + 1] & 0xFF] & 0xFF) << 8
+                            | (byteMap[input[i + 2] & 0xFF] & 0xFF));
+                } else {
+                    ngrams.add(random.nextInt(0x1000000));
+                }
+            }
+            tables[t] = new int[64];
+            int i = 0;
+            for (int ngram : ngrams) {
+                tables[t][i++] = ngram;
+            }
+        }
+        return tables;
+    }
 }
@@ -56,8 +56,21 @@ public class JsonStreamingSerializer implements AutoCloseable {
         jsonWriter.endObject();
     }
 
+    /**
+     * Flushes the metadata objects added so far to the underlying writer.
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        jsonWriter.flush();
+    }
+
     @Override
     public void close() throws IOException {
+        if (!hasStartedArray) {
+            jsonWriter.beginArray();
+            hasStartedArray = true;
+        }
         jsonWriter.endArray();
         jsonWriter.flush();
         jsonWriter.close();
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of parses that run at once, overall and per endpoint.
+ * Requests that can't start right away wait in a bounded queue; if the
+ * queue is full or the wait times out, the request is rejected with
+ * a 503 and a Retry-After header rather than piling up threads.
+ */
+public class AdmissionControl {
+
+    public static final long DEFAULT_MAX_QUEUE_WAIT_MILLIS = 30000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private final Semaphore permits;
+
+    private final Map<String, Semaphore> endpointPermits;
+
+    private final int maxQueued;
+
+    private final long maxQueueWaitMillis;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * @param maxConcurrent maximum number of parses across all endpoints,
+     *                      or &lt;= 0 for no overall limit
+     * @param endpointMaxConcurrent maximum number of parses per endpoint,
+     *                              keyed by the first path segment, e.g. "rmeta"
+     * @param maxQueued maximum number of requests waiting to start a parse
+     * @param maxQueueWaitMillis how long a request may wait to start a parse
+     */
+    public AdmissionControl(int maxConcurrent, Map<String, Integer> endpointMaxConcurrent,
+                            int maxQueued, long maxQueueWaitMillis) {
+        this.permits = (maxConcurrent > 0) ? new Semaphore(maxConcurrent, true) : null;
+        Map<String, Semaphore> endpoints = new HashMap<>();
+        for (Map.Entry<String, Integer> e : endpointMaxConcurrent.entrySet()) {
+            endpoints.put(normalize(e.getKey()), new Semaphore(e.getValue(), true));
+        }
+        this.endpointPermits = Collections.unmodifiableMap(endpoints);
+        this.maxQueued = maxQueued;
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+    }
+
+    /**
+     * Parses endpoint limits of the form "rmeta:2,unpack:1".
+     *
+     * @param s limits
+     * @return map of endpoint to limit
+     */
+    public static Map<String, Integer> parseEndpointLimits(String s) {
+        Map<String, Integer> limits = new HashMap<>();
+        for (String pair : s.split(",")) {
+            pair = pair.trim();
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int colon = pair.lastIndexOf(':');
+            if (colon < 1) {
+                throw new IllegalArgumentException(
+                        "Expected endpoint:limit, e.g. rmeta:2, but got: " + pair);
+            }
+            limits.put(pair.substring(0, colon).trim(),
+                    Integer.parseInt(pair.substring(colon + 1).trim()));
+        }
+        return limits;
+    }
+
+    /**
+     * Waits for a slot to parse a request to the given path.
+     *
+     * @param path request path, e.g. "rmeta/text"
+     * @return permit that must be closed when the parse is done
+     * @throws WebApplicationException with a 503 status if the server
+     *                                 is saturated
+     */
+    public Permit acquire(String path) {
+        Semaphore endpoint = endpointPermits.get(normalize(path));
+        long deadline = System.currentTimeMillis() + maxQueueWaitMillis;
+        if (!acquire(endpoint, deadline)) {
+            throw unavailable(path);
+        }
+        if (!acquire(permits, deadline)) {
+            if (endpoint != null) {
+                endpoint.release();
+            }
+            throw unavailable(path);
+        }
+        return new Permit(endpoint, permits);
+    }
+
+    /**
+     * @return number of requests currently waiting to start a parse
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private boolean acquire(Semaphore semaphore, long deadline) {
+        if (semaphore == null || semaphore.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return semaphore.tryAcquire(
+                    Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private WebApplicationException unavailable(String path) {
+        LOG.warn("{}: too many concurrent requests, rejecting", path);
+        long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxQueueWaitMillis));
+        return new WebApplicationException(
+                Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header("Retry-After", Long.toString(retryAfterSeconds))
+                        .build());
+    }
+
+    /**
+     * @param path request path
+     * @return the first path segment, lower cased
+     */
+    private static String normalize(String path) {
+        if (path == null) {
+            return "";
+        }
+        int start = 0;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        int end = path.indexOf('/', start);
+        if (end == -1) {
+            end = path.length();
+        }
+        return path.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Slot to run a parse.  Closing it more than once has no effect.
+     */
+    public static class Permit implements AutoCloseable {
+
+        private Semaphore endpoint;
+
+        private Semaphore global;
+
+        private Permit(Semaphore endpoint, Semaphore global) {
+            this.endpoint = endpoint;
+            this.global = global;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (global != null) {
+                global.release();
+                global = null;
+            }
+            if (endpoint != null) {
+                endpoint.release();
+                endpoint = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.tika.config.TikaConfig;
+import org.apache.tika.detect.Detector;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.ParserDecorator;
+
+/**
+ * Keeps a bounded set of warm {@link AutoDetectParser}s so that requests
+ * don't each build a new parser and its media type dispatch table.
+ * <p>
+ * This is a cache rather than a hard limit: if every pooled parser is in
+ * use, {@link #borrow()} creates a new one, and parsers that are never
+ * released (e.g. because a request failed before it was parsed) are
+ * simply garbage collected.  Use {@link AdmissionControl} to limit the
+ * number of concurrent parses.
+ */
+public class ParserPool {
+
+    private final TikaConfig tikaConfig;
+
+    private final BlockingQueue<PooledAutoDetectParser> idle;
+
+    /**
+     * @param tikaConfig config to build the parsers from
+     * @param size number of parsers to create up front and keep
+     */
+    public ParserPool(TikaConfig tikaConfig, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be > 0: " + size);
+        }
+        this.tikaConfig = tikaConfig;
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            PooledAutoDetectParser parser = newParser();
+            //warm the dispatch table
+            parser.getSupportedTypes(new ParseContext());
+            idle.offer(parser);
+        }
+    }
+
+    /**
+     * @return an idle parser, or a new one if none is available
+     */
+    public AutoDetectParser borrow() {
+        PooledAutoDetectParser parser = idle.poll();
+        if (parser == null) {
+            parser = newParser();
+        }
+        parser.borrowed.set(true);
+        return parser;
+    }
+
+    /**
+     * Returns a parser obtained from {@link #borrow()} to the pool.  The
+     * parser may be wrapped in {@link ParserDecorator}s.  Parsers that
+     * did not come from this pool, or that were already released,
+     * are ignored.
+     *
+     * @param parser parser to release
+     */
+    public void release(Parser parser) {
+        while (parser instanceof ParserDecorator) {
+            parser = ((ParserDecorator) parser).getWrappedParser();
+        }
+        if (!(parser instanceof PooledAutoDetectParser)) {
+            return;
+        }
+        PooledAutoDetectParser pooled = (PooledAutoDetectParser) parser;
+        if (pooled.pool != this || !pooled.borrowed.compareAndSet(true, false)) {
+            return;
+        }
+        //undo any per-request changes, e.g. content type overrides
+        pooled.setDetector(pooled.defaultDetector);
+        idle.offer(pooled);
+    }
+
+    /**
+     * @return number of parsers waiting to be borrowed
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    private PooledAutoDetectParser newParser() {
+        return new PooledAutoDetectParser(this, tikaConfig);
+    }
+
+    private static class PooledAutoDetectParser extends AutoDetectParser {
+
+        private final ParserPool pool;
+
+        private final Detector defaultDetector;
+
+        private final AtomicBoolean borrowed = new AtomicBoolean(false);
+
+        PooledAutoDetectParser(ParserPool pool, TikaConfig config) {
+            super(config);
+            this.pool = pool;
+            this.defaultDetector = getDetector();
+        }
+    }
+}
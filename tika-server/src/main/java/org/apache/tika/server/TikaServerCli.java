@@ -22,8 +22,10 @@ import java.io.InputStream;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.cli.CommandLine;
@@ -97,11 +99,23 @@ public class TikaServerCli {
         options.addOption("c", "config", true, "Tika Configuration file to override default config with.");
         options.addOption("d", "digest", true, "include digest in metadata, e.g. md5,sha1:32,sha256");
         options.addOption("dml", "digestMarkLimit", true, "max number of bytes to mark on stream for digest");
+        options.addOption("digestInline", false, "compute the digest while the document is parsed, rather than " +
+                "reading it up front; the digest is added to the metadata once parsing has finished");
         options.addOption("l", "log", true, "request URI log level ('debug' or 'info')");
         options.addOption("s", "includeStack", false, "whether or not to return a stack trace\nif there is an exception during 'parse'");
         options.addOption("?", "help", false, "this help message");
         options.addOption("enableUnsecureFeatures", false, "this is required to enable fileUrl.");
         options.addOption("enableFileUrl", false, "allows user to pass in fileUrl instead of InputStream.");
+        options.addOption("parserPoolSize", true, "number of warm parsers to reuse across requests (default = 0, " +
+                "a new parser per request)");
+        options.addOption("maxConcurrentParses", true, "maximum number of parses to run at once; " +
+                "other requests wait in a queue (default = no limit)");
+        options.addOption("endpointMaxConcurrentParses", true, "maximum number of parses to run at once " +
+                "per endpoint, e.g. rmeta:2,unpack:1");
+        options.addOption("maxQueuedParses", true, "maximum number of requests waiting to start a parse " +
+                "before returning 503 (default = maxConcurrentParses)");
+        options.addOption("maxQueueWaitMillis", true, "how long a request may wait to start a parse " +
+                "before returning 503 (default = " + AdmissionControl.DEFAULT_MAX_QUEUE_WAIT_MILLIS + ")");
         options.addOption("spawnChild", false, "whether or not to spawn a child process for robustness");
         options.addOption("taskTimeoutMillis", true, "Only in spawn child mode: how long to wait for a task (e.g. parse) to finish");
         options.addOption("taskPulseMillis", true, "Only in spawn child mode: how often to check if a task has timed out.");
@@ -287,7 +301,12 @@ public class TikaServerCli {
             } else {
                 serverStatus = new ServerStatus(true);
             }
-            TikaResource.init(tika, digester, inputStreamFactory, serverStatus);
+            int parserPoolSize = 0;
+            if (line.hasOption("parserPoolSize")) {
+                parserPoolSize = Integer.parseInt(line.getOptionValue("parserPoolSize"));
+            }
+            TikaResource.init(tika, digester, line.hasOption("digestInline"), inputStreamFactory, serverStatus,
+                    parserPoolSize, configureAdmissionControl(line));
             JAXRSServerFactoryBean sf = new JAXRSServerFactoryBean();
 
             List<ResourceProvider> rCoreProviders = new ArrayList<>();
@@ -340,6 +359,35 @@ public class TikaServerCli {
         System.exit(-1);
     }
 
+    private static AdmissionControl configureAdmissionControl(CommandLine line) {
+        if (! line.hasOption("maxConcurrentParses") &&
+                ! line.hasOption("endpointMaxConcurrentParses")) {
+            return null;
+        }
+        int maxConcurrent = -1;
+        if (line.hasOption("maxConcurrentParses")) {
+            maxConcurrent = Integer.parseInt(line.getOptionValue("maxConcurrentParses"));
+        }
+        Map<String, Integer> endpointMaxConcurrent = new HashMap<>();
+        if (line.hasOption("endpointMaxConcurrentParses")) {
+            endpointMaxConcurrent = AdmissionControl.parseEndpointLimits(
+                    line.getOptionValue("endpointMaxConcurrentParses"));
+        }
+        int maxQueued = Math.max(maxConcurrent, 1);
+        if (line.hasOption("maxQueuedParses")) {
+            maxQueued = Integer.parseInt(line.getOptionValue("maxQueuedParses"));
+        }
+        long maxQueueWaitMillis = AdmissionControl.DEFAULT_MAX_QUEUE_WAIT_MILLIS;
+        if (line.hasOption("maxQueueWaitMillis")) {
+            maxQueueWaitMillis = Long.parseLong(line.getOptionValue("maxQueueWaitMillis"));
+        }
+        LOG.info("Limiting concurrent parses to {} overall, {} per endpoint; " +
+                        "queueing up to {} requests for up to {} ms",
+                (maxConcurrent > 0) ? maxConcurrent : "unlimited", endpointMaxConcurrent,
+                maxQueued, maxQueueWaitMillis);
+        return new AdmissionControl(maxConcurrent, endpointMaxConcurrent, maxQueued, maxQueueWaitMillis);
+    }
+
     private static ServerTimeouts configureServerTimeouts(CommandLine line) {
         ServerTimeouts serverTimeouts = new ServerTimeouts();
         /*TODO -- add these in
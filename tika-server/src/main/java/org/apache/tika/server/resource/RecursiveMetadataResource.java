@@ -23,24 +23,37 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 
 import org.apache.cxf.jaxrs.ext.multipart.Attachment;
 import org.apache.tika.language.detect.LanguageHandler;
 import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.serialization.JsonStreamingSerializer;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.Parser;
 import org.apache.tika.parser.RecursiveParserWrapper;
 import org.apache.tika.sax.BasicContentHandlerFactory;
+import org.apache.tika.sax.ContentHandlerFactory;
 import org.apache.tika.sax.RecursiveParserWrapperHandler;
+import org.apache.tika.server.AdmissionControl;
 import org.apache.tika.server.MetadataList;
+import org.apache.tika.server.TikaServerParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Path("/rmeta")
 public class RecursiveMetadataResource {
@@ -125,6 +138,82 @@ public class RecursiveMetadataResource {
 						httpHeaders.getRequestHeaders(), info, handlerTypeName)).build();
     }
 
+    /**
+     * Writes the metadata for each document to the response as soon as
+     * that document has been parsed, rather than building the full list
+     * in memory first.  The output can be deserialized as a list of
+     * {@link Metadata} objects, as with {@link #getMetadata}, but the main
+     * document is written <em>last</em>, after all of its embedded documents;
+     * {@link org.apache.tika.metadata.serialization.JsonMetadataList#fromJson}
+     * moves it back to the front.
+     * <p>
+     * Specify the handler for the content (xml, html, text, ignore)
+     * in the path:<br/>
+     * /rmeta/stream (default: xml)<br/>
+     * /rmeta/stream/xml    (store the content as xml)<br/>
+     * /rmeta/stream/text   (store the content as text)<br/>
+     * /rmeta/stream/ignore (don't record any content)<br/>
+     *
+     * @param info uri info
+     * @param handlerTypeName which type of handler to use
+     * @return StreamingOutput that can be deserialized as a list of {@link Metadata} objects
+     */
+    @PUT
+    @Produces("application/json")
+    @Path("stream{" + HANDLER_TYPE_PARAM + " : (/\\w+)?}")
+    public StreamingOutput getMetadataStreaming(InputStream is,
+                                                @Context HttpHeaders httpHeaders,
+                                                @Context final UriInfo info,
+                                                @PathParam(HANDLER_TYPE_PARAM) String handlerTypeName)
+            throws IOException {
+        final Metadata metadata = new Metadata();
+        final InputStream tis = TikaResource.getInputStream(is, metadata, httpHeaders);
+        final ParseContext context = new ParseContext();
+        final Parser parser = TikaResource.createParser();
+        final RecursiveParserWrapper wrapper = new RecursiveParserWrapper(parser);
+
+        TikaResource.fillMetadata(parser, metadata, context, httpHeaders.getRequestHeaders());
+        TikaResource.fillParseContext(context, httpHeaders.getRequestHeaders(), null);
+        TikaResource.logRequest(LOG, info, metadata);
+
+        if (handlerTypeName != null && handlerTypeName.startsWith("/")) {
+            handlerTypeName = handlerTypeName.substring(1);
+        }
+        final BasicContentHandlerFactory.HANDLER_TYPE type =
+                BasicContentHandlerFactory.parseHandlerType(handlerTypeName, DEFAULT_HANDLER_TYPE);
+
+        //turn the request down now, while the status can still be a 503
+        final AdmissionControl.Permit permit = TikaResource.admit(wrapper, info.getPath(), tis);
+
+        return new StreamingOutput() {
+            @Override
+            public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+                //until the parse starts, the permit, the parser and the stream are ours to give back
+                boolean parseStarted = false;
+                JsonStreamingSerializer serializer = null;
+                try {
+                    serializer = new JsonStreamingSerializer(new OutputStreamWriter(outputStream, UTF_8));
+                    StreamingHandler handler = new StreamingHandler(
+                            new BasicContentHandlerFactory(type, -1), serializer);
+                    parseStarted = true;
+                    TikaResource.parse(wrapper, LOG, info.getPath(), tis, handler, metadata, context, permit);
+                } catch (TikaServerParseException e) {
+                    //the exception has already been written with the main document's metadata
+                } finally {
+                    try {
+                        if (!parseStarted) {
+                            TikaResource.abandon(wrapper, tis, permit);
+                        }
+                    } finally {
+                        if (serializer != null) {
+                            serializer.close();
+                        }
+                    }
+                }
+            }
+        };
+    }
+
 	private MetadataList parseMetadata(InputStream is, Metadata metadata,
 			MultivaluedMap<String, String> httpHeaders, UriInfo info, String handlerTypeName)
 			throws Exception {
@@ -147,6 +236,11 @@ public class RecursiveMetadataResource {
             TikaResource.parse(wrapper, LOG, info.getPath(), is, handler, metadata, context);
         } catch (SecurityException e) {
 		    throw e;
+        } catch (TikaServerParseException e) {
+		    //swallow it and report it via the metadata list
+        } catch (WebApplicationException e) {
+		    //e.g. the server is shutting down or too busy
+		    throw e;
         } catch (Exception e) {
 		    //swallow it and report it via the metadata list
         }
@@ -161,4 +255,39 @@ public class RecursiveMetadataResource {
 		return new MetadataList(handler.getMetadataList());
 	}
 
+    /**
+     * Writes each document's metadata as soon as the document has been parsed,
+     * and drops it from the list.  Each object is flushed to the client, so a slow
+     * client holds back the parse rather than letting the output pile up in memory.
+     */
+    private static class StreamingHandler extends RecursiveParserWrapperHandler {
+
+        private final JsonStreamingSerializer serializer;
+
+        StreamingHandler(ContentHandlerFactory contentHandlerFactory, JsonStreamingSerializer serializer) {
+            super(contentHandlerFactory);
+            this.serializer = serializer;
+        }
+
+        @Override
+        public void endEmbeddedDocument(ContentHandler contentHandler, Metadata metadata) throws SAXException {
+            super.endEmbeddedDocument(contentHandler, metadata);
+            write(metadataList.remove(metadataList.size() - 1));
+        }
+
+        @Override
+        public void endDocument(ContentHandler contentHandler, Metadata metadata) throws SAXException {
+            super.endDocument(contentHandler, metadata);
+            write(metadataList.remove(0));
+        }
+
+        private void write(Metadata metadata) throws SAXException {
+            try {
+                serializer.add(metadata);
+                serializer.flush();
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+    }
 }
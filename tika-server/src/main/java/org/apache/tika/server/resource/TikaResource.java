@@ -42,6 +42,8 @@ import org.apache.tika.sax.BodyContentHandler;
 import org.apache.tika.sax.ExpandedTitleContentHandler;
 import org.apache.tika.sax.RichTextContentHandler;
 import org.apache.tika.server.InputStreamFactory;
+import org.apache.tika.server.AdmissionControl;
+import org.apache.tika.server.ParserPool;
 import org.apache.tika.server.ServerStatus;
 import org.apache.tika.server.TikaServerParseException;
 import org.slf4j.Logger;
@@ -97,14 +99,46 @@ public class TikaResource {
 
     private static TikaConfig tikaConfig;
     private static DigestingParser.Digester digester = null;
+    private static boolean digestInline = false;
     private static InputStreamFactory inputStreamFactory = null;
     private static ServerStatus SERVER_STATUS = null;
+    private static ParserPool parserPool = null;
+    private static AdmissionControl admissionControl = null;
+
     public static void init(TikaConfig config, DigestingParser.Digester digestr,
                             InputStreamFactory iSF, ServerStatus serverStatus) {
+        init(config, digestr, iSF, serverStatus, 0, null);
+    }
+
+    /**
+     * @param parserPoolSize number of warm parsers to reuse across requests;
+     *                       if &lt;= 0, a new parser is created for each request
+     * @param admission limits on concurrent parses, or <code>null</code> for none
+     */
+    public static void init(TikaConfig config, DigestingParser.Digester digestr,
+                            InputStreamFactory iSF, ServerStatus serverStatus,
+                            int parserPoolSize, AdmissionControl admission) {
+        init(config, digestr, false, iSF, serverStatus, parserPoolSize, admission);
+    }
+
+    /**
+     * @param inline whether to digest the request body while it is parsed,
+     *               rather than spooling it up front (see
+     *               {@link DigestingParser#DigestingParser(Parser, DigestingParser.Digester, boolean)})
+     * @param parserPoolSize number of warm parsers to reuse across requests;
+     *                       if &lt;= 0, a new parser is created for each request
+     * @param admission limits on concurrent parses, or <code>null</code> for none
+     */
+    public static void init(TikaConfig config, DigestingParser.Digester digestr, boolean inline,
+                            InputStreamFactory iSF, ServerStatus serverStatus,
+                            int parserPoolSize, AdmissionControl admission) {
         tikaConfig = config;
         digester = digestr;
+        digestInline = inline;
         inputStreamFactory = iSF;
         SERVER_STATUS = serverStatus;
+        parserPool = (parserPoolSize > 0) ? new ParserPool(config, parserPoolSize) : null;
+        admissionControl = admission;
     }
 
     static {
@@ -113,14 +147,28 @@ public class TikaResource {
 
     @SuppressWarnings("serial")
     public static Parser createParser() {
-        final Parser parser = new AutoDetectParser(tikaConfig);
+        final Parser parser = (parserPool != null) ?
+                parserPool.borrow() : new AutoDetectParser(tikaConfig);
 
         if (digester != null) {
-            return new DigestingParser(parser, digester);
+            return new DigestingParser(parser, digester, digestInline);
         }
         return parser;
     }
 
+    /**
+     * Returns a parser from {@link #createParser()} to the parser pool, if
+     * there is one.  {@link #parse(Parser, Logger, String, InputStream, ContentHandler, Metadata, ParseContext)}
+     * does this automatically.
+     *
+     * @param parser parser, possibly wrapped by a decorator
+     */
+    public static void releaseParser(Parser parser) {
+        if (parserPool != null) {
+            parserPool.release(parser);
+        }
+    }
+
     public static TikaConfig getConfig() {
         return tikaConfig;
     }
@@ -369,15 +417,12 @@ public class TikaResource {
 
     private static AutoDetectParser getAutoDetectParser(Parser p) {
         //bit stinky
-        if (p instanceof AutoDetectParser) {
-            return (AutoDetectParser)p;
-        } else if (p instanceof ParserDecorator) {
-            Parser wrapped = ((ParserDecorator)p).getWrappedParser();
-            if (wrapped instanceof AutoDetectParser) {
-                return (AutoDetectParser)wrapped;
-            }
-            throw new RuntimeException("Couldn't find AutoDetectParser within: "+wrapped.getClass());
-
+        Parser wrapped = p;
+        while (wrapped instanceof ParserDecorator) {
+            wrapped = ((ParserDecorator)wrapped).getWrappedParser();
+        }
+        if (wrapped instanceof AutoDetectParser) {
+            return (AutoDetectParser)wrapped;
         }
         throw new RuntimeException("Couldn't find AutoDetectParser within: "+p.getClass());
 
@@ -387,6 +432,10 @@ public class TikaResource {
      * Use this to call a parser and unify exception handling.
      * NOTE: This call to parse closes the InputStream. DO NOT surround
      * the call in an auto-close block.
+     * <p>
+     * If admission control is configured, this waits for a parse slot
+     * and throws a 503 {@link WebApplicationException} if none frees up.
+     * The parser is returned to the parser pool when the parse is done.
      *
      * @param parser parser to use
      * @param logger logger to use
@@ -399,8 +448,69 @@ public class TikaResource {
      */
     public static void parse(Parser parser, Logger logger, String path, InputStream inputStream,
                              ContentHandler handler, Metadata metadata, ParseContext parseContext) throws IOException {
+        AdmissionControl.Permit permit = admit(parser, path, inputStream);
+        parse(parser, logger, path, inputStream, handler, metadata, parseContext, permit);
+    }
 
-        checkIsOperating();
+    /**
+     * Checks that the server is operating and, if admission control is
+     * configured, waits for a parse slot.  Streaming endpoints call this
+     * before they return their output, so that a 503 reaches the client
+     * before the response is committed.
+     * <p>
+     * If the request is turned down, the parser is returned to the pool
+     * and the InputStream is closed.
+     *
+     * @param parser parser that will be used
+     * @param path file path
+     * @param inputStream inputStream that will be parsed
+     * @return permit to pass on to
+     *         {@link #parse(Parser, Logger, String, InputStream, ContentHandler, Metadata, ParseContext, AdmissionControl.Permit)},
+     *         or <code>null</code> if there is no admission control
+     * @throws IOException if the InputStream can't be closed
+     */
+    public static AdmissionControl.Permit admit(Parser parser, String path,
+                                                InputStream inputStream) throws IOException {
+        try {
+            checkIsOperating();
+            return (admissionControl == null) ? null : admissionControl.acquire(path);
+        } catch (WebApplicationException e) {
+            releaseParser(parser);
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives back the permit, the parser and the request stream of a request
+     * that was admitted by {@link #admit(Parser, String, InputStream)}, but
+     * whose parse never started.
+     *
+     * @param permit permit from {@link #admit(Parser, String, InputStream)}, may be <code>null</code>
+     */
+    public static void abandon(Parser parser, InputStream inputStream,
+                               AdmissionControl.Permit permit) throws IOException {
+        try {
+            if (permit != null) {
+                permit.close();
+            }
+            releaseParser(parser);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Same as {@link #parse(Parser, Logger, String, InputStream, ContentHandler, Metadata, ParseContext)},
+     * for a request that has already been admitted by
+     * {@link #admit(Parser, String, InputStream)}.  The permit is closed
+     * when the parse is done.
+     *
+     * @param permit permit from {@link #admit(Parser, String, InputStream)}, may be <code>null</code>
+     */
+    public static void parse(Parser parser, Logger logger, String path, InputStream inputStream,
+                             ContentHandler handler, Metadata metadata, ParseContext parseContext,
+                             AdmissionControl.Permit permit) throws IOException {
         String fileName = metadata.get(TikaCoreProperties.RESOURCE_NAME_KEY);
         long taskId = SERVER_STATUS.start(ServerStatus.TASK.PARSE,
                 fileName);
@@ -420,6 +530,10 @@ public class TikaResource {
             throw e;
         } finally {
             SERVER_STATUS.complete(taskId);
+            if (permit != null) {
+                permit.close();
+            }
+            releaseParser(parser);
             inputStream.close();
         }
     }
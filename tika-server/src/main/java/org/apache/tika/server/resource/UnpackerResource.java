@@ -25,21 +25,33 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.zip.Deflater;
 
 import au.com.bytecode.opencsv.CSVWriter;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.poi.poifs.filesystem.DirectoryEntry;
@@ -50,7 +62,9 @@ import org.apache.poi.poifs.filesystem.Ole10Native;
 import org.apache.poi.poifs.filesystem.Ole10NativeException;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.util.IOUtils;
+import org.apache.tika.exception.TikaException;
 import org.apache.tika.extractor.EmbeddedDocumentExtractor;
+import org.apache.tika.io.TemporaryResources;
 import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
@@ -61,6 +75,7 @@ import org.apache.tika.parser.Parser;
 import org.apache.tika.parser.microsoft.OfficeParser;
 import org.apache.tika.sax.BodyContentHandler;
 import org.apache.tika.sax.RichTextContentHandler;
+import org.apache.tika.server.AdmissionControl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.ContentHandler;
@@ -72,6 +87,9 @@ public class UnpackerResource {
     public static final String TEXT_FILENAME = "__TEXT__";
     private static final String META_FILENAME = "__METADATA__";
 
+    private static final MediaType ZIP_TYPE = MediaType.valueOf("application/zip");
+    private static final MediaType TAR_TYPE = MediaType.valueOf("application/x-tar");
+
     private static final Logger LOG = LoggerFactory.getLogger(UnpackerResource.class);
 
     public static void metadataToCsv(Metadata metadata, OutputStream outputStream) throws IOException {
@@ -110,6 +128,45 @@ public class UnpackerResource {
         return process(TikaResource.getInputStream(is, new Metadata(), httpHeaders), httpHeaders, info, true);
     }
 
+    /**
+     * Same as {@link #unpack}, but writes each file to the archive as soon as
+     * it has been extracted rather than collecting them all in memory first.
+     * <p>
+     * Zip entries are compressed on the fly and written straight to the response.
+     * Tar entries need their size up front, so files of unknown length are
+     * spooled to a temporary file first.  If the parse fails after files have been
+     * written, the response is truncated rather than reporting an error status.
+     * <p>
+     * The status is sent before the parse starts, so a document without
+     * embedded files gets an empty archive rather than the 204 that
+     * {@link #unpack} returns.
+     */
+    @Path("/stream{id:(/.*)?}")
+    @PUT
+    @Produces({"application/zip", "application/x-tar"})
+    public Response unpackStreaming(
+            InputStream is,
+            @Context HttpHeaders httpHeaders,
+            @Context UriInfo info
+    ) throws Exception {
+        return processStreaming(TikaResource.getInputStream(is, new Metadata(), httpHeaders), httpHeaders, info, false);
+    }
+
+    /**
+     * Same as {@link #unpackAll}, but streams the archive;
+     * see {@link #unpackStreaming}.
+     */
+    @Path("/stream/all{id:(/.*)?}")
+    @PUT
+    @Produces({"application/zip", "application/x-tar"})
+    public Response unpackAllStreaming(
+            InputStream is,
+            @Context HttpHeaders httpHeaders,
+            @Context UriInfo info
+    ) throws Exception {
+        return processStreaming(TikaResource.getInputStream(is, new Metadata(), httpHeaders), httpHeaders, info, true);
+    }
+
     private Map<String, byte[]> process(
             InputStream is,
             @Context HttpHeaders httpHeaders,
@@ -137,11 +194,21 @@ public class UnpackerResource {
             ch = new DefaultHandler();
         }
 
-        Map<String, byte[]> files = new HashMap<>();
+        final Map<String, byte[]> files = new HashMap<>();
         MutableInt count = new MutableInt();
 
-        pc.set(EmbeddedDocumentExtractor.class, new MyEmbeddedDocumentExtractor(count, files));
-        TikaResource.parse(parser, LOG, info.getPath(), is, ch, metadata, pc);
+        TemporaryResources tmp = new TemporaryResources();
+        try {
+            pc.set(EmbeddedDocumentExtractor.class, new MyEmbeddedDocumentExtractor(count, new EntryWriter() {
+                @Override
+                public void write(String name, InputStream data) throws IOException {
+                    files.put(name, IOUtils.toByteArray(data));
+                }
+            }, tmp));
+            TikaResource.parse(parser, LOG, info.getPath(), is, ch, metadata, pc);
+        } finally {
+            tmp.dispose();
+        }
 
         if (count.intValue() == 0 && !saveAll) {
             throw new WebApplicationException(Response.Status.NO_CONTENT);
@@ -159,13 +226,187 @@ public class UnpackerResource {
         return files;
     }
 
+    private Response processStreaming(
+            final InputStream is,
+            HttpHeaders httpHeaders,
+            final UriInfo info,
+            final boolean saveAll
+    ) throws Exception {
+        final Metadata metadata = new Metadata();
+        final ParseContext pc = new ParseContext();
+
+        Parser p = TikaResource.createParser();
+        if (p instanceof DigestingParser) {
+            //no need to digest for unwrapping
+            p = ((DigestingParser)p).getWrappedParser();
+        }
+        final Parser parser = p;
+        TikaResource.fillParseContext(pc, httpHeaders.getRequestHeaders(), null);
+        TikaResource.fillMetadata(parser, metadata, pc, httpHeaders.getRequestHeaders());
+        TikaResource.logRequest(LOG, info, metadata);
+
+        final MediaType mediaType = getArchiveType(httpHeaders);
+        //turn the request down now, while the status can still be a 503
+        final AdmissionControl.Permit permit = TikaResource.admit(parser, info.getPath(), is);
+        StreamingOutput output = new StreamingOutput() {
+            @Override
+            public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+                TemporaryResources tmp = new TemporaryResources();
+                //until the parse starts, the permit, the parser and the stream are ours to give back
+                boolean parseStarted = false;
+                try {
+                    ArchiveEntryWriter archive = TAR_TYPE.isCompatible(mediaType) ?
+                            new TarEntryWriter(outputStream, tmp) : new ZipEntryWriter(outputStream);
+                    ContentHandler ch;
+                    Writer text = null;
+                    File textFile = null;
+                    if (saveAll) {
+                        //the text is written after the embedded files, so keep it on disk
+                        textFile = tmp.createTemporaryFile();
+                        text = new OutputStreamWriter(Files.newOutputStream(textFile.toPath()), UTF_8);
+                        ch = new BodyContentHandler(new RichTextContentHandler(text));
+                    } else {
+                        ch = new DefaultHandler();
+                    }
+
+                    MutableInt count = new MutableInt();
+                    pc.set(EmbeddedDocumentExtractor.class, new MyEmbeddedDocumentExtractor(count, archive, tmp));
+                    parseStarted = true;
+                    TikaResource.parse(parser, LOG, info.getPath(), is, ch, metadata, pc, permit);
+
+                    if (saveAll) {
+                        text.close();
+                        try (InputStream textStream = Files.newInputStream(textFile.toPath())) {
+                            archive.write(TEXT_FILENAME, textStream);
+                        }
+                        ByteArrayOutputStream metaStream = new ByteArrayOutputStream();
+                        metadataToCsv(metadata, metaStream);
+                        archive.write(META_FILENAME, new ByteArrayInputStream(metaStream.toByteArray()));
+                    }
+                    archive.finish();
+                } finally {
+                    try {
+                        if (!parseStarted) {
+                            TikaResource.abandon(parser, is, permit);
+                        }
+                    } finally {
+                        try {
+                            tmp.dispose();
+                        } catch (TikaException e) {
+                            LOG.warn("problem deleting temporary files", e);
+                        }
+                    }
+                }
+            }
+        };
+        return Response.ok(output, mediaType).build();
+    }
+
+    /**
+     * @return the archive type the client prefers
+     */
+    private static MediaType getArchiveType(HttpHeaders httpHeaders) {
+        for (MediaType acceptable : httpHeaders.getAcceptableMediaTypes()) {
+            if (ZIP_TYPE.isCompatible(acceptable)) {
+                return ZIP_TYPE;
+            } else if (TAR_TYPE.isCompatible(acceptable)) {
+                return TAR_TYPE;
+            }
+        }
+        return ZIP_TYPE;
+    }
+
+    /**
+     * Receives the unpacked files.
+     */
+    private interface EntryWriter {
+        void write(String name, InputStream data) throws IOException;
+    }
+
+    private abstract static class ArchiveEntryWriter implements EntryWriter {
+        private int entries = 0;
+
+        @Override
+        public void write(String name, InputStream data) throws IOException {
+            writeEntry(name, data);
+            entries++;
+        }
+
+        int getEntries() {
+            return entries;
+        }
+
+        abstract void writeEntry(String name, InputStream data) throws IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    private static class ZipEntryWriter extends ArchiveEntryWriter {
+        private final ZipArchiveOutputStream zip;
+
+        ZipEntryWriter(OutputStream outputStream) {
+            //the output isn't seekable, so the sizes and checksums
+            //are written in a data descriptor after each entry
+            zip = new ZipArchiveOutputStream(outputStream);
+            zip.setMethod(ZipArchiveOutputStream.DEFLATED);
+            zip.setLevel(Deflater.BEST_SPEED);
+        }
+
+        @Override
+        void writeEntry(String name, InputStream data) throws IOException {
+            zip.putArchiveEntry(new ZipArchiveEntry(name));
+            IOUtils.copy(data, zip);
+            zip.closeArchiveEntry();
+            zip.flush();
+        }
+
+        @Override
+        void finish() throws IOException {
+            zip.finish();
+            zip.flush();
+        }
+    }
+
+    private static class TarEntryWriter extends ArchiveEntryWriter {
+        private final TarArchiveOutputStream tar;
+        private final TemporaryResources tmp;
+
+        TarEntryWriter(OutputStream outputStream, TemporaryResources tmp) {
+            tar = new TarArchiveOutputStream(outputStream);
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            this.tmp = tmp;
+        }
+
+        @Override
+        void writeEntry(String name, InputStream data) throws IOException {
+            //spools to a temporary file only if the length isn't known yet
+            TikaInputStream tis = TikaInputStream.get(data, tmp);
+            TarArchiveEntry entry = new TarArchiveEntry(name);
+            entry.setSize(tis.getLength());
+            tar.putArchiveEntry(entry);
+            IOUtils.copy(tis, tar);
+            tar.closeArchiveEntry();
+            tar.flush();
+        }
+
+        @Override
+        void finish() throws IOException {
+            tar.finish();
+            tar.flush();
+        }
+    }
+
     private class MyEmbeddedDocumentExtractor implements EmbeddedDocumentExtractor {
         private final MutableInt count;
-        private final Map<String, byte[]> zout;
+        private final EntryWriter zout;
+        private final TemporaryResources tmp;
+        private final Set<String> names = new HashSet<>();
 
-        MyEmbeddedDocumentExtractor(MutableInt count, Map<String, byte[]> zout) {
+        MyEmbeddedDocumentExtractor(MutableInt count, EntryWriter zout, TemporaryResources tmp) {
             this.count = count;
             this.zout = zout;
+            this.tmp = tmp;
         }
 
         public boolean shouldParseEmbedded(Metadata metadata) {
@@ -173,9 +414,7 @@ public class UnpackerResource {
         }
 
         public void parseEmbedded(InputStream inputStream, ContentHandler contentHandler, Metadata metadata, boolean b) throws SAXException, IOException {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            IOUtils.copy(inputStream, bos);
-            byte[] data = bos.toByteArray();
+            TikaInputStream data = TikaInputStream.get(inputStream, tmp);
 
             String name = metadata.get(TikaCoreProperties.RESOURCE_NAME_KEY);
             String contentType = metadata.get(org.apache.tika.metadata.HttpHeaders.CONTENT_TYPE);
@@ -196,36 +435,43 @@ public class UnpackerResource {
                 }
             }
 
+            InputStream oleData = null;
             if ("application/vnd.openxmlformats-officedocument.oleObject".equals(contentType)) {
-                POIFSFileSystem poifs = new POIFSFileSystem(new ByteArrayInputStream(data));
-                OfficeParser.POIFSDocumentType type = OfficeParser.POIFSDocumentType.detectType(poifs);
+                //this needs a second pass over the data, so spool it to disk
+                try (POIFSFileSystem poifs = new POIFSFileSystem(data.getFile(), true)) {
+                    OfficeParser.POIFSDocumentType type = OfficeParser.POIFSDocumentType.detectType(poifs);
 
-                if (type == OfficeParser.POIFSDocumentType.OLE10_NATIVE) {
-                    try {
-                        Ole10Native ole = Ole10Native.createFromEmbeddedOleObject(poifs);
-                        if (ole.getDataSize() > 0) {
-                            String label = ole.getLabel();
+                    if (type == OfficeParser.POIFSDocumentType.OLE10_NATIVE) {
+                        try {
+                            Ole10Native ole = Ole10Native.createFromEmbeddedOleObject(poifs);
+                            if (ole.getDataSize() > 0) {
+                                String label = ole.getLabel();
 
-                            if (label.startsWith("ole-")) {
-                                label = Integer.toString(count.intValue()) + '-' + label;
-                            }
+                                if (label.startsWith("ole-")) {
+                                    label = Integer.toString(count.intValue()) + '-' + label;
+                                }
 
-                            name = label;
+                                name = label;
 
-                            data = ole.getDataBuffer();
+                                oleData = new ByteArrayInputStream(ole.getDataBuffer());
+                            }
+                        } catch (Ole10NativeException ex) {
+                            LOG.warn("Skipping invalid part", ex);
                         }
-                    } catch (Ole10NativeException ex) {
-                        LOG.warn("Skipping invalid part", ex);
+                    } else {
+                        name += '.' + type.getExtension();
                     }
-                } else {
-                    name += '.' + type.getExtension();
                 }
             }
 
-            final String finalName = getFinalName(name, zout);
+            final String finalName = getFinalName(name);
 
-            if (data.length > 0) {
-                zout.put(finalName, data);
+            if (oleData != null) {
+                zout.write(finalName, oleData);
+
+                count.increment();
+            } else if (!isEmpty(data)) {
+                zout.write(finalName, data);
 
                 count.increment();
             } else {
@@ -235,17 +481,28 @@ public class UnpackerResource {
                     if (tin.getOpenContainer() != null && tin.getOpenContainer() instanceof DirectoryEntry) {
                         POIFSFileSystem fs = new POIFSFileSystem();
                         copy((DirectoryEntry) tin.getOpenContainer(), fs.getRoot());
-                        ByteArrayOutputStream bos2 = new ByteArrayOutputStream();
-                        fs.writeFilesystem(bos2);
-                        bos2.close();
-
-                        zout.put(finalName, bos2.toByteArray());
+                        File poifsFile = tmp.createTemporaryFile();
+                        try (OutputStream os = Files.newOutputStream(poifsFile.toPath())) {
+                            fs.writeFilesystem(os);
+                        }
+                        try (InputStream poifsStream = Files.newInputStream(poifsFile.toPath())) {
+                            zout.write(finalName, poifsStream);
+                        }
                     }
                 }
             }
         }
 
-        private String getFinalName(String name, Map<String, byte[]> zout) {
+        private boolean isEmpty(TikaInputStream data) throws IOException {
+            data.mark(1);
+            try {
+                return data.read() == -1;
+            } finally {
+                data.reset();
+            }
+        }
+
+        private String getFinalName(String name) {
             name = name.replaceAll("\u0000", " ");
             String normalizedName = FilenameUtils.normalize(name);
 
@@ -261,8 +518,9 @@ public class UnpackerResource {
             if (prefixLength > -1) {
                 normalizedName = normalizedName.substring(prefixLength);
             }
-            if (zout.containsKey(normalizedName)) {
-                return UUID.randomUUID().toString()+"-"+normalizedName;
+            if (!names.add(normalizedName)) {
+                normalizedName = UUID.randomUUID().toString()+"-"+normalizedName;
+                names.add(normalizedName);
             }
             return normalizedName;
         }
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tika.server;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
+import org.apache.cxf.jaxrs.client.WebClient;
+import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.apache.tika.config.TikaConfig;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.serialization.JsonMetadataList;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.parser.utils.CommonsDigester;
+import org.apache.tika.server.resource.RecursiveMetadataResource;
+import org.apache.tika.server.resource.TikaResource;
+import org.apache.tika.server.writer.MetadataListMessageBodyWriter;
+import org.junit.Test;
+
+public class AdmissionControlTest extends CXFTestBase {
+
+    private static final String TIKA_PATH = "/tika";
+    private static final String META_PATH = "/rmeta";
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        //no parses on /tika, and no waiting
+        TikaResource.init(
+                new TikaConfig(getClass().getResourceAsStream("tika-config-for-server-tests.xml")),
+                new CommonsDigester(1024 * 1024, "md5"),
+                new DefaultInputStreamFactory(), new ServerStatus(true),
+                1, new AdmissionControl(2, Collections.singletonMap("tika", 0), 0, 1000));
+    }
+
+    @Override
+    protected void setUpResources(JAXRSServerFactoryBean sf) {
+        sf.setResourceClasses(TikaResource.class, RecursiveMetadataResource.class);
+        sf.setResourceProvider(TikaResource.class,
+                new SingletonResourceProvider(new TikaResource()));
+        sf.setResourceProvider(RecursiveMetadataResource.class,
+                new SingletonResourceProvider(new RecursiveMetadataResource()));
+    }
+
+    @Override
+    protected void setUpProviders(JAXRSServerFactoryBean sf) {
+        List<Object> providers = new ArrayList<>();
+        providers.add(new MetadataListMessageBodyWriter());
+        providers.add(new TikaServerParseExceptionMapper(false));
+        sf.setProviders(providers);
+    }
+
+    @Test
+    public void testRejected() throws Exception {
+        Response response = WebClient.create(endPoint + TIKA_PATH)
+                .type("application/msword")
+                .accept("text/plain")
+                .put(ClassLoader.getSystemResourceAsStream(TikaResourceTest.TEST_DOC));
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeaderString("Retry-After"));
+    }
+
+    @Test
+    public void testStreamingRejected() throws Exception {
+        //the 503 has to come before the streamed response is committed
+        TikaResource.init(
+                new TikaConfig(getClass().getResourceAsStream("tika-config-for-server-tests.xml")),
+                new CommonsDigester(1024 * 1024, "md5"),
+                new DefaultInputStreamFactory(), new ServerStatus(true),
+                1, new AdmissionControl(2, Collections.singletonMap("rmeta", 0), 0, 1000));
+        Response response = WebClient.create(endPoint + META_PATH + "/stream")
+                .accept("application/json")
+                .put(ClassLoader.getSystemResourceAsStream(TikaResourceTest.TEST_DOC));
+        assertEquals(503, response.getStatus());
+    }
+
+    @Test
+    public void testAbandon() throws Exception {
+        //a streamed request whose parse never starts must give its slot back
+        for (int i = 0; i < 3; i++) {
+            Parser parser = TikaResource.createParser();
+            InputStream is = new ByteArrayInputStream(new byte[0]);
+            AdmissionControl.Permit permit = TikaResource.admit(parser, "rmeta/stream", is);
+            TikaResource.abandon(parser, is, permit);
+        }
+        List<Metadata> metadataList = rmeta(null);
+        assertContains("text/html", metadataList.get(0).get(Metadata.CONTENT_TYPE));
+    }
+
+    @Test
+    public void testPooledParserIsReset() throws Exception {
+        //the content type override must not leak into the next request
+        List<Metadata> metadataList = rmeta("text/plain");
+        assertContains("text/plain", metadataList.get(0).get(Metadata.CONTENT_TYPE));
+
+        metadataList = rmeta(null);
+        assertContains("text/html", metadataList.get(0).get(Metadata.CONTENT_TYPE));
+    }
+
+    @Test
+    public void testLimits() throws Exception {
+        Map<String, Integer> endpoints = new HashMap<>();
+        endpoints.put("RMeta", 1);
+        AdmissionControl admission = new AdmissionControl(-1, endpoints, 0, 10);
+
+        AdmissionControl.Permit permit = admission.acquire("/rmeta/text");
+        assertUnavailable(admission, "rmeta");
+        //other endpoints are unlimited
+        admission.acquire("tika").close();
+
+        permit.close();
+        //closing twice must not release a second slot
+        permit.close();
+        permit = admission.acquire("rmeta");
+        assertUnavailable(admission, "rmeta/xml");
+        permit.close();
+        assertEquals(0, admission.getQueued());
+    }
+
+    @Test
+    public void testQueued() throws Exception {
+        final AdmissionControl admission =
+                new AdmissionControl(1, Collections.<String, Integer>emptyMap(), 1, 60000);
+        AdmissionControl.Permit permit = admission.acquire("tika");
+        final AdmissionControl.Permit[] waiter = new AdmissionControl.Permit[1];
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                waiter[0] = admission.acquire("tika");
+            }
+        });
+        t.start();
+        while (admission.getQueued() == 0) {
+            Thread.sleep(10);
+        }
+        //queue is full
+        assertUnavailable(admission, "tika");
+
+        permit.close();
+        t.join(60000);
+        assertTrue(waiter[0] != null);
+        waiter[0].close();
+        assertEquals(0, admission.getQueued());
+    }
+
+    @Test
+    public void testParseEndpointLimits() {
+        Map<String, Integer> limits = AdmissionControl.parseEndpointLimits(" rmeta:2, unpack:1,");
+        assertEquals(2, limits.size());
+        assertEquals(2, (int) limits.get("rmeta"));
+        assertEquals(1, (int) limits.get("unpack"));
+        try {
+            AdmissionControl.parseEndpointLimits("rmeta");
+            fail("should have thrown IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    private List<Metadata> rmeta(String contentType) throws Exception {
+        WebClient client = WebClient.create(endPoint + META_PATH).accept("application/json");
+        if (contentType != null) {
+            client.type(contentType);
+        }
+        Response response = client.put(ClassLoader.getSystemResourceAsStream("testHTML.html"));
+        assertEquals(200, response.getStatus());
+        Reader reader = new InputStreamReader((InputStream) response.getEntity(), UTF_8);
+        return JsonMetadataList.fromJson(reader);
+    }
+
+    private static void assertUnavailable(AdmissionControl admission, String path) {
+        try {
+            admission.acquire(path).close();
+            fail("should have been rejected");
+        } catch (WebApplicationException e) {
+            assertEquals(503, e.getResponse().getStatus());
+        }
+    }
+}
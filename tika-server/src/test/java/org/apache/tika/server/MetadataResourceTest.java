@@ -37,10 +37,13 @@ import org.apache.cxf.helpers.IOUtils;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
+import org.apache.tika.config.TikaConfig;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.metadata.serialization.JsonMetadata;
+import org.apache.tika.parser.utils.CommonsDigester;
 import org.apache.tika.server.resource.MetadataResource;
+import org.apache.tika.server.resource.TikaResource;
 import org.apache.tika.server.writer.CSVMessageBodyWriter;
 import org.apache.tika.server.writer.JSONMessageBodyWriter;
 import org.apache.tika.server.writer.TextMessageBodyWriter;
@@ -95,6 +98,25 @@ public class MetadataResourceTest extends CXFTestBase {
                 metadata.get("X-TIKA:digest:MD5"));
     }
 
+    @Test
+    public void testDigestInline() throws Exception {
+        TikaConfig tika = new TikaConfig(getClass().getResourceAsStream("tika-config-for-server-tests.xml"));
+        TikaResource.init(tika, new CommonsDigester(20 * 1024 * 1024, "md5,sha1:32"), true,
+                new DefaultInputStreamFactory(), new ServerStatus(true), 0, null);
+        Response response = WebClient
+                .create(endPoint + META_PATH)
+                .type("application/msword")
+                .accept("application/json")
+                .put(ClassLoader
+                        .getSystemResourceAsStream(TikaResourceTest.TEST_DOC));
+
+        Reader reader = new InputStreamReader((InputStream) response.getEntity(), UTF_8);
+        Metadata metadata = JsonMetadata.fromJson(reader);
+        assertEquals("Maxim Valyanskiy", metadata.get(TikaCoreProperties.CREATOR));
+        assertEquals("X-TIKA:digest:MD5", "f8be45c34e8919eedba48cc8d207fbf0",
+                metadata.get("X-TIKA:digest:MD5"));
+    }
+
     @Test
     public void testPasswordProtected() throws Exception {
         Response response = WebClient
@@ -52,6 +52,7 @@ public class RecursiveMetadataResourceTest extends CXFTestBase {
     private static final String META_PATH = "/rmeta";
     private static final String TEXT_PATH = "/text";
     private static final String IGNORE_PATH = "/ignore";
+    private static final String STREAM_PATH = "/stream";
     private static final String XML_PATH = "/xml";
     private static final String UNPARSEABLE_PATH = "/somethingOrOther";
     private static final String SLASH = "/";
@@ -283,4 +284,58 @@ public class RecursiveMetadataResourceTest extends CXFTestBase {
         assertNull(metadataList.get(6).get(AbstractRecursiveParserWrapperHandler.TIKA_CONTENT));
     }
 
+    @Test
+    public void testStreaming() throws Exception {
+        Response response = WebClient
+                .create(endPoint + META_PATH + TEXT_PATH)
+                .accept("application/json")
+                .put(ClassLoader.getSystemResourceAsStream(TEST_RECURSIVE_DOC));
+        Reader reader = new InputStreamReader((InputStream) response.getEntity(), UTF_8);
+        List<Metadata> expected = JsonMetadataList.fromJson(reader);
+
+        response = WebClient
+                .create(endPoint + META_PATH + STREAM_PATH + TEXT_PATH)
+                .accept("application/json")
+                .put(ClassLoader.getSystemResourceAsStream(TEST_RECURSIVE_DOC));
+        assertEquals(200, response.getStatus());
+        reader = new InputStreamReader((InputStream) response.getEntity(), UTF_8);
+        List<Metadata> metadataList = JsonMetadataList.fromJson(reader);
+
+        assertEquals(12, metadataList.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).get(RecursiveParserWrapperHandler.EMBEDDED_RESOURCE_PATH),
+                    metadataList.get(i).get(RecursiveParserWrapperHandler.EMBEDDED_RESOURCE_PATH));
+            assertEquals(expected.get(i).get(RecursiveParserWrapperHandler.TIKA_CONTENT),
+                    metadataList.get(i).get(RecursiveParserWrapperHandler.TIKA_CONTENT));
+        }
+        assertTrue(metadataList.get(6).get(RecursiveParserWrapperHandler.TIKA_CONTENT).trim().startsWith("embed_3"));
+        assertEquals("a38e6c7b38541af87148dee9634cb811", metadataList.get(10).get("X-TIKA:digest:MD5"));
+
+        //default handler is xml
+        response = WebClient
+                .create(endPoint + META_PATH + STREAM_PATH)
+                .accept("application/json")
+                .put(ClassLoader.getSystemResourceAsStream(TEST_RECURSIVE_DOC));
+        reader = new InputStreamReader((InputStream) response.getEntity(), UTF_8);
+        metadataList = JsonMetadataList.fromJson(reader);
+        assertEquals(12, metadataList.size());
+        assertContains("<html", metadataList.get(6).get(RecursiveParserWrapperHandler.TIKA_CONTENT));
+    }
+
+    @Test
+    public void testStreamingException() throws Exception {
+        Response response = WebClient
+                .create(endPoint + META_PATH + STREAM_PATH)
+                .type("application/vnd.ms-excel")
+                .accept("application/json")
+                .put(ClassLoader
+                        .getSystemResourceAsStream(TikaResourceTest.TEST_PASSWORD_PROTECTED));
+
+        assertEquals(200, response.getStatus());
+        Reader reader = new InputStreamReader((InputStream) response.getEntity(), UTF_8);
+        List<Metadata> metadataList = JsonMetadataList.fromJson(reader);
+        assertEquals(1, metadataList.size());
+        assertContains("org.apache.tika.exception.EncryptedDocumentException",
+                metadataList.get(0).get(RecursiveParserWrapperHandler.CONTAINER_EXCEPTION));
+    }
 }
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.cxf.jaxrs.JAXRSServerFactoryBean;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.apache.cxf.jaxrs.lifecycle.SingletonResourceProvider;
@@ -43,6 +44,8 @@ public class UnpackerResourceTest extends CXFTestBase {
     private static final String BASE_PATH = "/unpack";
     private static final String UNPACKER_PATH = BASE_PATH + "";
     private static final String ALL_PATH = BASE_PATH + "/all";
+    private static final String STREAM_PATH = BASE_PATH + "/stream";
+    private static final String STREAM_ALL_PATH = STREAM_PATH + "/all";
 
     private static final String TEST_DOC_WAV = "Doc1_ole.doc";
     private static final String WAV1_MD5 = "bdd0a78a54968e362445364f95d8dc96";
@@ -212,4 +215,57 @@ public class UnpackerResourceTest extends CXFTestBase {
                 //Java 11 -- underlying image libraries generate a diff image in Java 11
                 md5.equals("58b8269d1a584b7e8c1adcb936123923"));
     }
+
+    @Test
+    public void testStreamingDocWAV() throws Exception {
+        Response response = WebClient.create(endPoint + STREAM_PATH)
+                .type(APPLICATION_MSWORD).accept("application/zip")
+                .put(ClassLoader.getSystemResourceAsStream(TEST_DOC_WAV));
+
+        assertEquals("application/zip", response.getMediaType().toString());
+        Map<String, String> data = readArchiveFromStream(
+                new ZipArchiveInputStream((InputStream) response.getEntity()));
+        assertEquals(WAV1_MD5, data.get(WAV1_NAME));
+        assertEquals(WAV2_MD5, data.get(WAV2_NAME));
+        assertEquals(JPG_MD5, data.get(JPG_NAME));
+        assertFalse(data.containsKey(UnpackerResource.TEXT_FILENAME));
+    }
+
+    @Test
+    public void testStreamingTar() throws Exception {
+        Response response = WebClient.create(endPoint + STREAM_PATH)
+                .accept("application/x-tar")
+                .put(ClassLoader.getSystemResourceAsStream(TEST_DOCX_IMAGE));
+
+        assertEquals("application/x-tar", response.getMediaType().toString());
+        Map<String, String> data = readArchiveFromStream(
+                new TarArchiveInputStream((InputStream) response.getEntity()));
+        assertEquals(DOCX_IMAGE1_MD5, data.get(DOCX_IMAGE1_NAME));
+        assertEquals(DOCX_IMAGE2_MD5, data.get(DOCX_IMAGE2_NAME));
+    }
+
+    @Test
+    public void testStreamingNoEmbedded() throws Exception {
+        Response response = WebClient.create(endPoint + STREAM_PATH)
+                .type("xxx/xxx")
+                .accept("*/*")
+                .put(ClassLoader.getSystemResourceAsStream(TEST_DOC_WAV));
+
+        assertEquals(200, response.getStatus());
+        Map<String, String> data = readArchiveFromStream(
+                new ZipArchiveInputStream((InputStream) response.getEntity()));
+        assertTrue(data.isEmpty());
+    }
+
+    @Test
+    public void testStreamingText() throws Exception {
+        Response response = WebClient.create(endPoint + STREAM_ALL_PATH)
+                .header(CONTENT_TYPE, APPLICATION_XML)
+                .accept("application/zip")
+                .put(ClassLoader.getSystemResourceAsStream("test.doc"));
+
+        String responseMsg = readArchiveText((InputStream) response.getEntity());
+        assertNotNull(responseMsg);
+        assertTrue(responseMsg.contains("test"));
+    }
 }